@@ -32,6 +32,11 @@ public interface AutoCompletionSlotProvider {
 
 	String EXTENSION_POINT_COMPLETION_PROVIDER = "AutoCompletionSlotProvider";
 
+	/**
+	 * Name of the action providing the completions of the defined terms, see {@link TermCompletionAction}.
+	 */
+	String TERM_COMPLETION_ACTION = "TermCompletionAction";
+
 	/**
 	 * Initializes the AutoCompletionSlotProvider to be ready for use
 	 *
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.completion;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.denkbares.strings.Identifier;
+import de.knowwe.core.Attributes;
+import de.knowwe.core.action.AbstractAction;
+import de.knowwe.core.action.Action;
+import de.knowwe.core.action.UserActionContext;
+import de.knowwe.core.compile.terminology.TerminologyManager;
+import de.knowwe.core.kdom.parsing.Section;
+import de.knowwe.core.kdom.parsing.Sections;
+import de.knowwe.core.utils.KnowWEUtils;
+
+/**
+ * Returns the defined terms starting with a prefix, to be used by auto completions while editing. If a section is
+ * specified, only the terms of the compilers of the section are completed, otherwise the terms of all term compilers
+ * of the wiki. The terms are looked up in the prefix tries of the {@link TerminologyManager}s, so the response time
+ * does not depend on the size of the knowledge bases.
+ * <p>
+ * Parameters: <tt>prefix</tt> (the text typed so far), <tt>caseSensitive</tt> (default false), <tt>maxCount</tt>
+ * (default 20) and optionally the <tt>SectionID</tt>. The response is a JSON array of objects with the completed
+ * <tt>term</tt>, the full <tt>identifier</tt> and the simple names of the term <tt>classes</tt>.
+ *
+ * @created 17.10.2026
+ */
+public class TermCompletionAction extends AbstractAction {
+
+	private static final int DEFAULT_MAX_COUNT = 20;
+
+	@Override
+	public void execute(UserActionContext context) throws IOException {
+		String prefix = context.getParameter("prefix", "");
+		boolean caseSensitive = Boolean.parseBoolean(context.getParameter("caseSensitive", "false"));
+		int maxCount = DEFAULT_MAX_COUNT;
+		try {
+			maxCount = Integer.parseInt(context.getParameter("maxCount", String.valueOf(DEFAULT_MAX_COUNT)));
+		}
+		catch (NumberFormatException ignored) {
+			// use default
+		}
+		maxCount = Math.max(0, maxCount);
+
+		Collection<TerminologyManager> managers = getTerminologyManagers(context);
+
+		// every manager returns its first completions in lexicographical order, so the first completions of the
+		// merged and sorted completions are the first completions across all managers
+		TreeMap<String, Identifier> completions = new TreeMap<>();
+		for (TerminologyManager manager : managers) {
+			for (Identifier identifier : manager.getDefinedTermsStartingWith(prefix, caseSensitive, maxCount)) {
+				String name = identifier.getLastPathElement();
+				if (!caseSensitive) name = name.toLowerCase(Locale.ROOT);
+				completions.putIfAbsent(name + '\u0000' + identifier.toExternalForm(), identifier);
+			}
+		}
+
+		JSONArray response = new JSONArray();
+		try {
+			for (Identifier identifier : completions.values()) {
+				if (response.length() >= maxCount) break;
+				JSONArray classes = new JSONArray();
+				Set<String> classNames = new LinkedHashSet<>();
+				for (TerminologyManager manager : managers) {
+					for (Class<?> termClass : manager.getTermClasses(identifier)) {
+						classNames.add(termClass.getSimpleName());
+					}
+				}
+				classNames.forEach(classes::put);
+				JSONObject completion = new JSONObject();
+				completion.put("term", identifier.getLastPathElement());
+				completion.put("identifier", identifier.toExternalForm());
+				completion.put("classes", classes);
+				response.put(completion);
+			}
+			context.setContentType(Action.JSON);
+			response.write(context.getWriter());
+		}
+		catch (JSONException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private Collection<TerminologyManager> getTerminologyManagers(UserActionContext context) {
+		String sectionId = context.getParameter(Attributes.SECTION_ID);
+		if (sectionId != null) {
+			Section<?> section = Sections.get(sectionId);
+			if (section != null) return KnowWEUtils.getTerminologyManagers(section);
+		}
+		return KnowWEUtils.getTerminologyManagers(context.getArticleManager());
+	}
+}
@@ -18,9 +18,13 @@
  */
 package de.knowwe.core.correction;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import com.denkbares.strings.Identifier;
 import de.knowwe.core.compile.terminology.TermCompiler;
+import de.knowwe.core.compile.terminology.TerminologyManager;
 import de.knowwe.core.kdom.parsing.Section;
 
 /**
@@ -49,7 +53,27 @@ public interface CorrectionProvider {
 	 * @return A list of {@link Suggestion} objects containing the found suggestions and their distances.
 	 */
 	List<Suggestion> getSuggestions(TermCompiler compiler, Section<?> section, int threshold);
-	
 
-	
+	/**
+	 * Returns suggestions for the terms of the specified class defined in the specified compiler, that have a
+	 * levenshtein distance of no more than <tt>threshold</tt> to the specified text. The text is compared with the
+	 * last path elements of the terms, using the fuzzy index of the terminology manager of the compiler instead of
+	 * comparing the text with each defined term.
+	 *
+	 * @param compiler  the compiler to get the defined terms from
+	 * @param text      the text to get the suggestions for
+	 * @param termClass the class of the suggested terms, may be null to suggest terms of all classes
+	 * @param threshold the maximum levenshtein distance suggestions can have
+	 * @return the suggestions for the similar terms
+	 * @created 17.10.2026
+	 */
+	default List<Suggestion> getSimilarTermSuggestions(TermCompiler compiler, String text, Class<?> termClass, int threshold) {
+		List<Suggestion> suggestions = new ArrayList<>();
+		Map<Identifier, Integer> matches = compiler.getTerminologyManager()
+				.getDefinedTermsWithinDistance(text, threshold, termClass, TerminologyManager.TermKey.lastPathElement);
+		for (Map.Entry<Identifier, Integer> match : matches.entrySet()) {
+			suggestions.add(new DefaultSuggestion(match.getKey().getLastPathElement(), match.getValue()));
+		}
+		return suggestions;
+	}
 }
@@ -81,6 +81,7 @@ public class CorrectionToolProvider extends AbstractCorrectionToolProvider {
 					if (suggestions.size() >= maxCount) break;
 				}
 			}
+			if (suggestions.size() >= maxCount) break;
 		}
 		return suggestions;
 	}
@@ -3,6 +3,7 @@ package org.apache.wiki.providers;
 import java.util.TimerTask;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
@@ -20,8 +21,12 @@ public class GitAutoUpdateScheduler {
 	private static final Logger log = Logger.getLogger(GitAutoUpdateScheduler.class);
 	private static final String JSPWIKI_GIT_AUTOUPDATE_INIT_DELAY = "jspwiki.git.autoupdate.initDelay";
 	private static final String JSPWIKI_GIT_AUTOUPDATE_DELAY = "jspwiki.git.autoupdate.delay";
+	private static final String JSPWIKI_GIT_AUTOUPDATE_GC_DELAY = "jspwiki.git.autoupdate.gcDelay";
 	private ScheduledExecutorService scheduler;
+	private ScheduledExecutorService maintenance;
+	private ScheduledFuture<?> pendingGc;
 	private WikiEngine engine;
+	private GitVersioningFileProvider fileProvider;
 	private TimerTask t;
 
 	GitAutoUpdateScheduler(){
@@ -29,8 +34,9 @@ public class GitAutoUpdateScheduler {
 	}
 
 	public void initialize(WikiEngine engine, GitVersioningFileProvider fileProvider){
-		GitAutoUpdater updater = new GitAutoUpdater(engine, fileProvider);
+		GitAutoUpdater updater = new GitAutoUpdater(engine, fileProvider, this);
 		this.engine = engine;
+		this.fileProvider = fileProvider;
 		t = new TimerTask() {
 			boolean running = false;
 			@Override
@@ -56,6 +62,45 @@ public class GitAutoUpdateScheduler {
 
 	public void shutdown(){
 		this.scheduler.shutdown();
+		synchronized (this) {
+			// a pending gc must not run once the repository may already be closed
+			if (pendingGc != null) pendingGc.cancel(false);
+			if (maintenance != null) maintenance.shutdownNow();
+		}
+	}
+
+	/**
+	 * Schedules a gc of the repository after the configured delay, so updates are not blocked by the gc. Requests
+	 * arriving while a gc is pending are coalesced into the pending one.
+	 */
+	synchronized void scheduleGc() {
+		if (pendingGc != null && !pendingGc.isDone()) return;
+		if (maintenance == null || maintenance.isShutdown()) {
+			maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "KnowWE-Git-Maintenance");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		int gcDelay = TextUtil.getIntegerProperty(engine.getWikiProperties(), JSPWIKI_GIT_AUTOUPDATE_GC_DELAY, 300);
+		pendingGc = maintenance.schedule(this::gc, gcDelay, TimeUnit.SECONDS);
+	}
+
+	private void gc() {
+		fileProvider.canWriteFileLock();
+		fileProvider.commitLock();
+		try {
+			Log.info("Start gc of wiki repository");
+			GitVersioningUtils.gitGc(true, fileProvider.needsWindowsHack(), fileProvider.repository, false);
+			Log.info("End gc of wiki repository");
+		}
+		catch (Throwable t) {
+			log.error("Unexpected error while running gc", t);
+		}
+		finally {
+			fileProvider.commitUnlock();
+			fileProvider.writeFileUnlock();
+		}
 	}
 
 	public void pauseAutoUpdate() {
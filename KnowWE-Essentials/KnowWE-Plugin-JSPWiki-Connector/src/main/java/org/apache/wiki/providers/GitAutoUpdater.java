@@ -3,10 +3,13 @@ package org.apache.wiki.providers;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.apache.commons.lang3.time.StopWatch;
@@ -30,20 +33,16 @@ import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.JGitInternalException;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
-import org.eclipse.jgit.diff.RenameDetector;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.merge.MergeStrategy;
 import org.eclipse.jgit.revwalk.RevCommit;
-import org.eclipse.jgit.revwalk.RevSort;
-import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.transport.FetchResult;
 import org.eclipse.jgit.transport.TrackingRefUpdate;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
-import org.eclipse.jgit.treewalk.TreeWalk;
 import org.eclipse.jgit.util.io.DisabledOutputStream;
 
 import com.denkbares.events.EventManager;
@@ -51,8 +50,8 @@ import com.denkbares.utils.Log;
 import de.knowwe.core.ArticleManager;
 import de.knowwe.core.Environment;
 import de.knowwe.core.compile.Compilers;
-import de.knowwe.core.kdom.Article;
-import de.knowwe.event.FullParseEvent;
+import de.knowwe.event.AttachmentDeletedEvent;
+import de.knowwe.event.AttachmentStoredEvent;
 
 import static de.knowwe.core.utils.KnowWEUtils.getDefaultArticleManager;
 
@@ -67,10 +66,12 @@ public class GitAutoUpdater {
 	private final GitVersioningFileProvider fileProvider;
 	private final WikiEngine engine;
 	private final Repository repository;
+	private final GitAutoUpdateScheduler scheduler;
 	private static boolean running;
 
-	public GitAutoUpdater(WikiEngine engine, GitVersioningFileProvider fileProvider) {
+	public GitAutoUpdater(WikiEngine engine, GitVersioningFileProvider fileProvider, GitAutoUpdateScheduler scheduler) {
 		this.fileProvider = fileProvider;
+		this.scheduler = scheduler;
 		repository = fileProvider.repository;
 		this.engine = engine;
 	}
@@ -146,59 +147,21 @@ public class GitAutoUpdater {
 						}
 					}
 				}
-				GitVersioningUtils.gitGc(true, fileProvider.needsWindowsHack(),repository, false);
+				// the version cache only indexes the new commits, gc is deferred to the maintenance of the scheduler
 				fileProvider.getCache().initializeCache();
 				fileProvider.pushUnlock();
+				scheduler.scheduleGc();
 				ObjectId newHead = fileProvider.repository.resolve(Constants.HEAD);
-				String title = null;
 				if (!oldHeadCommit.equals(newHead)) {
 					log.info("Read changes after rebase");
 					try {
 						fileProvider.canWriteFileLock();
-						RevCommit newHeadCommit = revWalk.parseCommit(newHead);
-
-						Iterable<RevCommit> call = git.log().addRange(oldHeadCommit, newHeadCommit).call();
-
-						final ObjectReader objectReader = this.repository.newObjectReader();
-						final CanonicalTreeParser oldTreeParser = new CanonicalTreeParser();
-						final CanonicalTreeParser newTreeParser = new CanonicalTreeParser();
-						final DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
-						diffFormatter.setRepository(this.repository);
-						revWalk.reset();
-						revWalk.sort(RevSort.REVERSE);
-						revWalk.markStart(newHeadCommit);
-						revWalk.parseCommit(oldHead);
-						Iterator<RevCommit> iterator = revWalk.iterator();
-						boolean parse = false;
-						Set<String> refreshedPages = new TreeSet<>();
-	//					resetCiBuildCache();
-						while (iterator.hasNext()) {
-							RevCommit commit = iterator.next();
-							if (commit.equals(oldHeadCommit)) {
-								parse = true;
-								continue;
-							}
-							if (parse) {
-								mapRevCommit(objectReader, oldTreeParser, newTreeParser, diffFormatter, commit, refreshedPages);
-							}
-						}
-						log.info("Beginn compile");
-
-//							articleManager.open();
-						if (!refreshedPages.isEmpty())
-							WikiEventManager.fireEvent(fileProvider, new GitRefreshCacheEvent(fileProvider, GitRefreshCacheEvent.UPDATE, refreshedPages));
-
-						title = refreshedPages.stream().filter(p->p.contains("GVA_Gesamt") && p.contains("vm_gva_objekte")).findFirst().orElse(null);
+						readChanges(articleManager, oldHeadCommit, revWalk.parseCommit(newHead));
 					}
 					finally {
 						fileProvider.writeFileUnlock();
 					}
 				}
-				if(title != null){
-					log.info("do full parse");
-					Article article = Environment.getInstance().getArticle(Environment.DEFAULT_WEB, title);
-					EventManager.getInstance().fireEvent(new FullParseEvent(article));
-				}
 				stopWatch.stop();
 				Log.info("Update of wiki lasts "+ stopWatch);
 			}
@@ -228,60 +191,92 @@ public class GitAutoUpdater {
 		}
 	}
 
-	private void mapRevCommit(ObjectReader objectReader, CanonicalTreeParser oldTreeParser, CanonicalTreeParser newTreeParser, DiffFormatter diffFormatter, RevCommit commit, Collection<String> refreshedPages) throws IOException {
-		final RevCommit[] parents = commit.getParents();
-		RevTree tree = commit.getTree();
-		if (parents.length > 0) {
-			oldTreeParser.reset(objectReader, commit.getParent(0)
-					.getTree());
-			newTreeParser.reset(objectReader, tree);
-			List<DiffEntry> diffs = diffFormatter.scan(oldTreeParser, newTreeParser);
-			RenameDetector rd = new RenameDetector(repository);
-			rd.addAll(diffs);
-			diffs = rd.compute();
-			for (final DiffEntry diff : diffs) {
-				String path;
-				if (diff.getChangeType() == DiffEntry.ChangeType.MODIFY) {
-					path = diff.getOldPath();
-					if (path != null) {
-//						cache.mapCommit(commit, path);
-						String toUpdate = refreshWikiCache(path);
-						choosePageForEvent(refreshedPages, toUpdate);
-					}
-				}
-				else if (diff.getChangeType() == DiffEntry.ChangeType.ADD) {
-					path = diff.getNewPath();
-					if (path != null) {
-//						cache.mapCommit(commit, path);
-						String toUpdate = refreshWikiCache(path);
-						choosePageForEvent(refreshedPages, toUpdate);
-					}
-				}
-				else if (diff.getChangeType() == DiffEntry.ChangeType.DELETE) {
-//					cache.mapDelete(commit, diff.getOldPath());
-					String toUpdate = refreshWikiCache(diff.getOldPath());
-					choosePageForEvent(refreshedPages, toUpdate);
-				}
-				else if (diff.getChangeType() == DiffEntry.ChangeType.RENAME) {
-//					cache.mapMove(commit, diff.getOldPath(), diff.getNewPath());
-					String toDelete = refreshWikiCache(diff.getOldPath());
-					choosePageForEvent(refreshedPages, toDelete);
-					String toAdd = refreshWikiCache(diff.getNewPath());
-					choosePageForEvent(refreshedPages, toAdd);
+	/**
+	 * Reloads the pages and attachments changed between the specified commits into the caches of the wiki and queues
+	 * the changed articles at the article manager. Pages and attachments not touched by the commit range are left
+	 * untouched.
+	 */
+	void readChanges(ArticleManager articleManager, RevCommit oldHeadCommit, RevCommit newHeadCommit) throws IOException {
+		Map<String, DiffEntry.ChangeType> changedPaths = getChangedPaths(oldHeadCommit, newHeadCommit);
+		log.info(changedPaths.size() + " files changed by the update");
 
-				}
+		Set<String> refreshedPages = new TreeSet<>();
+		Map<String, Boolean> changedArticles = new TreeMap<>();
+		List<Attachment> storedAttachments = new ArrayList<>();
+		List<Attachment> deletedAttachments = new ArrayList<>();
+		for (Map.Entry<String, DiffEntry.ChangeType> entry : changedPaths.entrySet()) {
+			boolean deleted = entry.getValue() == DiffEntry.ChangeType.DELETE;
+			WikiPage toUpdate = refreshWikiCache(entry.getKey());
+			if (toUpdate == null) continue;
+			choosePageForEvent(refreshedPages, toUpdate.getName());
+			if (toUpdate instanceof Attachment) {
+				(deleted ? deletedAttachments : storedAttachments).add((Attachment) toUpdate);
+			}
+			else {
+				changedArticles.put(toUpdate.getName(), deleted);
 			}
 		}
-		else {
-			final TreeWalk tw = new TreeWalk(this.repository);
-			tw.reset(tree);
-			tw.setRecursive(true);
-			while (tw.next()) {
-//				cache.mapCommit(commit, tw.getPathString());
-				String toUpdate = refreshWikiCache(tw.getPathString());
-				choosePageForEvent(refreshedPages, toUpdate);
+
+		if (!refreshedPages.isEmpty())
+			WikiEventManager.fireEvent(fileProvider, new GitRefreshCacheEvent(fileProvider, GitRefreshCacheEvent.UPDATE, refreshedPages));
+
+		// the articles are compiled together when committing the article manager
+		log.info("Queue " + changedArticles.size() + " changed articles");
+		for (Map.Entry<String, Boolean> entry : changedArticles.entrySet()) {
+			String title = entry.getKey();
+			if (entry.getValue()) {
+				if (articleManager.getArticle(title) != null) articleManager.deleteArticle(title);
+			}
+			else {
+				articleManager.registerArticle(title, engine.getPureText(title, WikiProvider.LATEST_VERSION));
+			}
+		}
+		for (Attachment attachment : storedAttachments) {
+			EventManager.getInstance().fireEvent(new AttachmentStoredEvent(articleManager.getWeb(),
+					attachment.getParentName(), attachment.getFileName()));
+		}
+		for (Attachment attachment : deletedAttachments) {
+			EventManager.getInstance().fireEvent(new AttachmentDeletedEvent(articleManager.getWeb(),
+					attachment.getParentName(), attachment.getFileName()));
+		}
+	}
+
+	/**
+	 * Returns the paths of pages and attachments changed between the specified commits, by diffing their trees once
+	 * instead of diffing every commit in between. A renamed file is returned as deleted at its old path and added at its
+	 * new path.
+	 */
+	private Map<String, DiffEntry.ChangeType> getChangedPaths(RevCommit oldCommit, RevCommit newCommit) throws IOException {
+		Map<String, DiffEntry.ChangeType> changedPaths = new LinkedHashMap<>();
+		try (ObjectReader objectReader = this.repository.newObjectReader();
+			 DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+			diffFormatter.setRepository(this.repository);
+			CanonicalTreeParser oldTreeParser = new CanonicalTreeParser();
+			CanonicalTreeParser newTreeParser = new CanonicalTreeParser();
+			oldTreeParser.reset(objectReader, oldCommit.getTree());
+			newTreeParser.reset(objectReader, newCommit.getTree());
+			for (DiffEntry diff : diffFormatter.scan(oldTreeParser, newTreeParser)) {
+				if (diff.getChangeType() == DiffEntry.ChangeType.DELETE) {
+					if (isWikiPath(diff.getOldPath())) changedPaths.put(diff.getOldPath(), DiffEntry.ChangeType.DELETE);
+				}
+				else {
+					if (isWikiPath(diff.getNewPath())) changedPaths.put(diff.getNewPath(), diff.getChangeType());
+				}
 			}
 		}
+		return changedPaths;
+	}
+
+	/**
+	 * Returns whether the path is a page or an attachment of the wiki, and is not ignored by the provider. Other files
+	 * of the repository, e.g. the <tt>.gitignore</tt>, must not become articles.
+	 */
+	private boolean isWikiPath(String path) {
+		Boolean ignored = fileProvider.getIgnoreNode().checkIgnored(path, false);
+		if (ignored != null && ignored) return false;
+		String[] segments = path.split("/");
+		if (segments.length == 1) return path.endsWith(GitVersioningFileProvider.FILE_EXT);
+		return segments.length == 2 && segments[0].endsWith(GitVersioningAttachmentProvider.DIR_EXTENSION);
 	}
 
 	private void choosePageForEvent(Collection<String> refreshedPages, String toUpdate) {
@@ -297,7 +292,7 @@ public class GitAutoUpdater {
 		}
 	}
 
-	private String refreshWikiCache(String path) {
+	private WikiPage refreshWikiCache(String path) {
 		try {
 			WikiPage toRefresh;
 			if (path.contains("/")) {
@@ -317,7 +312,7 @@ public class GitAutoUpdater {
 			if(page!=null)
 				log.info(page.getName());
 
-			return toRefresh.getName();
+			return toRefresh;
 		}
 		catch (ProviderException e) {
 			log.error("error refreshing cache", e);
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.apache.wiki.providers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * Size bounded cache of the contents of git blobs, used to read old versions of pages and attachments. As blobs are
+ * immutable and addressed by their content, cached contents never have to be invalidated. The least recently used
+ * contents are evicted if the cache exceeds its size, blobs larger than a sixteenth of the size are not cached at all.
+ *
+ * @created 17.10.2026
+ */
+final class GitBlobCache {
+
+	private final Repository repository;
+	private final long maxBytes;
+	private final long maxBlobBytes;
+
+	private final LinkedHashMap<ObjectId, byte[]> blobs = new LinkedHashMap<>(64, 0.75f, true);
+	private long bytes = 0;
+
+	GitBlobCache(Repository repository, long maxBytes) {
+		this.repository = repository;
+		this.maxBytes = maxBytes;
+		this.maxBlobBytes = maxBytes / 16;
+	}
+
+	/**
+	 * Returns the content of the specified blob.
+	 *
+	 * @param blobId the id of the blob
+	 * @return the content of the blob
+	 * @throws IOException if the blob cannot be read
+	 */
+	byte[] getBytes(ObjectId blobId) throws IOException {
+		byte[] cached = get(blobId);
+		if (cached != null) return cached;
+		ObjectLoader loader = repository.open(blobId);
+		byte[] content = loader.getBytes();
+		put(blobId, content);
+		return content;
+	}
+
+	/**
+	 * Opens a stream of the content of the specified blob. The content of large blobs is streamed from the repository
+	 * without being cached.
+	 *
+	 * @param blobId the id of the blob
+	 * @return the content of the blob
+	 * @throws IOException if the blob cannot be read
+	 */
+	InputStream openStream(ObjectId blobId) throws IOException {
+		byte[] cached = get(blobId);
+		if (cached != null) return new ByteArrayInputStream(cached);
+		ObjectLoader loader = repository.open(blobId);
+		if (loader.isLarge() || loader.getSize() > maxBlobBytes) return loader.openStream();
+		byte[] content = loader.getBytes();
+		put(blobId, content);
+		return new ByteArrayInputStream(content);
+	}
+
+	/**
+	 * Returns whether the content of the specified blob is cached, without marking it as recently used.
+	 */
+	synchronized boolean contains(ObjectId blobId) {
+		return blobs.containsKey(blobId);
+	}
+
+	/**
+	 * Returns the number of bytes of the cached contents.
+	 */
+	synchronized long getCachedBytes() {
+		return bytes;
+	}
+
+	private synchronized byte[] get(ObjectId blobId) {
+		return blobs.get(blobId);
+	}
+
+	private synchronized void put(ObjectId blobId, byte[] content) {
+		if (content.length > maxBlobBytes) return;
+		// use an id that does not keep the rev walk of the caller alive
+		byte[] previous = blobs.put(blobId.copy(), content);
+		if (previous != null) bytes -= previous.length;
+		bytes += content.length;
+		Iterator<Map.Entry<ObjectId, byte[]>> iterator = blobs.entrySet().iterator();
+		while (bytes > maxBytes && iterator.hasNext()) {
+			bytes -= iterator.next().getValue().length;
+			iterator.remove();
+		}
+	}
+}
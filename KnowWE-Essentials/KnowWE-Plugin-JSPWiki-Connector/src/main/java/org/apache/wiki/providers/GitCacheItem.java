@@ -16,6 +16,8 @@ public class GitCacheItem {
 	private final boolean delete;
 	private int version;
 	private long size;
+	// the blob of the version, if known, set lazily for versions added while writing
+	private volatile ObjectId blobId;
 
 	GitCacheItem(String fullMessage, String author, Date date, long size, ObjectId id, boolean delete) {
 		this.fullMessage = fullMessage;
@@ -61,4 +63,12 @@ public class GitCacheItem {
 	public void setSize(long size) {
 		this.size = size;
 	}
+
+	public ObjectId getBlobId() {
+		return blobId;
+	}
+
+	public void setBlobId(ObjectId blobId) {
+		this.blobId = blobId;
+	}
 }
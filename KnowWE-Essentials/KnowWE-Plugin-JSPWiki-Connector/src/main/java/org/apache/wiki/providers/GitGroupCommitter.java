@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.apache.wiki.providers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * Coalesces the commits of concurrent writes into one commit. The first write of a group waits for the group window,
+ * so the writes of other threads can join the group, and then commits the paths of all writes of the group at once.
+ * The other writes wait until the group has been committed, so every write still returns after its changes have been
+ * committed.
+ * <p>
+ * A group commits the working tree content of its paths, so a path must not be changed again while a write of it is
+ * pending. Before changing a path, writers call {@link #awaitPending(Collection)}, which commits the group of a
+ * pending write of the path right away and waits for it. Writers that cannot release the commit lock while waiting,
+ * because they hold it more than once, call {@link #commitPending(Collection)} instead, which commits the group in the
+ * current thread. Joining a group, changing the working tree and committing a group have to be guarded by the same
+ * lock, the commit lock of the provider.
+ *
+ * @created 17.10.2026
+ */
+final class GitGroupCommitter {
+
+	/**
+	 * A write waiting to be committed.
+	 */
+	static final class PendingCommit {
+
+		final Collection<String> paths;
+		final String name;
+		final String message;
+		final String author;
+		final Consumer<ObjectId> onCommitted;
+		private final Group group;
+		private final boolean leader;
+
+		private PendingCommit(Collection<String> paths, String name, String message, String author, Consumer<ObjectId> onCommitted, Group group, boolean leader) {
+			this.paths = paths;
+			this.name = name;
+			this.message = message;
+			this.author = author;
+			this.onCommitted = onCommitted;
+			this.group = group;
+			this.leader = leader;
+		}
+	}
+
+	/**
+	 * Commits a group of pending writes with one commit.
+	 */
+	@FunctionalInterface
+	interface GroupCommit {
+		ObjectId commit(List<PendingCommit> group) throws Exception;
+	}
+
+	private static final class Group {
+
+		private final List<PendingCommit> writes = new ArrayList<>();
+		private final CompletableFuture<ObjectId> result = new CompletableFuture<>();
+		private boolean closed = false;
+		// whether a thread has started to commit the group
+		private boolean claimed = false;
+	}
+
+	private final long windowMillis;
+	private final Lock commitLock;
+	private final GroupCommit groupCommit;
+
+	// the group new writes join, null if the last group has been closed
+	private Group group = null;
+	// the groups of the paths of all writes not yet committed
+	private final Map<String, Group> pendingPaths = new HashMap<>();
+
+	GitGroupCommitter(long windowMillis, Lock commitLock, GroupCommit groupCommit) {
+		this.windowMillis = windowMillis;
+		this.commitLock = commitLock;
+		this.groupCommit = groupCommit;
+	}
+
+	/**
+	 * Returns whether a write of one of the specified paths is waiting to be committed.
+	 */
+	synchronized boolean isPending(Collection<String> paths) {
+		return paths.stream().anyMatch(pendingPaths::containsKey);
+	}
+
+	/**
+	 * Commits the group of a pending write of one of the specified paths without waiting for the rest of the group
+	 * window, and waits until it has been committed. Returns immediately, if no write of the paths is pending.
+	 *
+	 * @param paths the paths to be changed
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	void awaitPending(Collection<String> paths) throws InterruptedException {
+		Group pendingGroup;
+		synchronized (this) {
+			pendingGroup = paths.stream().map(pendingPaths::get).filter(Objects::nonNull).findFirst().orElse(null);
+			if (pendingGroup == null) return;
+			close(pendingGroup);
+		}
+		try {
+			pendingGroup.result.get();
+		}
+		catch (ExecutionException ignored) {
+			// the writes of the group report the failure themselves
+		}
+	}
+
+	/**
+	 * Commits the groups of pending writes of the specified paths right away in the current thread. Used instead of
+	 * {@link #awaitPending(Collection)} by writers that hold the commit lock and cannot release it to wait for the
+	 * first write of the group. A failure of the commit is reported to the writes of the group, not to the caller.
+	 *
+	 * @param paths the paths to be changed
+	 */
+	void commitPending(Collection<String> paths) {
+		// while we hold the commit lock, no other thread can be committing a group, so every pending group is either
+		// committed by us or has already been committed and removed from the pending paths
+		commitLock.lock();
+		try {
+			while (true) {
+				Group pendingGroup;
+				synchronized (this) {
+					pendingGroup = paths.stream().map(pendingPaths::get).filter(Objects::nonNull).findFirst().orElse(null);
+					if (pendingGroup == null) return;
+				}
+				commitClaimed(pendingGroup);
+			}
+		}
+		finally {
+			commitLock.unlock();
+		}
+	}
+
+	/**
+	 * Adds a write of the specified paths to the current group, or starts a new group. The paths must already be
+	 * changed in the working tree and must not be pending, see {@link #awaitPending(Collection)}. The write has to be
+	 * committed by calling {@link #await(PendingCommit)} afterwards.
+	 *
+	 * @param paths       the paths to commit
+	 * @param name        the name of the written page or attachment, to be listed in the message of the group
+	 * @param message     the commit message of this write
+	 * @param author      the author of this write
+	 * @param onCommitted called with the id of the commit, after the group has been committed, in the order the writes
+	 *                    joined the group
+	 * @return the pending write
+	 */
+	synchronized PendingCommit join(Collection<String> paths, String name, String message, String author, Consumer<ObjectId> onCommitted) {
+		boolean leader = group == null;
+		if (leader) group = new Group();
+		PendingCommit pending = new PendingCommit(paths, name, message, author, onCommitted, group, leader);
+		group.writes.add(pending);
+		for (String path : paths) {
+			pendingPaths.put(path, group);
+		}
+		return pending;
+	}
+
+	/**
+	 * Waits until the group of the specified write has been committed. The first write of the group commits the group
+	 * after the group window.
+	 *
+	 * @param pending the write to wait for
+	 * @return the id of the commit
+	 * @throws Exception if the group could not be committed
+	 */
+	ObjectId await(PendingCommit pending) throws Exception {
+		if (pending.leader) {
+			commitGroup(pending.group);
+		}
+		try {
+			return pending.group.result.get();
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+			throw e;
+		}
+	}
+
+	private void close(Group closing) {
+		closing.closed = true;
+		if (group == closing) group = null;
+		notifyAll();
+	}
+
+	private void commitGroup(Group committing) {
+		synchronized (this) {
+			long deadline = System.currentTimeMillis() + windowMillis;
+			long remaining = windowMillis;
+			try {
+				while (!committing.closed && remaining > 0) {
+					wait(remaining);
+					remaining = deadline - System.currentTimeMillis();
+				}
+			}
+			catch (InterruptedException e) {
+				// commit what we have so far
+				Thread.currentThread().interrupt();
+			}
+			close(committing);
+		}
+		commitLock.lock();
+		try {
+			commitClaimed(committing);
+		}
+		finally {
+			commitLock.unlock();
+		}
+	}
+
+	/**
+	 * Commits the group, unless another thread has already done so. Has to be called while holding the commit lock.
+	 */
+	private void commitClaimed(Group committing) {
+		synchronized (this) {
+			if (committing.claimed) return;
+			committing.claimed = true;
+			close(committing);
+		}
+		ObjectId commitId = null;
+		Throwable failure = null;
+		try {
+			commitId = groupCommit.commit(committing.writes);
+		}
+		catch (Exception | Error e) {
+			failure = e;
+		}
+		synchronized (this) {
+			for (PendingCommit pending : committing.writes) {
+				for (String path : pending.paths) {
+					pendingPaths.remove(path, committing);
+				}
+			}
+		}
+		if (failure == null) {
+			committing.result.complete(commitId);
+		}
+		else {
+			committing.result.completeExceptionally(failure);
+		}
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package org.apache.wiki.providers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.log4j.Logger;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Persists the page and attachment revisions of the {@link GitVersionCache} to a file in the git directory, together
+ * with the id of the last commit they have been indexed for. On startup and after pulling, only the commits after that
+ * commit have to be indexed.
+ * <p>
+ * Commit messages, authors and names are stored once in a string table, the commits once in a commit table, so each
+ * revision only takes a few bytes. The blob of each revision is stored as well, so old versions can be read without
+ * walking the tree of their commit. Only revisions of indexed commits are stored, the revisions added while writing to
+ * the wiki are indexed again from their commits.
+ *
+ * @created 17.10.2026
+ */
+final class GitRevisionIndex {
+
+	private static final Logger log = Logger.getLogger(GitRevisionIndex.class);
+
+	private static final String FILE_NAME = "knowwe-revision-index";
+	private static final int MAGIC = 0x4b575249;
+	private static final int FORMAT_VERSION = 2;
+
+	private final File file;
+
+	GitRevisionIndex(File gitDirectory) {
+		this.file = new File(gitDirectory, FILE_NAME);
+	}
+
+	/**
+	 * The revisions of the pages and attachments, as indexed up to a commit.
+	 */
+	static final class Snapshot {
+
+		final ObjectId commit;
+		final Map<String, List<GitCacheItem>> pageRevisions;
+		final Map<String, List<GitCacheItem>> attachmentRevisions;
+
+		Snapshot(ObjectId commit, Map<String, List<GitCacheItem>> pageRevisions, Map<String, List<GitCacheItem>> attachmentRevisions) {
+			this.commit = commit;
+			this.pageRevisions = pageRevisions;
+			this.attachmentRevisions = attachmentRevisions;
+		}
+	}
+
+	/**
+	 * Reads the stored revisions. Returns null if there are no stored revisions, if they cannot be read, or if they
+	 * have been indexed with other ignore rules.
+	 *
+	 * @param ignoreRules the ignore rules the revisions have to be indexed with
+	 * @return the stored revisions, or null if they cannot be used
+	 */
+	@Nullable
+	Snapshot read(String ignoreRules) {
+		if (!file.exists()) return null;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file.toPath()))))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				log.info("Ignoring revision index of other format: " + file);
+				return null;
+			}
+			ObjectId commit = readObjectId(in);
+			if (!ignoreRules.equals(readString(in))) {
+				log.info("Ignoring revision index of other ignore rules: " + file);
+				return null;
+			}
+
+			String[] strings = new String[in.readInt()];
+			for (int i = 0; i < strings.length; i++) {
+				strings[i] = readString(in);
+			}
+			CommitInfo[] commits = new CommitInfo[in.readInt()];
+			for (int i = 0; i < commits.length; i++) {
+				commits[i] = new CommitInfo(readObjectId(in), strings[in.readInt()], strings[in.readInt()], new Date(in.readLong()));
+			}
+
+			Map<String, List<GitCacheItem>> pageRevisions = new TreeMap<>();
+			int pageCount = in.readInt();
+			for (int i = 0; i < pageCount; i++) {
+				String key = strings[in.readInt()];
+				List<GitCacheItem> items = new ArrayList<>();
+				int itemCount = in.readInt();
+				for (int j = 0; j < itemCount; j++) {
+					String pageName = strings[in.readInt()];
+					CommitInfo info = commits[in.readInt()];
+					PageCacheItem item = new PageCacheItem(pageName, info.message, info.author, info.date, in.readLong(), in.readBoolean(), info.id);
+					item.setBlobId(readBlobId(in));
+					item.setVersion(j + 1);
+					items.add(item);
+				}
+				pageRevisions.put(key, items);
+			}
+
+			Map<String, List<GitCacheItem>> attachmentRevisions = new TreeMap<>();
+			int attachmentCount = in.readInt();
+			for (int i = 0; i < attachmentCount; i++) {
+				String key = strings[in.readInt()];
+				List<GitCacheItem> items = new ArrayList<>();
+				int itemCount = in.readInt();
+				for (int j = 0; j < itemCount; j++) {
+					String parentName = strings[in.readInt()];
+					String attachmentName = strings[in.readInt()];
+					CommitInfo info = commits[in.readInt()];
+					AttachmentCacheItem item = new AttachmentCacheItem(parentName, attachmentName, info.message, info.author, info.date, in.readLong(), in.readBoolean(), info.id);
+					item.setBlobId(readBlobId(in));
+					item.setVersion(j + 1);
+					items.add(item);
+				}
+				attachmentRevisions.put(key, items);
+			}
+			return new Snapshot(commit, pageRevisions, attachmentRevisions);
+		}
+		catch (IOException | RuntimeException e) {
+			log.warn("Unable to read revision index " + file + ", indexing all commits", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the specified revisions, indexed up to the specified commit. The revisions are written to a temporary file
+	 * first, so a failed write never leaves an incomplete index.
+	 *
+	 * @param snapshot    the revisions to store
+	 * @param ignoreRules the ignore rules the revisions have been indexed with
+	 */
+	void write(Snapshot snapshot, String ignoreRules) {
+		File tempFile = new File(file.getParentFile(), FILE_NAME + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile.toPath()))))) {
+				Map<String, Integer> strings = new HashMap<>();
+				Map<ObjectId, Integer> commits = new HashMap<>();
+				List<GitCacheItem> commitItems = new ArrayList<>();
+				collectTables(snapshot.pageRevisions, strings, commits, commitItems);
+				collectTables(snapshot.attachmentRevisions, strings, commits, commitItems);
+
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				writeObjectId(out, snapshot.commit);
+				writeString(out, ignoreRules);
+
+				String[] stringTable = new String[strings.size()];
+				strings.forEach((string, index) -> stringTable[index] = string);
+				out.writeInt(stringTable.length);
+				for (String string : stringTable) {
+					writeString(out, string);
+				}
+				out.writeInt(commitItems.size());
+				for (GitCacheItem item : commitItems) {
+					writeObjectId(out, item.getId());
+					out.writeInt(strings.get(item.getFullMessage()));
+					out.writeInt(strings.get(item.getAuthor()));
+					out.writeLong(item.getDate().getTime());
+				}
+
+				out.writeInt(snapshot.pageRevisions.size());
+				for (Map.Entry<String, List<GitCacheItem>> entry : snapshot.pageRevisions.entrySet()) {
+					out.writeInt(strings.get(entry.getKey()));
+					out.writeInt(entry.getValue().size());
+					for (GitCacheItem item : entry.getValue()) {
+						out.writeInt(strings.get(((PageCacheItem) item).getPageName()));
+						writeItem(out, item, commits);
+					}
+				}
+
+				out.writeInt(snapshot.attachmentRevisions.size());
+				for (Map.Entry<String, List<GitCacheItem>> entry : snapshot.attachmentRevisions.entrySet()) {
+					out.writeInt(strings.get(entry.getKey()));
+					out.writeInt(entry.getValue().size());
+					for (GitCacheItem item : entry.getValue()) {
+						out.writeInt(strings.get(((AttachmentCacheItem) item).getParentName()));
+						out.writeInt(strings.get(((AttachmentCacheItem) item).getAttachmentName()));
+						writeItem(out, item, commits);
+					}
+				}
+			}
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			log.warn("Unable to write revision index " + file, e);
+			//noinspection ResultOfMethodCallIgnored
+			tempFile.delete();
+		}
+	}
+
+	private static void collectTables(Map<String, List<GitCacheItem>> revisions, Map<String, Integer> strings, Map<ObjectId, Integer> commits, List<GitCacheItem> commitItems) {
+		for (Map.Entry<String, List<GitCacheItem>> entry : revisions.entrySet()) {
+			addString(strings, entry.getKey());
+			for (GitCacheItem item : entry.getValue()) {
+				if (item instanceof PageCacheItem) {
+					addString(strings, ((PageCacheItem) item).getPageName());
+				}
+				else {
+					addString(strings, ((AttachmentCacheItem) item).getParentName());
+					addString(strings, ((AttachmentCacheItem) item).getAttachmentName());
+				}
+				if (commits.putIfAbsent(item.getId(), commitItems.size()) == null) {
+					commitItems.add(item);
+					addString(strings, item.getFullMessage());
+					addString(strings, item.getAuthor());
+				}
+			}
+		}
+	}
+
+	private static void addString(Map<String, Integer> strings, String string) {
+		strings.putIfAbsent(string, strings.size());
+	}
+
+	private static void writeItem(DataOutputStream out, GitCacheItem item, Map<ObjectId, Integer> commits) throws IOException {
+		out.writeInt(commits.get(item.getId()));
+		out.writeLong(item.getSize());
+		out.writeBoolean(item.isDelete());
+		ObjectId blobId = item.getBlobId();
+		out.writeBoolean(blobId != null);
+		if (blobId != null) writeObjectId(out, blobId);
+	}
+
+	@Nullable
+	private static ObjectId readBlobId(DataInputStream in) throws IOException {
+		return in.readBoolean() ? readObjectId(in) : null;
+	}
+
+	private static void writeObjectId(DataOutputStream out, ObjectId id) throws IOException {
+		id.copyRawTo(out);
+	}
+
+	private static ObjectId readObjectId(DataInputStream in) throws IOException {
+		byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+		in.readFully(raw);
+		return ObjectId.fromRaw(raw);
+	}
+
+	// DataOutput.writeUTF is limited to 64k, commit messages may be longer
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static final class CommitInfo {
+
+		private final ObjectId id;
+		private final String message;
+		private final String author;
+		private final Date date;
+
+		private CommitInfo(ObjectId id, String message, String author, Date date) {
+			this.id = id;
+			this.message = message;
+			this.author = author;
+			this.date = date;
+		}
+	}
+}
@@ -2,6 +2,7 @@ package org.apache.wiki.providers;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -9,6 +10,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.time.StopWatch;
 import org.apache.log4j.Logger;
@@ -18,23 +24,21 @@ import org.apache.wiki.attachment.Attachment;
 import org.apache.wiki.util.TextUtil;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
-import org.eclipse.jgit.diff.RenameDetector;
+import org.eclipse.jgit.errors.MissingObjectException;
 import org.eclipse.jgit.ignore.IgnoreNode;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectLoader;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevSort;
-import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.revwalk.filter.RevFilter;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.TreeWalk;
-import org.eclipse.jgit.treewalk.filter.PathFilter;
 import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import static org.apache.wiki.WikiProvider.LATEST_VERSION;
 
@@ -47,16 +51,32 @@ public class GitVersionCache {
 	private final WikiEngine engine;
 	private final Repository repository;
 	private static final Logger log = Logger.getLogger(GitVersionCache.class);
+	// number of commits diffed by one worker at a time while indexing
+	static final int COMMIT_RANGE_SIZE = 256;
 	private final IgnoreNode ignoreNode;
 
 	private Map<String, List<GitCacheItem>> pageRevisionCache;
 	private Map<String, List<GitCacheItem>> attachmentRevisionCache;
 	private Map<String, List<CacheCommand>> cacheCommands;
+	private final GitRevisionIndex revisionIndex;
+	private final int commitRangeSize;
+	private final int indexerThreads;
 
 	public GitVersionCache(WikiEngine engine, Repository repository, IgnoreNode ignoreNode) {
+		this(engine, repository, ignoreNode, COMMIT_RANGE_SIZE, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a version cache, that splits the commits into ranges of the specified size when indexing them and diffs
+	 * at most the specified number of ranges in parallel.
+	 */
+	GitVersionCache(WikiEngine engine, Repository repository, IgnoreNode ignoreNode, int commitRangeSize, int indexerThreads) {
 		this.engine = engine;
 		this.repository = repository;
 		this.ignoreNode = ignoreNode;
+		this.revisionIndex = new GitRevisionIndex(repository.getDirectory());
+		this.commitRangeSize = commitRangeSize;
+		this.indexerThreads = indexerThreads;
 	}
 
 	void initializeCache() throws IOException {
@@ -65,72 +85,184 @@ public class GitVersionCache {
 		cacheCommands = new HashMap<>();
 		StopWatch sw = new StopWatch();
 		sw.start();
-		log.info("Getting all git revisions for cache...");
 
-		final ObjectReader objectReader = this.repository.newObjectReader();
-		final CanonicalTreeParser oldTreeParser = new CanonicalTreeParser();
-		final CanonicalTreeParser newTreeParser = new CanonicalTreeParser();
-		final DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
-		diffFormatter.setRepository(this.repository);
 		final ObjectId ref = this.repository.resolve(Constants.HEAD);
-		final RevWalk revWalk = new RevWalk(this.repository);
-		if(ref == null) return;
-		revWalk.sort(RevSort.REVERSE);
-		revWalk.markStart(revWalk.parseCommit(ref));
-		revWalk.setRevFilter(RevFilter.NO_MERGES);
-		RevCommit commit;
-		while ((commit = revWalk.next()) != null) {
-			log.debug(""+commit.getParentCount()+" " + commit.getFullMessage());
-			final RevCommit[] parents = commit.getParents();
-			RevTree tree = commit.getTree();
-			if (parents.length > 0) {
-				oldTreeParser.reset(objectReader, commit.getParent(0)
-						.getTree());
-				newTreeParser.reset(objectReader, tree);
-				List<DiffEntry> diffs = diffFormatter.scan(oldTreeParser, newTreeParser);
-				RenameDetector rd = new RenameDetector(repository);
-				rd.addAll(diffs);
-				diffs = rd.compute();
-				for (final DiffEntry diff : diffs) {
-					String path;
-					if (diff.getChangeType() == DiffEntry.ChangeType.MODIFY) {
-						path = diff.getOldPath();
-						if (path != null) {
-							mapCommit(commit, path);
-						}
-					}
-					else if (diff.getChangeType() == DiffEntry.ChangeType.ADD) {
-						path = diff.getNewPath();
-						if (path != null) {
-							mapCommit(commit, path);
-						}
-					}
-					else if (diff.getChangeType() == DiffEntry.ChangeType.DELETE) {
-						mapDelete(commit, diff.getOldPath());
-					}
-					else if (diff.getChangeType() == DiffEntry.ChangeType.RENAME) {
-						mapMove(commit, diff.getOldPath(), diff.getNewPath());
-					}
+		if (ref == null) return;
+		try (RevWalk revWalk = new RevWalk(this.repository)) {
+			final RevCommit head = revWalk.parseCommit(ref);
+			final String ignoreRules = getIgnoreRules();
+
+			// continue with the stored revisions, if they have been indexed for an ancestor of the current head
+			GitRevisionIndex.Snapshot snapshot = revisionIndex.read(ignoreRules);
+			RevCommit indexedCommit = snapshot == null ? null : parseIndexedCommit(revWalk, snapshot.commit, head);
+			if (indexedCommit != null) {
+				pageRevisionCache = snapshot.pageRevisions;
+				attachmentRevisionCache = snapshot.attachmentRevisions;
+				if (indexedCommit.equals(head)) {
+					sw.stop();
+					log.info("Git version cache loaded from revision index in " + sw);
+					return;
 				}
+				log.info("Getting git revisions after " + indexedCommit.name() + " for cache...");
+				revWalk.markUninteresting(indexedCommit);
 			}
 			else {
-				final TreeWalk tw = new TreeWalk(this.repository);
-				tw.reset(tree);
-				tw.setRecursive(true);
-				while (tw.next()) {
-					mapCommit(commit, tw.getPathString());
+				log.info("Getting all git revisions for cache...");
+			}
+
+			revWalk.sort(RevSort.REVERSE);
+			revWalk.markStart(head);
+			revWalk.setRevFilter(RevFilter.NO_MERGES);
+			List<RevCommit> commits = new ArrayList<>();
+			List<CommitTrees> trees = new ArrayList<>();
+			RevCommit commit;
+			while ((commit = revWalk.next()) != null) {
+				commits.add(commit);
+				// resolve the trees here, the rev walk must not be used by the workers
+				ObjectId parentTree = commit.getParentCount() > 0 ? revWalk.parseCommit(commit.getParent(0)).getTree() : null;
+				trees.add(new CommitTrees(parentTree, commit.getTree()));
+			}
+
+			List<List<PathChange>> changes = scanChanges(trees);
+
+			// map the changes in the order of the commits, so versions and moves are resolved as before
+			for (int i = 0; i < commits.size(); i++) {
+				commit = commits.get(i);
+				log.debug("" + commit.getParentCount() + " " + commit.getFullMessage());
+				for (PathChange change : changes.get(i)) {
+					if (change.type == DiffEntry.ChangeType.MODIFY || change.type == DiffEntry.ChangeType.ADD) {
+						mapCommit(commit, change.path, change.blobId, change.size);
+					}
+					else if (change.type == DiffEntry.ChangeType.DELETE) {
+						mapDelete(commit, change.path);
+					}
+					else if (change.type == DiffEntry.ChangeType.RENAME) {
+						mapMove(commit, change.oldPath, change.path, change.blobId, change.size);
+					}
 				}
 			}
+			revisionIndex.write(new GitRevisionIndex.Snapshot(head, pageRevisionCache, attachmentRevisionCache), ignoreRules);
 		}
 		sw.stop();
 		log.info("Git version cache successful initiated in " + sw);
 	}
 
+	/**
+	 * Returns the commit the stored revisions have been indexed for, if it is the head or one of its ancestors. If the
+	 * history has been rewritten since, e.g. by a rebase, the stored revisions cannot be used.
+	 */
+	@Nullable
+	private RevCommit parseIndexedCommit(RevWalk revWalk, ObjectId indexedId, RevCommit head) throws IOException {
+		try {
+			RevCommit indexedCommit = revWalk.parseCommit(indexedId);
+			boolean ancestor = revWalk.isMergedInto(indexedCommit, head);
+			revWalk.reset();
+			return ancestor ? indexedCommit : null;
+		}
+		catch (MissingObjectException e) {
+			return null;
+		}
+	}
+
+	private String getIgnoreRules() {
+		return ignoreNode.getRules().stream().map(Object::toString).collect(Collectors.joining("\n"));
+	}
+
+	/**
+	 * Scans the changes of the specified commits. The commits are split into ranges, which are diffed in parallel, each
+	 * range with its own object reader and diff formatter.
+	 *
+	 * @param trees the trees of the commits and their first parents
+	 * @return the changes of each commit, in the order of the commits
+	 */
+	private List<List<PathChange>> scanChanges(List<CommitTrees> trees) throws IOException {
+		int rangeCount = (int) ((trees.size() + (long) commitRangeSize - 1) / commitRangeSize);
+		int threadCount = Math.min(rangeCount, indexerThreads);
+		if (threadCount <= 1) {
+			return scanChanges(trees, 0, trees.size());
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+			Thread thread = new Thread(runnable, "KnowWE-Git-Indexer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<List<List<PathChange>>>> futures = new ArrayList<>(rangeCount);
+			for (int from = 0; from < trees.size(); from += commitRangeSize) {
+				int start = from;
+				int end = Math.min(from + commitRangeSize, trees.size());
+				futures.add(executor.submit(() -> scanChanges(trees, start, end)));
+			}
+			List<List<PathChange>> changes = new ArrayList<>(trees.size());
+			for (Future<List<List<PathChange>>> future : futures) {
+				changes.addAll(future.get());
+			}
+			return changes;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while indexing git revisions");
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+			throw new IOException("Unable to index git revisions", e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private List<List<PathChange>> scanChanges(List<CommitTrees> trees, int from, int to) throws IOException {
+		List<List<PathChange>> changes = new ArrayList<>(to - from);
+		try (ObjectReader objectReader = this.repository.newObjectReader();
+			 DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+			final CanonicalTreeParser oldTreeParser = new CanonicalTreeParser();
+			final CanonicalTreeParser newTreeParser = new CanonicalTreeParser();
+			diffFormatter.setReader(objectReader, this.repository.getConfig());
+			// the diff formatter reuses one rename detector for all commits of the range
+			diffFormatter.setDetectRenames(true);
+			for (CommitTrees commitTrees : trees.subList(from, to)) {
+				List<PathChange> commitChanges = new ArrayList<>();
+				if (commitTrees.parentTree != null) {
+					oldTreeParser.reset(objectReader, commitTrees.parentTree);
+					newTreeParser.reset(objectReader, commitTrees.tree);
+					for (final DiffEntry diff : diffFormatter.scan(oldTreeParser, newTreeParser)) {
+						DiffEntry.ChangeType type = diff.getChangeType();
+						if (type == DiffEntry.ChangeType.MODIFY && diff.getOldPath() != null) {
+							commitChanges.add(new PathChange(type, null, diff.getOldPath(), diff.getNewId().toObjectId(), objectReader));
+						}
+						else if (type == DiffEntry.ChangeType.ADD && diff.getNewPath() != null) {
+							commitChanges.add(new PathChange(type, null, diff.getNewPath(), diff.getNewId().toObjectId(), objectReader));
+						}
+						else if (type == DiffEntry.ChangeType.DELETE) {
+							commitChanges.add(new PathChange(type, null, diff.getOldPath(), null, objectReader));
+						}
+						else if (type == DiffEntry.ChangeType.RENAME) {
+							commitChanges.add(new PathChange(type, diff.getOldPath(), diff.getNewPath(), diff.getNewId().toObjectId(), objectReader));
+						}
+					}
+				}
+				else {
+					try (TreeWalk tw = new TreeWalk(this.repository, objectReader)) {
+						tw.reset(commitTrees.tree);
+						tw.setRecursive(true);
+						while (tw.next()) {
+							commitChanges.add(new PathChange(DiffEntry.ChangeType.ADD, null, tw.getPathString(), tw.getObjectId(0), objectReader));
+						}
+					}
+				}
+				changes.add(commitChanges);
+			}
+		}
+		return changes;
+	}
+
 	void mapDelete(RevCommit commit, String path) throws IOException {
-		mapCommit(commit, path, true);
+		mapCommit(commit, path, null, 0L, true);
 	}
 
-	void mapMove(RevCommit commit, String oldPath, String newPath) throws IOException {
+	void mapMove(RevCommit commit, String oldPath, String newPath, ObjectId blobId, long size) throws IOException {
 		log.debug("move " + oldPath + " -> " + newPath);
 		String key;
 		String newKey;
@@ -156,14 +288,14 @@ public class GitVersionCache {
 			cache.remove(key);
 			cache.put(newKey, gitCacheItems);
 		}
-		mapCommit(commit, newPath);
+		mapCommit(commit, newPath, blobId, size);
 	}
 
-	void mapCommit(RevCommit commit, String path) throws IOException {
-		mapCommit(commit, path, false);
+	void mapCommit(RevCommit commit, String path, ObjectId blobId, long size) throws IOException {
+		mapCommit(commit, path, blobId, size, false);
 	}
 
-	void mapCommit(RevCommit commit, String path, boolean delete) throws IOException {
+	void mapCommit(RevCommit commit, String path, ObjectId blobId, long size, boolean delete) throws IOException {
 		log.debug("commit " + (delete ? "delete " : "") + path);
 		Boolean ignored = ignoreNode.checkIgnored(path, false);
 		if(ignored != null && ignored)
@@ -171,7 +303,6 @@ public class GitVersionCache {
 		Map<String, List<GitCacheItem>> cache;
 		GitCacheItem toCache;
 		String key;
-		long size = delete ? 0L : getObjectSize(commit, path);
 		if (path.contains("/")) {
 			cache = this.attachmentRevisionCache;
 			String[] split = path.split("/");
@@ -191,31 +322,10 @@ public class GitVersionCache {
 					commit.getAuthorIdent().getWhen(), size, delete, commit.getId());
 		}
 
+		toCache.setBlobId(blobId);
 		putInCache(cache, toCache, key);
 	}
 
-	private long getObjectSize(RevCommit version, String path) throws IOException {
-		long ret;
-		ObjectId objectId = null;
-		try (TreeWalk treeWalkDir = new TreeWalk(repository)) {
-			treeWalkDir.reset(version.getTree());
-			treeWalkDir.setFilter(PathFilter.create(path));
-			treeWalkDir.setRecursive(true);
-			//only the attachment directory
-			if (treeWalkDir.next()) {
-				objectId = treeWalkDir.getObjectId(0);
-			}
-		}
-		if (objectId != null) {
-			ObjectLoader loader = repository.open(objectId);
-			ret = loader.getSize();
-		}
-		else {
-			ret = 0;
-		}
-		return ret;
-	}
-
 	private void putInCache(Map<String, List<GitCacheItem>> cache, GitCacheItem toCache, String key) {
 		if (cache.containsKey(key)) {
 			List<GitCacheItem> items = cache.get(key);
@@ -449,4 +559,38 @@ public class GitVersionCache {
 	public void reset(WikiPage page) {
 		pageRevisionCache.remove(page.getName());
 	}
+
+	/**
+	 * The tree of a commit and the tree of its first parent, if any.
+	 */
+	private static final class CommitTrees {
+
+		private final ObjectId parentTree;
+		private final ObjectId tree;
+
+		private CommitTrees(ObjectId parentTree, ObjectId tree) {
+			this.parentTree = parentTree;
+			this.tree = tree;
+		}
+	}
+
+	/**
+	 * A changed path of a commit, with the blob and size of its new content.
+	 */
+	private static final class PathChange {
+
+		private final DiffEntry.ChangeType type;
+		private final String oldPath;
+		private final String path;
+		private final ObjectId blobId;
+		private final long size;
+
+		private PathChange(DiffEntry.ChangeType type, String oldPath, String path, ObjectId blobId, ObjectReader objectReader) throws IOException {
+			this.type = type;
+			this.oldPath = oldPath;
+			this.path = path;
+			this.blobId = blobId;
+			this.size = blobId == null ? 0L : objectReader.getObjectSize(blobId, ObjectReader.OBJ_ANY);
+		}
+	}
 }
@@ -148,6 +148,13 @@ public class GitVersioningAttachmentProvider extends BasicAttachmentProvider {
 		try {
 			gitVersioningFileProvider.canWriteFileLock();
 			gitVersioningFileProvider.commitLock();
+			try {
+				gitVersioningFileProvider.awaitGroupCommits(Collections.singletonList(getPath(att)));
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ProviderException("Interrupted while waiting for commit of attachment " + getPath(att));
+			}
 			File attDir = findAttachmentDir(att);
 			Git git = new Git(repository);
 			if (!attDir.exists()) {
@@ -230,6 +237,10 @@ public class GitVersioningAttachmentProvider extends BasicAttachmentProvider {
 	}
 
 	private void setMessage(Attachment att, CommitCommand commitCommand) {
+		commitCommand.setMessage(getMessage(att));
+	}
+
+	private String getMessage(Attachment att) {
 		String changeNote = (String) att.getAttribute(Attachment.CHANGENOTE);
 		String comment = gitCommentStrategy.getComment(att);
 		if(comment.isEmpty()) {
@@ -237,13 +248,13 @@ public class GitVersioningAttachmentProvider extends BasicAttachmentProvider {
 		}
 		if (comment.isEmpty()) {
 			if (changeNote != null && !"".equals(changeNote)) {
-				commitCommand.setMessage(changeNote);
+				return changeNote;
 			}
 			else {
-				commitCommand.setMessage("-");
+				return "-";
 			}
 		} else {
-			commitCommand.setMessage(comment);
+			return comment;
 		}
 	}
 
@@ -274,17 +285,18 @@ public class GitVersioningAttachmentProvider extends BasicAttachmentProvider {
 							ret = new FileInputStream(attFile);
 						}
 						else {
-							try (RevWalk revWalk = new RevWalk(repository)) {
-								RevCommit revCommit = revWalk.parseCommit(cacheItem.getId());
-								ObjectId fileId = getObjectOfCommit(revCommit, att);
-								if (fileId != null) {
-									ObjectLoader loader = repository.open(fileId);
-									ret = loader.openStream();
+							ObjectId fileId = cacheItem.getBlobId();
+							if (fileId == null) {
+								try (RevWalk revWalk = new RevWalk(repository)) {
+									RevCommit revCommit = revWalk.parseCommit(cacheItem.getId());
+									fileId = getObjectOfCommit(revCommit, att);
 								}
-								else {
+								if (fileId == null) {
 									throw new ProviderException("Can't load Git object for " + getPath(att) + " version " + version);
 								}
+								cacheItem.setBlobId(fileId);
 							}
+							ret = gitVersioningFileProvider.getBlobCache().openStream(fileId);
 						}
 					}
 					else {
@@ -302,8 +314,7 @@ public class GitVersioningAttachmentProvider extends BasicAttachmentProvider {
 								RevCommit revCommit = revCommitList.get(version == LATEST_VERSION ? revCommitList.size() - 1 : version - 1);
 								ObjectId fileId = getObjectOfCommit(revCommit, att);
 								if (fileId != null) {
-									ObjectLoader loader = repository.open(fileId);
-									ret = loader.openStream();
+									ret = gitVersioningFileProvider.getBlobCache().openStream(fileId);
 								}
 								else {
 									throw new ProviderException("Can't load Git object for " + getPath(att) + " version " + version);
@@ -613,6 +624,13 @@ public class GitVersioningAttachmentProvider extends BasicAttachmentProvider {
 		try {
 			gitVersioningFileProvider.canWriteFileLock();
 			gitVersioningFileProvider.commitLock();
+			try {
+				gitVersioningFileProvider.awaitGroupCommits(Collections.singletonList(getPath(att)));
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ProviderException("Interrupted while waiting for commit of attachment " + getPath(att));
+			}
 			File attFile = findAttachmentFile(att.getParentName(), att.getFileName());
 			if (attFile.exists()) {
 				boolean delete = attFile.delete();
@@ -653,6 +671,22 @@ public class GitVersioningAttachmentProvider extends BasicAttachmentProvider {
 					cache.addCacheCommand(att.getAuthor(), new CacheCommand.DeleteAttachmentVersion(att));
 				}
 			}
+			else if (gitVersioningFileProvider.isGroupCommitEnabled()) {
+				String message = getMessage(att);
+				ObjectId commitId = gitVersioningFileProvider.commitGrouped(Collections.singletonList(getPath(att)),
+						att.getParentName() + "/" + att.getFileName(), message, att.getAuthor(), groupCommitId -> {
+							if (type == GitVersioningWikiEvent.UPDATE) {
+								cache.addAttachmentVersion(att, message, groupCommitId);
+							}
+							else if (type == GitVersioningWikiEvent.DELETE) {
+								cache.deleteAttachment(att, message, groupCommitId);
+							}
+						});
+				WikiEventManager.fireEvent(this, new GitVersioningWikiEvent(this, type,
+						att.getAuthor(),
+						att.getParentName() + "/" + att.getFileName(),
+						commitId.getName()));
+			}
 			else {
 				CommitCommand commitCommand = git.commit().setAllowEmpty(true).setOnly(getPath(att));
 				setMessage(att, commitCommand);
@@ -689,6 +723,21 @@ public class GitVersioningAttachmentProvider extends BasicAttachmentProvider {
 			gitVersioningFileProvider.commitLock();
 			File oldDir = findPageDir(oldParent.getName());
 			File newDir = findPageDir(newParent);
+			File[] movedFiles = oldDir.listFiles();
+			if (movedFiles != null) {
+				List<String> movedPaths = new ArrayList<>();
+				for (File file : movedFiles) {
+					movedPaths.add(getAttachmentDir(oldParent.getName()) + "/" + file.getName());
+					movedPaths.add(getAttachmentDir(newParent) + "/" + file.getName());
+				}
+				try {
+					gitVersioningFileProvider.awaitGroupCommits(movedPaths);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new ProviderException("Interrupted while waiting for commit of attachments of " + oldParent.getName());
+				}
+			}
 			if (newDir.exists() && !newDir.isDirectory()) {
 				throw new ProviderException(newParent + DIR_EXTENSION + " is not a directory");
 			}
@@ -26,6 +26,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -42,6 +43,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 import org.apache.log4j.Logger;
 import org.apache.wiki.InternalWikiException;
@@ -68,7 +70,6 @@ import org.eclipse.jgit.errors.LockFailedException;
 import org.eclipse.jgit.ignore.IgnoreNode;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectLoader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.RepositoryCache;
 import org.eclipse.jgit.lib.TextProgressMonitor;
@@ -93,6 +94,12 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 	public static final String JSPWIKI_GIT_VERSIONING_FILE_PROVIDER_REMOTE_GIT = "jspwiki.gitVersioningFileProvider.remoteGit";
 	public static final String JSPWIKI_GIT_VERSIONING_FILE_PROVIDER_AUTOUPDATE = "jspwiki.gitVersioningFileProvider.autoUpdate";
 	public static final String JSPWIKI_GIT_COMMENT_STRATEGY = "jspwiki.git.commentStrategy";
+	public static final String JSPWIKI_GIT_VERSIONING_FILE_PROVIDER_BLOB_CACHE_SIZE = "jspwiki.gitVersioningFileProvider.blobCacheSize";
+	/**
+	 * Milliseconds to wait for concurrent writes to be committed together, 0 to commit every write on its own.
+	 */
+	public static final String JSPWIKI_GIT_VERSIONING_FILE_PROVIDER_GROUP_COMMIT_WINDOW = "jspwiki.gitVersioningFileProvider.groupCommitWindow";
+	private static final int DEFAULT_BLOB_CACHE_SIZE = 32 * 1024 * 1024;
 	protected Repository repository;
 	private static final String GIT_DIR = ".git";
 	private static final String JSPWIKI_FILESYSTEMPROVIDER_PAGEDIR = "jspwiki.fileSystemProvider.pageDir";
@@ -101,6 +108,8 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 	private final ReadWriteLock pushLock = new ReentrantReadWriteLock();
 	private final ReentrantLock commitLock = new ReentrantLock();
 	private GitVersionCache cache;
+	private GitBlobCache blobCache;
+	private GitGroupCommitter groupCommitter;
 	private final GitAutoUpdateScheduler scheduler;
 	private IgnoreNode ignoreNode;
 
@@ -197,6 +206,12 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 		}
 		this.cache = new GitVersionCache(engine, this.repository, ignoreNode);
 		cache.initializeCache();
+		this.blobCache = new GitBlobCache(this.repository, TextUtil.getIntegerProperty(properties,
+				JSPWIKI_GIT_VERSIONING_FILE_PROVIDER_BLOB_CACHE_SIZE, DEFAULT_BLOB_CACHE_SIZE));
+		int groupCommitWindow = TextUtil.getIntegerProperty(properties, JSPWIKI_GIT_VERSIONING_FILE_PROVIDER_GROUP_COMMIT_WINDOW, 0);
+		if (groupCommitWindow > 0) {
+			this.groupCommitter = new GitGroupCommitter(groupCommitWindow, this.commitLock, this::commitGroup);
+		}
 		if(autoUpdateEnabled && remoteRepo){
 			scheduler.initialize(engine, this);
 		}
@@ -233,6 +248,13 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 			canWriteFileLock();
 			commitLock();
 			final File changedFile = findPage(page.getName());
+			try {
+				awaitGroupCommits(Collections.singletonList(changedFile.getName()));
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ProviderException("Interrupted while waiting for commit of page " + page.getName());
+			}
 			final boolean addFile = !changedFile.exists();
 
 			super.putPageText(page, text);
@@ -266,6 +288,15 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 					cache.addCacheCommand(page.getAuthor(), new CacheCommand.AddPageVersion(page));
 
 				}
+				else if (isGroupCommitEnabled()) {
+					final String message = comment;
+					final ObjectId commitId = commitGrouped(Collections.singletonList(changedFile.getName()), page.getName(), message, page.getAuthor(),
+							groupCommitId -> cache.addPageVersion(page, message, groupCommitId));
+					WikiEventManager.fireEvent(this, new GitVersioningWikiEvent(this, GitVersioningWikiEvent.UPDATE,
+							page.getAuthor(),
+							page.getName(),
+							commitId.getName()));
+				}
 				else {
 					final CommitCommand commit = git
 							.commit()
@@ -626,10 +657,15 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 					else {
 						PageCacheItem pageCacheItem = cache.getPageVersion(pageName, version);
 						if (pageCacheItem != null) {
-							try (RevWalk revWalk = new RevWalk(repository)) {
-								RevCommit revCommit = revWalk.parseCommit(pageCacheItem.getId());
-								return loadObject(page.getName(), version, revCommit);
+							ObjectId blobId = pageCacheItem.getBlobId();
+							if (blobId == null) {
+								try (RevWalk revWalk = new RevWalk(repository)) {
+									RevCommit revCommit = revWalk.parseCommit(pageCacheItem.getId());
+									blobId = getObjectOfCommit(page.getName(), version, revCommit);
+									pageCacheItem.setBlobId(blobId);
+								}
 							}
+							return new String(blobCache.getBytes(blobId), this.m_encoding);
 						}
 						else {
 							final Git git = new Git(this.repository);
@@ -657,18 +693,23 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 
 	@NotNull
 	private String loadObject(String pageName, int version, RevCommit revCommit) throws IOException, ProviderException {
-		final TreeWalk treeWalkDir = new TreeWalk(this.repository);
-		treeWalkDir.reset(revCommit.getTree());
-		treeWalkDir.setFilter(PathFilter.create(pageName));
-		treeWalkDir.setRecursive(false);
-		//here we have our file directly
-		if (treeWalkDir.next()) {
-			final ObjectId fileId = treeWalkDir.getObjectId(0);
-			final ObjectLoader loader = this.repository.open(fileId);
-			return new String(loader.getBytes(), this.m_encoding);
-		}
-		else {
-			throw new ProviderException("Can't load Git object for " + pageName + " version " + version);
+		final ObjectId fileId = getObjectOfCommit(pageName, version, revCommit);
+		return new String(blobCache.getBytes(fileId), this.m_encoding);
+	}
+
+	@NotNull
+	private ObjectId getObjectOfCommit(String pageName, int version, RevCommit revCommit) throws IOException, ProviderException {
+		try (TreeWalk treeWalkDir = new TreeWalk(this.repository)) {
+			treeWalkDir.reset(revCommit.getTree());
+			treeWalkDir.setFilter(PathFilter.create(pageName));
+			treeWalkDir.setRecursive(false);
+			//here we have our file directly
+			if (treeWalkDir.next()) {
+				return treeWalkDir.getObjectId(0);
+			}
+			else {
+				throw new ProviderException("Can't load Git object for " + pageName + " version " + version);
+			}
 		}
 	}
 
@@ -694,8 +735,9 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 			canWriteFileLock();
 			commitLock();
 			final File file = findPage(page.getName());
-			file.delete();
 			try {
+				awaitGroupCommits(Collections.singletonList(file.getName()));
+				file.delete();
 				final Git git = new Git(this.repository);
 
 				retryGitOperation(() -> {
@@ -707,6 +749,16 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 					this.openCommits.get(page.getAuthor()).add(file.getName());
 					cache.addCacheCommand(page.getAuthor(), new CacheCommand.DeletePageVersion(page));
 				}
+				else if (isGroupCommitEnabled()) {
+					String comment = gitCommentStrategy.getComment(page);
+					final String message = comment.isEmpty() ? "removed page" : comment;
+					final ObjectId commitId = commitGrouped(Collections.singletonList(file.getName()), page.getName(), message, page.getAuthor(),
+							groupCommitId -> cache.deletePage(page, message, groupCommitId));
+					WikiEventManager.fireEvent(this, new GitVersioningWikiEvent(this, GitVersioningWikiEvent.DELETE,
+							page.getAuthor(),
+							page.getName(),
+							commitId.getName()));
+				}
 				else {
 					final CommitCommand commitCommand = git.commit()
 							.setOnly(file.getName());
@@ -750,6 +802,7 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 			final File fromFile = findPage(from.getName());
 			final File toFile = findPage(to);
 			try {
+				awaitGroupCommits(Arrays.asList(toFile.getName(), fromFile.getName()));
 				if (fromFile.getName().equalsIgnoreCase(toFile.getName())) {
 					File tmpFile = findPage(to + "_tmp");
 					Files.move(fromFile.toPath(), tmpFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
@@ -774,6 +827,16 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 					this.openCommits.get(from.getAuthor()).add(toFile.getName());
 					cache.addCacheCommand(from.getAuthor(), new CacheCommand.MovePage(from, to));
 				}
+				else if (isGroupCommitEnabled()) {
+					String comment = gitCommentStrategy.getComment(from);
+					final String message = comment.isEmpty() ? "renamed page " + from + " to " + to : comment;
+					final ObjectId commitId = commitGrouped(Arrays.asList(toFile.getName(), fromFile.getName()), to, message, from.getAuthor(),
+							groupCommitId -> cache.movePage(from, to, message, groupCommitId));
+					WikiEventManager.fireEvent(this, new GitVersioningWikiEvent(this, GitVersioningWikiEvent.MOVED,
+							from.getAuthor(),
+							to,
+							commitId.getName()));
+				}
 				else {
 					final CommitCommand commitCommand = git.commit()
 							.setOnly(toFile.getName())
@@ -936,6 +999,102 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 		}
 	}
 
+	/**
+	 * Returns whether the write of the current thread can be committed together with concurrent writes. This requires
+	 * that the write owns the only hold of the commit lock, because the commit lock is released while waiting for the
+	 * group, and outer holders of the lock rely on exclusive access.
+	 */
+	boolean isGroupCommitEnabled() {
+		return groupCommitter != null && this.commitLock.getHoldCount() == 1;
+	}
+
+	/**
+	 * Waits until pending group commits of the specified paths have been committed, so the paths can be changed in
+	 * the working tree. Has to be called while holding the commit lock, before changing the paths. While waiting, the
+	 * commit lock is released. If the commit lock is held more than once, e.g. by an outer write, it cannot be
+	 * released, so the pending groups are committed by the current thread instead.
+	 *
+	 * @param paths the paths to be changed
+	 */
+	void awaitGroupCommits(Collection<String> paths) throws InterruptedException {
+		if (this.groupCommitter == null) return;
+		if (this.commitLock.getHoldCount() > 1) {
+			this.groupCommitter.commitPending(paths);
+			return;
+		}
+		while (this.groupCommitter.isPending(paths)) {
+			this.commitLock.unlock();
+			try {
+				this.groupCommitter.awaitPending(paths);
+			}
+			finally {
+				this.commitLock.lock();
+			}
+		}
+	}
+
+	/**
+	 * Commits the already staged paths of a write together with the paths of concurrent writes. While waiting for the
+	 * group to be committed, the commit lock is released, so the concurrent writes can stage their changes and join the
+	 * group. Must only be called if {@link #isGroupCommitEnabled()}.
+	 *
+	 * @param paths       the paths to commit
+	 * @param name        the name of the written page or attachment
+	 * @param message     the commit message of the write
+	 * @param author      the author of the write
+	 * @param onCommitted called with the id of the commit, while holding the commit lock, to update the version cache
+	 *                    in the order of the commits
+	 * @return the id of the commit
+	 */
+	ObjectId commitGrouped(Collection<String> paths, String name, String message, String author, Consumer<ObjectId> onCommitted) throws Exception {
+		GitGroupCommitter.PendingCommit pending = this.groupCommitter.join(paths, name, message, author, onCommitted);
+		this.commitLock.unlock();
+		try {
+			return this.groupCommitter.await(pending);
+		}
+		finally {
+			this.commitLock.lock();
+		}
+	}
+
+	private ObjectId commitGroup(List<GitGroupCommitter.PendingCommit> group) throws Exception {
+		try {
+			commitLock();
+			final Git git = new Git(this.repository);
+			final CommitCommand commitCommand = git.commit().setAllowEmpty(true);
+			for (GitGroupCommitter.PendingCommit pending : group) {
+				for (String path : pending.paths) {
+					commitCommand.setOnly(path);
+				}
+			}
+			boolean singleAuthor = group.stream().map(pending -> pending.author).distinct().count() == 1;
+			if (group.size() == 1) {
+				commitCommand.setMessage(group.get(0).message);
+			}
+			else {
+				StringBuilder message = new StringBuilder("changed " + group.size() + " pages and attachments\n");
+				for (GitGroupCommitter.PendingCommit pending : group) {
+					message.append("\n").append(pending.name);
+					if (!singleAuthor) message.append(" (").append(pending.author).append(")");
+					message.append(": ").append(pending.message);
+				}
+				commitCommand.setMessage(message.toString());
+			}
+			// a commit has only one author, the authors of the other writes are listed in the message
+			addUserInfo(this.m_engine, group.get(0).author, commitCommand);
+			final ObjectId commitId = retryGitOperation(() -> commitCommand.call().getId(),
+					LockFailedException.class, "Retry commit to repo, because of lock failed exception");
+			for (GitGroupCommitter.PendingCommit pending : group) {
+				pending.onCommitted.accept(commitId);
+			}
+			periodicalGitGC(git);
+			return commitId;
+		}
+		finally {
+			commitUnlock();
+		}
+	}
+
 	public void commitLock() {
 		//noinspection LockAcquiredButNotSafelyReleased
 		this.commitLock.lock();
@@ -978,6 +1137,14 @@ public class GitVersioningFileProvider extends AbstractFileProvider {
 		return cache;
 	}
 
+	GitBlobCache getBlobCache() {
+		return blobCache;
+	}
+
+	IgnoreNode getIgnoreNode() {
+		return ignoreNode;
+	}
+
 	public void pauseAutoUpdate(){
 		if(autoUpdateEnabled && remoteRepo)
 			scheduler.pauseAutoUpdate();
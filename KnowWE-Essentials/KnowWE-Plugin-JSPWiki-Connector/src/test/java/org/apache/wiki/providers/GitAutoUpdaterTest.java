@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package org.apache.wiki.providers;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.wiki.PageManager;
+import org.apache.wiki.WikiEngine;
+import org.apache.wiki.WikiPage;
+import org.apache.wiki.WikiProvider;
+import org.apache.wiki.attachment.Attachment;
+import org.apache.wiki.auth.UserManager;
+import org.apache.wiki.auth.user.UserDatabase;
+import org.apache.wiki.auth.user.UserProfile;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.PullResult;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.denkbares.utils.Files;
+import de.knowwe.core.ArticleManager;
+import de.knowwe.core.kdom.Article;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests that the {@link GitAutoUpdater} only reloads the pages and attachments changed by a pulled commit range.
+ *
+ * @created 17.10.2026
+ */
+public class GitAutoUpdaterTest {
+
+	private static final String AUTHOR = "author";
+
+	private String TMP_NEW_REPO;
+	private String TMP_REMOTE_REPO;
+
+	private Properties properties;
+	private WikiEngine engine;
+	private GitVersioningFileProvider fileProvider;
+	private GitVersioningAttachmentProvider attachmentProvider;
+
+	@Before
+	public void init() throws Exception {
+		TMP_NEW_REPO = new File(Files.getSystemTempDir(), "newRepo").getAbsolutePath();
+		TMP_REMOTE_REPO = new File(Files.getSystemTempDir(), "newRepoRemote").getAbsolutePath();
+		properties = new Properties();
+		properties.put(AbstractFileProvider.PROP_PAGEDIR, TMP_NEW_REPO);
+		properties.put(GitVersioningAttachmentProvider.PROP_STORAGEDIR, TMP_NEW_REPO);
+		engine = Mockito.mock(WikiEngine.class);
+		when(engine.getWikiProperties()).thenReturn(properties);
+		PageManager pageManager = Mockito.mock(PageManager.class);
+		fileProvider = new GitVersioningFileProvider();
+		fileProvider.initialize(engine, properties);
+		when(engine.getPageManager()).thenReturn(pageManager);
+		when(pageManager.getProvider()).thenReturn(fileProvider);
+		UserManager um = Mockito.mock(UserManager.class);
+		when(engine.getUserManager()).thenReturn(um);
+		UserDatabase udb = mock(UserDatabase.class);
+		when(um.getUserDatabase()).thenReturn(udb);
+		UserProfile up = mock(UserProfile.class);
+		when(udb.findByFullName(AUTHOR)).thenReturn(up);
+		when(up.getFullname()).thenReturn(AUTHOR);
+		when(up.getEmail()).thenReturn("author@nowhere.com");
+		attachmentProvider = new GitVersioningAttachmentProvider();
+		attachmentProvider.initialize(engine, properties);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		fileProvider.repository.close();
+		FileUtils.deleteDirectory(new File(TMP_NEW_REPO));
+		FileUtils.deleteDirectory(new File(TMP_REMOTE_REPO));
+	}
+
+	@Test
+	public void testReadOnlyChangesOfPulledCommits() throws Exception {
+		putPage("Unchanged", "unchanged text");
+		putPage("Changed", "old text");
+		putPage("Deleted", "deleted text");
+		putAttachment("Unchanged", "stay.txt", "stay");
+		putAttachment("Changed", "keep.txt", "keep");
+
+		// the remote gets two commits, so the update has to read a range of commits instead of a single one
+		try (Git remote = Git.cloneRepository()
+				.setURI(new File(TMP_NEW_REPO).toURI().toString())
+				.setDirectory(new File(TMP_REMOTE_REPO))
+				.call()) {
+			FileUtils.writeStringToFile(new File(TMP_REMOTE_REPO, "Changed.txt"), "new text", StandardCharsets.UTF_8);
+			remote.add().addFilepattern("Changed.txt").call();
+			remote.rm().addFilepattern("Deleted.txt").call();
+			remote.commit().setMessage("change and delete pages").setAuthor(AUTHOR, "author@nowhere.com").call();
+			FileUtils.writeStringToFile(new File(TMP_REMOTE_REPO, "Changed-att/new.txt"), "new", StandardCharsets.UTF_8);
+			remote.add().addFilepattern("Changed-att/new.txt").call();
+			remote.commit().setMessage("add attachment").setAuthor(AUTHOR, "author@nowhere.com").call();
+		}
+
+		Git git = new Git(fileProvider.repository);
+		StoredConfig config = fileProvider.repository.getConfig();
+		config.setString("remote", "origin", "url", new File(TMP_REMOTE_REPO).toURI().toString());
+		config.setString("remote", "origin", "fetch", "+refs/heads/*:refs/remotes/origin/*");
+		config.save();
+
+		RevWalk revWalk = new RevWalk(fileProvider.repository);
+		RevCommit oldHead = revWalk.parseCommit(fileProvider.repository.resolve(Constants.HEAD));
+		PullResult pullResult = git.pull().setRemote("origin").setRemoteBranchName("master").setRebase(true).call();
+		assertTrue(pullResult.isSuccessful());
+		fileProvider.getCache().initializeCache();
+		RevCommit newHead = revWalk.parseCommit(fileProvider.repository.resolve(Constants.HEAD));
+		assertNotEquals(oldHead, newHead);
+
+		ArticleManager articleManager = mock(ArticleManager.class);
+		when(articleManager.getArticle("Deleted")).thenReturn(mock(Article.class));
+		when(engine.getPureText("Changed", WikiProvider.LATEST_VERSION)).thenReturn("new text");
+		new GitAutoUpdater(engine, fileProvider, new GitAutoUpdateScheduler()).readChanges(articleManager, oldHead, newHead);
+
+		ArgumentCaptor<WikiPage> reloaded = ArgumentCaptor.forClass(WikiPage.class);
+		verify(engine, atLeastOnce()).deleteVersion(reloaded.capture());
+		Set<String> reloadedNames = new TreeSet<>();
+		for (WikiPage page : reloaded.getAllValues()) {
+			reloadedNames.add(page.getName());
+		}
+		assertEquals(new TreeSet<>(Set.of("Changed", "Deleted", "Changed/new.txt")), reloadedNames);
+
+		verify(articleManager).registerArticle("Changed", "new text");
+		verify(articleManager).deleteArticle("Deleted");
+		verify(articleManager, never()).registerArticle(eq("Unchanged"), anyString());
+		verify(articleManager, never()).registerArticle(eq("Deleted"), anyString());
+		verify(articleManager, never()).deleteArticle(eq("Changed"));
+	}
+
+	private void putPage(String name, String text) throws Exception {
+		WikiPage page = new WikiPage(engine, name);
+		page.setAuthor(AUTHOR);
+		page.setAttribute(WikiPage.CHANGENOTE, "add " + name);
+		fileProvider.putPageText(page, text);
+	}
+
+	private void putAttachment(String parent, String name, String text) throws Exception {
+		Attachment attachment = new Attachment(engine, parent, name);
+		attachment.setAuthor(AUTHOR);
+		attachment.setAttribute(Attachment.CHANGENOTE, "add " + name);
+		attachmentProvider.putAttachmentData(attachment, new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+	}
+}
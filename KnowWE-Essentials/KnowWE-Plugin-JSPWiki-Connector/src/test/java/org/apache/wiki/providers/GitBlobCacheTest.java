@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package org.apache.wiki.providers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.wiki.WikiEngine;
+import org.apache.wiki.WikiPage;
+import org.apache.wiki.WikiProvider;
+import org.apache.wiki.auth.UserManager;
+import org.apache.wiki.auth.user.UserDatabase;
+import org.apache.wiki.auth.user.UserProfile;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.denkbares.utils.Files;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the eviction and the size limits of the {@link GitBlobCache}, and reading old page versions by the blob ids of
+ * the revision index.
+ *
+ * @created 17.10.2026
+ */
+public class GitBlobCacheTest {
+
+	private static final String AUTHOR = "author";
+
+	private String TMP_NEW_REPO;
+	private Properties properties;
+
+	@Before
+	public void init() {
+		TMP_NEW_REPO = new File(Files.getSystemTempDir(), "newRepo").getAbsolutePath();
+		properties = new Properties();
+		properties.put(AbstractFileProvider.PROP_PAGEDIR, TMP_NEW_REPO);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(new File(TMP_NEW_REPO));
+	}
+
+	@Test
+	public void testEviction() throws IOException {
+		try (Repository repository = createRepository()) {
+			// blobs of ten bytes, the cache holds sixteen of them
+			GitBlobCache cache = new GitBlobCache(repository, 160);
+			List<ObjectId> blobIds = new ArrayList<>();
+			for (int i = 0; i < 17; i++) {
+				blobIds.add(insertBlob(repository, String.format("blob %5d", i)));
+			}
+			for (int i = 0; i < 16; i++) {
+				assertEquals(String.format("blob %5d", i), new String(cache.getBytes(blobIds.get(i)), StandardCharsets.UTF_8));
+			}
+			assertEquals(160, cache.getCachedBytes());
+
+			// the first blob was used recently, so the second one is evicted instead
+			cache.getBytes(blobIds.get(0));
+			cache.getBytes(blobIds.get(16));
+			assertEquals(160, cache.getCachedBytes());
+			assertTrue(cache.contains(blobIds.get(0)));
+			assertFalse(cache.contains(blobIds.get(1)));
+			assertTrue(cache.contains(blobIds.get(16)));
+
+			// evicted blobs are read again from the repository
+			assertEquals("blob     1", new String(cache.getBytes(blobIds.get(1)), StandardCharsets.UTF_8));
+			assertTrue(cache.contains(blobIds.get(1)));
+			assertFalse(cache.contains(blobIds.get(2)));
+		}
+	}
+
+	@Test
+	public void testLargeBlobsAreNotCached() throws IOException {
+		try (Repository repository = createRepository()) {
+			GitBlobCache cache = new GitBlobCache(repository, 160);
+			ObjectId small = insertBlob(repository, "ten bytes!");
+			ObjectId large = insertBlob(repository, "eleven byte");
+
+			// blobs larger than a sixteenth of the cache are streamed from the repository
+			try (InputStream in = cache.openStream(large)) {
+				assertEquals("eleven byte", IOUtils.toString(in, StandardCharsets.UTF_8));
+			}
+			assertFalse(cache.contains(large));
+			assertEquals("eleven byte", new String(cache.getBytes(large), StandardCharsets.UTF_8));
+			assertFalse(cache.contains(large));
+			assertEquals(0, cache.getCachedBytes());
+
+			try (InputStream in = cache.openStream(small)) {
+				assertEquals("ten bytes!", IOUtils.toString(in, StandardCharsets.UTF_8));
+			}
+			assertTrue(cache.contains(small));
+			assertEquals(10, cache.getCachedBytes());
+			try (InputStream in = cache.openStream(small)) {
+				assertEquals("ten bytes!", IOUtils.toString(in, StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	@Test
+	public void testOldVersionsFromRevisionIndex() throws Exception {
+		WikiEngine engine = getWikiEngineMock();
+		GitVersioningFileProvider fileProvider = new GitVersioningFileProvider();
+		fileProvider.initialize(engine, properties);
+		List<String> texts = Arrays.asList("first text", "second text", "third text");
+		WikiPage page = new WikiPage(engine, "test");
+		page.setAuthor(AUTHOR);
+		for (String text : texts) {
+			page.setAttribute(WikiPage.CHANGENOTE, text);
+			fileProvider.putPageText(page, text);
+		}
+
+		// the first initialization indexes the commits and stores the revision index, the second one reads it
+		new GitVersioningFileProvider().initialize(engine, properties);
+		fileProvider = new GitVersioningFileProvider();
+		fileProvider.initialize(engine, properties);
+
+		for (int version = 1; version <= texts.size(); version++) {
+			ObjectId blobId = new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB,
+					texts.get(version - 1).getBytes(StandardCharsets.UTF_8));
+			assertEquals(blobId, fileProvider.getCache().getPageVersion("test", version).getBlobId());
+			assertFalse(fileProvider.getBlobCache().contains(blobId));
+		}
+		for (int version = 1; version < texts.size(); version++) {
+			assertEquals(texts.get(version - 1), fileProvider.getPageText("test", version));
+			ObjectId blobId = fileProvider.getCache().getPageVersion("test", version).getBlobId();
+			assertTrue(fileProvider.getBlobCache().contains(blobId));
+			// read again from the cache
+			assertEquals(texts.get(version - 1), fileProvider.getPageText("test", version));
+		}
+		assertEquals("third text", fileProvider.getPageText("test", WikiProvider.LATEST_VERSION));
+	}
+
+	private Repository createRepository() throws IOException {
+		Repository repository = FileRepositoryBuilder.create(new File(TMP_NEW_REPO, ".git"));
+		repository.create();
+		return repository;
+	}
+
+	private static ObjectId insertBlob(Repository repository, String content) throws IOException {
+		try (ObjectInserter inserter = repository.newObjectInserter()) {
+			ObjectId blobId = inserter.insert(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8));
+			inserter.flush();
+			return blobId;
+		}
+	}
+
+	private WikiEngine getWikiEngineMock() throws Exception {
+		WikiEngine engine = Mockito.mock(WikiEngine.class);
+		when(engine.getWikiProperties()).thenReturn(properties);
+		UserManager userManager = Mockito.mock(UserManager.class);
+		UserDatabase userDatabase = Mockito.mock(UserDatabase.class);
+		UserProfile userProfile = Mockito.mock(UserProfile.class);
+		when(engine.getUserManager()).thenReturn(userManager);
+		when(userManager.getUserDatabase()).thenReturn(userDatabase);
+		when(userDatabase.findByFullName(AUTHOR)).thenReturn(userProfile);
+		when(userProfile.getFullname()).thenReturn(AUTHOR);
+		when(userProfile.getEmail()).thenReturn("author@nowhere.com");
+		return engine;
+	}
+}
@@ -21,8 +21,13 @@ package org.apache.wiki.providers;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.time.StopWatch;
@@ -35,6 +40,8 @@ import org.apache.wiki.auth.UserManager;
 import org.apache.wiki.auth.user.UserDatabase;
 import org.apache.wiki.auth.user.UserProfile;
 import org.apache.wiki.util.TextUtil;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -42,6 +49,7 @@ import org.mockito.Mockito;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -222,4 +230,60 @@ public class GitVersioningBenchmarkTest {
 	public void testMillionFiles3() throws Exception {
 		runMassiveFileTest(10000);
 	}
+
+	@Test
+	public void testBulkEditThroughput() throws Exception {
+		int pageCount = 300;
+		StopWatch mark = new StopWatch();
+
+		mark.start();
+		saveConcurrently("Serial", pageCount);
+		mark.stop();
+		System.out.println("Benchmark bulk edit, one commit per page: " + getTime(mark, pageCount) + " pages/second");
+
+		properties.put(GitVersioningFileProvider.JSPWIKI_GIT_VERSIONING_FILE_PROVIDER_GROUP_COMMIT_WINDOW, "20");
+		fileProvider = new GitVersioningFileProvider();
+		fileProvider.initialize(engine, properties);
+		int commitsBefore = countCommits();
+
+		mark.reset();
+		mark.start();
+		saveConcurrently("Grouped", pageCount);
+		mark.stop();
+		int commits = countCommits() - commitsBefore;
+		System.out.println("Benchmark bulk edit, group commits: " + getTime(mark, pageCount) + " pages/second, "
+				+ commits + " commits for " + pageCount + " pages");
+
+		assertTrue(commits <= pageCount);
+		assertEquals(2 * pageCount, getAllPages().size());
+		assertEquals(1, fileProvider.getVersionHistory("Grouped0").size());
+	}
+
+	private void saveConcurrently(String prefix, int pageCount) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < pageCount; i++) {
+				String name = prefix + i;
+				futures.add(executor.submit(() -> {
+					saveText(name, "Testing, 1, 2, 3: " + name);
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private int countCommits() throws Exception {
+		int count = 0;
+		for (RevCommit ignored : new Git(fileProvider.getRepository()).log().call()) {
+			count++;
+		}
+		return count;
+	}
 }
@@ -26,10 +26,16 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -254,6 +260,204 @@ public class GitVersioningFileProviderTest {
 		assertTrue("deleted pages have no version log anymore", allChangedSince.isEmpty());
 	}
 
+	@Test
+	public void testVersionHistoryFromRevisionIndex() throws IOException, NoRequiredPropertyException, ProviderException, NoSuchPrincipalException {
+		final String author = "UnknownAuthor";
+		WikiEngine engine = getWikiEngineMock(author);
+
+		GitVersioningFileProvider fileProvider = new GitVersioningFileProvider();
+		fileProvider.initialize(engine, properties);
+
+		WikiPage page = new WikiPage(engine, "test");
+		page.setLastModified(new Date());
+		page.setAuthor(author);
+		page.setAttribute(WikiPage.CHANGENOTE, "add test");
+		fileProvider.putPageText(page, "test file text");
+		page.setAttribute(WikiPage.CHANGENOTE, "changed test");
+		fileProvider.putPageText(page, "new text");
+
+		// indexes all commits and stores the revision index
+		fileProvider = new GitVersioningFileProvider();
+		fileProvider.initialize(engine, properties);
+		assertTrue(new File(TMP_NEW_REPO + "/.git/knowwe-revision-index").exists());
+		assertEquals(2, fileProvider.getVersionHistory("test").size());
+
+		page.setAttribute(WikiPage.CHANGENOTE, "changed test again");
+		fileProvider.putPageText(page, "newer text");
+
+		// loads the revision index and only indexes the new commit
+		fileProvider = new GitVersioningFileProvider();
+		fileProvider.initialize(engine, properties);
+		List<WikiPage> versionHistory = fileProvider.getVersionHistory("test");
+		assertEquals(3, versionHistory.size());
+		// newest version first
+		assertEquals(3, versionHistory.get(0).getVersion());
+		assertEquals(1, versionHistory.get(2).getVersion());
+	}
+
+	@Test
+	public void testVersionHistoryOfMultipleCommitRanges() throws Exception {
+		final String author = "UnknownAuthor";
+		WikiEngine engine = getWikiEngineMock(author);
+		GitVersioningFileProvider fileProvider = new GitVersioningFileProvider();
+		fileProvider.initialize(engine, properties);
+
+		WikiPage moved = getWikiPage(engine, "moved", author);
+		moved.setAttribute(WikiPage.CHANGENOTE, "add moved");
+		fileProvider.putPageText(moved, "text of the moved page");
+		WikiPage deleted = getWikiPage(engine, "deleted", author);
+		deleted.setAttribute(WikiPage.CHANGENOTE, "add deleted");
+		fileProvider.putPageText(deleted, "text of the deleted page");
+
+		// fill the first range of commits, so the move and the delete are the first commits of the second range
+		WikiPage filler = getWikiPage(engine, "filler", author);
+		Git git = new Git(getRepository());
+		int commitCount = GitVersioningUtils.reverseToList(git.log().call()).size();
+		int fillerCount = GitVersionCache.COMMIT_RANGE_SIZE - commitCount;
+		while (commitCount < GitVersionCache.COMMIT_RANGE_SIZE) {
+			filler.setAttribute(WikiPage.CHANGENOTE, "filler " + commitCount);
+			fileProvider.putPageText(filler, "filler text " + commitCount);
+			commitCount++;
+		}
+		WikiPage from = getWikiPage(engine, "moved", author);
+		fileProvider.movePage(from, "renamed");
+		fileProvider.deletePage(getWikiPage(engine, "deleted", author));
+		WikiPage renamed = getWikiPage(engine, "renamed", author);
+		for (int i = 0; i < 10; i++) {
+			renamed.setAttribute(WikiPage.CHANGENOTE, "change renamed " + i);
+			fileProvider.putPageText(renamed, "text of the renamed page " + i);
+		}
+		assertTrue(GitVersioningUtils.reverseToList(git.log().call()).size() > GitVersionCache.COMMIT_RANGE_SIZE);
+
+		GitVersionCache multipleRanges = initializeCache(engine, fileProvider, GitVersionCache.COMMIT_RANGE_SIZE, 2);
+		GitVersionCache singleRange = initializeCache(engine, fileProvider, Integer.MAX_VALUE, 1);
+		for (String pageName : Arrays.asList("moved", "deleted", "filler", "renamed")) {
+			assertEqualHistory(pageName, singleRange.getPageHistory(pageName), multipleRanges.getPageHistory(pageName));
+		}
+		assertEquals(fileProvider.getVersionHistory("renamed").size(), multipleRanges.getPageHistory("renamed").size());
+		assertEquals(fillerCount, multipleRanges.getPageHistory("filler").size());
+	}
+
+	private GitVersionCache initializeCache(WikiEngine engine, GitVersioningFileProvider fileProvider, int commitRangeSize, int indexerThreads) throws IOException {
+		// without the stored revisions, all commits are indexed again
+		FileUtils.deleteQuietly(new File(TMP_NEW_REPO + "/.git/knowwe-revision-index"));
+		GitVersionCache cache = new GitVersionCache(engine, fileProvider.repository, fileProvider.getIgnoreNode(), commitRangeSize, indexerThreads);
+		cache.initializeCache();
+		return cache;
+	}
+
+	private void assertEqualHistory(String pageName, List<WikiPage> expected, List<WikiPage> actual) {
+		if (expected == null) {
+			assertNull(pageName, actual);
+			return;
+		}
+		assertNotNull(pageName, actual);
+		assertEquals(pageName, expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			WikiPage expectedPage = expected.get(i);
+			WikiPage actualPage = actual.get(i);
+			assertEquals(pageName, expectedPage.getVersion(), actualPage.getVersion());
+			assertEquals(pageName, expectedPage.getAuthor(), actualPage.getAuthor());
+			assertEquals(pageName, expectedPage.getLastModified(), actualPage.getLastModified());
+			assertEquals(pageName, expectedPage.getSize(), actualPage.getSize());
+			assertEquals(pageName, expectedPage.getAttribute(WikiPage.CHANGENOTE), actualPage.getAttribute(WikiPage.CHANGENOTE));
+		}
+	}
+
+	@Test
+	public void testGroupCommitOfSamePage() throws Exception {
+		final String author = "UnknownAuthor";
+		WikiEngine engine = getWikiEngineMock(author);
+		properties.put(GitVersioningFileProvider.JSPWIKI_GIT_VERSIONING_FILE_PROVIDER_GROUP_COMMIT_WINDOW, "200");
+
+		GitVersioningFileProvider fileProvider = new GitVersioningFileProvider();
+		fileProvider.initialize(engine, properties);
+
+		// both writes fall into the same group window, the second one has to wait for the first to be committed
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (String text : Arrays.asList("first text", "second text")) {
+				futures.add(executor.submit(() -> {
+					WikiPage page = new WikiPage(engine, "test");
+					page.setLastModified(new Date());
+					page.setAuthor(author);
+					fileProvider.putPageText(page, text);
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		assertEquals(2, fileProvider.getVersionHistory("test").size());
+		Set<String> texts = new HashSet<>();
+		texts.add(fileProvider.getPageText("test", 1));
+		texts.add(fileProvider.getPageText("test", 2));
+		assertEquals(new HashSet<>(Arrays.asList("first text", "second text")), texts);
+		assertEquals(fileProvider.getPageText("test", 2), fileProvider.getPageText("test", WikiProvider.LATEST_VERSION));
+
+		// reindexing the history finds a commit for each version
+		GitVersioningFileProvider reindexed = new GitVersioningFileProvider();
+		reindexed.initialize(engine, properties);
+		assertEquals(2, reindexed.getVersionHistory("test").size());
+		assertEquals(fileProvider.getPageText("test", 1), reindexed.getPageText("test", 1));
+	}
+
+	@Test
+	public void testGroupCommitWithNestedCommitLock() throws Exception {
+		final String author = "UnknownAuthor";
+		WikiEngine engine = getWikiEngineMock(author);
+		properties.put(GitVersioningFileProvider.JSPWIKI_GIT_VERSIONING_FILE_PROVIDER_GROUP_COMMIT_WINDOW, "5000");
+
+		GitVersioningFileProvider fileProvider = new GitVersioningFileProvider();
+		fileProvider.initialize(engine, properties);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> first = executor.submit(() -> {
+				WikiPage page = new WikiPage(engine, "test");
+				page.setLastModified(new Date());
+				page.setAuthor(author);
+				fileProvider.putPageText(page, "first text");
+				return null;
+			});
+			// let the first write join its group and wait for the group window
+			Thread.sleep(500);
+
+			// an outer holder of the commit lock cannot wait for the group, so the group is committed right away
+			long start = System.currentTimeMillis();
+			fileProvider.commitLock();
+			try {
+				WikiPage page = new WikiPage(engine, "test");
+				page.setLastModified(new Date());
+				page.setAuthor(author);
+				fileProvider.putPageText(page, "second text");
+			}
+			finally {
+				fileProvider.commitUnlock();
+			}
+			first.get();
+			assertTrue(System.currentTimeMillis() - start < 5000);
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		assertEquals(2, fileProvider.getVersionHistory("test").size());
+		assertEquals("first text", fileProvider.getPageText("test", 1));
+		assertEquals("second text", fileProvider.getPageText("test", 2));
+
+		GitVersioningFileProvider reindexed = new GitVersioningFileProvider();
+		reindexed.initialize(engine, properties);
+		assertEquals(2, reindexed.getVersionHistory("test").size());
+		assertEquals("first text", reindexed.getPageText("test", 1));
+	}
+
 	@Test
 	public void testEmptyCommit() throws NoSuchPrincipalException, IOException, NoRequiredPropertyException, ProviderException, GitAPIException {
 		WikiEngine engine = getWikiEngineMock("egal");
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.compile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.denkbares.collections.PriorityList;
+import com.denkbares.collections.PriorityList.Group;
+import com.denkbares.utils.Pair;
+import de.knowwe.core.compile.packaging.PackageManager;
+
+/**
+ * Schedules the compilers of one compilation of a {@link CompilerManager}. A compiler depends on all compilers of a
+ * lower priority, except if both compilers are {@link PackageCompiler}s, that are not related to each other according
+ * to their {@link PackageManager}. So instead of waiting for all compilers of the previous priority to be finished, a
+ * package compiler can start as soon as all compilers it depends on are finished, so independent knowledge bases are
+ * compiled fully in parallel. Compilers of the same priority never depend on each other.
+ * <p>
+ * The graph is evaluated lazily on the current compilers of the compiler manager, because compilers may be added or
+ * removed during the compilation. This class is not thread-safe, it must only be used while holding the lock of the
+ * compiler manager.
+ *
+ * @created 17.10.2026
+ */
+class CompilerDependencyGraph {
+
+	private final PriorityList<Double, Compiler> compilers;
+	private final Set<Compiler> started = new HashSet<>();
+	private final Set<Compiler> finished = new HashSet<>();
+	private final Map<Pair<Compiler, Compiler>, Boolean> dependencies = new HashMap<>();
+	private double maxStartedPriority = Double.NEGATIVE_INFINITY;
+
+	CompilerDependencyGraph(PriorityList<Double, Compiler> compilers) {
+		this.compilers = compilers;
+	}
+
+	/**
+	 * Returns the compilers that are ready to be started, because all compilers they depend on have finished. The
+	 * returned compilers are marked as started.
+	 */
+	List<Compiler> nextCompilers() {
+		List<Compiler> next = new ArrayList<>();
+		List<Compiler> unfinished = new ArrayList<>();
+		for (Group<Double, Compiler> group : compilers.getPriorityGroups()) {
+			List<Compiler> unfinishedOfGroup = new ArrayList<>();
+			for (Compiler compiler : group.getElements()) {
+				if (finished.contains(compiler)) continue;
+				unfinishedOfGroup.add(compiler);
+				if (started.contains(compiler)) continue;
+				if (unfinished.stream().noneMatch(other -> dependsOn(compiler, other))) {
+					next.add(compiler);
+					maxStartedPriority = Math.max(maxStartedPriority, group.getPriority());
+				}
+			}
+			unfinished.addAll(unfinishedOfGroup);
+		}
+		started.addAll(next);
+		return next;
+	}
+
+	/**
+	 * Returns the compilers that are not yet started, but have a priority not higher than any started compiler. Other
+	 * compilers may wait for these compilers to complete some priority, as if they were already compiling.
+	 */
+	List<Compiler> getWaitingCompilers() {
+		List<Compiler> waiting = new ArrayList<>();
+		for (Group<Double, Compiler> group : compilers.getPriorityGroups()) {
+			if (group.getPriority() > maxStartedPriority) break;
+			for (Compiler compiler : group.getElements()) {
+				if (!started.contains(compiler)) waiting.add(compiler);
+			}
+		}
+		return waiting;
+	}
+
+	boolean isStarted(Compiler compiler) {
+		return started.contains(compiler);
+	}
+
+	void finished(Compiler compiler) {
+		finished.add(compiler);
+	}
+
+	/**
+	 * Returns true if all started compilers have finished and there are no more compilers to be started.
+	 */
+	boolean isDone() {
+		if (started.size() != finished.size()) return false;
+		for (Compiler compiler : compilers) {
+			if (!finished.contains(compiler)) return false;
+		}
+		return true;
+	}
+
+	private boolean dependsOn(Compiler compiler, Compiler other) {
+		// other compilers than package compilers may use anything, so we have to wait for them
+		if (!(compiler instanceof PackageCompiler) || !(other instanceof PackageCompiler)) return true;
+		// the package registration has finished before (it is not a package compiler), so the result is stable
+		return dependencies.computeIfAbsent(new Pair<>(compiler, other),
+				key -> isRelated((PackageCompiler) compiler, (PackageCompiler) other));
+	}
+
+	private static boolean isRelated(PackageCompiler compiler, PackageCompiler other) {
+		PackageManager packageManager = compiler.getPackageManager();
+		if (packageManager != other.getPackageManager()) return true;
+		return packageManager.isRelated(compiler.getCompileSection(), other.getCompileSection());
+	}
+}
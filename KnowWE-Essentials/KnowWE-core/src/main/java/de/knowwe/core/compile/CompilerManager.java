@@ -5,15 +5,16 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -22,7 +23,6 @@ import org.jetbrains.annotations.Nullable;
 
 import com.denkbares.collections.CountingSet;
 import com.denkbares.collections.PriorityList;
-import com.denkbares.collections.PriorityList.Group;
 import com.denkbares.events.EventManager;
 import com.denkbares.utils.Log;
 import com.denkbares.utils.Stopwatch;
@@ -32,6 +32,7 @@ import de.knowwe.core.kdom.Type;
 import de.knowwe.core.kdom.parsing.Section;
 import de.knowwe.core.report.Messages;
 import de.knowwe.core.utils.KnowWEUtils;
+import de.knowwe.core.utils.VirtualThreadExecutor;
 
 /**
  * This class represents the compile manager for a specific {@link ArticleManager}. It is responsible to manage every
@@ -45,13 +46,20 @@ import de.knowwe.core.utils.KnowWEUtils;
  * <p/>
  * To enhance performance, each compiler top level compiles individually, maybe in parallel. Nevertheless, if the
  * compilers have different priorities (defined through the compiler's extension), they are ordered by these priorities.
- * Only compilers with same priority may compile in parallel.
+ * Only compilers with same priority may compile in parallel, except for package compilers, that only wait for the
+ * compilers of lower priority they may depend on, see {@link CompilerDependencyGraph}.
  * <p/>
  */
 public class CompilerManager {
 
 	private static final Map<Class<? extends Compiler>, ScriptManager<? extends Compiler>> scriptManagers = new HashMap<>();
 	private static final String KNOWWE_COMPILER_THREADS_COUNT = "knowwe.compiler.threads.count";
+	/**
+	 * If set to true, compilers, compile scripts and SPARQL tasks run in virtual threads (if supported by the JVM),
+	 * limited in their concurrency instead of their thread count.
+	 */
+	public static final String KNOWWE_COMPILER_THREADS_VIRTUAL = "knowwe.compiler.threads.virtual";
+	private static final boolean virtualThreads = Boolean.getBoolean(KNOWWE_COMPILER_THREADS_VIRTUAL);
 	// number of threads that are not used for compilers themselves, but for operational handling of compilation process
 	private static final int OPERATIONAL_THREAD_COUNT = 1;
 	private volatile int compilationCount = 0;
@@ -62,20 +70,35 @@ public class CompilerManager {
 	private final HashSet<Compiler> compilerCache;
 	private final ArticleManager articleManager;
 
-	private Iterator<Group<Double, Compiler>> running = null;
-	private final ThreadPoolExecutor threadPool;
+	private CompilerDependencyGraph running = null;
+	private final ExecutorService threadPool;
+	private final boolean virtualThreadMode;
 	private final Object lock = new Object();
 	private final Set<String> currentlyCompiledArticles = Collections.newSetFromMap(new ConcurrentHashMap<>());
 	private final Map<Compiler, Priority> currentlyCompiledPriority = new ConcurrentHashMap<>();
 	private final Set<Compiler> awaitedCompilers = new CountingSet<>();
 	private static final AtomicLong compileThreadNumber = new AtomicLong(1);
 	private static final Map<Thread, Object> compileThreads = Collections.synchronizedMap(new WeakHashMap<>());
+	private static final Object scriptExecutorLock = new Object();
+	private static ExecutorService scriptExecutor = null;
 
 	public CompilerManager(ArticleManager articleManager) {
+		this(articleManager, virtualThreads);
+	}
+
+	/**
+	 * Creates a compiler manager, that runs its compilers in virtual threads or in a fixed thread pool, regardless of
+	 * the system property {@link #KNOWWE_COMPILER_THREADS_VIRTUAL}. Only used for testing.
+	 */
+	CompilerManager(ArticleManager articleManager, boolean virtualThreadMode) {
 		this.articleManager = articleManager;
 		this.compilerCache = new HashSet<>();
 		this.compilers = new PriorityList<>(5d);
-		this.threadPool = createExecutorService();
+		this.virtualThreadMode = virtualThreadMode;
+		// waiting compilers do not occupy a thread in virtual thread mode, so there is no need to limit the compilers
+		this.threadPool = virtualThreadMode
+				? new VirtualThreadExecutor("KnowWE-Compiler", Integer.MAX_VALUE, thread -> compileThreads.put(thread, null))
+				: createExecutorService();
 		ServletContextEventListener.registerOnContextDestroyedTask(servletContextEvent -> onContextDestroyed());
 	}
 
@@ -93,6 +116,13 @@ public class CompilerManager {
 		return compileThreads.containsKey(Thread.currentThread());
 	}
 
+	/**
+	 * Returns whether the compilers run in virtual thread mode, see {@link #KNOWWE_COMPILER_THREADS_VIRTUAL}.
+	 */
+	public static boolean isVirtualThreadMode() {
+		return virtualThreads;
+	}
+
 	public static ThreadPoolExecutor createExecutorService() {
 		int threadCount = getCompilerThreadCount();
 		ThreadPoolExecutor pool = (ThreadPoolExecutor) Executors.newFixedThreadPool(threadCount, runnable -> {
@@ -105,6 +135,47 @@ public class CompilerManager {
 		return pool;
 	}
 
+	/**
+	 * Returns the executor that is shared by all compilers to run their compile scripts in parallel. The executor is a
+	 * long-lived work-stealing pool, so it must not be shut down by the compilers using it. Instead, they have to wait
+	 * for the tasks they have submitted, e.g. until all scripts of a priority are completed before the next priority is
+	 * started. The threads of the executor are compile threads, see {@link #isCompileThread()}.
+	 *
+	 * @return the shared executor for compile scripts
+	 */
+	public static ExecutorService getScriptExecutor() {
+		synchronized (scriptExecutorLock) {
+			if (scriptExecutor == null || scriptExecutor.isShutdown()) {
+				scriptExecutor = createScriptExecutor();
+			}
+			return scriptExecutor;
+		}
+	}
+
+	private static ExecutorService createScriptExecutor() {
+		int threadCount = getCompilerThreadCount();
+		if (virtualThreads) {
+			ExecutorService executor = new VirtualThreadExecutor("KnowWE-Script-Compiler", threadCount,
+					thread -> compileThreads.put(thread, null));
+			ServletContextEventListener.registerOnContextDestroyedTask(servletContextEvent -> executor.shutdown());
+			return executor;
+		}
+		// the default worker threads would use the system class loader, but scripts require the one of the web app
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		ForkJoinPool pool = new ForkJoinPool(threadCount, forkJoinPool -> {
+			ForkJoinWorkerThread thread = new ForkJoinWorkerThread(forkJoinPool) {
+			};
+			thread.setName("KnowWE-Script-Compiler-" + compileThreadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			thread.setContextClassLoader(contextClassLoader);
+			compileThreads.put(thread, null);
+			return thread;
+		}, (thread, e) -> Log.severe("Uncaught exception in compile thread " + thread.getName(), e), true);
+		ServletContextEventListener.registerOnContextDestroyedTask(servletContextEvent -> pool.shutdown());
+		Log.fine("Created shared script compiler pool of parallelism " + threadCount);
+		return pool;
+	}
+
 	private static int getCompilerThreadCount() {
 		final int defaultThreadCount = Runtime.getRuntime().availableProcessors() + OPERATIONAL_THREAD_COUNT;
 		final String threadCount = System.getProperty(KNOWWE_COMPILER_THREADS_COUNT, String.valueOf(defaultThreadCount));
@@ -117,19 +188,24 @@ public class CompilerManager {
 	}
 
 	/**
-	 * Get the current maximum number of compilers that are allowed to compile in parallel
+	 * Get the current maximum number of compilers that are allowed to compile in parallel. In virtual thread mode, the
+	 * number of compilers is not limited, so {@link Integer#MAX_VALUE} is returned.
 	 */
 	private int getMaxCompilationThreadCount() {
-		return threadPool.getMaximumPoolSize() - OPERATIONAL_THREAD_COUNT;
+		if (!(threadPool instanceof ThreadPoolExecutor)) return Integer.MAX_VALUE;
+		return ((ThreadPoolExecutor) threadPool).getMaximumPoolSize() - OPERATIONAL_THREAD_COUNT;
 	}
 
 	/**
 	 * Set the maximum number of compilers that are allowed to compile in parallel. Can be changed at any time, but must
-	 * not be < 1. Only change if you know what you are doing.
+	 * not be < 1. Only change if you know what you are doing. In virtual thread mode, the number of compilers is not
+	 * limited, so the thread count is ignored.
 	 */
 	private void setMaxCompilationThreadCount(int threadCount) {
 		if (threadCount < 1) throw new IllegalArgumentException("Thread count has to be >= 1");
+		if (!(this.threadPool instanceof ThreadPoolExecutor)) return;
 		threadCount += OPERATIONAL_THREAD_COUNT;
+		ThreadPoolExecutor threadPool = (ThreadPoolExecutor) this.threadPool;
 		threadPool.setMaximumPoolSize(threadCount);
 		threadPool.setCorePoolSize(threadCount);
 	}
@@ -188,7 +264,7 @@ public class CompilerManager {
 			if (isCompiling()) return false;
 			setCompiling(added);
 			setCompiling(removed);
-			running = compilers.groupIterator();
+			running = new CompilerDependencyGraph(compilers);
 			compilationCount++;
 			noRunningCompileThreadsFoundSince.reset();
 		}
@@ -227,70 +303,61 @@ public class CompilerManager {
 	}
 
 	private void doCompile(final Collection<Section<?>> added, final Collection<Section<?>> removed) throws InterruptedException {
-		while (true) {
-			// get the current compilers
-			List<Compiler> simultaneousCompilers;
-			synchronized (lock) {
-				if (!running.hasNext()) {
-					break;
+		synchronized (lock) {
+			while (true) {
+				// get the compilers that are ready to compile, because the compilers they depend on have finished
+				List<Compiler> nextCompilers = running.nextCompilers();
+				if (nextCompilers.isEmpty()) {
+					if (running.isDone()) break;
+					// Every time we are awoken by a finished compiler below, we check if some other compilers are
+					// ready to compile now... until we are done completely
+					lock.wait();
+					continue;
 				}
-				Group<Double, Compiler> group = running.next();
-				simultaneousCompilers = group.getElements();
-			}
 
-			// start all simultaneous compilers and
-			// observe the active ones until they all have terminated
-			final Set<Compiler> activeCompilers = new LinkedHashSet<>(simultaneousCompilers);
+				// before actually starting them, mark all of them as started, to enable "await-priority"
+				// functionality, also mark the compilers, that will compile before the started ones, but are
+				// waiting for other compilers (we do not support waiting for compilers of higher priorities)
+				running.getWaitingCompilers().forEach(compiler ->
+						currentlyCompiledPriority.putIfAbsent(compiler, Priority.INIT));
+				nextCompilers.forEach(compiler -> setCurrentCompilePriority(compiler, Priority.INIT));
 
-			// before actually starting it, mark all of them as started, to enable "await-priority" functionality
-			// (we only store the simultaneously running ones and do not support waiting for other compiler priorities!)
-			simultaneousCompilers.forEach(compiler -> setCurrentCompilePriority(compiler, Priority.INIT));
-
-			for (final Compiler compiler : simultaneousCompilers) {
-				// wait until we are allowed to compile
-				threadPool.execute(() -> {
-
-					Stopwatch stopwatch = new Stopwatch();
-					try {
-						// compile the content
-						compiler.compile(added, removed);
-					}
-					catch (Throwable e) {
-						String msg = "Unexpected internal exception while compiling with "
-								+ compiler + ": " + e.getMessage();
-						Log.severe(msg, e);
-						for (Section<?> section : added) {
-							// it does not matter if we store the messages
-							// for the same article multiple times, because
-							// for each source there can only be one
-							// collection of messages
-							Messages.storeMessage(section.getArticle().getRootSection(),
-									this.getClass(), Messages.error(msg));
-						}
-					}
-					finally {
-						// and notify that the compiler has finished
-						synchronized (lock) {
-							// 1 - update all required compiler flags
-							activeCompilers.remove(compiler);
-							Log.fine(compiler.getClass().getSimpleName() + " finished after " + stopwatch.getDisplay());
-							clearCurrentCompilePriority(compiler);
-							// 2 - notify the waiting caller of doCompile() in the synchronized block below (1)
-							// always notify all, as the clear is usually a noop (if the compiler has cleared before)
-							lock.notifyAll();
-						}
-					}
-				});
+				for (Compiler compiler : nextCompilers) {
+					threadPool.execute(() -> compile(compiler, added, removed));
+				}
 			}
+		}
+	}
 
-			// we wait until all have been terminated
+	private void compile(Compiler compiler, Collection<Section<?>> added, Collection<Section<?>> removed) {
+		Stopwatch stopwatch = new Stopwatch();
+		try {
+			// compile the content
+			compiler.compile(added, removed);
+		}
+		catch (Throwable e) {
+			String msg = "Unexpected internal exception while compiling with "
+					+ compiler + ": " + e.getMessage();
+			Log.severe(msg, e);
+			for (Section<?> section : added) {
+				// it does not matter if we store the messages
+				// for the same article multiple times, because
+				// for each source there can only be one
+				// collection of messages
+				Messages.storeMessage(section.getArticle().getRootSection(),
+						this.getClass(), Messages.error(msg));
+			}
+		}
+		finally {
+			// and notify that the compiler has finished
 			synchronized (lock) {
-				while (!activeCompilers.isEmpty()) {
-					// 1 - Every time we are awoken by a finished compiler above (2), we check if it was the last
-					// one of the current group of compilers. If it was, we do the next group... until we are done
-					// completely
-					lock.wait();
-				}
+				// update all required compiler flags
+				running.finished(compiler);
+				Log.fine(compiler.getClass().getSimpleName() + " finished after " + stopwatch.getDisplay());
+				clearCurrentCompilePriority(compiler);
+				// notify the waiting caller of doCompile() in the synchronized block above
+				// always notify all, as the clear is usually a noop (if the compiler has cleared before)
+				lock.notifyAll();
 			}
 		}
 	}
@@ -328,6 +395,23 @@ public class CompilerManager {
 		// (because we can as long as we don't need to wait)
 		if (!shouldWait(compiler, priority)) return;
 
+		// compile scripts are usually waiting in a thread of the shared script executor, so we let the executor
+		// compensate the blocked thread, otherwise the scripts of the awaited compiler may not get a thread to run in
+		VirtualThreadExecutor.managedBlock(new ForkJoinPool.ManagedBlocker() {
+			@Override
+			public boolean block() throws InterruptedException {
+				awaitCompilePriority(compiler, priority);
+				return true;
+			}
+
+			@Override
+			public boolean isReleasable() {
+				return !shouldWait(compiler, priority);
+			}
+		});
+	}
+
+	private void awaitCompilePriority(@NotNull Compiler compiler, @NotNull Priority priority) throws InterruptedException {
 		synchronized (lock) {
 			try {
 				awaitedCompilers.add(compiler);
@@ -336,9 +420,10 @@ public class CompilerManager {
 
 					// in case we have a small CPU and only a few compile threads -> increase compile threads until we
 					// have at least as much compile threads as compilers potentially running at the same time in the
-					// current wiki
+					// current wiki (in virtual thread mode, waiting does not occupy any compile capacity, so there are
+					// no threads to be increased, but compilers awaiting each other are still a deadlock)
 					int threadCount = getMaxCompilationThreadCount();
-					if (awaitedCompilers.size() >= threadCount) {
+					if (!virtualThreadMode && awaitedCompilers.size() >= threadCount) {
 						int newThreadCount = threadCount + 1;
 						setMaxCompilationThreadCount(newThreadCount);
 						Log.warning("All compile threads are occupied with waiting compilers, increasing thread count to " + newThreadCount + ".\n"
@@ -364,7 +449,7 @@ public class CompilerManager {
 		String message = "Deadlock detected, terminate waiting for compiler: " +
 				compiler.getClass().getSimpleName() + " @priority: " + priority;
 		if (this.lastThreadDumpThrown != this.compilationCount) { // avoid slow spam
-			message += "\nThread-Count: " + getMaxCompilationThreadCount() +
+			message += "\nThread-Count: " + (virtualThreadMode ? "unlimited (virtual threads)" : getMaxCompilationThreadCount()) +
 					"\nThread-Dump:\n" +
 					KnowWEUtils.getThreadDump() +
 					"Thread-Dump-End!";
@@ -540,6 +625,10 @@ public class CompilerManager {
 		synchronized (lock) {
 			compilerCache.remove(compiler);
 			compilers.remove(compiler);
+			// the compiler may be marked as waiting to compile, but will no longer be started
+			if (running != null && !running.isStarted(compiler)) {
+				clearCurrentCompilePriority(compiler);
+			}
 		}
 		Messages.clearMessages(compiler);
 		EventManager.getInstance().fireEvent(new CompilerRemovedEvent(compiler));
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.compile;
+
+import java.util.Date;
+
+/**
+ * Interface for {@link Compiler}s that know the date of their last build. Everything derived from the artifact of such
+ * a compiler, e.g. the rendering of the sections compiled by it, stays valid as long as this date does not change.
+ *
+ * @created 17.10.2026
+ */
+public interface LastModifiedCompiler extends Compiler {
+
+	/**
+	 * The date of the last build of this compiler
+	 */
+	Date getLastModified();
+}
@@ -10,8 +10,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang.ArrayUtils;
@@ -60,7 +61,8 @@ public class ParallelScriptCompiler<C extends Compiler> {
 
 	private Iterator<CompilePair> currentIterator = null;
 
-	private ExecutorService threadPool;
+	// the scripts of the current priority, that have been submitted to the shared script executor
+	private final List<Future<?>> currentScripts = new ArrayList<>();
 
 	private final Mode step;
 	private final Class<?>[] typeFilter;
@@ -153,11 +155,10 @@ public class ParallelScriptCompiler<C extends Compiler> {
 		if (currentIterator == null) {
 			// happens only at the start, no synchronizing needed
 			setCurrentIterator();
-			this.threadPool = CompilerManager.createExecutorService();
 		}
 		if (!currentIterator.hasNext()) {
 			// wait for all scripts to finish
-			awaitShutDownOfCurrentScripts();
+			awaitCurrentScripts();
 			// all other threads that could possibly access compileMap are now done
 			// so no synchronizing is needed
 			// try current priority again, maybe new sections were added during compilation
@@ -174,7 +175,6 @@ public class ParallelScriptCompiler<C extends Compiler> {
 				firePrioStepFinishedEvent(currentPriority);
 				return null;
 			}
-			this.threadPool = CompilerManager.createExecutorService();
 		}
 		return currentIterator.next();
 	}
@@ -185,16 +185,29 @@ public class ParallelScriptCompiler<C extends Compiler> {
 		compileMap.put(currentPriority, new ArrayList<>());
 	}
 
-	private void awaitShutDownOfCurrentScripts() {
-		if (this.threadPool != null) {
-			threadPool.shutdown();
+	private void execute(Runnable script) {
+		currentScripts.add(CompilerManager.getScriptExecutor().submit(script));
+	}
+
+	private void awaitCurrentScripts() {
+		// the scripts are only submitted by the thread running this script compiler, so no synchronizing is needed
+		for (Future<?> script : currentScripts) {
+			if (script instanceof ForkJoinTask) {
+				// if we are running in the executor ourselves, joining will help to execute pending scripts
+				((ForkJoinTask<?>) script).quietlyJoin();
+				continue;
+			}
 			try {
-				threadPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+				script.get();
 			}
 			catch (InterruptedException e) {
-				Log.severe("Interrupted during script compiler shutdown", e);
+				Log.severe("Interrupted while waiting for compile scripts", e);
+			}
+			catch (ExecutionException e) {
+				Log.severe("Unexpected exception while running compile script", e);
 			}
 		}
+		currentScripts.clear();
 	}
 
 	public void run() {
@@ -227,7 +240,7 @@ public class ParallelScriptCompiler<C extends Compiler> {
 			List<CompilePair> prioLog = compileLog.computeIfAbsent(currentPriority, x -> new ArrayList<>());
 			prioLog.add(pair);
 
-			threadPool.execute(() -> {
+			execute(() -> {
 				Section<Type> section = pair.getA();
 				CompileScript<C, Type> script = pair.getB();
 				try {
@@ -274,7 +287,7 @@ public class ParallelScriptCompiler<C extends Compiler> {
 			CompilePair pair = next();
 			if (pair == null) break;
 			if (pair.getB() instanceof DestroyScript) {
-				threadPool.execute(() -> {
+				execute(() -> {
 					try {
 						((DestroyScript<C, Type>) pair.getB()).destroy(compiler, pair.getA());
 					}
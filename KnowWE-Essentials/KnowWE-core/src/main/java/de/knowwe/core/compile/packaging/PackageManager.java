@@ -21,8 +21,10 @@
 package de.knowwe.core.compile.packaging;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -537,6 +539,37 @@ public class PackageManager {// implements EventListener {
 		return Collections.unmodifiableSet(compilingSections);
 	}
 
+	/**
+	 * Checks whether the compilers of the two given compile sections may depend on each other. This is the case, if
+	 * both compile sections compile a common package or a common section registered by a package rule, or if one of
+	 * the compile sections is compiled by the other one. Compilers of compile sections that are not related, compile
+	 * completely distinct sections and are therefore able to compile independently of each other.
+	 *
+	 * @param compileSection      the first compile section to check
+	 * @param otherCompileSection the second compile section to check
+	 * @return true if the compilers of the compile sections may depend on each other
+	 */
+	public boolean isRelated(Section<? extends PackageCompileType> compileSection, Section<? extends PackageCompileType> otherCompileSection) {
+		if (compileSection == otherCompileSection) return true;
+		String[] packages = compileSection.get().getPackagesToCompile(compileSection);
+		String[] otherPackages = otherCompileSection.get().getPackagesToCompile(otherCompileSection);
+		Set<String> packageSet = new HashSet<>(Arrays.asList(packages));
+		for (String otherPackage : otherPackages) {
+			if (packageSet.contains(otherPackage)) return true;
+		}
+
+		if (!predicateToSection.isEmpty()) {
+			PackageRule.PackagesValueProvider valueProvider = new PackageRule.PackagesValueProvider(packages);
+			PackageRule.PackagesValueProvider otherValueProvider = new PackageRule.PackagesValueProvider(otherPackages);
+			for (ParsedPredicate predicate : predicateToSection.keySet()) {
+				if (predicate.test(valueProvider) && predicate.test(otherValueProvider)) return true;
+			}
+		}
+
+		return getCompileSections(compileSection).contains(otherCompileSection)
+				|| getCompileSections(otherCompileSection).contains(compileSection);
+	}
+
 	/**
 	 * @created 15.11.2013
 	 * @deprecated
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.compile.terminology;
+
+import com.denkbares.strings.Identifier;
+
+/**
+ * An index of the defined terms of a {@link TerminologyManager}, that is maintained by the terminology manager while
+ * the term definitions are registered and unregistered.
+ *
+ * @created 17.10.2026
+ */
+interface DefinedTermIndex {
+
+	/**
+	 * Adds a defined term to the index. The term may already be contained in the index.
+	 */
+	void add(Identifier identifier);
+
+	/**
+	 * Removes a term from the index, that is no longer defined.
+	 */
+	void remove(Identifier identifier);
+}
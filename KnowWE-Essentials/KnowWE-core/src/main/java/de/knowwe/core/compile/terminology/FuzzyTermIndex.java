@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.compile.terminology;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.denkbares.strings.Identifier;
+
+/**
+ * BK-tree of term identifiers, allowing to find all identifiers within a given Levenshtein distance of a text without
+ * comparing the text with every identifier. The identifiers are compared by a key, e.g. their last path element.
+ * <p>
+ * Removing an identifier keeps its node in the tree (the node is still required to route to its children), the tree is
+ * rebuilt if more than half of the nodes are empty. The index is not thread-safe, it is guarded by the lock of the
+ * {@link TerminologyManager}, where concurrent lookups are allowed.
+ *
+ * @created 17.10.2026
+ */
+class FuzzyTermIndex implements DefinedTermIndex {
+
+	private final Function<Identifier, String> keyFunction;
+	private Node root = null;
+	private int nodeCount = 0;
+	private int emptyNodeCount = 0;
+
+	FuzzyTermIndex(Function<Identifier, String> keyFunction) {
+		this.keyFunction = keyFunction;
+	}
+
+	@Override
+	public void add(Identifier identifier) {
+		String key = keyFunction.apply(identifier);
+		if (root == null) {
+			root = new Node(key);
+			nodeCount++;
+			root.identifiers.add(identifier);
+			return;
+		}
+		Node node = root;
+		while (true) {
+			int distance = StringUtils.getLevenshteinDistance(key, node.key);
+			if (distance == 0) {
+				if (node.identifiers.isEmpty()) emptyNodeCount--;
+				node.identifiers.add(identifier);
+				return;
+			}
+			Node child = node.getChild(distance);
+			if (child == null) {
+				child = new Node(key);
+				child.identifiers.add(identifier);
+				node.addChild(distance, child);
+				nodeCount++;
+				return;
+			}
+			node = child;
+		}
+	}
+
+	@Override
+	public void remove(Identifier identifier) {
+		String key = keyFunction.apply(identifier);
+		Node node = root;
+		while (node != null) {
+			int distance = StringUtils.getLevenshteinDistance(key, node.key);
+			if (distance == 0) {
+				if (node.identifiers.remove(identifier) && node.identifiers.isEmpty()) {
+					emptyNodeCount++;
+					if (emptyNodeCount * 2 > nodeCount) rebuild();
+				}
+				return;
+			}
+			node = node.getChild(distance);
+		}
+	}
+
+	/**
+	 * Returns all identifiers with a key within the specified Levenshtein distance of the specified text, together with
+	 * their distance.
+	 *
+	 * @param text        the text to search identifiers for
+	 * @param maxDistance the maximum distance of the identifiers to be returned
+	 * @return the matching identifiers and their distances
+	 */
+	Map<Identifier, Integer> find(String text, int maxDistance) {
+		Map<Identifier, Integer> result = new HashMap<>();
+		if (root == null) return result;
+		Deque<Node> queue = new ArrayDeque<>();
+		queue.add(root);
+		while (!queue.isEmpty()) {
+			Node node = queue.poll();
+			int distance = StringUtils.getLevenshteinDistance(text, node.key);
+			if (distance <= maxDistance) {
+				for (Identifier identifier : node.identifiers) {
+					result.put(identifier, distance);
+				}
+			}
+			// triangle inequality: only children within [distance - maxDistance, distance + maxDistance] may match
+			for (int i = 0; i < node.childCount; i++) {
+				int childDistance = node.childDistances[i];
+				if (childDistance >= distance - maxDistance && childDistance <= distance + maxDistance) {
+					queue.add(node.children[i]);
+				}
+			}
+		}
+		return result;
+	}
+
+	private void rebuild() {
+		List<Identifier> identifiers = new ArrayList<>();
+		Deque<Node> queue = new ArrayDeque<>();
+		if (root != null) queue.add(root);
+		while (!queue.isEmpty()) {
+			Node node = queue.poll();
+			identifiers.addAll(node.identifiers);
+			queue.addAll(Arrays.asList(node.children).subList(0, node.childCount));
+		}
+		root = null;
+		nodeCount = 0;
+		emptyNodeCount = 0;
+		identifiers.forEach(this::add);
+	}
+
+	private static final class Node {
+
+		private static final Node[] NO_CHILDREN = new Node[0];
+		private static final int[] NO_DISTANCES = new int[0];
+
+		private final String key;
+		private final Set<Identifier> identifiers = new HashSet<>(2);
+		// the children by their distances to this node, most nodes have only a few children
+		private int[] childDistances = NO_DISTANCES;
+		private Node[] children = NO_CHILDREN;
+		private int childCount = 0;
+
+		private Node(String key) {
+			this.key = key;
+		}
+
+		private Node getChild(int distance) {
+			for (int i = 0; i < childCount; i++) {
+				if (childDistances[i] == distance) return children[i];
+			}
+			return null;
+		}
+
+		private void addChild(int distance, Node child) {
+			if (childCount == children.length) {
+				int capacity = Math.max(2, childCount * 2);
+				childDistances = Arrays.copyOf(childDistances, capacity);
+				children = Arrays.copyOf(children, capacity);
+			}
+			childDistances[childCount] = distance;
+			children[childCount] = child;
+			childCount++;
+		}
+	}
+}
@@ -65,6 +65,10 @@ class TermLog {
 	private Map<Identifier, Set<TermLogEntry>> termIdentifiers = null;
 	private boolean hasMessages = false;
 
+	// the state of this log in the secondary indexes of the TermLogManager
+	boolean indexedAsDefined = false;
+	Class<?> indexedTermClass = null;
+
 	void addTermDefinition(Compiler compiler,
 						   Section<?> termDefinition,
 						   Class<?> termClass,
@@ -18,7 +18,11 @@
  */
 package de.knowwe.core.compile.terminology;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -26,7 +30,11 @@ import java.util.Set;
 import com.denkbares.strings.Identifier;
 
 /**
- * 
+ * Stores the {@link TermLog}s of a {@link TerminologyManager}. Besides the term logs by their identifiers, the term
+ * logs are indexed by their defined state and by their term class, if the term is defined with exactly one term class.
+ * The indexes have to be updated using {@link #updateIndexes(TermLog)} after the definitions of a term log have
+ * changed. This class is not thread-safe, the terminology manager guards it with its lock.
+ *
  * @author Albrecht Striffler (denkbares GmbH)
  * @created 01.02.2012
  */
@@ -34,6 +42,8 @@ class TermLogManager {
 
 	private final Map<Identifier, TermLog> termLogs =
 			new HashMap<>();
+	private final Set<TermLog> definedLogs = new HashSet<>();
+	private final Map<Class<?>, Set<TermLog>> definedLogsByTermClass = new HashMap<>();
 	private final boolean caseSensitive;
 
 	public TermLogManager(boolean caseSensitive) {
@@ -51,14 +61,80 @@ class TermLogManager {
 		if (termIdentifier.isCaseSensitive() != caseSensitive) {
 			termIdentifier = new Identifier(caseSensitive, termIdentifier.getPathElements());
 		}
-		termLogs.put(termIdentifier, termLog);
+		TermLog previous = termLogs.put(termIdentifier, termLog);
+		if (previous != null) removeFromIndexes(previous);
+		updateIndexes(termLog);
 	}
 
-	public Set<Entry<Identifier, TermLog>> entrySet() {
-		return termLogs.entrySet();
+	/**
+	 * Returns the term logs with the specified state. If a term class is specified, only the logs of terms that are
+	 * defined with exactly one term class, being the specified class or a sub class of it, are returned.
+	 *
+	 * @param termClass the class of the terms, may be null to get the terms of all classes
+	 * @param defined   if only the logs of defined terms should be returned
+	 * @return the matching term logs
+	 */
+	public Collection<TermLog> getLogs(Class<?> termClass, boolean defined) {
+		if (termClass == null) {
+			return Collections.unmodifiableCollection(defined ? definedLogs : termLogs.values());
+		}
+		// terms with exactly one term class are always defined, so we can ignore the defined state
+		Collection<TermLog> result = new ArrayList<>();
+		for (Entry<Class<?>, Set<TermLog>> entry : definedLogsByTermClass.entrySet()) {
+			if (termClass.isAssignableFrom(entry.getKey())) {
+				result.addAll(entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Updates the secondary indexes for the specified term log, must be called after the definitions of the term log
+	 * have changed.
+	 */
+	public void updateIndexes(TermLog termLog) {
+		boolean defined = termLog.getDefiningSection() != null;
+		if (defined != termLog.indexedAsDefined) {
+			if (defined) {
+				definedLogs.add(termLog);
+			}
+			else {
+				definedLogs.remove(termLog);
+			}
+			termLog.indexedAsDefined = defined;
+		}
+
+		Set<Class<?>> termClasses = termLog.getTermClasses();
+		Class<?> termClass = termClasses.size() == 1 ? termClasses.iterator().next() : null;
+		if (termClass != termLog.indexedTermClass) {
+			removeFromTermClassIndex(termLog);
+			if (termClass != null) {
+				definedLogsByTermClass.computeIfAbsent(termClass, k -> new HashSet<>()).add(termLog);
+			}
+			termLog.indexedTermClass = termClass;
+		}
+	}
+
+	private void removeFromIndexes(TermLog termLog) {
+		definedLogs.remove(termLog);
+		termLog.indexedAsDefined = false;
+		removeFromTermClassIndex(termLog);
+		termLog.indexedTermClass = null;
+	}
+
+	private void removeFromTermClassIndex(TermLog termLog) {
+		if (termLog.indexedTermClass == null) return;
+		Set<TermLog> logs = definedLogsByTermClass.get(termLog.indexedTermClass);
+		if (logs == null) return;
+		logs.remove(termLog);
+		if (logs.isEmpty()) definedLogsByTermClass.remove(termLog.indexedTermClass);
 	}
 
 	public int cleanupStaleSections() {
-		return termLogs.values().parallelStream().mapToInt(TermLog::cleanupStaleSections).sum();
+		int counter = termLogs.values().parallelStream().mapToInt(TermLog::cleanupStaleSections).sum();
+		if (counter > 0) {
+			termLogs.values().forEach(this::updateIndexes);
+		}
+		return counter;
 	}
 }
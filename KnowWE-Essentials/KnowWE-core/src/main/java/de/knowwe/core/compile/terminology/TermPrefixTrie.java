@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.compile.terminology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.denkbares.strings.Identifier;
+
+/**
+ * Prefix trie of the last path elements of term identifiers, used to complete terms while editing. The completions of
+ * a prefix are returned in lexicographical order, so getting the first completions only depends on the length of the
+ * prefix and the number of completions requested, but not on the number of terms. Nodes without terms in their sub
+ * trie are removed, so every visited node leads to a completion.
+ * <p>
+ * The index is not thread-safe, it is guarded by the lock of the {@link TerminologyManager}, where concurrent lookups
+ * are allowed.
+ *
+ * @created 17.10.2026
+ */
+class TermPrefixTrie implements DefinedTermIndex {
+
+	private static final Comparator<Identifier> IDENTIFIER_ORDER = Comparator.comparing(Identifier::toExternalForm);
+
+	private final boolean caseSensitive;
+	private final Node root = new Node();
+
+	TermPrefixTrie(boolean caseSensitive) {
+		this.caseSensitive = caseSensitive;
+	}
+
+	private String getKey(String text) {
+		return caseSensitive ? text : text.toLowerCase(Locale.ROOT);
+	}
+
+	@Override
+	public void add(Identifier identifier) {
+		String key = getKey(identifier.getLastPathElement());
+		Node node = root;
+		for (int i = 0; i < key.length(); i++) {
+			node = node.getOrCreateChild(key.charAt(i));
+		}
+		if (node.identifiers == null) node.identifiers = new HashSet<>(2);
+		if (!node.identifiers.add(identifier)) return;
+
+		// count the new identifier for all nodes on the path
+		node = root;
+		node.count++;
+		for (int i = 0; i < key.length(); i++) {
+			node = node.getChild(key.charAt(i));
+			node.count++;
+		}
+	}
+
+	@Override
+	public void remove(Identifier identifier) {
+		String key = getKey(identifier.getLastPathElement());
+		Node[] path = new Node[key.length() + 1];
+		path[0] = root;
+		for (int i = 0; i < key.length(); i++) {
+			path[i + 1] = path[i].getChild(key.charAt(i));
+			if (path[i + 1] == null) return;
+		}
+		Node node = path[key.length()];
+		if (node.identifiers == null || !node.identifiers.remove(identifier)) return;
+		if (node.identifiers.isEmpty()) node.identifiers = null;
+
+		for (int i = key.length(); i >= 0; i--) {
+			path[i].count--;
+			if (i > 0 && path[i].count == 0) path[i - 1].removeChild(key.charAt(i - 1));
+		}
+	}
+
+	/**
+	 * Returns the first identifiers (in lexicographical order of their last path element) starting with the specified
+	 * prefix.
+	 *
+	 * @param prefix   the prefix of the terms to be completed
+	 * @param maxCount the maximum number of identifiers to be returned
+	 * @return the identifiers starting with the prefix
+	 */
+	List<Identifier> complete(String prefix, int maxCount) {
+		String key = getKey(prefix);
+		Node node = root;
+		for (int i = 0; i < key.length() && node != null; i++) {
+			node = node.getChild(key.charAt(i));
+		}
+		List<Identifier> result = new ArrayList<>(Math.min(maxCount, node == null ? 0 : node.count));
+		if (node != null) collect(node, maxCount, result);
+		return result;
+	}
+
+	private void collect(Node node, int maxCount, List<Identifier> result) {
+		if (node.identifiers != null) {
+			Identifier[] identifiers = node.identifiers.toArray(new Identifier[0]);
+			Arrays.sort(identifiers, IDENTIFIER_ORDER);
+			for (Identifier identifier : identifiers) {
+				if (result.size() >= maxCount) return;
+				result.add(identifier);
+			}
+		}
+		for (int i = 0; i < node.childCount && result.size() < maxCount; i++) {
+			collect(node.children[i], maxCount, result);
+		}
+	}
+
+	private static final class Node {
+
+		private static final char[] NO_KEYS = new char[0];
+		private static final Node[] NO_CHILDREN = new Node[0];
+
+		// the children, sorted by their characters
+		private char[] keys = NO_KEYS;
+		private Node[] children = NO_CHILDREN;
+		private int childCount = 0;
+		private Set<Identifier> identifiers = null;
+		// number of identifiers in the sub trie of this node
+		private int count = 0;
+
+		private Node getChild(char c) {
+			int index = Arrays.binarySearch(keys, 0, childCount, c);
+			return index >= 0 ? children[index] : null;
+		}
+
+		private Node getOrCreateChild(char c) {
+			int index = Arrays.binarySearch(keys, 0, childCount, c);
+			if (index >= 0) return children[index];
+			index = -index - 1;
+			if (childCount == keys.length) {
+				int capacity = Math.max(2, childCount * 2);
+				keys = Arrays.copyOf(keys, capacity);
+				children = Arrays.copyOf(children, capacity);
+			}
+			System.arraycopy(keys, index, keys, index + 1, childCount - index);
+			System.arraycopy(children, index, children, index + 1, childCount - index);
+			Node child = new Node();
+			keys[index] = c;
+			children[index] = child;
+			childCount++;
+			return child;
+		}
+
+		private void removeChild(char c) {
+			int index = Arrays.binarySearch(keys, 0, childCount, c);
+			if (index < 0) return;
+			System.arraycopy(keys, index + 1, keys, index, childCount - index - 1);
+			System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+			childCount--;
+			children[childCount] = null;
+		}
+	}
+}
@@ -23,10 +23,15 @@ package de.knowwe.core.compile.terminology;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Map.Entry;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -53,23 +58,52 @@ import de.knowwe.core.report.Messages;
  * manager is, that for a given term the definition and the references can be asked for. Obviously,
  * this only works if the terms are registered here.
  * <p/>
+ * The manager is guarded by a read-write-lock, so the terms can be queried concurrently (e.g. by renderers and
+ * parallel compile scripts), while registrations are exclusive.
+ * <p/>
  *
  * @author Albrecht Striffler (denkbares GmbH)
  */
 public class TerminologyManager {
 
-	private static final Set<Identifier> occupiedTerms = new HashSet<>();
+	private static final Set<Identifier> occupiedTerms = ConcurrentHashMap.newKeySet();
 
 	private final TermLogManager termLogManager;
 
+	private final Lock readLock;
+	private final Lock writeLock;
+
+	/**
+	 * Lazily created indexes of the defined terms, maintained while holding the write lock.
+	 */
+	private final Map<TermKey, FuzzyTermIndex> fuzzyIndexes = new ConcurrentHashMap<>();
+	private final Map<Boolean, TermPrefixTrie> prefixTries = new ConcurrentHashMap<>();
+
 	public enum Action {register, unregister}
 
+	/**
+	 * The part of a term identifier that is compared when searching for similar terms.
+	 */
+	public enum TermKey {
+		lastPathElement(Identifier::getLastPathElement),
+		externalForm(Identifier::toExternalForm);
+
+		private final Function<Identifier, String> keyFunction;
+
+		TermKey(Function<Identifier, String> keyFunction) {
+			this.keyFunction = keyFunction;
+		}
+	}
+
 	public TerminologyManager() {
 		this(false);
 	}
 
 	public TerminologyManager(boolean caseSensitive) {
 		termLogManager = new TermLogManager(caseSensitive);
+		ReadWriteLock lock = new ReentrantReadWriteLock();
+		readLock = lock.readLock();
+		writeLock = lock.writeLock();
 	}
 
 	public void registerOccupiedTerm(TerminologyExtension terminologyExtension) {
@@ -130,13 +164,21 @@ public class TerminologyManager {
 			return;
 		}
 
-		synchronized (this) {
+		writeLock.lock();
+		try {
 			TermLog termRefLog = termLogManager.getLog(termIdentifier);
 			if (termRefLog == null) {
 				termRefLog = new TermLog();
 				termLogManager.putLog(termIdentifier, termRefLog);
 			}
 			termRefLog.addTermDefinition(compiler, termDefinition, termClass, termIdentifier);
+			termLogManager.updateIndexes(termRefLog);
+			for (DefinedTermIndex index : getDefinedTermIndexes()) {
+				index.add(termIdentifier);
+			}
+		}
+		finally {
+			writeLock.unlock();
 		}
 
 		EventManager.getInstance().fireEvent(new TermDefinitionRegisteredEvent(compiler, termIdentifier));
@@ -154,19 +196,25 @@ public class TerminologyManager {
 	 * undefined
 	 * @created 28.07.2012
 	 */
-	public synchronized Collection<Identifier> getAllTermsEqualIgnoreCase(Identifier termIdentifier) {
-		TermLog termLog = termLogManager.getLog(termIdentifier);
-		Collection<Identifier> termIdentifiers;
-		if (termLog == null) {
-			termIdentifiers = Collections.emptyList();
+	public Collection<Identifier> getAllTermsEqualIgnoreCase(Identifier termIdentifier) {
+		readLock.lock();
+		try {
+			TermLog termLog = termLogManager.getLog(termIdentifier);
+			Collection<Identifier> termIdentifiers;
+			if (termLog == null) {
+				termIdentifiers = Collections.emptyList();
+			}
+			else {
+				termIdentifiers = termLog.getDefinitionIdentifiers();
+			}
+			return Collections.unmodifiableCollection(termIdentifiers);
 		}
-		else {
-			termIdentifiers = termLog.getDefinitionIdentifiers();
+		finally {
+			readLock.unlock();
 		}
-		return Collections.unmodifiableCollection(termIdentifiers);
 	}
 
-	public synchronized void registerTermReference(
+	public void registerTermReference(
 			@NotNull Compiler compiler,
 			@NotNull Section<?> termReference,
 			@NotNull Class<?> termClass,
@@ -176,28 +224,46 @@ public class TerminologyManager {
 		Objects.requireNonNull(termClass);
 		Objects.requireNonNull(termIdentifier);
 
-		TermLog termLog = termLogManager.getLog(termIdentifier);
-		if (termLog == null) {
-			termLog = new TermLog();
-			termLogManager.putLog(termIdentifier, termLog);
+		writeLock.lock();
+		try {
+			TermLog termLog = termLogManager.getLog(termIdentifier);
+			if (termLog == null) {
+				termLog = new TermLog();
+				termLogManager.putLog(termIdentifier, termLog);
+			}
+			termLog.addTermReference(compiler, termReference, termClass, termIdentifier);
+		}
+		finally {
+			writeLock.unlock();
 		}
-		termLog.addTermReference(compiler, termReference, termClass, termIdentifier);
 	}
 
 	/**
 	 * Returns whether a term is defined through a TermDefinition.
 	 */
-	public synchronized boolean isDefinedTerm(Identifier termIdentifier) {
-		TermLog termRef = termLogManager.getLog(termIdentifier);
-		return termRef != null && termRef.getDefiningSection() != null;
+	public boolean isDefinedTerm(Identifier termIdentifier) {
+		readLock.lock();
+		try {
+			TermLog termRef = termLogManager.getLog(termIdentifier);
+			return termRef != null && termRef.getDefiningSection() != null;
+		}
+		finally {
+			readLock.unlock();
+		}
 	}
 
 	/**
 	 * Returns whether there are TermReferences for this Term, but no TermDefinition
 	 */
-	public synchronized boolean isUndefinedTerm(Identifier termIdentifier) {
-		TermLog termRef = termLogManager.getLog(termIdentifier);
-		return termRef != null && termRef.getDefiningSection() == null;
+	public boolean isUndefinedTerm(Identifier termIdentifier) {
+		readLock.lock();
+		try {
+			TermLog termRef = termLogManager.getLog(termIdentifier);
+			return termRef != null && termRef.getDefiningSection() == null;
+		}
+		finally {
+			readLock.unlock();
+		}
 	}
 
 	/**
@@ -208,12 +274,18 @@ public class TerminologyManager {
 	 * @return the first defining Section for this term or <tt>null</tt> if the term is not defined
 	 */
 	@Nullable
-	public synchronized Section<? extends Type> getTermDefiningSection(Identifier termIdentifier) {
-		TermLog refLog = termLogManager.getLog(termIdentifier);
-		if (refLog != null) {
-			return refLog.getDefiningSection();
+	public Section<? extends Type> getTermDefiningSection(Identifier termIdentifier) {
+		readLock.lock();
+		try {
+			TermLog refLog = termLogManager.getLog(termIdentifier);
+			if (refLog != null) {
+				return refLog.getDefiningSection();
+			}
+			return null;
+		}
+		finally {
+			readLock.unlock();
 		}
-		return null;
 	}
 
 	/**
@@ -224,41 +296,56 @@ public class TerminologyManager {
 	 * @return the defining Sections for this term or an empty Collection if the term is not defined
 	 */
 	@NotNull
-	public synchronized Collection<Section<?>> getTermDefiningSections(Identifier termIdentifier) {
+	public Collection<Section<?>> getTermDefiningSections(Identifier termIdentifier) {
 		if (termIdentifier == null) {
 			return Collections.emptyList();
 		}
-		Collection<Section<?>> definitions = new ArrayList<>();
-		TermLog refLog = termLogManager.getLog(termIdentifier);
-		if (refLog != null) {
-			definitions = refLog.getDefinitions();
+		readLock.lock();
+		try {
+			Collection<Section<?>> definitions = new ArrayList<>();
+			TermLog refLog = termLogManager.getLog(termIdentifier);
+			if (refLog != null) {
+				definitions = refLog.getDefinitions();
+			}
+			return Collections.unmodifiableCollection(definitions);
+		}
+		finally {
+			readLock.unlock();
 		}
-		return Collections.unmodifiableCollection(definitions);
 	}
 
 	/**
 	 * For an Identifier the redundant TermDefinition are returned.
 	 */
-	public synchronized Collection<Section<?>> getRedundantTermDefiningSections(Identifier termIdentifier) {
-		TermLog refLog = termLogManager.getLog(termIdentifier);
-		if (refLog != null) {
-			return Collections.unmodifiableSet(refLog.getRedundantDefinitions());
+	public Collection<Section<?>> getRedundantTermDefiningSections(Identifier termIdentifier) {
+		readLock.lock();
+		try {
+			TermLog refLog = termLogManager.getLog(termIdentifier);
+			if (refLog != null) {
+				return Collections.unmodifiableSet(refLog.getRedundantDefinitions());
+			}
+			return Collections.emptySet();
+		}
+		finally {
+			readLock.unlock();
 		}
-		return Collections.emptySet();
 	}
 
 	/**
 	 * For an Identifier the {@link TermReference}s are returned.
 	 */
-	public synchronized Collection<Section<?>> getTermReferenceSections(Identifier termIdentifier) {
-
-		TermLog refLog = termLogManager.getLog(termIdentifier);
-
-		if (refLog != null) {
-			return Collections.unmodifiableCollection(refLog.getReferences());
+	public Collection<Section<?>> getTermReferenceSections(Identifier termIdentifier) {
+		readLock.lock();
+		try {
+			TermLog refLog = termLogManager.getLog(termIdentifier);
+			if (refLog != null) {
+				return Collections.unmodifiableCollection(refLog.getReferences());
+			}
+			return Collections.emptyList();
+		}
+		finally {
+			readLock.unlock();
 		}
-
-		return Collections.emptyList();
 	}
 
 	public void unregisterTermDefinition(
@@ -266,7 +353,8 @@ public class TerminologyManager {
 			Section<?> termDefinition,
 			Class<?> termClass, Identifier termIdentifier) {
 
-		synchronized (this) {
+		writeLock.lock();
+		try {
 			TermLog termRefLog = termLogManager.getLog(termIdentifier);
 			if (termRefLog == null) {
 				Log.warning("Trying to unregister unknown term: " + termIdentifier);
@@ -274,8 +362,18 @@ public class TerminologyManager {
 			else {
 				termRefLog.removeTermDefinition(compiler, termDefinition,
 						termClass, termIdentifier);
+				termLogManager.updateIndexes(termRefLog);
+				Collection<DefinedTermIndex> indexes = getDefinedTermIndexes();
+				if (!indexes.isEmpty() && !termRefLog.getDefinitionIdentifiers().contains(termIdentifier)) {
+					for (DefinedTermIndex index : indexes) {
+						index.remove(termIdentifier);
+					}
+				}
 			}
 		}
+		finally {
+			writeLock.unlock();
+		}
 		EventManager.getInstance()
 				.fireEvent(new TermDefinitionUnregisteredEvent(compiler, termIdentifier));
 	}
@@ -289,17 +387,34 @@ public class TerminologyManager {
 	 */
 	public void cleanupStaleSection() {
 		Stopwatch stopwatch = new Stopwatch();
-		int counter = termLogManager.cleanupStaleSections();
+		int counter;
+		writeLock.lock();
+		try {
+			counter = termLogManager.cleanupStaleSections();
+			// the indexes of the defined terms will be recreated on demand
+			if (counter > 0) {
+				fuzzyIndexes.clear();
+				prefixTries.clear();
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
 		if (counter > 0) {
 			stopwatch.log("Cleaned up " + Strings.pluralOf(counter, "stale term registration"));
 		}
 	}
 
-	public synchronized void unregisterTermReference(Compiler compiler, Section<?> termReference, Class<?> termClass, Identifier termIdentifier) {
-
-		TermLog refLog = termLogManager.getLog(termIdentifier);
-		if (refLog != null) {
-			refLog.removeTermReference(compiler, termReference, termClass, termIdentifier);
+	public void unregisterTermReference(Compiler compiler, Section<?> termReference, Class<?> termClass, Identifier termIdentifier) {
+		writeLock.lock();
+		try {
+			TermLog refLog = termLogManager.getLog(termIdentifier);
+			if (refLog != null) {
+				refLog.removeTermReference(compiler, termReference, termClass, termIdentifier);
+			}
+		}
+		finally {
+			writeLock.unlock();
 		}
 	}
 
@@ -309,7 +424,7 @@ public class TerminologyManager {
 	 *
 	 * @created 03.11.2010
 	 */
-	public synchronized Collection<Identifier> getAllDefinedTermsOfType(Class<?> termClass) {
+	public Collection<Identifier> getAllDefinedTermsOfType(Class<?> termClass) {
 		return getAllDefinedTerms(termClass);
 	}
 
@@ -318,7 +433,7 @@ public class TerminologyManager {
 	 *
 	 * @created 03.11.2010
 	 */
-	public synchronized Collection<Identifier> getAllDefinedTerms() {
+	public Collection<Identifier> getAllDefinedTerms() {
 		return getAllDefinedTerms(null);
 	}
 
@@ -328,11 +443,17 @@ public class TerminologyManager {
 	 *
 	 * @created 03.11.2010
 	 */
-	public synchronized Collection<Identifier> getAllDefinedTerms(Class<?> termClass) {
-		return getAllTermLogEntries(termClass, true).stream()
-				.map(TermLog::getDefinitionIdentifiers)
-				.flatMap(Collection::stream)
-				.collect(Collectors.toSet());
+	public Collection<Identifier> getAllDefinedTerms(Class<?> termClass) {
+		readLock.lock();
+		try {
+			return termLogManager.getLogs(termClass, true).stream()
+					.map(TermLog::getDefinitionIdentifiers)
+					.flatMap(Collection::stream)
+					.collect(Collectors.toSet());
+		}
+		finally {
+			readLock.unlock();
+		}
 	}
 
 	/**
@@ -340,7 +461,7 @@ public class TerminologyManager {
 	 *
 	 * @created 03.11.2010
 	 */
-	public synchronized Collection<Identifier> getAllTerms() {
+	public Collection<Identifier> getAllTerms() {
 		return getAllTerms(null);
 	}
 
@@ -349,33 +470,96 @@ public class TerminologyManager {
 	 *
 	 * @created 03.11.2010
 	 */
-	public synchronized Collection<Identifier> getAllTerms(Class<?> termClass) {
-		return getAllTermLogEntries(termClass, false).stream()
-				.flatMap(termLog -> Stream.concat(termLog.getDefinitionIdentifiers()
-						.stream(), termLog.getReferencesIdentifiers().stream()))
-				.collect(Collectors.toSet());
+	public Collection<Identifier> getAllTerms(Class<?> termClass) {
+		readLock.lock();
+		try {
+			return termLogManager.getLogs(termClass, false).stream()
+					.flatMap(termLog -> Stream.concat(termLog.getDefinitionIdentifiers()
+							.stream(), termLog.getReferencesIdentifiers().stream()))
+					.collect(Collectors.toSet());
+		}
+		finally {
+			readLock.unlock();
+		}
 	}
 
-	private synchronized Collection<TermLog> getAllTermLogEntries(Class<?> termClass, boolean defined) {
-		Collection<TermLog> filteredLogEntries = new HashSet<>();
-		for (Entry<Identifier, TermLog> managerEntry : termLogManager.entrySet()) {
-			boolean include = checkDefinedState(defined, managerEntry)
-					&& checkTermClass(termClass, managerEntry);
-			if (include) {
-				filteredLogEntries.add(managerEntry.getValue());
+	/**
+	 * Returns all defined terms of the given class (see {@link #getAllDefinedTerms(Class)}), whose key has a
+	 * Levenshtein distance of no more than the specified maximum distance to the specified text. Instead of comparing
+	 * the text with all defined terms, a fuzzy index of the terms is used, that is created on the first call for each
+	 * kind of key and maintained afterwards.
+	 *
+	 * @param text        the text to find similar terms for
+	 * @param maxDistance the maximum Levenshtein distance of the terms
+	 * @param termClass   the class of the terms, may be null to get similar terms of all classes
+	 * @param key         the part of the terms to be compared with the text
+	 * @return the similar terms and their distances to the text
+	 * @created 17.10.2026
+	 */
+	@NotNull
+	public Map<Identifier, Integer> getDefinedTermsWithinDistance(@NotNull String text, int maxDistance, @Nullable Class<?> termClass, @NotNull TermKey key) {
+		readLock.lock();
+		try {
+			FuzzyTermIndex index = fuzzyIndexes.computeIfAbsent(key, this::createFuzzyIndex);
+			Map<Identifier, Integer> matches = index.find(text, maxDistance);
+			if (termClass != null) {
+				matches.keySet().removeIf(identifier -> !isOfSingleTermClass(identifier, termClass));
 			}
+			return matches;
+		}
+		finally {
+			readLock.unlock();
 		}
-		return filteredLogEntries;
 	}
 
-	private boolean checkDefinedState(boolean defined, Entry<Identifier, TermLog> managerEntry) {
-		return !defined || managerEntry.getValue().getDefiningSection() != null;
+	private boolean isOfSingleTermClass(Identifier identifier, Class<?> termClass) {
+		// same condition as for the term class index of the term log manager
+		TermLog termLog = termLogManager.getLog(identifier);
+		if (termLog == null) return false;
+		Set<Class<?>> termClasses = termLog.getTermClasses();
+		return termClasses.size() == 1 && termClass.isAssignableFrom(termClasses.iterator().next());
 	}
 
-	private boolean checkTermClass(Class<?> termClass, Entry<Identifier, TermLog> managerEntry) {
-		return termClass == null
-				|| (managerEntry.getValue().getTermClasses().size() == 1
-				&& termClass.isAssignableFrom(managerEntry.getValue().getTermClasses().iterator().next()));
+	/**
+	 * Returns the first defined terms (in lexicographical order) with a last path element starting with the specified
+	 * prefix, e.g. to complete a term while it is typed. Instead of checking all defined terms, a prefix trie of the
+	 * terms is used, that is created on the first call (for each case sensitivity) and maintained afterwards.
+	 *
+	 * @param prefix        the prefix of the terms to be returned
+	 * @param caseSensitive whether the terms have to start with the prefix in the same case
+	 * @param maxCount      the maximum number of terms to be returned
+	 * @return the terms starting with the prefix
+	 * @created 17.10.2026
+	 */
+	@NotNull
+	public List<Identifier> getDefinedTermsStartingWith(@NotNull String prefix, boolean caseSensitive, int maxCount) {
+		readLock.lock();
+		try {
+			return prefixTries.computeIfAbsent(caseSensitive, key -> initIndex(new TermPrefixTrie(key)))
+					.complete(prefix, maxCount);
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+
+	private FuzzyTermIndex createFuzzyIndex(TermKey key) {
+		return initIndex(new FuzzyTermIndex(key.keyFunction));
+	}
+
+	private <I extends DefinedTermIndex> I initIndex(I index) {
+		// called while holding the read lock, so there are no concurrent registrations
+		for (TermLog termLog : termLogManager.getLogs(null, true)) {
+			termLog.getDefinitionIdentifiers().forEach(index::add);
+		}
+		return index;
+	}
+
+	private Collection<DefinedTermIndex> getDefinedTermIndexes() {
+		if (fuzzyIndexes.isEmpty() && prefixTries.isEmpty()) return Collections.emptyList();
+		Collection<DefinedTermIndex> indexes = new ArrayList<>(fuzzyIndexes.values());
+		indexes.addAll(prefixTries.values());
+		return indexes;
 	}
 
 	/**
@@ -388,7 +572,7 @@ public class TerminologyManager {
 	 * @return if the term has been registered as required
 	 * @created 05.03.2012
 	 */
-	public synchronized boolean hasTermOfClass(Identifier termIdentifier, Class<?> clazz) {
+	public boolean hasTermOfClass(Identifier termIdentifier, Class<?> clazz) {
 		for (Class<?> termClass : getTermClasses(termIdentifier)) {
 			if (clazz.isAssignableFrom(termClass)) {
 				return true;
@@ -406,13 +590,20 @@ public class TerminologyManager {
 	 * @return all term classes or an empty Collection, if undefined
 	 * @created 28.07.2012
 	 */
-	public synchronized Collection<Class<?>> getTermClasses(Identifier termIdentifier) {
-		TermLog refLog = termLogManager.getLog(termIdentifier);
-		if (refLog == null) {
-			return Collections.emptyList();
+	public Collection<Class<?>> getTermClasses(Identifier termIdentifier) {
+		readLock.lock();
+		try {
+			TermLog refLog = termLogManager.getLog(termIdentifier);
+			if (refLog == null) {
+				return Collections.emptyList();
+			}
+			else {
+				// copy the classes, as the term classes may be a view that is modified by later registrations
+				return Collections.unmodifiableCollection(new ArrayList<>(refLog.getTermClasses()));
+			}
 		}
-		else {
-			return Collections.unmodifiableCollection(refLog.getTermClasses());
+		finally {
+			readLock.unlock();
 		}
 	}
 }
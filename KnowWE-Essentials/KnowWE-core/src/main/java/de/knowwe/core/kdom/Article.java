@@ -29,6 +29,7 @@ import de.knowwe.core.ArticleManager;
 import de.knowwe.core.Environment;
 import de.knowwe.core.Environment.CompilationMode;
 import de.knowwe.core.kdom.parsing.Section;
+import de.knowwe.core.kdom.parsing.SectionTypeIndex;
 import de.knowwe.core.kdom.parsing.Sections;
 import de.knowwe.core.report.Messages;
 import de.knowwe.event.KDOMCreatedEvent;
@@ -56,6 +57,11 @@ public final class Article {
 	 */
 	private Section<RootType> rootSection;
 
+	/**
+	 * Index of the sections of the KDOM-tree by their types, created lazily after the article is sectionized
+	 */
+	private volatile SectionTypeIndex typeIndex = null;
+
 	private Article lastVersion;
 
 	private final boolean fullParse;
@@ -214,6 +220,30 @@ public final class Article {
 		return rootSection;
 	}
 
+	/**
+	 * Returns the index of the sections of this article by their types. The index is created on the first call, and
+	 * is not available while the article is sectionized.
+	 *
+	 * @return the type index of this article, or null if the article is not sectionized yet
+	 * @created 17.10.2026
+	 */
+	@Nullable
+	public SectionTypeIndex getTypeIndex() {
+		SectionTypeIndex index = this.typeIndex;
+		if (index == null) {
+			Section<RootType> root = this.rootSection;
+			if (root == null) return null;
+			synchronized (this) {
+				index = this.typeIndex;
+				if (index == null) {
+					index = new SectionTypeIndex(root);
+					this.typeIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
 	public String collectTextsFromLeaves() {
 		return this.rootSection.collectTextsFromLeaves();
 	}
@@ -59,7 +59,7 @@ public class RootType extends AbstractType {
 					string.append("\n/%\n\n");
 				}
 			}
-			DelegateRenderer.getInstance().render(section, user, string);
+			DelegateRenderer.getInstance().renderParallel(section, user, string);
 		});
 
 	}
@@ -39,6 +39,12 @@ public class DefaultSectionizerModule implements SectionizerModule {
 	@Override
 	@NotNull
 	public Section<?> createSection(Section<?> parent, String parentText, Type childType, SectionFinderResult range) {
+		return createSection(parent, (CharSequence) parentText, childType, range);
+	}
+
+	@Override
+	@NotNull
+	public Section<?> createSection(Section<?> parent, CharSequence parentText, Type childType, SectionFinderResult range) {
 		Parser parser = childType.getParser();
 		Section<? extends Type> section = parser.parse(parentText, parent);
 		Map<String, String> parameterMap = range.getParameterMap();
@@ -20,11 +20,8 @@
 
 package de.knowwe.core.kdom.parsing;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 import org.jetbrains.annotations.Nullable;
 
@@ -36,16 +33,18 @@ import de.knowwe.core.kdom.sectionFinder.SectionFinderResult;
 
 public class IncrementalSectionizerModule implements SectionizerModule {
 
+	private static final String REUSE_INDEX_KEY = "SectionReuseIndex";
+
 	@Override
 	@Nullable
-	public Section<?> createSection(Section<?> parent, String parentText, Type childType, SectionFinderResult range) {
+	public Section<?> createSection(Section<?> parent, CharSequence parentText, Type childType, SectionFinderResult range) {
 
 		// Update mechanism:
 		// try to get unchanged Sections from the last version
 		// of the article
 		if (isAllowedToReuse(parent, childType, range)) {
 
-			Section<?> match = findMatchingSection(parent, childType, parentText);
+			Section<?> match = findMatchingSection(parent, childType, parentText, range);
 
 			if (match != null) {
 				return adaptSectionToNewArticle(parent, match);
@@ -54,6 +53,12 @@ public class IncrementalSectionizerModule implements SectionizerModule {
 		return null;
 	}
 
+	@Override
+	@Nullable
+	public Section<?> createSection(Section<?> parent, String parentText, Type childType, SectionFinderResult range) {
+		return createSection(parent, (CharSequence) parentText, childType, range);
+	}
+
 	private Section<?> adaptSectionToNewArticle(Section<?> father, Section<?> match) {
 
 		// mark ancestorOneOf, that they have an reused
@@ -98,36 +103,60 @@ public class IncrementalSectionizerModule implements SectionizerModule {
 		return match;
 	}
 
-	private Section<?> findMatchingSection(Section<?> father, Type type, String text) {
-		// get path of of types the Section to be
-		// created would have
-		List<Class<? extends Type>> path = getTypePathFromRootToSection(father);
+	private Section<?> findMatchingSection(Section<?> father, Type type, CharSequence parentText, SectionFinderResult range) {
 		// while sectionizing, the article has still two root sections
-		// the last article does not have the second one, so we remove it from
-		// the path.
-		path.remove(0);
-		path.add(type.getClass());
+		// the last article does not have the second one, so we skip it
+		// in the path of types
+		long typePathHash = SectionReuseIndex.typePathHash(getTypePathHash(father), type.getClass());
+		CharSequence text = TextWindow.wrap(parentText).subSequence(range.getStart(), range.getEnd());
 
-		// find all Sections with same path of Types
+		// find all Sections with same path of Types and the same text
 		// in the last version of the article
-		Map<String, List<Section<?>>> sectionsOfSameType = findSectionsWithTypePathCached(
-				father.getArticle().getLastVersionOfArticle(), path);
-
-		List<Section<?>> matches = sectionsOfSameType.remove(text);
-
-		Section<?> match = null;
-		if (matches != null && matches.size() == 1) {
-			Section<?> tempMatch = matches.get(0);
+		SectionReuseIndex index = getReuseIndex(father.getArticle().getLastVersionOfArticle());
+		for (Section<?> candidate : index.getCandidates(typePathHash, text)) {
 			// don't reuse matches that are already reused
 			// elsewhere...
 			// the same section object would be hooked in the
 			// KDOM twice
 			// -> conflict with IDs an other stuff
-			if (!tempMatch.isOrHasReusedSuccessor) {
-				match = tempMatch;
+			if (candidate.isOrHasReusedSuccessor) continue;
+			// the hashes may collide, so we verify the candidate
+			if (hasSameTypePath(father, type, candidate) && contentEquals(text, candidate.getTextSequence())) {
+				return candidate;
 			}
 		}
-		return match;
+		return null;
+	}
+
+	/**
+	 * Returns the hash of the path of types from the root section to the specified section of the article currently
+	 * sectionized, skipping the temporary root section.
+	 */
+	private static long getTypePathHash(Section<?> section) {
+		if (section.getParent() == null) return SectionReuseIndex.EMPTY_PATH_HASH;
+		return SectionReuseIndex.typePathHash(getTypePathHash(section.getParent()), section.get().getClass());
+	}
+
+	private static boolean hasSameTypePath(Section<?> father, Type type, Section<?> candidate) {
+		if (!type.getClass().equals(candidate.get().getClass())) return false;
+		Section<?> ancestor = father;
+		Section<?> candidateAncestor = candidate.getParent();
+		// the temporary root section of the article currently sectionized has no counterpart
+		while (ancestor.getParent() != null && candidateAncestor != null) {
+			if (!ancestor.get().getClass().equals(candidateAncestor.get().getClass())) return false;
+			ancestor = ancestor.getParent();
+			candidateAncestor = candidateAncestor.getParent();
+		}
+		return ancestor.getParent() == null && candidateAncestor == null;
+	}
+
+	private static boolean contentEquals(CharSequence text, CharSequence other) {
+		int length = text.length();
+		if (length != other.length()) return false;
+		for (int i = 0; i < length; i++) {
+			if (text.charAt(i) != other.charAt(i)) return false;
+		}
+		return true;
 	}
 
 	/**
@@ -158,69 +187,13 @@ public class IncrementalSectionizerModule implements SectionizerModule {
 				&& !Types.isLeafType(type);
 	}
 
-	@SuppressWarnings("unchecked")
-	private Map<String, Map<String, List<Section<?>>>> getCache(Article article) {
-		String key = "TypePathSearchCache";
-		Object typePathSearchCache = article.getRootSection().getObject(key);
-		if (typePathSearchCache == null) {
-			typePathSearchCache = new HashMap<String, Map<String, List<Section<?>>>>();
-			article.getRootSection().storeObject(key, typePathSearchCache);
-		}
-		return (Map<String, Map<String, List<Section<?>>>>) typePathSearchCache;
-	}
-
-	/**
-	 * Finds all children with the same path of Types in the KDOM. The
-	 * <tt>path</tt> has to start with the type Article and end with the Type of
-	 * the Sections you are looking for.
-	 *
-	 * @return Map of Sections, using their originalText as key.
-	 */
-	private Map<String, List<Section<?>>> findSectionsWithTypePathCached(Article article, List<Class<? extends Type>> path) {
-		String stringPath = path.toString();
-		Map<String, Map<String, List<Section<?>>>> cache = getCache(article);
-		Map<String, List<Section<?>>> foundChildren = cache.get(stringPath);
-		if (foundChildren == null) {
-			foundChildren = findSuccessorsWithTypePathAsMap(article.getRootSection(), path, 0);
-			cache.put(stringPath, foundChildren);
-		}
-		return foundChildren;
-	}
-
-	/**
-	 * Finds all successors of type <tt>class1</tt> in the KDOM at the end of the given path of ancestorOneOf. If your
-	 * <tt>path</tt> starts with the Type of the given Section, set <tt>index</tt> to <tt>0</tt>. Else set the
-	 * <tt>index</tt> to the index of the Type of this Section in the path. </p> Stores found successors in a Map of
-	 * Sections, using their texts as key.
-	 */
-	private Map<String, List<Section<?>>> findSuccessorsWithTypePathAsMap(
-			Section<?> section,
-			List<Class<? extends Type>> path,
-			int index) {
-		Map<String, List<Section<?>>> found = new HashMap<>();
-		findSuccessorsWithTypePathAsMap(section, path, index, found);
-		return found;
-	}
-
-	private void findSuccessorsWithTypePathAsMap(
-			Section<?> section,
-			List<Class<? extends Type>> path,
-			int index, Map<String, List<Section<?>>> found) {
-
-		if (index < path.size() - 1
-				&& path.get(index).isAssignableFrom(section.get().getClass())) {
-			for (Section<? extends Type> sec : section.getChildren()) {
-				findSuccessorsWithTypePathAsMap(sec, path, index + 1, found);
-			}
-		}
-		else if (index == path.size() - 1
-				&& path.get(index).isAssignableFrom(section.get().getClass())) {
-			List<Section<?>> equalSections = found.get(section.getText());
-			if (equalSections == null) {
-				equalSections = new ArrayList<>();
-				found.put(section.getText(), equalSections);
-			}
-			equalSections.add(section);
+	private SectionReuseIndex getReuseIndex(Article article) {
+		Section<RootType> rootSection = article.getRootSection();
+		Object index = rootSection.getObject(REUSE_INDEX_KEY);
+		if (index == null) {
+			index = new SectionReuseIndex(rootSection);
+			rootSection.storeObject(REUSE_INDEX_KEY, index);
 		}
+		return (SectionReuseIndex) index;
 	}
 }
@@ -27,4 +27,18 @@ public interface Parser {
 	 */
 	@Nullable
 	Section<? extends Type> parse(@NotNull String text, @Nullable Section<? extends Type> parent);
+
+	/**
+	 * Parses the specified text, see {@link #parse(String, Section)}. Parsers that are able to work on char sequences
+	 * (e.g. a {@link TextWindow} on the text of the article) should overwrite this method, to avoid copying the text.
+	 * By default, the text is converted to a string, and the string based method is used.
+	 *
+	 * @param text   the textual markup to be parsed
+	 * @param parent the parent section of the kdom subtree to be created
+	 * @return the parsed kdom subtree
+	 */
+	@Nullable
+	default Section<? extends Type> parse(@NotNull CharSequence text, @Nullable Section<? extends Type> parent) {
+		return parse(text.toString(), parent);
+	}
 }
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.BiFunction;
 
 import org.jetbrains.annotations.NotNull;
@@ -67,7 +68,11 @@ public final class Section<T extends Type> implements Comparable<Section<? exten
 	/**
 	 * Stores Sections by their IDs.
 	 */
-	private static final Map<Integer, Section<?>> sectionMap = new HashMap<>(2048);
+	private static final SectionIDMap<Section<?>> sectionMap = new SectionIDMap<>();
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Section, SubtreeMessageCounts> MESSAGE_COUNTS =
+			AtomicReferenceFieldUpdater.newUpdater(Section.class, SubtreeMessageCounts.class, "messageCounts");
 
 	private List<Integer> position = null;
 
@@ -114,6 +119,16 @@ public final class Section<T extends Type> implements Comparable<Section<? exten
 	 */
 	private int offsetInArticle = -1;
 
+	/**
+	 * the position of this node in the {@link SectionTypeIndex} of its article, -1 if not indexed
+	 */
+	int typeIndexPosition = -1;
+
+	/**
+	 * the numbers of messages stored in the subtree of this section, created when the first message is stored
+	 */
+	private volatile SubtreeMessageCounts messageCounts = null;
+
 	/**
 	 * Contains all the stored objects
 	 */
@@ -156,7 +171,7 @@ public final class Section<T extends Type> implements Comparable<Section<? exten
 	 * @return the newly created section
 	 */
 	@NotNull
-	public static <T extends Type> Section<T> createSection(@NotNull String text, @NotNull T type, @Nullable Section<? extends Type> parent) {
+	public static <T extends Type> Section<T> createSection(@NotNull CharSequence text, @NotNull T type, @Nullable Section<? extends Type> parent) {
 		return new Section<>(text, type, parent);
 	}
 
@@ -169,14 +184,14 @@ public final class Section<T extends Type> implements Comparable<Section<? exten
 	 * @param objectType type of the node
 	 * @param parent     the parent section
 	 */
-	private Section(String text, T objectType, Section<?> parent) {
+	private Section(CharSequence text, T objectType, Section<?> parent) {
 		this.parent = parent;
 		this.type = objectType;
 		this.textLength = text != null ? text.length() : 0;
 		if (parent == null) {
 			// Should only happen in text scenarios or while initializing... since we don't have an article, we set the
 			// text manually. As soon as an article is set, the text is removed again.
-			this.text = text;
+			this.text = text == null ? null : text.toString();
 		}
 		else {
 			this.parent.addChild(this);
@@ -272,6 +287,24 @@ public final class Section<T extends Type> implements Comparable<Section<? exten
 		}
 	}
 
+	/**
+	 * Returns the text of this Section/Node as a window on the text of the article, so the text is not copied. Prefer
+	 * this method over {@link #getText()} if the text is only inspected, e.g. by a {@link
+	 * de.knowwe.core.kdom.sectionFinder.SectionFinder}.
+	 *
+	 * @return the text of this Section/Node
+	 */
+	@NotNull
+	public CharSequence getTextSequence() {
+		if (text == null) {
+			int offset = getOffsetInArticle();
+			return new TextWindow(getArticle().getText(), offset, offset + textLength);
+		}
+		else {
+			return text;
+		}
+	}
+
 	public void setText(String newText) {
 		this.textLength = newText.length();
 		if (getArticle() == null) this.text = newText;
@@ -492,57 +525,85 @@ public final class Section<T extends Type> implements Comparable<Section<? exten
 	}
 
 	public void setParent(Section<?> parent) {
+		if (this.parent != parent && parent != null && messageCounts != null) {
+			// the messages of a reused subtree are now also in the subtree of the new ancestors, the counts of the
+			// ancestors in the last version of the article are kept, as they still contain this subtree
+			messageCounts.addTo(parent);
+		}
 		this.parent = parent;
 	}
 
 	/**
-	 * Method that looks (recursively down) for this section whether some message of the specified type has been stored
-	 * in that subtree.
+	 * Updates the numbers of messages stored in the subtree of this section and of all its ancestors. This method is
+	 * called by {@link Messages} whenever messages are stored or removed for this section and should not be called
+	 * otherwise.
+	 *
+	 * @param compiler the compiler the messages are stored for, or null if they are compiler independent
+	 * @param type     the type of the messages
+	 * @param delta    the number of added (positive) or removed (negative) messages
+	 */
+	public void updateMessageCounts(@Nullable Compiler compiler, Message.Type type, int delta) {
+		for (Section<?> section = this; section != null; section = section.parent) {
+			section.getMessageCounts().add(compiler, type, delta);
+		}
+	}
+
+	private SubtreeMessageCounts getMessageCounts() {
+		SubtreeMessageCounts counts = messageCounts;
+		if (counts == null) {
+			// not synchronized on this section, as messages are stored while holding the lock of a descendant
+			MESSAGE_COUNTS.compareAndSet(this, null, new SubtreeMessageCounts());
+			counts = messageCounts;
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns the number of messages of the specified type stored in the subtree of this section, for any compiler or
+	 * independent of any compiler.
+	 */
+	public int getMessageCountInSubtree(Message.Type type) {
+		SubtreeMessageCounts counts = messageCounts;
+		return counts == null ? 0 : counts.get(type);
+	}
+
+	/**
+	 * Returns the number of messages of the specified type stored in the subtree of this section for the specified
+	 * compiler, or independent of any compiler if the compiler is null.
+	 */
+	public int getMessageCountInSubtree(@Nullable Compiler compiler, Message.Type type) {
+		SubtreeMessageCounts counts = messageCounts;
+		return counts == null ? 0 : counts.get(compiler, type);
+	}
+
+	/**
+	 * Method that checks for this section whether some errors have been stored in its subtree.
 	 */
 	public boolean hasErrorInSubtree() {
 		return hasMessageInSubtree(Message.Type.ERROR);
 	}
 
 	/**
-	 * Method that looks (recursively down) for this section whether some errors has been stored in that subtree.
+	 * Method that checks for this section whether some messages of the specified type have been stored in its subtree.
 	 */
 	public boolean hasMessageInSubtree(Message.Type type) {
 		return Messages.hasMessagesInSubtree(this, type);
 	}
 
 	/**
-	 * Method that looks (recursively down) for this section whether some messages of the specified type has been stored
-	 * in that subtree for the given article.
+	 * Method that checks for this section whether some errors have been stored in its subtree for the given compiler or
+	 * compiler independent.
 	 */
 	public boolean hasErrorInSubtree(Compiler compiler) {
 		return hasMessageInSubtree(compiler, Message.Type.ERROR);
 	}
 
 	/**
-	 * Method that looks (recursively down) for this section whether some errors has been stored in that subtree for the
-	 * given compiler or compiler independent.
+	 * Method that checks for this section whether some messages of the specified type have been stored in its subtree
+	 * for the given compiler or compiler independent.
 	 */
 	public boolean hasMessageInSubtree(Compiler compiler, Message.Type type) {
-		if (Messages.hasMessagesInSubtree(this, type)) { // fast check, but not compiler specific
-			return hasMessageInSubtreeRec(compiler, type); // slower, but compiler specific
-		}
-		else {
-			return false;
-		}
-	}
-
-	private boolean hasMessageInSubtreeRec(Compiler compiler, Message.Type type) {
-		Map<Compiler, Collection<Message>> errors = Messages.getMessagesMap(
-				this, type);
-		if (errors.get(compiler) != null) return true;
-		if (errors.get(null) != null) return true;
-		for (Section<?> child : getChildren()) {
-			boolean err = child.hasMessageInSubtreeRec(compiler, type);
-			if (err) {
-				return true;
-			}
-		}
-		return false;
+		return getMessageCountInSubtree(compiler, type) > 0 || getMessageCountInSubtree(null, type) > 0;
 	}
 
 	protected void setPositionInKDOM(List<Integer> positionInKDOM) {
@@ -641,7 +702,7 @@ public final class Section<T extends Type> implements Comparable<Section<? exten
 	}
 
 	/**
-	 * Generates an ID for the given Section and also registers the Section in a HashMap to allow searches for this
+	 * Generates an ID for the given Section and also registers the Section in a map to allow searches for this
 	 * Section later. The ID is the hash code of the following String: Title of the Article containing the Section, the
 	 * position in the KDOM and the content of the Section. Hash collisions are resolved.
 	 *
@@ -652,13 +713,8 @@ public final class Section<T extends Type> implements Comparable<Section<? exten
 	private static int generateAndRegisterSectionID(Section<?> section) {
 		int idCandidate = section.getSignatureString().hashCode();
 		if (section.getArticle().isTemporary()) return idCandidate;
-		synchronized (sectionMap) {
-			Section<?> existingSection = sectionMap.get(idCandidate);
-			while (existingSection != null || idCandidate == -1) {
-				++idCandidate;
-				existingSection = sectionMap.get(idCandidate);
-			}
-			sectionMap.put(idCandidate, section);
+		while (idCandidate == -1 || !sectionMap.putIfAbsent(idCandidate, section)) {
+			++idCandidate;
 		}
 		return idCandidate;
 	}
@@ -694,9 +750,7 @@ public final class Section<T extends Type> implements Comparable<Section<? exten
 	}
 
 	private static void unregisterID(Section<?> section) {
-		synchronized (sectionMap) {
-			sectionMap.remove(section.intID);
-		}
+		sectionMap.remove(section.intID, section);
 	}
 
 	/**
@@ -706,12 +760,10 @@ public final class Section<T extends Type> implements Comparable<Section<? exten
 	 * @return the Section for the given ID or null if no Section exists for this ID.
 	 */
 	protected static Section<?> get(String id) {
-		synchronized (sectionMap) {
-			// We have to parse long and convert to int, because when converting a int to a hex string, the negative
-			// sign is lost, resulting in for Integer.parseInt() not parsable values. Parsing long and casting
-			// to int will restore the negative sign.
-			return sectionMap.get((int) Long.parseLong(id, 16));
-		}
+		// We have to parse long and convert to int, because when converting a int to a hex string, the negative
+		// sign is lost, resulting in for Integer.parseInt() not parsable values. Parsing long and casting
+		// to int will restore the negative sign.
+		return sectionMap.get((int) Long.parseLong(id, 16));
 	}
 
 	/**
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.parsing;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Concurrent map from primitive int keys to weakly referenced values, used to register the sections by their IDs.
+ * The map uses open addressing with linear probing, so the keys are never boxed.
+ * <p>
+ * Reading is lock-free. Adding a value only competes with other threads for the same slot of the table (using
+ * compare-and-set), a lock is only required to exclude adding and removing while the table is resized. Removed
+ * entries and entries of values that have been garbage collected (e.g. sections of articles that have never been
+ * destroyed properly) are cleared in place, and dropped from the table when it is resized the next time.
+ * <p>
+ * Because the probe sequence of a key is deterministic and a slot is never reused for a different key until the
+ * table is resized, two threads adding the same key always compete for the same slot, so there is at most one live
+ * entry per key.
+ *
+ * @param <V> the type of the values
+ * @created 17.10.2026
+ */
+final class SectionIDMap<V> {
+
+	private static final int MIN_CAPACITY = 2048;
+
+	private final ReadWriteLock resizeLock = new ReentrantReadWriteLock();
+	private volatile AtomicReferenceArray<Entry<V>> table;
+	// number of slots in use (including cleared entries) of the current table
+	private final AtomicInteger usedSlots = new AtomicInteger();
+
+	SectionIDMap() {
+		this.table = new AtomicReferenceArray<>(MIN_CAPACITY);
+	}
+
+	/**
+	 * Returns the value registered for the specified key, or null if there is no such value.
+	 */
+	@Nullable
+	V get(int key) {
+		AtomicReferenceArray<Entry<V>> table = this.table;
+		int mask = table.length() - 1;
+		for (int i = indexOf(key, mask); ; i = (i + 1) & mask) {
+			Entry<V> entry = table.get(i);
+			if (entry == null) return null;
+			if (entry.key == key) return entry.get();
+		}
+	}
+
+	/**
+	 * Registers the value for the specified key, if there is no value for the key yet.
+	 *
+	 * @return true if the value has been registered, false if there already is a value for the key
+	 */
+	boolean putIfAbsent(int key, @NotNull V value) {
+		Entry<V> newEntry = new Entry<>(key, value);
+		while (true) {
+			resizeLock.readLock().lock();
+			try {
+				Boolean added = putIfAbsent(this.table, newEntry);
+				if (added != null) return added;
+			}
+			finally {
+				resizeLock.readLock().unlock();
+			}
+			resize();
+		}
+	}
+
+	/**
+	 * Returns true if the value has been added, false if there is already a value for the key, and null if the table
+	 * is full.
+	 */
+	private Boolean putIfAbsent(AtomicReferenceArray<Entry<V>> table, Entry<V> newEntry) {
+		int mask = table.length() - 1;
+		int i = indexOf(newEntry.key, mask);
+		for (int probes = 0; probes <= mask; probes++, i = (i + 1) & mask) {
+			Entry<V> entry = table.get(i);
+			if (entry == null) {
+				if (usedSlots.incrementAndGet() > table.length() / 2) {
+					usedSlots.decrementAndGet();
+					return null;
+				}
+				if (table.compareAndSet(i, null, newEntry)) return true;
+				usedSlots.decrementAndGet();
+				entry = table.get(i);
+			}
+			if (entry.key != newEntry.key) continue;
+			// the slot of this key, we either find a live value or replace the cleared entry
+			while (entry.get() == null) {
+				if (table.compareAndSet(i, entry, newEntry)) return true;
+				entry = table.get(i);
+			}
+			return false;
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the specified value for the specified key. If another value is registered for the key, nothing happens.
+	 */
+	void remove(int key, @NotNull V value) {
+		AtomicReferenceArray<Entry<V>> table = this.table;
+		int mask = table.length() - 1;
+		for (int i = indexOf(key, mask); ; i = (i + 1) & mask) {
+			Entry<V> entry = table.get(i);
+			if (entry == null) return;
+			if (entry.key == key) {
+				// clearing the entry is enough, it may only be replaced but not removed until the next resize,
+				// and a resize will not copy the cleared entry
+				if (entry.get() == value) entry.clear();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of slots in use, including entries that are already cleared.
+	 */
+	int getUsedSlots() {
+		return usedSlots.get();
+	}
+
+	private void resize() {
+		resizeLock.writeLock().lock();
+		try {
+			AtomicReferenceArray<Entry<V>> oldTable = this.table;
+			if (usedSlots.get() < oldTable.length() / 2) return; // already resized by another thread
+			int live = 0;
+			for (int i = 0; i < oldTable.length(); i++) {
+				Entry<V> entry = oldTable.get(i);
+				if (entry != null && entry.get() != null) live++;
+			}
+			// after resizing, the table is at most a quarter full
+			int capacity = MIN_CAPACITY;
+			while (capacity < live * 4) capacity <<= 1;
+			AtomicReferenceArray<Entry<V>> newTable = new AtomicReferenceArray<>(capacity);
+			int mask = capacity - 1;
+			int used = 0;
+			for (int i = 0; i < oldTable.length(); i++) {
+				Entry<V> entry = oldTable.get(i);
+				if (entry == null || entry.get() == null) continue;
+				int j = indexOf(entry.key, mask);
+				while (newTable.get(j) != null) j = (j + 1) & mask;
+				newTable.set(j, entry);
+				used++;
+			}
+			usedSlots.set(used);
+			this.table = newTable;
+		}
+		finally {
+			resizeLock.writeLock().unlock();
+		}
+	}
+
+	private static int indexOf(int key, int mask) {
+		// the ids are string hash codes and collisions are resolved by incrementing, so we spread them
+		int hash = key * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	private static final class Entry<V> extends WeakReference<V> {
+
+		private final int key;
+
+		private Entry(int key, V value) {
+			super(value);
+			this.key = key;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.parsing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+
+import de.knowwe.core.kdom.Type;
+import de.knowwe.core.kdom.Types;
+
+/**
+ * Index of the sections of the last version of an article, that may be reused by the {@link
+ * IncrementalSectionizerModule}. Each section is hashed by the path of the types from the root section to the section
+ * (including its own type), and the content of the section. A section to be created can so be matched to the reusable
+ * sections of the last version of the article by a hash probe, without building strings for the paths or copying the
+ * texts of the sections.
+ * <p>
+ * As the hashes may collide, the candidates returned by this index have to be verified by the caller. If there are
+ * multiple sections with the same type path and text, e.g. because a section has been copied, all of them are returned
+ * in the order of the article.
+ *
+ * @created 17.10.2026
+ */
+class SectionReuseIndex {
+
+	static final long EMPTY_PATH_HASH = 0xCBF29CE484222325L;
+	private static final long PRIME = 0x100000001B3L;
+
+	private final Map<Long, List<Section<?>>> sectionsByHash = new HashMap<>();
+
+	SectionReuseIndex(@NotNull Section<?> rootSection) {
+		index(rootSection, EMPTY_PATH_HASH);
+	}
+
+	private void index(Section<?> section, long parentPathHash) {
+		Type type = section.get();
+		if (Types.isLeafType(type)) return; // leaf sections are never reused
+		long pathHash = typePathHash(parentPathHash, type.getClass());
+		long hash = hash(pathHash, section.getTextSequence());
+		sectionsByHash.computeIfAbsent(hash, k -> new ArrayList<>(1)).add(section);
+		for (Section<?> child : section.getChildren()) {
+			index(child, pathHash);
+		}
+	}
+
+	/**
+	 * Returns the sections with the specified type path hash and text, in the order of the article. Due to hash
+	 * collisions, the returned sections may have a different path or text.
+	 *
+	 * @param typePathHash the hash of the type path, see {@link #typePathHash(long, Class)}
+	 * @param text         the text of the section to be created
+	 * @return the candidates to be reused
+	 */
+	@NotNull
+	List<Section<?>> getCandidates(long typePathHash, CharSequence text) {
+		return sectionsByHash.getOrDefault(hash(typePathHash, text), Collections.emptyList());
+	}
+
+	/**
+	 * Returns the hash of a type path, extending the path of the parent by the specified type class. The hash of the
+	 * path of a root section is calculated from the {@link #EMPTY_PATH_HASH}.
+	 */
+	static long typePathHash(long parentPathHash, Class<?> typeClass) {
+		// we use the name instead of the class' identity hash code, to get well distributed hashes
+		return (parentPathHash ^ typeClass.getName().hashCode()) * PRIME;
+	}
+
+	private static long hash(long typePathHash, CharSequence text) {
+		long hash = typePathHash;
+		for (int i = 0, length = text.length(); i < length; i++) {
+			hash = (hash ^ text.charAt(i)) * PRIME;
+		}
+		return (hash ^ text.length()) * PRIME;
+	}
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.parsing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import de.knowwe.core.kdom.Type;
+
+/**
+ * Index of the sections of a KDOM by the classes of their types. The sections are stored in pre-order (the order of a
+ * depth-first-search), so the successors of a section are a consecutive range of the index, and the sections of a
+ * class can be looked up for any section of the KDOM in O(log(n) + result) instead of walking the sub-tree.
+ * <p>
+ * The positions of the sections matching a class (including the sections of sub-classes and implementing classes) are
+ * calculated lazily when the class is requested the first time. The index must only be created for a KDOM that is not
+ * modified anymore, e.g. the KDOM of an article after it has been sectionized.
+ *
+ * @created 17.10.2026
+ */
+public final class SectionTypeIndex {
+
+	private static final int[] EMPTY = new int[0];
+
+	private final Section<?>[] sections;
+	private final int[] subtreeEnds;
+	private final Map<Class<?>, int[]> positionsByTypeClass;
+	private final Map<Class<?>, int[]> positionsByClass = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new index for the specified section and all its successors.
+	 *
+	 * @param root the root section of the KDOM to be indexed
+	 */
+	public SectionTypeIndex(@NotNull Section<?> root) {
+		List<Section<?>> sections = new ArrayList<>();
+		List<Integer> subtreeEnds = new ArrayList<>();
+		Map<Class<?>, List<Integer>> positions = new HashMap<>();
+		index(root, sections, subtreeEnds, positions);
+
+		this.sections = sections.toArray(new Section<?>[0]);
+		this.subtreeEnds = subtreeEnds.stream().mapToInt(Integer::intValue).toArray();
+		this.positionsByTypeClass = new HashMap<>();
+		positions.forEach((clazz, list) ->
+				positionsByTypeClass.put(clazz, list.stream().mapToInt(Integer::intValue).toArray()));
+	}
+
+	private static void index(Section<?> section, List<Section<?>> sections, List<Integer> subtreeEnds, Map<Class<?>, List<Integer>> positions) {
+		int position = sections.size();
+		section.typeIndexPosition = position;
+		sections.add(section);
+		subtreeEnds.add(-1);
+		positions.computeIfAbsent(section.get().getClass(), k -> new ArrayList<>()).add(position);
+		for (Section<?> child : section.getChildren()) {
+			index(child, sections, subtreeEnds, positions);
+		}
+		subtreeEnds.set(position, sections.size());
+	}
+
+	/**
+	 * Returns whether the specified section is part of this index.
+	 */
+	public boolean contains(@NotNull Section<?> section) {
+		return positionOf(section) != -1;
+	}
+
+	private int positionOf(Section<?> section) {
+		// the position may have been overwritten, if the section is also part of the index of another article
+		int position = section.typeIndexPosition;
+		return (position >= 0 && position < sections.length && sections[position] == section) ? position : -1;
+	}
+
+	/**
+	 * Returns the specified section and all its successors with a type of the specified class, in pre-order. If the
+	 * section is not part of this index, null is returned.
+	 *
+	 * @param section the section to get the successors for
+	 * @param clazz   the class of the successors to be matched
+	 * @return the matching successors, or null if the section is not indexed
+	 */
+	@Nullable
+	public <T extends Type> List<Section<T>> successors(@NotNull Section<?> section, @NotNull Class<T> clazz) {
+		int start = positionOf(section);
+		if (start == -1) return null;
+		int end = subtreeEnds[start];
+		int[] positions = getPositions(clazz);
+		List<Section<T>> result = new ArrayList<>();
+		for (int i = lowerBound(positions, start); i < positions.length && positions[i] < end; i++) {
+			result.add(cast(sections[positions[i]]));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the first section in pre-order of the specified section and its successors with a type of the specified
+	 * class. The section must be part of this index.
+	 *
+	 * @param section the section to get the successor for
+	 * @param clazz   the class of the successor to be matched
+	 * @return the first matching successor, or null if there is no such successor
+	 * @throws IllegalArgumentException if the section is not indexed
+	 */
+	@Nullable
+	public <T extends Type> Section<T> successor(@NotNull Section<?> section, @NotNull Class<T> clazz) {
+		int start = positionOf(section);
+		if (start == -1) throw new IllegalArgumentException("section is not indexed: " + section.getID());
+		int[] positions = getPositions(clazz);
+		int i = lowerBound(positions, start);
+		if (i < positions.length && positions[i] < subtreeEnds[start]) {
+			return cast(sections[positions[i]]);
+		}
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends Type> Section<T> cast(Section<?> section) {
+		// the positions only contain sections of the requested class
+		return (Section<T>) section;
+	}
+
+	private int[] getPositions(Class<?> clazz) {
+		return positionsByClass.computeIfAbsent(clazz, key -> {
+			List<int[]> matches = new ArrayList<>();
+			int size = 0;
+			for (Map.Entry<Class<?>, int[]> entry : positionsByTypeClass.entrySet()) {
+				if (key.isAssignableFrom(entry.getKey())) {
+					matches.add(entry.getValue());
+					size += entry.getValue().length;
+				}
+			}
+			if (matches.isEmpty()) return EMPTY;
+			if (matches.size() == 1) return matches.get(0);
+			int[] merged = new int[size];
+			int index = 0;
+			for (int[] positions : matches) {
+				System.arraycopy(positions, 0, merged, index, positions.length);
+				index += positions.length;
+			}
+			Arrays.sort(merged);
+			return merged;
+		});
+	}
+
+	/**
+	 * Returns the index of the first position that is greater or equal to the specified position.
+	 */
+	private static int lowerBound(int[] positions, int position) {
+		int low = 0;
+		int high = positions.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (positions[mid] < position) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
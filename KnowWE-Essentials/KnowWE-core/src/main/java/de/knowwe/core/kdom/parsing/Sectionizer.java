@@ -50,7 +50,15 @@ public class Sectionizer implements Parser {
 	@Override
 	@NotNull
 	public Section<?> parse(@NotNull String text, @Nullable Section<? extends Type> parent) {
-		Section<?> section = Section.createSection(text, type, parent);
+		return parse((CharSequence) text, parent);
+	}
+
+	@Override
+	@NotNull
+	public Section<?> parse(@NotNull CharSequence text, @Nullable Section<? extends Type> parent) {
+		// we only use windows on the text, so the text is not copied for each level of the kdom
+		TextWindow window = TextWindow.wrap(text);
+		Section<?> section = Section.createSection(window, type, parent);
 
 		if (parent != null) {
 			// if we have a parent, set offsets right here, because it will be faster
@@ -67,17 +75,17 @@ public class Sectionizer implements Parser {
 		// fetches the allowed children types of the local type
 		List<Type> types = type.getChildrenTypes();
 		if (!types.isEmpty()) {
-			splitToSections(section, types);
+			splitToSections(window, section, types, 0);
 		}
 		if (section.children != null) section.children.trimToSize();
 		return section;
 	}
 
 	protected void splitToSections(Section<?> parent, List<Type> types) {
-		splitToSections(parent.getText(), parent, types, 0);
+		splitToSections(TextWindow.wrap(parent.getTextSequence()), parent, types, 0);
 	}
 
-	private void splitToSections(String text, Section<?> parent, List<Type> types, int posInTypes) {
+	private void splitToSections(TextWindow text, Section<?> parent, List<Type> types, int posInTypes) {
 		// use next child type, and PlainText as default last type
 		if (posInTypes > types.size()) return;
 		Type type = posInTypes == types.size() ? PlainText.getInstance() : types.get(posInTypes);
@@ -124,7 +132,7 @@ public class Sectionizer implements Parser {
 
 			if (lastEnd < result.getStart()) {
 				int newPosInTypes = (type instanceof ExclusiveType) ? types.size() : posInTypes;
-				splitToSections(text.substring(lastEnd, result.getStart()), parent, types, newPosInTypes);
+				splitToSections(text.subSequence(lastEnd, result.getStart()), parent, types, newPosInTypes);
 			}
 
 			SectionizerModule.Registry.createSection(parent, text, type, result);
@@ -133,7 +141,7 @@ public class Sectionizer implements Parser {
 		}
 		if (lastEnd < text.length()) {
 			int newPosInTypes = (createdSection && (type instanceof ExclusiveType)) ? types.size() : posInTypes;
-			splitToSections(text.substring(lastEnd), parent, types, newPosInTypes);
+			splitToSections(text.subSequence(lastEnd, text.length()), parent, types, newPosInTypes);
 		}
 	}
 }
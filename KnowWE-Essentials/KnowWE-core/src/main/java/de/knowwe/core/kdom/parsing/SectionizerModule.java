@@ -44,6 +44,22 @@ public interface SectionizerModule {
 	@Nullable
 	Section<?> createSection(Section<?> parent, String parentText, Type childType, SectionFinderResult range);
 
+	/**
+	 * Created a new section of the specified type, see {@link #createSection(Section, String, Type,
+	 * SectionFinderResult)}. The text is usually a {@link TextWindow} on the article text. Modules that are able to
+	 * work on char sequences should overwrite this method, to avoid copying the text. By default, the text is converted
+	 * to a string, and the string based method is used.
+	 *
+	 * @param parent     parent section to create the new section as a child
+	 * @param parentText the plain text of the parent section
+	 * @param childType  the type if the child section to be created
+	 * @param range      the text range in the parent text to create the child section for
+	 */
+	@Nullable
+	default Section<?> createSection(Section<?> parent, CharSequence parentText, Type childType, SectionFinderResult range) {
+		return createSection(parent, parentText.toString(), childType, range);
+	}
+
 	/**
 	 * Utility class to manage the registered / plugged sectionizer modules
 	 */
@@ -64,9 +80,9 @@ public interface SectionizerModule {
 		 * @param childType  the type if the child section to be created
 		 * @param range      the text range in the parent text to create the child section for
 		 */
-		public static void createSection(Section<?> parent, String parentText, Type childType, SectionFinderResult range) {
+		public static void createSection(Section<?> parent, CharSequence parentText, Type childType, SectionFinderResult range) {
 			// try eventually plugged sectionizer modules to create the section
-			String sectionText = parentText.substring(range.getStart(), range.getEnd());
+			CharSequence sectionText = TextWindow.wrap(parentText).subSequence(range.getStart(), range.getEnd());
 			for (SectionizerModule sModule : sectionizerModules) {
 				Section<?> child = sModule.createSection(parent, sectionText, childType, range);
 				if (child != null) return;
@@ -932,7 +932,8 @@ public class Sections<T extends Type> implements Iterable<Section<T>> {
 	 * of outdated article objects (because of changes) are for example not live.
 	 */
 	public static boolean isLive(Section<?> section) {
-		if (section == null) return false;
+		// sections without an article, e.g. created by tests, are never live
+		if (section == null || section.getArticle() == null) return false;
 		ArticleManager manager = section.getArticleManager();
 		return (manager != null) && manager.isLive(section);
 	}
@@ -1103,6 +1104,11 @@ public class Sections<T extends Type> implements Iterable<Section<T>> {
 			return cast(section, clazz);
 		}
 
+		SectionTypeIndex index = getTypeIndex(section);
+		if (index != null && index.contains(section)) {
+			return index.successor(section, clazz);
+		}
+
 		if (canHaveSuccessor(section, clazz)) {
 			for (Section<?> sec : section.getChildren()) {
 				Section<T> s = Sections.successor(sec, clazz);
@@ -1160,8 +1166,13 @@ public class Sections<T extends Type> implements Iterable<Section<T>> {
 	 */
 	@NotNull
 	public static <T extends Type> List<Section<T>> successors(Section<?> section, Class<T> clazz) {
+		SectionTypeIndex index = getTypeIndex(section);
+		if (index != null) {
+			List<Section<T>> result = index.successors(section, clazz);
+			if (result != null) return result;
+		}
 		List<Section<T>> result = new ArrayList<>();
-		successors(section, clazz, result);
+		successorsOfSubtree(section, clazz, result);
 		return result;
 	}
 
@@ -1304,16 +1315,39 @@ public class Sections<T extends Type> implements Iterable<Section<T>> {
 	 * Finds all successors of type <code>class1</code> in the KDOM below the given Section.
 	 */
 	public static <T extends Type> void successors(Section<?> section, Class<T> clazz, List<Section<T>> found) {
+		SectionTypeIndex index = getTypeIndex(section);
+		if (index != null) {
+			List<Section<T>> result = index.successors(section, clazz);
+			if (result != null) {
+				found.addAll(result);
+				return;
+			}
+		}
+		successorsOfSubtree(section, clazz, found);
+	}
+
+	private static <T extends Type> void successorsOfSubtree(Section<?> section, Class<T> clazz, List<Section<T>> found) {
 		if (clazz.isAssignableFrom(section.get().getClass())) {
 			found.add(cast(section, clazz));
 		}
 		if (canHaveSuccessor(section, clazz)) {
 			for (Section<?> child : section.getChildren()) {
-				Sections.successors(child, clazz, found);
+				successorsOfSubtree(child, clazz, found);
 			}
 		}
 	}
 
+	/**
+	 * Returns the type index of the article of the specified section, or null if there is no index available (yet),
+	 * e.g. because the article is still sectionized.
+	 */
+	@Nullable
+	private static SectionTypeIndex getTypeIndex(Section<?> section) {
+		if (section == null) return null;
+		Article article = section.getArticle();
+		return (article == null) ? null : article.getTypeIndex();
+	}
+
 	/**
 	 * Finds all successors of the specified section-type in the KDOM below the given Section. Note that this method is
 	 * more specific as calling <code>successors(Section, Class&lt;T&gt;, List&lt;...&gt;)</code>, because it only
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.parsing;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.jetbrains.annotations.Nullable;
+
+import de.knowwe.core.compile.Compiler;
+import de.knowwe.core.report.Message;
+
+/**
+ * Numbers of the messages stored in the subtree of a section, by compiler and message type. The counts are maintained
+ * by {@link Section#updateMessageCounts(Compiler, Message.Type, int)} whenever messages are stored or removed, so
+ * checking for messages in a subtree does not require to visit the sections of the subtree.
+ * <p>
+ * Like the object store of the section, the compilers are referenced weakly, so the counts of a compiler vanish
+ * together with the messages stored for it. Messages stored independent of any compiler are counted for the
+ * <tt>null</tt> compiler.
+ *
+ * @created 17.10.2026
+ */
+final class SubtreeMessageCounts {
+
+	private static final Message.Type[] TYPES = Message.Type.values();
+
+	private final Map<Compiler, int[]> countsByCompiler = new WeakHashMap<>(2);
+
+	synchronized void add(@Nullable Compiler compiler, Message.Type type, int delta) {
+		int[] counts = countsByCompiler.computeIfAbsent(compiler, k -> new int[TYPES.length]);
+		counts[type.ordinal()] += delta;
+		if (Arrays.stream(counts).allMatch(count -> count == 0)) countsByCompiler.remove(compiler);
+	}
+
+	/**
+	 * Adds all counts of this instance to the specified section and its ancestors.
+	 */
+	synchronized void addTo(Section<?> section) {
+		for (Map.Entry<Compiler, int[]> entry : countsByCompiler.entrySet()) {
+			int[] counts = entry.getValue();
+			for (Message.Type type : TYPES) {
+				if (counts[type.ordinal()] != 0) {
+					section.updateMessageCounts(entry.getKey(), type, counts[type.ordinal()]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of messages of the specified type, stored for any compiler or independent of any compiler.
+	 */
+	synchronized int get(Message.Type type) {
+		int count = 0;
+		for (int[] counts : countsByCompiler.values()) {
+			count += counts[type.ordinal()];
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of messages of the specified type, stored for the specified compiler, or independent of any
+	 * compiler if the compiler is <tt>null</tt>.
+	 */
+	synchronized int get(@Nullable Compiler compiler, Message.Type type) {
+		int[] counts = countsByCompiler.get(compiler);
+		return counts == null ? 0 : counts[type.ordinal()];
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.parsing;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A read-only window on a range of a text, e.g. the text of an article. In contrast to {@link String#subSequence(int,
+ * int)}, creating a window or a sub-sequence of a window does not copy the text. The text of the window is only copied,
+ * if {@link #toString()} is called, and the resulting string is cached afterwards.
+ *
+ * @created 17.10.2026
+ */
+public final class TextWindow implements CharSequence {
+
+	private final String text;
+	private final int offset;
+	private final int length;
+	private String string = null;
+
+	/**
+	 * Creates a new window on the specified range of the specified text.
+	 *
+	 * @param text  the text to create the window for
+	 * @param start the start index of the window, inclusive
+	 * @param end   the end index of the window, exclusive
+	 */
+	public TextWindow(@NotNull String text, int start, int end) {
+		if (start < 0 || end > text.length() || start > end) {
+			throw new IndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + text.length());
+		}
+		this.text = text;
+		this.offset = start;
+		this.length = end - start;
+		if (start == 0 && end == text.length()) this.string = text;
+	}
+
+	/**
+	 * Returns a window on the specified text. If the text already is a window, it is returned as it is, otherwise a
+	 * window on the whole text is created.
+	 *
+	 * @param text the text to get the window for
+	 * @return a window on the specified text
+	 */
+	@NotNull
+	public static TextWindow wrap(@NotNull CharSequence text) {
+		if (text instanceof TextWindow) return (TextWindow) text;
+		String string = text.toString();
+		return new TextWindow(string, 0, string.length());
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	public boolean isEmpty() {
+		return length == 0;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new StringIndexOutOfBoundsException("index " + index + ", length " + length);
+		}
+		return text.charAt(offset + index);
+	}
+
+	@NotNull
+	@Override
+	public TextWindow subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + length);
+		}
+		return new TextWindow(text, offset + start, offset + end);
+	}
+
+	@NotNull
+	@Override
+	public String toString() {
+		if (string == null) {
+			string = text.substring(offset, offset + length);
+		}
+		return string;
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.rendering;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.jetbrains.annotations.NotNull;
+
+import de.knowwe.core.compile.LastModifiedCompiler;
+import de.knowwe.core.kdom.parsing.Section;
+import de.knowwe.core.user.UserContext;
+
+/**
+ * Renderers implementing this interface allow the {@link SectionRenderCache} to reuse the rendering of a section
+ * across requests. The rendering is reused as long as the section is the same, the {@link LastModifiedCompiler}s
+ * compiling the section have not been built again, the messages in the subtree of the section have not changed and
+ * the user context dependencies of the renderer are equal.
+ * <p>
+ * Only implement this interface if the rendering does not depend on anything else, e.g. on the state of other
+ * articles, on the current time or on compilers without a build date.
+ *
+ * @created 17.10.2026
+ */
+public interface CacheableRenderer extends Renderer {
+
+	/**
+	 * Returns the values of the user context the rendering of the specified section depends on, e.g. the user name or
+	 * the value of a request parameter. A cached rendering is only reused if these values are equal to the ones of the
+	 * cached rendering.
+	 *
+	 * @param section the section to be rendered
+	 * @param user    the user context to be used for rendering
+	 * @return the user context dependencies of the rendering, empty if the rendering is the same for all users
+	 */
+	@NotNull
+	default Collection<String> getUserContextDependencies(Section<?> section, UserContext user) {
+		return Collections.emptyList();
+	}
+}
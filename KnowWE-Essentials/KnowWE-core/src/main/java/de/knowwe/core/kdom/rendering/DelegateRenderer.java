@@ -20,12 +20,27 @@
 
 package de.knowwe.core.kdom.rendering;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import com.denkbares.utils.Log;
+import de.knowwe.core.ServletContextEventListener;
 import de.knowwe.core.compile.Compiler;
 import de.knowwe.core.kdom.Type;
 import de.knowwe.core.kdom.parsing.Section;
@@ -38,6 +53,24 @@ public class DelegateRenderer implements Renderer {
 
 	private static final DelegateRenderer instance = new DelegateRenderer();
 
+	/**
+	 * The maximum number of sections of a page rendered in parallel, see {@link #renderParallel(Section, UserContext,
+	 * RenderResult)}.
+	 */
+	public static final String KNOWWE_RENDER_PARALLELISM = "knowwe.render.parallelism";
+	private static final int RENDER_PARALLELISM = Integer.getInteger(KNOWWE_RENDER_PARALLELISM, 4);
+
+	/**
+	 * The maximum number of threads rendering sections in parallel for all pages together, see {@link
+	 * #renderParallel(Section, UserContext, RenderResult)}.
+	 */
+	public static final String KNOWWE_RENDER_THREADS = "knowwe.render.threads";
+	private static final int RENDER_THREADS = Integer.getInteger(KNOWWE_RENDER_THREADS,
+			Runtime.getRuntime().availableProcessors() * 2);
+
+	private static final AtomicInteger renderThreadNumber = new AtomicInteger(1);
+	private static ExecutorService renderExecutor = null;
+
 	public static DelegateRenderer getInstance() {
 		return instance;
 	}
@@ -69,6 +102,125 @@ public class DelegateRenderer implements Renderer {
 		if (renderTypes) renderType(section, false, result);
 	}
 
+	/**
+	 * Renders the section like {@link #render(Section, UserContext, RenderResult)}, but the child sections with a
+	 * {@link ParallelRenderer} are rendered concurrently into their own {@link RenderResult}s, while the other child
+	 * sections are rendered by the current thread. The results are appended in document order. At most the number of
+	 * child sections specified by the system property {@value #KNOWWE_RENDER_PARALLELISM} (default 4) are rendered in
+	 * parallel, further child sections are rendered by the current thread until a parallel rendering is completed.
+	 * <p>
+	 * The parallel renderings of all pages share a pool with at most the number of threads specified by the system
+	 * property {@value #KNOWWE_RENDER_THREADS} (default twice the number of processors). If all threads of the pool
+	 * are busy, the child section is also rendered by the current thread. Each parallel rendering gets its own copy of the request
+	 * parameters of the user context, and the access to the user context and the request is synchronized for all
+	 * child sections, see {@link ParallelUserContext}.
+	 *
+	 * @param section the section to be rendered
+	 * @param user    the user context to be used for rendering
+	 * @param result  the result buffer to render the output to
+	 */
+	public void renderParallel(Section<?> section, UserContext user, RenderResult result) {
+		List<Section<?>> subSections = section.getChildren();
+		if (subSections.isEmpty() || RENDER_PARALLELISM < 1 || RENDER_THREADS < 1 || result.hasCustomRenderers()) {
+			render(section, user, result);
+			return;
+		}
+
+		boolean renderTypes = isRenderTypes(user.getParameters());
+		if (renderTypes) renderType(section, true, result);
+
+		Object requestLock = new Object();
+		UserContext requestUser = ParallelUserContext.forRequestThread(user, requestLock);
+		renderInOrder(subSections, subSection -> {
+			if (!isRenderParallel(subSection, user)) return null;
+			UserContext parallelUser = ParallelUserContext.forRenderThread(user, requestLock);
+			return subResult -> renderSubSection(subSection, parallelUser, subResult);
+		}, (subSection, subResult) -> renderSubSection(subSection, requestUser, subResult),
+				RENDER_PARALLELISM, result);
+
+		if (renderTypes) renderType(section, false, result);
+	}
+
+	/**
+	 * Renders the children into the result in the order of the list. For each child, <tt>parallelRendering</tt> is
+	 * called by the current thread. If it returns a rendering, the rendering is executed by the render thread pool,
+	 * as long as less than <tt>parallelism</tt> children are rendered in parallel and the pool is not saturated.
+	 * Otherwise, the child is rendered by the current thread using <tt>rendering</tt>.
+	 */
+	static <T> void renderInOrder(List<T> children, Function<T, Consumer<RenderResult>> parallelRendering,
+			BiConsumer<T, RenderResult> rendering, int parallelism, RenderResult result) {
+		Semaphore permits = new Semaphore(parallelism);
+		List<Future<RenderResult>> subResults = new ArrayList<>(children.size());
+		for (T child : children) {
+			Future<RenderResult> subResult = null;
+			Consumer<RenderResult> parallel = parallelRendering.apply(child);
+			if (parallel != null && permits.tryAcquire()) {
+				try {
+					subResult = getRenderExecutor().submit(() -> {
+						try {
+							RenderResult childResult = new RenderResult(result);
+							parallel.accept(childResult);
+							return childResult;
+						}
+						finally {
+							permits.release();
+						}
+					});
+				}
+				catch (RejectedExecutionException e) {
+					// all render threads are busy (or shut down), so we render the child ourselves
+					permits.release();
+				}
+			}
+			if (subResult == null) {
+				RenderResult childResult = new RenderResult(result);
+				rendering.accept(child, childResult);
+				subResult = CompletableFuture.completedFuture(childResult);
+			}
+			subResults.add(subResult);
+		}
+
+		for (Future<RenderResult> subResult : subResults) {
+			try {
+				result.append(subResult.get());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				subResults.forEach(future -> future.cancel(true));
+				result.appendHtml("<span class='warning'>Rendering was interrupted</span>");
+				break;
+			}
+			catch (ExecutionException e) {
+				Log.warning("Internal error while rendering section", e.getCause());
+				result.appendHtml("<span class='warning'>");
+				result.append("Internal error while rendering section: " + e.getCause().getMessage());
+				result.appendHtml("</span>");
+			}
+		}
+	}
+
+	private static boolean isRenderParallel(Section<?> section, UserContext user) {
+		Renderer renderer = getRenderer(section, user);
+		return renderer instanceof ParallelRenderer && ((ParallelRenderer) renderer).isRenderParallel(section, user);
+	}
+
+	private static synchronized ExecutorService getRenderExecutor() {
+		if (renderExecutor == null) {
+			// no queue: if all threads are busy, the task is rejected and rendered by the calling thread
+			ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+			ExecutorService executor = new ThreadPoolExecutor(0, RENDER_THREADS, 60L, TimeUnit.SECONDS,
+					new SynchronousQueue<>(), runnable -> {
+				Thread thread = new Thread(runnable, "KnowWE-Renderer-" + renderThreadNumber.getAndIncrement());
+				thread.setDaemon(true);
+				thread.setContextClassLoader(contextClassLoader);
+				return thread;
+			});
+			ServletContextEventListener.registerOnContextDestroyedTask(servletContextEvent -> executor.shutdown());
+			renderExecutor = executor;
+		}
+		return renderExecutor;
+	}
+
 	public void renderSubSection(Section<?> subSection, UserContext user, RenderResult result) {
 		try {
 			final RenderResult subResult = new RenderResult(result);
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.rendering;
+
+import de.knowwe.core.kdom.parsing.Section;
+import de.knowwe.core.user.UserContext;
+
+/**
+ * Renderers implementing this interface allow their top-level sections to be rendered concurrently to the other
+ * top-level sections of the page, see {@link DelegateRenderer#renderParallel(Section, UserContext, RenderResult)}. The
+ * section is rendered into its own {@link RenderResult} in a separate thread, and the result is appended to the page
+ * in document order afterwards. This is useful for renderers that spend most of their time waiting, e.g. for the
+ * results of a query.
+ * <p>
+ * Only implement this interface if the rendering is thread-safe and does not depend on the rendering of other sections
+ * of the page, e.g. on request attributes set while rendering preceding sections. The section is rendered with a user
+ * context that has its own copy of the request parameters and synchronizes the access to the request.
+ *
+ * @created 17.10.2026
+ */
+public interface ParallelRenderer extends Renderer {
+
+	/**
+	 * Returns whether the specified section should be rendered in parallel to the other sections of the page. By
+	 * default, all sections are rendered in parallel.
+	 *
+	 * @param section the section to be rendered
+	 * @param user    the user context to be used for rendering
+	 * @return if the section should be rendered in parallel
+	 */
+	default boolean isRenderParallel(Section<?> section, UserContext user) {
+		return true;
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.rendering;
+
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpSession;
+
+import de.knowwe.core.ArticleManager;
+import de.knowwe.core.kdom.Article;
+import de.knowwe.core.kdom.parsing.Section;
+import de.knowwe.core.user.UserContext;
+
+/**
+ * User context for the sections of a page rendered by {@link DelegateRenderer#renderParallel(Section, UserContext,
+ * RenderResult)}. The sections rendered by other threads get a copy of the request parameters, so each of them can
+ * read and modify them on its own. All other calls are delegated to the user context of the page. Because neither the
+ * user context nor the {@link HttpServletRequest} are thread-safe, these calls, as well as the access to the
+ * attributes and parameters of the request, are synchronized on a lock shared by all sections of the page.
+ *
+ * @created 17.10.2026
+ */
+class ParallelUserContext implements UserContext {
+
+	private final UserContext delegate;
+	private final Object lock;
+	private final Map<String, String> parameters;
+	private final HttpServletRequest request;
+
+	/**
+	 * Creates a user context for a section rendered by the thread of the request, sharing the request parameters with
+	 * the user context of the page.
+	 */
+	static ParallelUserContext forRequestThread(UserContext delegate, Object lock) {
+		return new ParallelUserContext(delegate, delegate.getParameters(), lock);
+	}
+
+	/**
+	 * Creates a user context for a section rendered by another thread, using a copy of the request parameters. The
+	 * context must be created by the thread of the request.
+	 */
+	static ParallelUserContext forRenderThread(UserContext delegate, Object lock) {
+		return new ParallelUserContext(delegate, new HashMap<>(delegate.getParameters()), lock);
+	}
+
+	private ParallelUserContext(UserContext delegate, Map<String, String> parameters, Object lock) {
+		this.delegate = delegate;
+		this.lock = lock;
+		this.parameters = parameters;
+		synchronized (lock) {
+			HttpServletRequest request = delegate.getRequest();
+			this.request = (request == null) ? null : new SynchronizedRequest(request, lock);
+		}
+	}
+
+	@Override
+	public boolean userIsAdmin() {
+		synchronized (lock) {
+			return delegate.userIsAdmin();
+		}
+	}
+
+	@Override
+	public boolean userIsAsserted() {
+		synchronized (lock) {
+			return delegate.userIsAsserted();
+		}
+	}
+
+	@Override
+	public String getUserName() {
+		synchronized (lock) {
+			return delegate.getUserName();
+		}
+	}
+
+	@Override
+	public Locale getLocale() {
+		synchronized (lock) {
+			return delegate.getLocale();
+		}
+	}
+
+	@Override
+	public String getTitle() {
+		synchronized (lock) {
+			return delegate.getTitle();
+		}
+	}
+
+	@Override
+	public Article getArticle() {
+		synchronized (lock) {
+			return delegate.getArticle();
+		}
+	}
+
+	@Override
+	public String getWeb() {
+		synchronized (lock) {
+			return delegate.getWeb();
+		}
+	}
+
+	@Override
+	public Map<String, String> getParameters() {
+		return parameters;
+	}
+
+	@Override
+	public String getParameter(String key) {
+		return parameters.get(key);
+	}
+
+	@Override
+	public String getParameter(String key, String defaultValue) {
+		return parameters.getOrDefault(key, defaultValue);
+	}
+
+	@Override
+	public HttpServletRequest getRequest() {
+		return request;
+	}
+
+	@Override
+	public HttpSession getSession() {
+		synchronized (lock) {
+			return delegate.getSession();
+		}
+	}
+
+	@Override
+	public ServletContext getServletContext() {
+		synchronized (lock) {
+			return delegate.getServletContext();
+		}
+	}
+
+	@Override
+	public ArticleManager getArticleManager() {
+		synchronized (lock) {
+			return delegate.getArticleManager();
+		}
+	}
+
+	@Override
+	public boolean allowAsynchronousRendering() {
+		synchronized (lock) {
+			return delegate.allowAsynchronousRendering();
+		}
+	}
+
+	@Override
+	public boolean isRenderingPreview() {
+		synchronized (lock) {
+			return delegate.isRenderingPreview();
+		}
+	}
+
+	/**
+	 * Synchronizes the access to the attributes, parameters and session of the wrapped request.
+	 */
+	private static class SynchronizedRequest extends HttpServletRequestWrapper {
+
+		private final Object lock;
+
+		SynchronizedRequest(HttpServletRequest request, Object lock) {
+			super(request);
+			this.lock = lock;
+		}
+
+		@Override
+		public Object getAttribute(String name) {
+			synchronized (lock) {
+				return super.getAttribute(name);
+			}
+		}
+
+		@Override
+		public Enumeration<String> getAttributeNames() {
+			synchronized (lock) {
+				return super.getAttributeNames();
+			}
+		}
+
+		@Override
+		public void setAttribute(String name, Object value) {
+			synchronized (lock) {
+				super.setAttribute(name, value);
+			}
+		}
+
+		@Override
+		public void removeAttribute(String name) {
+			synchronized (lock) {
+				super.removeAttribute(name);
+			}
+		}
+
+		@Override
+		public String getParameter(String name) {
+			synchronized (lock) {
+				return super.getParameter(name);
+			}
+		}
+
+		@Override
+		public Map<String, String[]> getParameterMap() {
+			synchronized (lock) {
+				return super.getParameterMap();
+			}
+		}
+
+		@Override
+		public Enumeration<String> getParameterNames() {
+			synchronized (lock) {
+				return super.getParameterNames();
+			}
+		}
+
+		@Override
+		public String[] getParameterValues(String name) {
+			synchronized (lock) {
+				return super.getParameterValues(name);
+			}
+		}
+
+		@Override
+		public HttpSession getSession() {
+			synchronized (lock) {
+				return super.getSession();
+			}
+		}
+
+		@Override
+		public HttpSession getSession(boolean create) {
+			synchronized (lock) {
+				return super.getSession(create);
+			}
+		}
+	}
+}
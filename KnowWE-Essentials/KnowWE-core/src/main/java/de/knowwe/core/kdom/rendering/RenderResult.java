@@ -3,6 +3,8 @@
  */
 package de.knowwe.core.kdom.rendering;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -63,6 +65,22 @@ public class RenderResult {
 		customRenderers = newList;
 	}
 
+	/**
+	 * Returns the key used to mask the html of this render result, which is the same for all render results of a
+	 * request.
+	 */
+	String getMaskKey() {
+		return maskKey;
+	}
+
+	/**
+	 * Returns whether custom renderers have been added to this render result, overwriting the renderers of some
+	 * sections.
+	 */
+	boolean hasCustomRenderers() {
+		return !customRenderers.isEmpty();
+	}
+
 	private static String createMaskKey(HttpServletRequest request) {
 		Object storedMaskKey = request.getAttribute(storeKey);
 		if (storedMaskKey != null) return (String) storedMaskKey;
@@ -165,7 +183,12 @@ public class RenderResult {
 					break;
 				}
 			}
-			renderer.render(section, user, this);
+			if (renderer instanceof CacheableRenderer && !hasCustomRenderers()) {
+				SectionRenderCache.getInstance().render(section, user, (CacheableRenderer) renderer, this);
+			}
+			else {
+				renderer.render(section, user, this);
+			}
 		}
 		return this;
 	}
@@ -375,7 +398,19 @@ public class RenderResult {
 	 */
 	@Override
 	public String toString() {
-		return unmask(builder.toString());
+		return unmask(builder);
+	}
+
+	/**
+	 * Writes the <b>unmasked</b> content of this {@link RenderResult} to the specified writer. Different to
+	 * <tt>writer.write(toString())</tt>, the content is unmasked while writing, without creating a copy of the
+	 * (potentially large) content.
+	 *
+	 * @param writer the writer to write the unmasked content to
+	 * @throws IOException if the content could not be written
+	 */
+	public void writeTo(Writer writer) throws IOException {
+		unmask(builder, maskKey, writer);
 	}
 
 	/**
@@ -388,13 +423,95 @@ public class RenderResult {
 		return builder.toString();
 	}
 
-	private String unmask(String string) {
-		for (int i = 0; i < maskedHtml.length; i++) {
-			// somehow this is way faster for large strings than
-			// StringUtils.replaceEach(String, String[], String[]).
-			string = StringUtils.replace(string, maskedHtml[i], HTML[i]);
+	private String unmask(CharSequence string) {
+		StringBuilder unmasked = new StringBuilder(string.length());
+		try {
+			unmask(string, maskKey, unmasked);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e); // cannot happen for a StringBuilder
+		}
+		return unmasked.toString();
+	}
+
+	/**
+	 * Unmasks the masked html of the specified text in a single pass, appending the unmasked text to the specified
+	 * output. All masks share the prefix <tt>@@maskKey_</tt>, so instead of searching every mask separately, we only
+	 * search for the prefix and decide by the following index, which html string the mask stands for.
+	 */
+	static void unmask(CharSequence text, String maskKey, Appendable out) throws IOException {
+		String prefix = "@@" + maskKey + "_";
+		int length = text.length();
+		char[] buffer = out instanceof Writer ? new char[Math.min(length, 8192)] : null;
+		int start = 0;
+		int index = indexOf(text, prefix, 0);
+		while (index >= 0) {
+			int maskIndex = index + prefix.length();
+			int html = parseMaskIndex(text, maskIndex);
+			if (html >= 0) {
+				int maskEnd = maskIndex + String.valueOf(html).length() + 2;
+				append(text, start, index, out, buffer);
+				out.append(HTML[html]);
+				start = maskEnd;
+				index = indexOf(text, prefix, start);
+				continue;
+			}
+			index = indexOf(text, prefix, index + 1);
+		}
+		append(text, start, length, out, buffer);
+	}
+
+	/**
+	 * Returns the index of the masked html string, if the text at the specified position is a valid mask index
+	 * followed by <tt>@@</tt>, or -1 otherwise. Like the masks, the index has no leading zeros.
+	 */
+	private static int parseMaskIndex(CharSequence text, int position) {
+		int length = text.length();
+		int html = 0;
+		int end = position;
+		while (end < length && text.charAt(end) >= '0' && text.charAt(end) <= '9' && html < HTML.length) {
+			if (end > position && html == 0) return -1; // leading zero
+			html = html * 10 + (text.charAt(end) - '0');
+			end++;
+		}
+		if (end == position || html >= HTML.length) return -1;
+		if (end + 2 > length || text.charAt(end) != '@' || text.charAt(end + 1) != '@') return -1;
+		return html;
+	}
+
+	private static int indexOf(CharSequence text, String prefix, int fromIndex) {
+		if (text instanceof StringBuilder) return ((StringBuilder) text).indexOf(prefix, fromIndex);
+		if (text instanceof String) return ((String) text).indexOf(prefix, fromIndex);
+		for (int i = fromIndex, last = text.length() - prefix.length(); i <= last; i++) {
+			if (text.charAt(i) == prefix.charAt(0) && CharSequence.compare(text.subSequence(i, i + prefix.length()), prefix) == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static void append(CharSequence text, int start, int end, Appendable out, char[] buffer) throws IOException {
+		if (buffer == null) {
+			out.append(text, start, end);
+			return;
+		}
+		// Writer.append(CharSequence, int, int) would create a string of the range, so we copy it in chunks instead
+		Writer writer = (Writer) out;
+		for (int chunkStart = start; chunkStart < end; chunkStart += buffer.length) {
+			int chunkEnd = Math.min(end, chunkStart + buffer.length);
+			if (text instanceof StringBuilder) {
+				((StringBuilder) text).getChars(chunkStart, chunkEnd, buffer, 0);
+			}
+			else if (text instanceof String) {
+				((String) text).getChars(chunkStart, chunkEnd, buffer, 0);
+			}
+			else {
+				for (int i = chunkStart; i < chunkEnd; i++) {
+					buffer[i - chunkStart] = text.charAt(i);
+				}
+			}
+			writer.write(buffer, 0, chunkEnd - chunkStart);
 		}
-		return string;
 	}
 
 	public static String unmask(String string, UserContext context) {
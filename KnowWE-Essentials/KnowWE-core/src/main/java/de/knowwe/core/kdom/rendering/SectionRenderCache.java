@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.rendering;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.lang.StringUtils;
+
+import de.knowwe.core.ArticleManager;
+import de.knowwe.core.compile.Compiler;
+import de.knowwe.core.compile.Compilers;
+import de.knowwe.core.compile.LastModifiedCompiler;
+import de.knowwe.core.kdom.parsing.Section;
+import de.knowwe.core.report.Message;
+import de.knowwe.core.report.Messages;
+import de.knowwe.core.user.UserContext;
+
+/**
+ * Caches the renderings of sections with a {@link CacheableRenderer} across requests, so sections that did not change
+ * since the last page view are not rendered again. The renderings are cached by the section ID, and are valid as long
+ * as the section, the build dates of the {@link LastModifiedCompiler}s compiling the section, the messages in the
+ * subtree of the section and the user context dependencies declared by the renderer are the same.
+ * <p>
+ * The cache holds at most the number of characters specified by the system property <tt>knowwe.renderCache.maxChars</tt>
+ * (default 8M), the least recently used renderings are evicted first. Sections are only referenced weakly, so cached
+ * renderings do not prevent outdated articles from being garbage collected. Nothing is cached while the compilers are
+ * compiling or for sections not belonging to an article manager (e.g. previews).
+ *
+ * @created 17.10.2026
+ */
+public class SectionRenderCache {
+
+	private static final SectionRenderCache instance = new SectionRenderCache(
+			Integer.getInteger("knowwe.renderCache.maxChars", 8 * 1024 * 1024));
+
+	private static final char SEPARATOR = '\u0000';
+
+	private final int maxChars;
+	private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+	private long cachedChars = 0;
+
+	SectionRenderCache(int maxChars) {
+		this.maxChars = maxChars;
+	}
+
+	public static SectionRenderCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Appends the rendering of the section to the result, either from the cache or by rendering it with the specified
+	 * renderer, caching the new rendering.
+	 *
+	 * @param section  the section to be rendered
+	 * @param user     the user context to be used for rendering
+	 * @param renderer the renderer of the section
+	 * @param result   the result buffer to render the output to
+	 */
+	public void render(Section<?> section, UserContext user, CacheableRenderer renderer, RenderResult result) {
+		String key = createKey(section, user, renderer);
+		if (key == null) {
+			renderer.render(section, user, result);
+			return;
+		}
+
+		String sectionID = section.getID();
+		String cached = lookup(sectionID, section, key, result.getMaskKey());
+		if (cached != null) {
+			result.append(cached);
+			return;
+		}
+
+		RenderResult rendering = new RenderResult(result);
+		renderer.render(section, user, rendering);
+		String raw = rendering.toStringRaw();
+		store(sectionID, section, key, result.getMaskKey(), raw);
+		result.append(raw);
+	}
+
+	/**
+	 * Returns the cached rendering of the section with the specified ID, if it was rendered for the same section
+	 * instance and with the same key, translated to the specified mask key. Returns null otherwise.
+	 */
+	String lookup(String sectionID, Object section, String key, String maskKey) {
+		Entry entry = get(sectionID);
+		if (entry == null || entry.section.get() != section || !entry.key.equals(key)) return null;
+		return translateMaskKey(entry.rendering, entry.maskKey, maskKey);
+	}
+
+	/**
+	 * Caches the rendering of the section with the specified ID, rendered with the specified key and mask key.
+	 */
+	void store(String sectionID, Object section, String key, String maskKey, String rendering) {
+		put(sectionID, new Entry(section, key, maskKey, rendering));
+	}
+
+	synchronized long getCachedChars() {
+		return cachedChars;
+	}
+
+	/**
+	 * Removes all cached renderings.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		cachedChars = 0;
+	}
+
+	private String createKey(Section<?> section, UserContext user, CacheableRenderer renderer) {
+		ArticleManager articleManager = section.getArticleManager();
+		if (articleManager == null || articleManager.getCompilerManager().isCompiling()) return null;
+		if ("true".equals(user.getParameter("renderTypes"))) return null;
+
+		StringBuilder key = new StringBuilder(renderer.getClass().getName());
+		for (LastModifiedCompiler compiler : Compilers.getCompilers(section, LastModifiedCompiler.class)) {
+			key.append(SEPARATOR).append(System.identityHashCode(compiler))
+					.append(':').append(compiler.getLastModified().getTime());
+		}
+		// only visits the parts of the subtree containing messages
+		appendMessages(key, Messages.getMessagesMapFromSubtree(section));
+		for (String dependency : renderer.getUserContextDependencies(section, user)) {
+			key.append(SEPARATOR).append(dependency);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Appends the messages to the key, so a rendering is not reused if the text of a message changed, even if the
+	 * number of messages is the same.
+	 */
+	static void appendMessages(StringBuilder key, Map<Compiler, Collection<Message>> messages) {
+		for (Map.Entry<Compiler, Collection<Message>> entry : messages.entrySet()) {
+			key.append(SEPARATOR).append(System.identityHashCode(entry.getKey()));
+			for (Message message : entry.getValue()) {
+				key.append(':').append(Objects.hash(message.getType(), message.getDisplay(),
+						message.getVerbalization(), message.getDetails()));
+			}
+		}
+	}
+
+	/**
+	 * The masked html of a rendering contains the mask key of the request it was rendered for, so it has to be replaced
+	 * by the mask key of the current request.
+	 */
+	private static String translateMaskKey(String rendering, String renderedMaskKey, String maskKey) {
+		if (renderedMaskKey.equals(maskKey)) return rendering;
+		return StringUtils.replace(rendering, "@@" + renderedMaskKey + "_", "@@" + maskKey + "_");
+	}
+
+	private synchronized Entry get(String sectionID) {
+		return entries.get(sectionID);
+	}
+
+	private synchronized void put(String sectionID, Entry entry) {
+		if (entry.rendering.length() > maxChars) return;
+		Entry replaced = entries.put(sectionID, entry);
+		if (replaced != null) cachedChars -= replaced.rendering.length();
+		cachedChars += entry.rendering.length();
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (cachedChars > maxChars && iterator.hasNext()) {
+			cachedChars -= iterator.next().rendering.length();
+			iterator.remove();
+		}
+	}
+
+	private static final class Entry {
+
+		private final WeakReference<Object> section;
+		private final String key;
+		private final String maskKey;
+		private final String rendering;
+
+		private Entry(Object section, String key, String maskKey, String rendering) {
+			this.section = new WeakReference<>(section);
+			this.key = key;
+			this.maskKey = maskKey;
+			this.rendering = rendering;
+		}
+	}
+}
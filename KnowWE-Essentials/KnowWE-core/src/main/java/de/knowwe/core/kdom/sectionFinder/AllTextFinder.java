@@ -43,7 +43,12 @@ public final class AllTextFinder implements SectionFinder {
 
 	@Override
 	public List<SectionFinderResult> lookForSections(String text, Section<?> father, Type type) {
-		if (!text.isEmpty()) {
+		return lookForSections((CharSequence) text, father, type);
+	}
+
+	@Override
+	public List<SectionFinderResult> lookForSections(CharSequence text, Section<?> father, Type type) {
+		if (text.length() > 0) {
 			return SectionFinderResult.singleItemList(new SectionFinderResult(0, text.length()));
 		}
 		return null;
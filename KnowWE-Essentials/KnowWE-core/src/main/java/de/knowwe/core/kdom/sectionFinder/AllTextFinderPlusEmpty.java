@@ -18,6 +18,11 @@ public final class AllTextFinderPlusEmpty implements SectionFinder {
 
     @Override
     public List<SectionFinderResult> lookForSections(String text, Section<?> father, Type type) {
+        return lookForSections((CharSequence) text, father, type);
+    }
+
+    @Override
+    public List<SectionFinderResult> lookForSections(CharSequence text, Section<?> father, Type type) {
         return SectionFinderResult.singleItemList(new SectionFinderResult(0, text.length()));
     }
 }
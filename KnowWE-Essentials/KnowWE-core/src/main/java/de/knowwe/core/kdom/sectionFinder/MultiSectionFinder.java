@@ -25,6 +25,7 @@ import java.util.List;
 
 import de.knowwe.core.kdom.Type;
 import de.knowwe.core.kdom.parsing.Section;
+import de.knowwe.core.kdom.parsing.TextWindow;
 
 /**
  * The MultiSectionFinder allows to combine multiple SectionFinder for one type (i.e. alternative syntax). It contains a
@@ -60,12 +61,17 @@ public class MultiSectionFinder implements SectionFinder {
 
 	@Override
 	public List<SectionFinderResult> lookForSections(String text, Section<?> father, Type type) {
+		return lookForSections((CharSequence) text, father, type);
+	}
+
+	@Override
+	public List<SectionFinderResult> lookForSections(CharSequence text, Section<?> father, Type type) {
 		List<SectionFinderResult> results = new ArrayList<>();
-		lookForSectionsOfType(text, father, type, 0, 0, results);
+		lookForSectionsOfType(TextWindow.wrap(text), father, type, 0, 0, results);
 		return results;
 	}
 
-	private void lookForSectionsOfType(String text, Section<?> father, Type type, int finderNum, int offset, List<SectionFinderResult> results) {
+	private void lookForSectionsOfType(TextWindow text, Section<?> father, Type type, int finderNum, int offset, List<SectionFinderResult> results) {
 
 		// get the results from the current finder
 		if (finderNum >= finders.size()) return;
@@ -84,7 +90,7 @@ public class MultiSectionFinder implements SectionFinder {
 					continue;
 				}
 				if (lastEnd < r.getStart()) {
-					lookForSectionsOfType(text.substring(lastEnd, r.getStart()), father, type,
+					lookForSectionsOfType(text.subSequence(lastEnd, r.getStart()), father, type,
 							finderNum + 1, offset + lastEnd, results);
 				}
 
@@ -96,7 +102,7 @@ public class MultiSectionFinder implements SectionFinder {
 			}
 		}
 		if (lastEnd < text.length()) {
-			lookForSectionsOfType(text.substring(lastEnd, text.length()), father, type, finderNum + 1,
+			lookForSectionsOfType(text.subSequence(lastEnd, text.length()), father, type, finderNum + 1,
 					offset + lastEnd, results);
 		}
 	}
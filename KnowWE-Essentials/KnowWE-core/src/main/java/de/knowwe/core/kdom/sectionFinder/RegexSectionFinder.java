@@ -63,6 +63,11 @@ public class RegexSectionFinder implements SectionFinder {
 	@Override
 	public List<SectionFinderResult>
 	lookForSections(String text, Section<?> father, Type type) {
+		return lookForSections((CharSequence) text, father, type);
+	}
+
+	@Override
+	public List<SectionFinderResult> lookForSections(CharSequence text, Section<?> father, Type type) {
 		ArrayList<SectionFinderResult> result = new ArrayList<>();
 		Matcher m = pattern.matcher(text);
 		/*
@@ -87,7 +92,8 @@ public class RegexSectionFinder implements SectionFinder {
 		try {
 
 			while (m.find(index)) {
-				if (m.group(group) != null) {
+				// check the start of the group, to avoid creating a string of the group
+				if (m.start(group) != -1) {
 					result.add(createSectionFinderResult(m));
 				}
 				int next = m.end(group);
@@ -47,4 +47,22 @@ public interface SectionFinder {
 	 * calling the SectionFinder
 	 */
 	List<SectionFinderResult> lookForSections(String text, Section<?> parent, Type type);
+
+	/**
+	 * Allocates text parts for the type owning this SectionFinder, see {@link #lookForSections(String, Section,
+	 * Type)}. This method is called by the sectionizer with a window on the article text, so that the text fragments
+	 * do not have to be copied. Section finders that are able to work on char sequences should overwrite this method
+	 * (and delegate the string based method to this one). By default, the text is converted to a string, and the
+	 * string based method is used.
+	 *
+	 * @param text   Text fragment of the wiki article source
+	 * @param parent the section that should be further divided in subsection
+	 * @param type   the type that this sections finder is called for; from the result sections of this type will be
+	 *               created
+	 * @return List of SectionFinderResults with informations about what part of the next belongs to the ObjectType
+	 * calling the SectionFinder
+	 */
+	default List<SectionFinderResult> lookForSections(CharSequence text, Section<?> parent, Type type) {
+		return lookForSections(text.toString(), parent, type);
+	}
 }
@@ -103,7 +103,12 @@ public final class Messages {
 		//noinspection SynchronizationOnLocalVariableOrMethodParameter
 		synchronized (section) {
 			Map<String, Collection<Message>> map = removeMessagesMap(compiler, section);
-			if (map != null) cleanUpSectionsWithMessagesMap(section);
+			if (map != null) {
+				for (Collection<Message> messages : map.values()) {
+					updateMessageCounts(compiler, section, messages, -1);
+				}
+				cleanUpSectionsWithMessagesMap(section);
+			}
 		}
 	}
 
@@ -244,9 +249,17 @@ public final class Messages {
 	 * @created 06.02.2014
 	 */
 	public static boolean hasMessagesInSubtree(Section<? extends Type> section, Message.Type... types) {
-		if (hasMessages(section, types)) return true;
-		for (Section<?> child : section.getChildren()) {
-			if (hasMessagesInSubtree(child, types)) return true;
+		if (types.length == 0) types = Message.Type.values();
+		for (Message.Type type : types) {
+			if (section.getMessageCountInSubtree(type) > 0) return true;
+		}
+		return false;
+	}
+
+	private static boolean hasMessagesInSubtree(Compiler compiler, Section<?> section, Message.Type... types) {
+		if (types.length == 0) types = Message.Type.values();
+		for (Message.Type type : types) {
+			if (section.getMessageCountInSubtree(compiler, type) > 0) return true;
 		}
 		return false;
 	}
@@ -361,6 +374,8 @@ public final class Messages {
 	}
 
 	private static void getMessagesMapFromSubtree(Map<Compiler, Collection<Message>> allMessagesOfSubtree, Section<?> section, Message.Type... types) {
+		// skip subtrees without messages of the given types
+		if (!hasMessagesInSubtree(section, types)) return;
 		getMessagesMap(section, types).entrySet().stream()
 				.sorted(Entry.comparingByKey(Compilers.COMPARATOR))
 				.forEach(e -> allMessagesOfSubtree.computeIfAbsent(e.getKey(), c -> new ArrayList<>())
@@ -389,6 +404,8 @@ public final class Messages {
 	}
 
 	private static void getMessagesFromSubtree(Collection<Message> messages, Compiler compiler, Section<?> section, Message.Type... types) {
+		// skip subtrees without messages of the given types for the compiler
+		if (!hasMessagesInSubtree(compiler, section, types)) return;
 		messages.addAll(getMessages(compiler, section, types));
 		for (Section<?> child : section.getChildren()) {
 			getMessagesFromSubtree(messages, compiler, child, types);
@@ -614,7 +631,9 @@ public final class Messages {
 					}
 				}
 				// store messages in map
-				messagesMap.put(sourceKey, Collections.unmodifiableCollection(messages));
+				Collection<Message> replacedMessages = messagesMap.put(sourceKey, Collections.unmodifiableCollection(messages));
+				updateMessageCounts(compiler, section, replacedMessages, -1);
+				updateMessageCounts(compiler, section, messages, 1);
 				// store section for type collections
 				for (Message message : messages) {
 					sectionsWithMessages
@@ -632,6 +651,7 @@ public final class Messages {
 				Collection<Message> removedMessages = messagesMap.remove(sourceKey);
 				// we did not remove anything, no cleanup needed
 				if (removedMessages == null || removedMessages.isEmpty()) return;
+				updateMessageCounts(compiler, section, removedMessages, -1);
 				// we removed messages, cleanup!
 				// no more more messages for this compiler and section
 				if (messagesMap.isEmpty()) {
@@ -643,6 +663,25 @@ public final class Messages {
 		}
 	}
 
+	/**
+	 * Updates the message counts of the section and its ancestors by the number of messages of each type in the given
+	 * collection.
+	 *
+	 * @param sign 1 if the messages were added, -1 if they were removed
+	 */
+	private static void updateMessageCounts(Compiler compiler, Section<?> section, Collection<Message> messages, int sign) {
+		if (messages == null || messages.isEmpty()) return;
+		int[] counts = new int[Message.Type.values().length];
+		for (Message message : messages) {
+			counts[message.getType().ordinal()]++;
+		}
+		for (Message.Type type : Message.Type.values()) {
+			if (counts[type.ordinal()] > 0) {
+				section.updateMessageCounts(compiler, type, sign * counts[type.ordinal()]);
+			}
+		}
+	}
+
 	/**
 	 * <p><b>THIS METHOD DOES NOT DELETE MESSAGES!</b></p>
 	 * It just checks whether there are still messages for the given section. If not, it cleans up the map holding the
@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.denkbares.utils.Log;
+
+/**
+ * Executor that starts a new thread for every task, but only allows a limited number of tasks to run at the same time.
+ * If the JVM supports virtual threads, the tasks are executed in virtual threads, so waiting tasks (and tasks blocked
+ * in {@link #managedBlock(ForkJoinPool.ManagedBlocker)}) are cheap. Otherwise, platform threads are used as a
+ * fallback, which behaves the same, but is more expensive.
+ * <p>
+ * A task that blocks for other tasks of the same executor should do so using {@link
+ * #managedBlock(ForkJoinPool.ManagedBlocker)}, which releases its permit while it is blocked. This way, the blocked
+ * tasks never reduce the concurrency of the executor, and there is no need to grow the executor to avoid deadlocks.
+ *
+ * @created 17.10.2026
+ */
+public final class VirtualThreadExecutor extends AbstractExecutorService {
+
+	private static final ThreadFactory virtualThreadFactory = createVirtualThreadFactory();
+	private static final ThreadLocal<VirtualThreadExecutor> currentExecutor = new ThreadLocal<>();
+
+	private final ThreadFactory threadFactory;
+	private final Semaphore permits;
+	private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+	private final Object lock = new Object();
+	private boolean shutdown = false;
+
+	/**
+	 * Creates a new executor that runs at most the specified number of tasks at the same time.
+	 *
+	 * @param name           the name prefix of the threads created by this executor
+	 * @param maxConcurrency the maximum number of tasks running at the same time
+	 */
+	public VirtualThreadExecutor(String name, int maxConcurrency) {
+		this(name, maxConcurrency, thread -> {
+		});
+	}
+
+	/**
+	 * Creates a new executor that runs at most the specified number of tasks at the same time.
+	 *
+	 * @param name           the name prefix of the threads created by this executor
+	 * @param maxConcurrency the maximum number of tasks running at the same time
+	 * @param initializer    called for every thread created by this executor, before the thread is started
+	 */
+	public VirtualThreadExecutor(String name, int maxConcurrency, Consumer<Thread> initializer) {
+		if (maxConcurrency < 1) throw new IllegalArgumentException("Concurrency has to be >= 1");
+		this.permits = new Semaphore(maxConcurrency, true);
+		AtomicLong number = new AtomicLong(1);
+		this.threadFactory = runnable -> {
+			Thread thread;
+			if (virtualThreadFactory == null) {
+				thread = new Thread(runnable);
+				thread.setDaemon(true);
+			}
+			else {
+				thread = virtualThreadFactory.newThread(runnable);
+			}
+			thread.setName(name + "-" + number.getAndIncrement());
+			initializer.accept(thread);
+			return thread;
+		};
+		Log.info("Creating " + name + "-Executor with concurrency " + maxConcurrency
+				+ (virtualThreadFactory == null ? " (virtual threads not supported, using platform threads)" : ""));
+	}
+
+	/**
+	 * Returns whether the JVM supports virtual threads. If not, the executors use platform threads instead.
+	 */
+	public static boolean isVirtualThreadsSupported() {
+		return virtualThreadFactory != null;
+	}
+
+	@Nullable
+	private static ThreadFactory createVirtualThreadFactory() {
+		try {
+			// Thread.ofVirtual().factory(), accessed reflectively, because we still compile for older JVMs
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+		}
+		catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Blocks in accordance with the specified blocker. If the current thread is a task of a {@link
+	 * VirtualThreadExecutor}, the permit of the task is released while being blocked, so other tasks of the executor
+	 * can run in the meantime. Otherwise, the blocker is delegated to {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker)}.
+	 *
+	 * @param blocker the blocker task
+	 * @throws InterruptedException if blocker.block() did so
+	 */
+	public static void managedBlock(ForkJoinPool.ManagedBlocker blocker) throws InterruptedException {
+		VirtualThreadExecutor executor = currentExecutor.get();
+		if (executor == null) {
+			ForkJoinPool.managedBlock(blocker);
+			return;
+		}
+		if (blocker.isReleasable()) return;
+		executor.permits.release();
+		try {
+			//noinspection StatementWithEmptyBody
+			while (!blocker.isReleasable() && !blocker.block()) {
+			}
+		}
+		finally {
+			executor.permits.acquireUninterruptibly();
+		}
+	}
+
+	@Override
+	public void execute(@NotNull Runnable command) {
+		Objects.requireNonNull(command);
+		Thread thread = threadFactory.newThread(() -> run(command));
+		synchronized (lock) {
+			if (shutdown) throw new RejectedExecutionException("Executor has been shut down");
+			threads.add(thread);
+		}
+		try {
+			thread.start();
+		}
+		catch (Throwable e) {
+			terminated(thread);
+			throw e;
+		}
+	}
+
+	private void run(Runnable command) {
+		try {
+			permits.acquire();
+		}
+		catch (InterruptedException e) {
+			// interrupted by shutdownNow() before the task has been started
+			terminated(Thread.currentThread());
+			return;
+		}
+		currentExecutor.set(this);
+		try {
+			command.run();
+		}
+		finally {
+			currentExecutor.remove();
+			permits.release();
+			terminated(Thread.currentThread());
+		}
+	}
+
+	private void terminated(Thread thread) {
+		synchronized (lock) {
+			threads.remove(thread);
+			if (threads.isEmpty()) lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Returns the number of tasks that are waiting for a permit to be started.
+	 */
+	public int getQueueLength() {
+		return permits.getQueueLength();
+	}
+
+	@Override
+	public void shutdown() {
+		synchronized (lock) {
+			shutdown = true;
+		}
+	}
+
+	@NotNull
+	@Override
+	public List<Runnable> shutdownNow() {
+		shutdown();
+		threads.forEach(Thread::interrupt);
+		// the tasks are already owned by their threads, so there are no tasks to return
+		return new ArrayList<>();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		synchronized (lock) {
+			return shutdown;
+		}
+	}
+
+	@Override
+	public boolean isTerminated() {
+		synchronized (lock) {
+			return shutdown && threads.isEmpty();
+		}
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+		long endTime = System.currentTimeMillis() + unit.toMillis(timeout);
+		// in case we get an overflow because the timeout is near MAX_VALUE
+		if (endTime < 0) endTime = Long.MAX_VALUE;
+		synchronized (lock) {
+			while (!(shutdown && threads.isEmpty())) {
+				long remainingTime = endTime - System.currentTimeMillis();
+				if (remainingTime <= 0) return false;
+				lock.wait(remainingTime);
+			}
+			return true;
+		}
+	}
+}
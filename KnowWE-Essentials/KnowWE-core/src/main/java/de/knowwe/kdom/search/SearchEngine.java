@@ -20,9 +20,9 @@
 
 package de.knowwe.kdom.search;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +40,9 @@ import de.knowwe.core.kdom.parsing.Sections;
  * 
  * With this class you can search sections with the Type T matching a given
  * query. There are several configuration possibilities
+ * <p>
+ * Searching all articles only verifies the sections of the articles containing
+ * the words of the query, as found by the {@link SectionTextIndex}.
  * 
  * @see SearchOptions
  * 
@@ -71,19 +74,26 @@ public class SearchEngine {
 	 * @return Map containing the results for each article.
 	 */
 	public <T extends Type> Map<Article, Collection<Result>> search(String query, Class<T> clazz) {
-		Iterator<Article> iter = articleManager.getArticles().iterator();
-		Map<Article, Collection<Result>> results = new HashMap<>();
+		if (query == null || clazz == null) {
+			throw new IllegalArgumentException("Need a query and a class");
+		}
+
+		// only verify the sections of the articles containing all tokens of the query
+		Pattern pattern = createPattern(query);
+		boolean substring = options.contains(SearchOption.FUZZY);
+		Map<Article, List<Section<T>>> candidates = SectionTextIndex.getInstance(articleManager)
+				.getCandidates(query, substring, clazz);
 
-		while (iter.hasNext()) {
-			Article article = iter.next();
+		Map<Article, Collection<Result>> results = new HashMap<>();
+		for (Map.Entry<Article, List<Section<T>>> entry : candidates.entrySet()) {
 			// TODO: This produces a StackOverflowError (We have to wait for a
 			// JSPWiki fix...)
 			// if
 			// (Environment.getInstance().getWikiConnector().userCanViewPage(
 			// article.getTitle())) {
-			Collection<Result> articleResults = search(query, article, clazz);
+			Collection<Result> articleResults = search(pattern, entry.getValue());
 			if (!articleResults.isEmpty()) {
-				results.put(article, articleResults);
+				results.put(entry.getKey(), articleResults);
 			}
 			// }
 		}
@@ -107,30 +117,23 @@ public class SearchEngine {
 			throw new IllegalArgumentException("Need an article, a query and a class");
 		}
 
+		return search(createPattern(query), Sections.successors(article.getRootSection(), clazz));
+	}
+
+	private Pattern createPattern(String query) {
 		String queryString = Pattern.quote(query);
 
-		Pattern p;
 		int optionsCode = 0;
 		if (options.contains(SearchOption.CASE_INSENSITIVE)) optionsCode += Pattern.CASE_INSENSITIVE;
 		if (options.contains(SearchOption.DOTALL)) optionsCode += Pattern.DOTALL;
 
-		p = optionsCode > 0
+		return optionsCode > 0
 				? Pattern.compile(queryString, optionsCode)
 				: Pattern.compile(queryString);
-
-		return search(p, article.getRootSection(), clazz);
-
 	}
 
-	private <T extends Type> Collection<Result> search(Pattern query, Section<?> section, Class<T> clazz) {
-		if (section == null || query == null || clazz == null) {
-			throw new IllegalArgumentException("Need an article, a query and a class");
-		}
-
-		List<Section<T>> sectionsWithType = new LinkedList<>();
-		Sections.successors(section, clazz, sectionsWithType);
-
-		Collection<Result> results = new LinkedList<>();
+	private <T extends Type> Collection<Result> search(Pattern query, List<Section<T>> sectionsWithType) {
+		Collection<Result> results = new ArrayList<>();
 		for (Section<T> sectionWithType : sectionsWithType) {
 			Matcher m = query.matcher(sectionWithType.getText());
 			// We add each occurrence in the current section
@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.kdom.search;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.knowwe.core.ArticleManager;
+import de.knowwe.core.kdom.Article;
+import de.knowwe.core.kdom.Type;
+import de.knowwe.core.kdom.parsing.Section;
+import de.knowwe.core.kdom.parsing.Sections;
+
+/**
+ * Inverted index of the texts of the sections of an {@link ArticleManager}, used by the {@link SearchEngine} to find
+ * the articles that may contain matches of a query, without scanning the texts of all articles. For every type that
+ * has been searched for, the index maps the tokens (sequences of letters and digits, lower case) of the texts of the
+ * sections of that type to the articles containing them. The index of a type is created on the first search for that
+ * type. Before each search, the indexed articles are compared to the current articles of the manager: changed
+ * articles are indexed again, and the entries of deleted or renamed articles are removed.
+ * <p>
+ * The index only holds weak references to the article manager and its articles, and the ids of the indexed sections,
+ * so neither the manager nor old versions of the articles are kept in memory by the index.
+ * <p>
+ * The index only preselects candidates, the found sections still have to be verified by the caller.
+ *
+ * @created 17.10.2026
+ */
+class SectionTextIndex {
+
+	private static final Map<ArticleManager, SectionTextIndex> instances = new WeakHashMap<>();
+
+	private final WeakReference<ArticleManager> articleManager;
+	private final Map<Class<? extends Type>, TypeIndex<?>> typeIndexes = new HashMap<>();
+
+	private final Lock readLock;
+	private final Lock writeLock;
+
+	private SectionTextIndex(ArticleManager articleManager) {
+		this.articleManager = new WeakReference<>(articleManager);
+		ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+		this.readLock = lock.readLock();
+		this.writeLock = lock.writeLock();
+	}
+
+	static synchronized SectionTextIndex getInstance(ArticleManager articleManager) {
+		return instances.computeIfAbsent(articleManager, SectionTextIndex::new);
+	}
+
+	/**
+	 * Returns the sections of the specified type that may match the specified query, grouped by their articles. Only
+	 * the current versions of the articles are considered.
+	 *
+	 * @param query     the query to get the candidates for
+	 * @param substring true if the query may be contained in the text of the section, false if the text of the section
+	 *                  has to be equal to the query
+	 * @param type      the type of the sections to search for
+	 * @return the candidates, in document order for each article
+	 */
+	<T extends Type> Map<Article, List<Section<T>>> getCandidates(String query, boolean substring, Class<T> type) {
+		ArticleManager articleManager = this.articleManager.get();
+		if (articleManager == null) return Collections.emptyMap();
+		TypeIndex<T> typeIndex = getTypeIndex(articleManager, type);
+		Collection<Article> articles = articleManager.getArticles();
+		boolean upToDate;
+		readLock.lock();
+		try {
+			upToDate = typeIndex.isUpToDate(articles);
+		}
+		finally {
+			readLock.unlock();
+		}
+		if (!upToDate) {
+			writeLock.lock();
+			try {
+				typeIndex.update(articles);
+			}
+			finally {
+				writeLock.unlock();
+			}
+		}
+
+		readLock.lock();
+		try {
+			Map<Article, List<Section<T>>> candidates = new LinkedHashMap<>();
+			for (ArticleEntry entry : typeIndex.getCandidates(query, substring)) {
+				if (entry.sectionIDs.length == 0) continue;
+				// the article may have been changed since the update of the index
+				Article article = entry.article.get();
+				if (article == null || articleManager.getArticle(entry.title) != article) continue;
+				List<Section<T>> sections = new ArrayList<>(entry.sectionIDs.length);
+				for (String sectionID : entry.sectionIDs) {
+					Section<?> section = Sections.get(sectionID);
+					if (section == null || section.getArticle() != article) continue;
+					sections.add(Sections.cast(section, type));
+				}
+				candidates.put(article, sections);
+			}
+			return candidates;
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends Type> TypeIndex<T> getTypeIndex(ArticleManager articleManager, Class<T> type) {
+		readLock.lock();
+		try {
+			TypeIndex<?> typeIndex = typeIndexes.get(type);
+			if (typeIndex != null) return (TypeIndex<T>) typeIndex;
+		}
+		finally {
+			readLock.unlock();
+		}
+		writeLock.lock();
+		try {
+			TypeIndex<?> typeIndex = typeIndexes.get(type);
+			if (typeIndex == null) {
+				TypeIndex<T> newIndex = new TypeIndex<>(type);
+				newIndex.update(articleManager.getArticles());
+				typeIndexes.put(type, newIndex);
+				typeIndex = newIndex;
+			}
+			return (TypeIndex<T>) typeIndex;
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
+	private static boolean isTokenChar(char c) {
+		return Character.isLetterOrDigit(c);
+	}
+
+	/**
+	 * Folds the case of the text char by char, so the folded text has the same length, and a text matching a query
+	 * case insensitively contains the folded query in its folded text.
+	 */
+	private static String fold(String text) {
+		char[] chars = text.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(chars[i]);
+		}
+		return new String(chars);
+	}
+
+	private static List<Token> tokenize(String text) {
+		String folded = fold(text);
+		List<Token> tokens = new ArrayList<>();
+		int start = -1;
+		for (int i = 0; i <= folded.length(); i++) {
+			boolean tokenChar = i < folded.length() && isTokenChar(folded.charAt(i));
+			if (tokenChar && start == -1) {
+				start = i;
+			}
+			else if (!tokenChar && start != -1) {
+				tokens.add(new Token(folded.substring(start, i), start > 0, i < folded.length()));
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * A token of a query, knowing whether it is bounded by other characters of the query. A token of a substring query
+	 * that is not bounded may continue in the text of a matching section.
+	 */
+	private static final class Token {
+
+		private final String text;
+		private final boolean boundedBefore;
+		private final boolean boundedAfter;
+
+		private Token(String text, boolean boundedBefore, boolean boundedAfter) {
+			this.text = text;
+			this.boundedBefore = boundedBefore;
+			this.boundedAfter = boundedAfter;
+		}
+
+		private boolean matches(String token) {
+			if (boundedBefore && boundedAfter) return token.equals(text);
+			if (boundedBefore) return token.startsWith(text);
+			if (boundedAfter) return token.endsWith(text);
+			return token.contains(text);
+		}
+	}
+
+	private static final class ArticleEntry {
+
+		private final String title;
+		private final WeakReference<Article> article;
+		private final String[] sectionIDs;
+		private final String[] tokens;
+
+		private ArticleEntry(Article article, String[] sectionIDs, String[] tokens) {
+			this.title = article.getTitle();
+			this.article = new WeakReference<>(article);
+			this.sectionIDs = sectionIDs;
+			this.tokens = tokens;
+		}
+	}
+
+	private static final class TypeIndex<T extends Type> {
+
+		private final Class<T> type;
+		private final Map<String, ArticleEntry> articles = new HashMap<>();
+		private final Map<String, Set<ArticleEntry>> postings = new HashMap<>();
+
+		private TypeIndex(Class<T> type) {
+			this.type = type;
+		}
+
+		/**
+		 * Checks whether the index contains exactly the specified articles, i.e. the current articles of the manager.
+		 */
+		private boolean isUpToDate(Collection<Article> currentArticles) {
+			int count = 0;
+			for (Article article : currentArticles) {
+				ArticleEntry entry = articles.get(getKey(article));
+				if (entry == null || entry.article.get() != article) return false;
+				count++;
+			}
+			return count == articles.size();
+		}
+
+		/**
+		 * Indexes the specified articles, if not already indexed, and removes all other articles from the index.
+		 */
+		private void update(Collection<Article> currentArticles) {
+			Set<String> keys = new HashSet<>();
+			for (Article article : currentArticles) {
+				String key = getKey(article);
+				keys.add(key);
+				ArticleEntry entry = articles.get(key);
+				if (entry == null || entry.article.get() != article) index(article);
+			}
+			for (Iterator<String> iterator = articles.keySet().iterator(); iterator.hasNext(); ) {
+				String key = iterator.next();
+				if (keys.contains(key)) continue;
+				removePostings(articles.get(key));
+				iterator.remove();
+			}
+		}
+
+		private static String getKey(Article article) {
+			return article.getTitle().toLowerCase(Locale.ROOT);
+		}
+
+		private void index(Article article) {
+			String key = getKey(article);
+			removePostings(articles.remove(key));
+			// articles without sections of the type are also indexed, so we know they are up to date
+			Section<?> rootSection = article.getRootSection();
+			List<Section<T>> sections = (rootSection == null)
+					? Collections.emptyList()
+					: Sections.successors(rootSection, type);
+
+			Set<String> tokens = new HashSet<>();
+			String[] sectionIDs = new String[sections.size()];
+			for (int i = 0; i < sectionIDs.length; i++) {
+				Section<T> section = sections.get(i);
+				sectionIDs[i] = section.getID();
+				for (Token token : tokenize(section.getText())) {
+					tokens.add(token.text);
+				}
+			}
+			ArticleEntry entry = new ArticleEntry(article, sectionIDs, tokens.toArray(new String[0]));
+			articles.put(key, entry);
+			for (String token : entry.tokens) {
+				postings.computeIfAbsent(token, k -> new HashSet<>(4)).add(entry);
+			}
+		}
+
+		private void removePostings(ArticleEntry entry) {
+			if (entry == null) return;
+			for (String token : entry.tokens) {
+				Set<ArticleEntry> entries = postings.get(token);
+				if (entries == null) continue;
+				entries.remove(entry);
+				if (entries.isEmpty()) postings.remove(token);
+			}
+		}
+
+		private Collection<ArticleEntry> getCandidates(String query, boolean substring) {
+			List<Token> tokens = tokenize(query);
+			if (tokens.isEmpty()) return articles.values();
+
+			// if the whole text has to match, every token of the query is a token of the text
+			if (!substring) {
+				tokens.replaceAll(token -> new Token(token.text, true, true));
+			}
+			// start with the exact tokens, they are the cheapest to look up and usually the most selective
+			tokens.sort((token1, token2) -> Boolean.compare(
+					!(token1.boundedBefore && token1.boundedAfter), !(token2.boundedBefore && token2.boundedAfter)));
+
+			Set<ArticleEntry> candidates = null;
+			for (Token token : tokens) {
+				Set<ArticleEntry> matching = new HashSet<>();
+				if (token.boundedBefore && token.boundedAfter) {
+					matching.addAll(postings.getOrDefault(token.text, Collections.emptySet()));
+				}
+				else {
+					for (Map.Entry<String, Set<ArticleEntry>> posting : postings.entrySet()) {
+						if (token.matches(posting.getKey())) matching.addAll(posting.getValue());
+					}
+				}
+				if (candidates == null) {
+					candidates = matching;
+				}
+				else {
+					candidates.retainAll(matching);
+				}
+				if (candidates.isEmpty()) break;
+			}
+			return candidates;
+		}
+	}
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.compile;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import com.denkbares.collections.PriorityList;
+import de.knowwe.core.compile.packaging.PackageCompileType;
+import de.knowwe.core.compile.packaging.PackageManager;
+import de.knowwe.core.kdom.AbstractType;
+import de.knowwe.core.kdom.parsing.Section;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the scheduling of compilers by the {@link CompilerDependencyGraph}.
+ *
+ * @created 17.10.2026
+ */
+public class CompilerDependencyGraphTest {
+
+	@Test
+	public void testPriorities() {
+		PriorityList<Double, Compiler> compilers = new PriorityList<>(5d);
+		Compiler first = new TestCompiler();
+		Compiler second = new TestCompiler();
+		Compiler third = new TestCompiler();
+		compilers.add(1d, first);
+		compilers.add(1d, second);
+		compilers.add(2d, third);
+
+		CompilerDependencyGraph graph = new CompilerDependencyGraph(compilers);
+		// compilers of the same priority are started together, the others have to wait for all of them
+		assertEquals(List.of(first, second), graph.nextCompilers());
+		assertEquals(List.of(), graph.nextCompilers());
+		assertTrue(graph.isStarted(first));
+		assertFalse(graph.isStarted(third));
+
+		graph.finished(first);
+		assertEquals(List.of(), graph.nextCompilers());
+		graph.finished(second);
+		assertFalse(graph.isDone());
+		assertEquals(List.of(third), graph.nextCompilers());
+		graph.finished(third);
+		assertTrue(graph.isDone());
+	}
+
+	@Test
+	public void testIndependentPackageCompilers() {
+		PackageManager packageManager = new PackageManager();
+		PriorityList<Double, Compiler> compilers = new PriorityList<>(5d);
+		Compiler firstOfA = new TestPackageCompiler(packageManager, "a");
+		Compiler firstOfB = new TestPackageCompiler(packageManager, "b");
+		Compiler secondOfA = new TestPackageCompiler(packageManager, "a");
+		Compiler secondOfB = new TestPackageCompiler(packageManager, "b", "c");
+		compilers.add(1d, firstOfA);
+		compilers.add(1d, firstOfB);
+		compilers.add(2d, secondOfA);
+		compilers.add(2d, secondOfB);
+
+		CompilerDependencyGraph graph = new CompilerDependencyGraph(compilers);
+		assertEquals(List.of(firstOfA, firstOfB), graph.nextCompilers());
+		assertEquals(List.of(), graph.getWaitingCompilers());
+
+		// a package compiler only waits for the compilers of lower priority compiling a common package
+		graph.finished(firstOfB);
+		assertEquals(List.of(secondOfB), graph.nextCompilers());
+		assertEquals(List.of(secondOfA), graph.getWaitingCompilers());
+
+		graph.finished(firstOfA);
+		assertEquals(List.of(secondOfA), graph.nextCompilers());
+		assertEquals(List.of(), graph.getWaitingCompilers());
+		graph.finished(secondOfB);
+		assertFalse(graph.isDone());
+		graph.finished(secondOfA);
+		assertTrue(graph.isDone());
+	}
+
+	@Test
+	public void testOtherCompilersAreAwaited() {
+		PackageManager packageManager = new PackageManager();
+		PriorityList<Double, Compiler> compilers = new PriorityList<>(5d);
+		Compiler packageCompiler = new TestPackageCompiler(packageManager, "a");
+		Compiler otherCompiler = new TestCompiler();
+		Compiler unrelatedPackageCompiler = new TestPackageCompiler(packageManager, "b");
+		compilers.add(1d, packageCompiler);
+		compilers.add(2d, otherCompiler);
+		compilers.add(3d, unrelatedPackageCompiler);
+
+		// compilers other than package compilers may use anything, so they wait and are waited for
+		CompilerDependencyGraph graph = new CompilerDependencyGraph(compilers);
+		assertEquals(List.of(packageCompiler), graph.nextCompilers());
+		graph.finished(packageCompiler);
+		assertEquals(List.of(otherCompiler), graph.nextCompilers());
+		graph.finished(otherCompiler);
+		assertEquals(List.of(unrelatedPackageCompiler), graph.nextCompilers());
+		graph.finished(unrelatedPackageCompiler);
+		assertTrue(graph.isDone());
+	}
+
+	@Test
+	public void testCompilersChangedDuringCompilation() {
+		PriorityList<Double, Compiler> compilers = new PriorityList<>(5d);
+		Compiler first = new TestCompiler();
+		Compiler removed = new TestCompiler();
+		Compiler added = new TestCompiler();
+		compilers.add(1d, first);
+		compilers.add(2d, removed);
+
+		// the graph is evaluated on the current compilers, so changes are considered
+		CompilerDependencyGraph graph = new CompilerDependencyGraph(compilers);
+		assertEquals(List.of(first), graph.nextCompilers());
+		compilers.remove(removed);
+		compilers.add(3d, added);
+		graph.finished(first);
+		assertFalse(graph.isDone());
+		assertEquals(List.of(added), graph.nextCompilers());
+		graph.finished(added);
+		assertTrue(graph.isDone());
+	}
+
+	private static class TestCompiler implements Compiler {
+
+		@Override
+		public CompilerManager getCompilerManager() {
+			return null;
+		}
+
+		@Override
+		public boolean isCompiling(Section<?> section) {
+			return false;
+		}
+
+		@Override
+		public void init(CompilerManager compilerManager) {
+		}
+
+		@Override
+		public void compile(Collection<Section<?>> added, Collection<Section<?>> removed) {
+		}
+
+		@Override
+		public void destroy() {
+		}
+	}
+
+	private static class TestPackageCompiler extends TestCompiler implements PackageCompiler {
+
+		private final PackageManager packageManager;
+		private final Section<TestCompileType> compileSection;
+
+		private TestPackageCompiler(PackageManager packageManager, String... packages) {
+			this.packageManager = packageManager;
+			this.compileSection = Section.createSection(String.join(",", packages), new TestCompileType(), null);
+		}
+
+		@NotNull
+		@Override
+		public Section<? extends PackageCompileType> getCompileSection() {
+			return compileSection;
+		}
+
+		@NotNull
+		@Override
+		public PackageManager getPackageManager() {
+			return packageManager;
+		}
+
+		@Override
+		public String getName() {
+			return compileSection.getText();
+		}
+	}
+
+	/**
+	 * Compile type of the test compilers, compiling the comma separated packages of the section text.
+	 */
+	private static class TestCompileType extends AbstractType implements PackageCompileType {
+
+		@Override
+		public String[] getPackagesToCompile(Section<? extends PackageCompileType> section) {
+			return section.getText().split(",");
+		}
+
+		@Override
+		public Pattern[] getPackagePatterns(Section<? extends PackageCompileType> section) {
+			return new Pattern[0];
+		}
+
+		@Override
+		public Set<String> getPackages(Section<?> section) {
+			return new LinkedHashSet<>(Arrays.asList(section.getText().split(",")));
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.compile;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import de.knowwe.core.kdom.parsing.Section;
+import de.knowwe.core.utils.VirtualThreadExecutor;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the deadlock detection of {@link CompilerManager#awaitCompilePriorityCompleted(Compiler, Priority)}.
+ *
+ * @created 17.10.2026
+ */
+public class CompilerManagerTest {
+
+	@Test(timeout = 30000)
+	public void testCompilersAwaitingEachOtherInVirtualThreadMode() throws Exception {
+		CompilerManager manager = new CompilerManager(null, true);
+		Compiler first = new TestCompiler(manager);
+		Compiler second = new TestCompiler(manager);
+		manager.setCurrentCompilePriority(first, Priority.DEFAULT);
+		manager.setCurrentCompilePriority(second, Priority.DEFAULT);
+
+		ExecutorService executor = new VirtualThreadExecutor("Test-Compiler", 2);
+		try {
+			Future<Boolean> firstInterrupted = executor.submit(() -> awaitOther(manager, first, second));
+			Future<Boolean> secondInterrupted = executor.submit(() -> awaitOther(manager, second, first));
+			// the compiler waiting last detects the deadlock, afterwards the other one is able to proceed
+			assertTrue(firstInterrupted.get() ^ secondInterrupted.get());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Awaits the other compiler and finishes the compiler afterwards, even if waiting is interrupted because of a
+	 * deadlock, like a compiler does if one of its scripts fails. Returns whether waiting was interrupted.
+	 */
+	private static boolean awaitOther(CompilerManager manager, Compiler compiler, Compiler other) {
+		try {
+			manager.awaitCompilePriorityCompleted(other, Priority.DEFAULT);
+			return false;
+		}
+		catch (InterruptedException e) {
+			return true;
+		}
+		finally {
+			manager.clearCurrentCompilePriority(compiler);
+		}
+	}
+
+	private static class TestCompiler implements Compiler {
+
+		private final CompilerManager compilerManager;
+
+		private TestCompiler(CompilerManager compilerManager) {
+			this.compilerManager = compilerManager;
+		}
+
+		@Override
+		public CompilerManager getCompilerManager() {
+			return compilerManager;
+		}
+
+		@Override
+		public boolean isCompiling(Section<?> section) {
+			return false;
+		}
+
+		@Override
+		public void init(CompilerManager compilerManager) {
+		}
+
+		@Override
+		public void compile(Collection<Section<?>> added, Collection<Section<?>> removed) {
+		}
+
+		@Override
+		public void destroy() {
+		}
+	}
+}
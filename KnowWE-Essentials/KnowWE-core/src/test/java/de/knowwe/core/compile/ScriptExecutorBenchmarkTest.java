@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.compile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.denkbares.utils.Log;
+
+/**
+ * Compares the shared script executor of the {@link CompilerManager}, waiting for the scripts of each priority, with
+ * the previous scheduling of {@link ParallelScriptCompiler}, creating and shutting down a thread pool for every
+ * priority. The scripts are synthetic CPU work, so this only measures the overhead of the scheduling, not the compile
+ * time of a wiki. Like the other benchmarks, it is excluded from the default build and only runs with the profile
+ * <tt>benchmark-tests</tt>.
+ *
+ * @created 17.10.2026
+ */
+public class ScriptExecutorBenchmarkTest {
+
+	private static final int ROUNDS = 5;
+
+	private static volatile long sink;
+
+	@Test
+	public void testFewScriptsPerPriority() throws Exception {
+		benchmark(50, 20, 20, 2000);
+	}
+
+	@Test
+	public void testManyScriptsPerPriority() throws Exception {
+		benchmark(50, 20, 200, 2000);
+	}
+
+	@Test
+	public void testExpensiveScripts() throws Exception {
+		benchmark(20, 20, 1000, 20000);
+	}
+
+	private static void benchmark(int compilers, int priorities, int scripts, int cost) throws Exception {
+		// warm up
+		compileWithPoolPerPriority(compilers, priorities, scripts, cost);
+		compileWithSharedExecutor(compilers, priorities, scripts, cost);
+		for (int round = 0; round < ROUNDS; round++) {
+			long poolPerPriority = compileWithPoolPerPriority(compilers, priorities, scripts, cost);
+			long sharedExecutor = compileWithSharedExecutor(compilers, priorities, scripts, cost);
+			Log.info(compilers + " compilers, " + priorities + " priorities, " + scripts + " scripts per priority, round "
+					+ round + ": pool per priority " + poolPerPriority + "ms, shared executor " + sharedExecutor + "ms");
+		}
+	}
+
+	private static long compileWithPoolPerPriority(int compilers, int priorities, int scripts, int cost)
+			throws InterruptedException {
+		long start = System.currentTimeMillis();
+		for (int compiler = 0; compiler < compilers; compiler++) {
+			for (int priority = 0; priority < priorities; priority++) {
+				ExecutorService threadPool = CompilerManager.createExecutorService();
+				for (int script = 0; script < scripts; script++) {
+					threadPool.execute(() -> compile(cost));
+				}
+				threadPool.shutdown();
+				threadPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			}
+		}
+		return System.currentTimeMillis() - start;
+	}
+
+	private static long compileWithSharedExecutor(int compilers, int priorities, int scripts, int cost)
+			throws InterruptedException, ExecutionException {
+		long start = System.currentTimeMillis();
+		List<Future<?>> currentScripts = new ArrayList<>(scripts);
+		for (int compiler = 0; compiler < compilers; compiler++) {
+			for (int priority = 0; priority < priorities; priority++) {
+				for (int script = 0; script < scripts; script++) {
+					currentScripts.add(CompilerManager.getScriptExecutor().submit(() -> compile(cost)));
+				}
+				for (Future<?> script : currentScripts) {
+					script.get();
+				}
+				currentScripts.clear();
+			}
+		}
+		return System.currentTimeMillis() - start;
+	}
+
+	private static void compile(int cost) {
+		long value = 0;
+		for (int i = 0; i < cost; i++) {
+			value += (value * 31 + i) ^ (value >>> 7);
+		}
+		sink += value;
+	}
+}
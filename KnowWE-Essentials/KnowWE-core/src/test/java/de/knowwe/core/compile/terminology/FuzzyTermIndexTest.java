@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.compile.terminology;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import com.denkbares.strings.Identifier;
+import de.knowwe.core.compile.CompilerManager;
+import de.knowwe.core.kdom.basicType.PlainText;
+import de.knowwe.core.kdom.parsing.Section;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests finding similar terms with the {@link FuzzyTermIndex} and its maintenance by the {@link TerminologyManager}.
+ *
+ * @created 17.10.2026
+ */
+public class FuzzyTermIndexTest {
+
+	private static final Identifier APPLE = new Identifier("Apple");
+	private static final Identifier APPLE_PIE = new Identifier("Apple pie");
+	private static final Identifier APRICOT = new Identifier("Apricot");
+	private static final Identifier BANANA = new Identifier("Banana");
+	private static final Identifier FRUIT_APPLE = new Identifier("Fruit", "Apple");
+	private static final Identifier MAPLE = new Identifier("Maple");
+
+	private static final List<String> WORDS = Arrays.asList("Apple", "Apply", "Ample", "Maple", "Apple pie", "Apricot",
+			"Banana", "Bandana", "Cabana", "Cherry", "Sherry", "Berry", "Strawberry", "Blueberry", "Pear", "Peach",
+			"Beach", "Reach", "Plum", "Plume", "Lemon", "Melon", "Lime", "Mango", "Tango", "Kiwi", "Fig", "Date");
+
+	@Test
+	public void testFind() {
+		FuzzyTermIndex index = createIndex(APPLE, APPLE_PIE, APRICOT, BANANA, FRUIT_APPLE, MAPLE);
+		// terms with the same key are found together
+		assertEquals(Map.of(APPLE, 0, FRUIT_APPLE, 0), index.find("Apple", 0));
+		assertEquals(Map.of(APPLE, 1, FRUIT_APPLE, 1), index.find("Aple", 1));
+		assertEquals(Map.of(APPLE, 1, FRUIT_APPLE, 1, MAPLE, 2), index.find("Aple", 2));
+		assertEquals(Map.of(), index.find("Cherry", 2));
+		assertEquals(Map.of(), new FuzzyTermIndex(Identifier::getLastPathElement).find("Apple", 5));
+	}
+
+	@Test
+	public void testDistancePruning() {
+		List<Identifier> identifiers = WORDS.stream().map(Identifier::new).collect(Collectors.toList());
+		FuzzyTermIndex index = createIndex(identifiers.toArray(new Identifier[0]));
+		// the pruned search of the tree has to find the same terms as comparing the text with every term
+		for (String text : Arrays.asList("Apple", "Aple", "Banan", "Bery", "Peach", "Lemon", "Xyz", "")) {
+			for (int maxDistance = 0; maxDistance <= 4; maxDistance++) {
+				assertEquals(text + " within " + maxDistance, findAll(identifiers, text, maxDistance), index.find(text, maxDistance));
+			}
+		}
+	}
+
+	@Test
+	public void testAddAndRemove() {
+		FuzzyTermIndex index = createIndex(APPLE, APPLE_PIE, APRICOT, BANANA, FRUIT_APPLE, MAPLE);
+		// adding a term twice does not find it twice
+		index.add(APPLE);
+		assertEquals(Map.of(APPLE, 0, FRUIT_APPLE, 0), index.find("Apple", 0));
+
+		index.remove(APPLE);
+		assertEquals(Map.of(FRUIT_APPLE, 0), index.find("Apple", 0));
+		index.remove(FRUIT_APPLE);
+		assertEquals(Map.of(MAPLE, 2), index.find("Apple", 2));
+
+		// removing unknown terms does nothing
+		index.remove(new Identifier("Cherry"));
+		index.remove(new Identifier("Appl"));
+		assertEquals(Map.of(APPLE_PIE, 4, MAPLE, 2), index.find("Apple", 4));
+
+		// more than half of the nodes are empty afterwards, so the tree is rebuilt of the remaining terms
+		index.remove(APRICOT);
+		index.remove(MAPLE);
+		assertEquals(Map.of(APPLE_PIE, 4), index.find("Apple", 4));
+		assertEquals(Map.of(BANANA, 0), index.find("Banana", 0));
+
+		index.add(APPLE);
+		assertEquals(Map.of(APPLE, 0), index.find("Apple", 0));
+		index.remove(APPLE_PIE);
+		index.remove(BANANA);
+		index.remove(APPLE);
+		assertEquals(Map.of(), index.find("Apple", 10));
+		index.add(MAPLE);
+		assertEquals(Map.of(MAPLE, 2), index.find("Apple", 2));
+	}
+
+	@Test
+	public void testMaintainedByTerminologyManager() {
+		TerminologyManager manager = new TerminologyManager();
+		TestTermCompiler compiler = new TestTermCompiler(manager);
+		Section<?> apple = registerDefinition(manager, compiler, APPLE);
+		registerDefinition(manager, compiler, APRICOT);
+		// creates the index of the registered terms
+		assertEquals(Map.of(APPLE, 1), manager.getDefinedTermsWithinDistance("Aple", 1, null, TerminologyManager.TermKey.lastPathElement));
+
+		// registrations after creating the index are added to the index
+		Section<?> maple = registerDefinition(manager, compiler, MAPLE);
+		assertEquals(Map.of(APPLE, 1, MAPLE, 2), manager.getDefinedTermsWithinDistance("Aple", 2, null, TerminologyManager.TermKey.lastPathElement));
+
+		// the term remains in the index as long as it has a definition
+		Section<?> secondApple = registerDefinition(manager, compiler, APPLE);
+		manager.unregisterTermDefinition(compiler, apple, String.class, APPLE);
+		assertEquals(Map.of(APPLE, 1, MAPLE, 2), manager.getDefinedTermsWithinDistance("Aple", 2, null, TerminologyManager.TermKey.lastPathElement));
+		manager.unregisterTermDefinition(compiler, secondApple, String.class, APPLE);
+		manager.unregisterTermDefinition(compiler, maple, String.class, MAPLE);
+		assertEquals(Map.of(), manager.getDefinedTermsWithinDistance("Aple", 2, null, TerminologyManager.TermKey.lastPathElement));
+		assertEquals(Map.of(APRICOT, 0), manager.getDefinedTermsWithinDistance("Apricot", 0, null, TerminologyManager.TermKey.lastPathElement));
+	}
+
+	@Test
+	public void testClearedOnStaleCleanup() {
+		TerminologyManager manager = new TerminologyManager();
+		TestTermCompiler compiler = new TestTermCompiler(manager);
+		// the sections do not belong to an article, so they are stale
+		registerDefinition(manager, compiler, APPLE);
+		registerDefinition(manager, compiler, FRUIT_APPLE);
+		assertEquals(Map.of(APPLE, 0, FRUIT_APPLE, 0), manager.getDefinedTermsWithinDistance("Apple", 0, null, TerminologyManager.TermKey.lastPathElement));
+		assertEquals(Map.of(FRUIT_APPLE, 0), manager.getDefinedTermsWithinDistance(FRUIT_APPLE.toExternalForm(), 0, null, TerminologyManager.TermKey.externalForm));
+
+		// the stale registrations are not unregistered one by one, so the indexes have to be cleared
+		manager.cleanupStaleSection();
+		assertTrue(manager.getAllDefinedTerms().isEmpty());
+		assertEquals(Map.of(), manager.getDefinedTermsWithinDistance("Apple", 0, null, TerminologyManager.TermKey.lastPathElement));
+		assertEquals(Map.of(), manager.getDefinedTermsWithinDistance(FRUIT_APPLE.toExternalForm(), 0, null, TerminologyManager.TermKey.externalForm));
+
+		// the recreated indexes are maintained again
+		registerDefinition(manager, compiler, MAPLE);
+		assertEquals(Map.of(MAPLE, 2), manager.getDefinedTermsWithinDistance("Apple", 2, null, TerminologyManager.TermKey.lastPathElement));
+	}
+
+	private static FuzzyTermIndex createIndex(Identifier... identifiers) {
+		FuzzyTermIndex index = new FuzzyTermIndex(Identifier::getLastPathElement);
+		for (Identifier identifier : identifiers) {
+			index.add(identifier);
+		}
+		return index;
+	}
+
+	private static Map<Identifier, Integer> findAll(Collection<Identifier> identifiers, String text, int maxDistance) {
+		Map<Identifier, Integer> result = new HashMap<>();
+		for (Identifier identifier : identifiers) {
+			int distance = StringUtils.getLevenshteinDistance(text, identifier.getLastPathElement());
+			if (distance <= maxDistance) result.put(identifier, distance);
+		}
+		return result;
+	}
+
+	private static Section<?> registerDefinition(TerminologyManager manager, TermCompiler compiler, Identifier identifier) {
+		Section<?> section = Section.createSection(identifier.toExternalForm(), PlainText.getInstance(), null);
+		manager.registerTermDefinition(compiler, section, String.class, identifier);
+		return section;
+	}
+
+	private static class TestTermCompiler implements TermCompiler {
+
+		private final TerminologyManager terminologyManager;
+		private final CompilerManager compilerManager = new CompilerManager(null);
+
+		private TestTermCompiler(TerminologyManager terminologyManager) {
+			this.terminologyManager = terminologyManager;
+		}
+
+		@Override
+		public TerminologyManager getTerminologyManager() {
+			return terminologyManager;
+		}
+
+		@Override
+		public CompilerManager getCompilerManager() {
+			return compilerManager;
+		}
+
+		@Override
+		public boolean isCompiling(Section<?> section) {
+			return false;
+		}
+
+		@Override
+		public void init(CompilerManager compilerManager) {
+		}
+
+		@Override
+		public void compile(Collection<Section<?>> added, Collection<Section<?>> removed) {
+		}
+
+		@Override
+		public void destroy() {
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.compile.terminology;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.denkbares.strings.Identifier;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests adding, removing and completing terms with the {@link TermPrefixTrie}.
+ *
+ * @created 17.10.2026
+ */
+public class TermPrefixTrieTest {
+
+	private static final Identifier APPLE = new Identifier("Apple");
+	private static final Identifier APPLE_PIE = new Identifier("Apple pie");
+	private static final Identifier APPLICATION = new Identifier("application");
+	private static final Identifier APRICOT = new Identifier("Apricot");
+	private static final Identifier BANANA = new Identifier("Banana");
+	private static final Identifier FRUIT_APPLE = new Identifier("Fruit", "Apple");
+
+	@Test
+	public void testCompletionOrder() {
+		TermPrefixTrie trie = createTrie(false);
+		// prefixes first, then lexicographical order of the last path element, then of the external form
+		assertEquals(Arrays.asList(APPLE, FRUIT_APPLE, APPLE_PIE, APPLICATION, APRICOT), trie.complete("ap", 10));
+		assertEquals(Arrays.asList(APPLE, FRUIT_APPLE, APPLE_PIE, APPLICATION, APRICOT, BANANA), trie.complete("", 10));
+		assertEquals(Arrays.asList(APPLE, FRUIT_APPLE), trie.complete("APPLE", 2));
+		assertEquals(Collections.singletonList(APPLICATION), trie.complete("appli", 10));
+		assertEquals(Collections.emptyList(), trie.complete("cherry", 10));
+		assertEquals(Collections.emptyList(), trie.complete("ap", 0));
+	}
+
+	@Test
+	public void testCaseSensitive() {
+		TermPrefixTrie trie = createTrie(true);
+		assertEquals(Arrays.asList(APPLE, FRUIT_APPLE, APPLE_PIE, APRICOT), trie.complete("Ap", 10));
+		assertEquals(Collections.singletonList(APPLICATION), trie.complete("ap", 10));
+		assertEquals(Collections.emptyList(), trie.complete("APPLE", 10));
+	}
+
+	@Test
+	public void testAddAndRemove() {
+		TermPrefixTrie trie = createTrie(false);
+		// adding a term twice does not complete it twice
+		trie.add(APPLE);
+		assertEquals(Arrays.asList(APPLE, FRUIT_APPLE, APPLE_PIE), trie.complete("apple", 10));
+
+		trie.remove(APPLE);
+		assertEquals(Arrays.asList(FRUIT_APPLE, APPLE_PIE), trie.complete("apple", 10));
+		trie.remove(APPLE_PIE);
+		trie.remove(FRUIT_APPLE);
+		assertEquals(Collections.emptyList(), trie.complete("apple", 10));
+		assertEquals(Arrays.asList(APPLICATION, APRICOT), trie.complete("ap", 10));
+
+		// removing unknown terms does nothing
+		trie.remove(new Identifier("Cherry"));
+		trie.remove(new Identifier("App"));
+		assertEquals(Arrays.asList(APPLICATION, APRICOT, BANANA), trie.complete("", 10));
+
+		trie.add(APPLE);
+		assertEquals(Arrays.asList(APPLE, APPLICATION), trie.complete("app", 10));
+	}
+
+	private static TermPrefixTrie createTrie(boolean caseSensitive) {
+		TermPrefixTrie trie = new TermPrefixTrie(caseSensitive);
+		for (Identifier identifier : Arrays.asList(BANANA, APRICOT, FRUIT_APPLE, APPLICATION, APPLE_PIE, APPLE)) {
+			trie.add(identifier);
+		}
+		return trie;
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.parsing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.denkbares.utils.Log;
+
+import static org.junit.Assert.assertSame;
+
+/**
+ * Compares the throughput of the {@link SectionIDMap} with the synchronized hash map previously used to register the
+ * sections by their IDs. Like the sections, every thread registers a block of IDs (rendering), looks them up again
+ * (actions), and unregisters them (destroying the article). Like the other benchmarks, it is excluded from the default
+ * build and only runs with the profile <tt>benchmark-tests</tt>. See {@link SectionIDMapTest} for the functional tests.
+ *
+ * @created 17.10.2026
+ */
+public class SectionIDMapBenchmarkTest {
+
+	private static final int THREADS = 8;
+	private static final int IDS_PER_THREAD = 20000;
+	private static final int ROUNDS = 5;
+
+	@Test
+	public void testBenchmark() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			for (int round = 0; round < ROUNDS; round++) {
+				long synchronizedTime = run(executor, new SynchronizedRegistry());
+				long concurrentTime = run(executor, new ConcurrentRegistry());
+				Log.info("Section ID map round " + round + ": synchronized HashMap " + synchronizedTime
+						+ "ms, SectionIDMap " + concurrentTime + "ms");
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private long run(ExecutorService executor, Registry registry) throws Exception {
+		long start = System.currentTimeMillis();
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int offset = t * 7919;
+			futures.add(executor.submit(() -> {
+				Object[] values = new Object[IDS_PER_THREAD];
+				int[] ids = new int[IDS_PER_THREAD];
+				for (int i = 0; i < IDS_PER_THREAD; i++) {
+					values[i] = new Object();
+					ids[i] = registry.register(Integer.hashCode(offset + i) * 0x01000193, values[i]);
+				}
+				for (int repeat = 0; repeat < 10; repeat++) {
+					for (int i = 0; i < IDS_PER_THREAD; i++) {
+						assertSame(values[i], registry.get(ids[i]));
+					}
+				}
+				for (int i = 0; i < IDS_PER_THREAD; i++) {
+					registry.unregister(ids[i], values[i]);
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		return System.currentTimeMillis() - start;
+	}
+
+	private interface Registry {
+
+		int register(int idCandidate, Object value);
+
+		Object get(int id);
+
+		void unregister(int id, Object value);
+	}
+
+	/**
+	 * The registration as previously done in {@link Section}.
+	 */
+	private static class SynchronizedRegistry implements Registry {
+
+		private final Map<Integer, Object> map = new HashMap<>(2048);
+
+		@Override
+		public int register(int idCandidate, Object value) {
+			synchronized (map) {
+				Object existing = map.get(idCandidate);
+				while (existing != null || idCandidate == -1) {
+					++idCandidate;
+					existing = map.get(idCandidate);
+				}
+				map.put(idCandidate, value);
+			}
+			return idCandidate;
+		}
+
+		@Override
+		public Object get(int id) {
+			synchronized (map) {
+				return map.get(id);
+			}
+		}
+
+		@Override
+		public void unregister(int id, Object value) {
+			synchronized (map) {
+				map.remove(id);
+			}
+		}
+	}
+
+	private static class ConcurrentRegistry implements Registry {
+
+		private final SectionIDMap<Object> map = new SectionIDMap<>();
+
+		@Override
+		public int register(int idCandidate, Object value) {
+			while (idCandidate == -1 || !map.putIfAbsent(idCandidate, value)) {
+				++idCandidate;
+			}
+			return idCandidate;
+		}
+
+		@Override
+		public Object get(int id) {
+			return map.get(id);
+		}
+
+		@Override
+		public void unregister(int id, Object value) {
+			map.remove(id, value);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.parsing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link SectionIDMap}, also for concurrent access. Like the sections, every thread registers a block of IDs
+ * (parsing), looks them up again (rendering and actions), and unregisters them (destroying the article).
+ *
+ * @created 17.10.2026
+ */
+public class SectionIDMapTest {
+
+	private static final int THREADS = 8;
+	private static final int IDS_PER_THREAD = 5000;
+
+	@Test
+	public void testMap() {
+		SectionIDMap<Object> map = new SectionIDMap<>();
+		List<Object> values = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			Object value = new Object();
+			values.add(value);
+			assertTrue(map.putIfAbsent(i * 31, value));
+		}
+		assertFalse(map.putIfAbsent(31, new Object()));
+		for (int i = 0; i < 10000; i++) {
+			assertSame(values.get(i), map.get(i * 31));
+		}
+		assertNull(map.get(1));
+
+		// removing another value for the same key does nothing
+		map.remove(31, new Object());
+		assertSame(values.get(1), map.get(31));
+		map.remove(31, values.get(1));
+		assertNull(map.get(31));
+		Object replacement = new Object();
+		assertTrue(map.putIfAbsent(31, replacement));
+		assertSame(replacement, map.get(31));
+	}
+
+	@Test
+	public void testConcurrentRegistration() throws Exception {
+		SectionIDMap<Object> map = new SectionIDMap<>();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			// all threads use the same id candidates, so every id must be assigned exactly once
+			int idsPerThread = 1000;
+			List<Future<List<Object>>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(executor.submit(() -> {
+					List<Object> values = new ArrayList<>();
+					for (int i = 0; i < idsPerThread; i++) {
+						Object value = new Object();
+						values.add(value);
+						int id = i;
+						while (!map.putIfAbsent(id, value)) id++;
+					}
+					return values;
+				}));
+			}
+			int registered = 0;
+			for (Future<List<Object>> future : futures) {
+				registered += future.get().size();
+			}
+			int found = 0;
+			for (int id = 0; id < THREADS * idsPerThread; id++) {
+				if (map.get(id) != null) found++;
+			}
+			assertEquals(registered, found);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testConcurrentLifecycle() throws Exception {
+		SectionIDMap<Object> map = new SectionIDMap<>();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				// the blocks of the threads overlap, so the threads compete for the same ids
+				int offset = t * (IDS_PER_THREAD / 2);
+				futures.add(executor.submit(() -> {
+					Object[] values = new Object[IDS_PER_THREAD];
+					int[] ids = new int[IDS_PER_THREAD];
+					for (int i = 0; i < IDS_PER_THREAD; i++) {
+						values[i] = new Object();
+						int id = offset + i;
+						while (!map.putIfAbsent(id, values[i])) id++;
+						ids[i] = id;
+					}
+					for (int repeat = 0; repeat < 3; repeat++) {
+						for (int i = 0; i < IDS_PER_THREAD; i++) {
+							assertSame(values[i], map.get(ids[i]));
+						}
+					}
+					for (int i = 0; i < IDS_PER_THREAD; i++) {
+						map.remove(ids[i], values[i]);
+						// the id may already be taken by another thread
+						assertNotSame(values[i], map.get(ids[i]));
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		for (int id = 0; id < THREADS * IDS_PER_THREAD * 2; id++) {
+			assertNull(map.get(id));
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.parsing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.knowwe.core.kdom.AbstractType;
+import de.knowwe.core.kdom.Type;
+import de.knowwe.core.kdom.basicType.PlainText;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests looking up the successors of sections by the classes of their types with the {@link SectionTypeIndex}.
+ *
+ * @created 17.10.2026
+ */
+public class SectionTypeIndexTest {
+
+	private static final List<Class<? extends Type>> CLASSES = List.of(Type.class, AbstractType.class,
+			PlainText.class, TestType.class, SubTestType.class, OtherType.class);
+
+	@Test
+	public void testSuccessors() {
+		Section<PlainText> root = Section.createSection("root", PlainText.getInstance(), null);
+		Section<TestType> a = Section.createSection("a", new TestType(), root);
+		Section<SubTestType> a1 = Section.createSection("a1", new SubTestType(), a);
+		Section<PlainText> a2 = Section.createSection("a2", PlainText.getInstance(), a);
+		Section<SubTestType> b = Section.createSection("b", new SubTestType(), root);
+		Section<TestType> b1 = Section.createSection("b1", new TestType(), b);
+
+		SectionTypeIndex index = new SectionTypeIndex(root);
+		// the sections of sub-classes are matched as well, in pre-order
+		assertEquals(List.of(a, a1, b, b1), index.successors(root, TestType.class));
+		assertEquals(List.of(a1, b), index.successors(root, SubTestType.class));
+		assertEquals(List.of(a, a1), index.successors(a, TestType.class));
+		assertEquals(List.of(root, a, a1, a2, b, b1), index.successors(root, Type.class));
+		assertEquals(List.of(), index.successors(b, PlainText.class));
+		assertEquals(List.of(), index.successors(root, OtherType.class));
+
+		assertEquals(a1, index.successor(a, SubTestType.class));
+		assertEquals(b, index.successor(b, TestType.class));
+		assertNull(index.successor(a2, TestType.class));
+	}
+
+	@Test
+	public void testSuccessorsOfRandomTree() {
+		Random random = new Random(42);
+		Section<PlainText> root = Section.createSection("root", PlainText.getInstance(), null);
+		List<Section<?>> sections = new ArrayList<>(List.of(root));
+		for (int i = 0; i < 500; i++) {
+			Section<?> parent = sections.get(random.nextInt(sections.size()));
+			sections.add(Section.createSection("section " + i, createType(random), parent));
+		}
+
+		// the index has to find the same sections as walking the sub-tree of each section
+		SectionTypeIndex index = new SectionTypeIndex(root);
+		for (Section<?> section : sections) {
+			assertTrue(index.contains(section));
+			for (Class<? extends Type> clazz : CLASSES) {
+				List<Section<?>> expected = new ArrayList<>();
+				walk(section, clazz, expected);
+				assertEquals(section.getText() + " for " + clazz.getSimpleName(), expected, index.successors(section, clazz));
+				assertEquals(expected.isEmpty() ? null : expected.get(0), index.successor(section, clazz));
+			}
+		}
+	}
+
+	@Test
+	public void testSectionsOfOtherIndex() {
+		Section<PlainText> root = Section.createSection("root", PlainText.getInstance(), null);
+		Section<TestType> a = Section.createSection("a", new TestType(), root);
+		Section<SubTestType> a1 = Section.createSection("a1", new SubTestType(), a);
+		Section<PlainText> other = Section.createSection("other", PlainText.getInstance(), null);
+
+		SectionTypeIndex index = new SectionTypeIndex(root);
+		assertTrue(index.contains(a));
+		assertFalse(index.contains(other));
+		assertNull(index.successors(other, Type.class));
+
+		// indexing the sections again for another KDOM, they are no longer found by the first index
+		SectionTypeIndex subtreeIndex = new SectionTypeIndex(a);
+		assertTrue(subtreeIndex.contains(a1));
+		assertFalse(index.contains(a));
+		assertFalse(index.contains(a1));
+		assertNull(index.successors(a, TestType.class));
+		assertTrue(index.contains(root));
+		assertEquals(List.of(a, a1), subtreeIndex.successors(a, TestType.class));
+	}
+
+	private static Type createType(Random random) {
+		switch (random.nextInt(4)) {
+			case 0:
+				return new TestType();
+			case 1:
+				return new SubTestType();
+			case 2:
+				return new OtherType();
+			default:
+				return PlainText.getInstance();
+		}
+	}
+
+	private static void walk(Section<?> section, Class<?> clazz, List<Section<?>> found) {
+		if (clazz.isInstance(section.get())) found.add(section);
+		for (Section<?> child : section.getChildren()) {
+			walk(child, clazz, found);
+		}
+	}
+
+	private static class TestType extends AbstractType {
+	}
+
+	private static class SubTestType extends TestType {
+	}
+
+	private static class OtherType extends AbstractType {
+	}
+}
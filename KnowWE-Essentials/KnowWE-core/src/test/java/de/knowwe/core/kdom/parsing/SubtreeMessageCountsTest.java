@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.parsing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import de.knowwe.core.compile.Compiler;
+import de.knowwe.core.compile.CompilerManager;
+import de.knowwe.core.kdom.basicType.PlainText;
+import de.knowwe.core.report.Message;
+import de.knowwe.core.report.Messages;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the {@link SubtreeMessageCounts} of the sections are maintained when messages are stored and cleared, and
+ * when sections are reused in a new version of the article.
+ *
+ * @created 17.10.2026
+ */
+public class SubtreeMessageCountsTest {
+
+	private static final Message ERROR = new Message(Message.Type.ERROR, "error");
+	private static final Message OTHER_ERROR = new Message(Message.Type.ERROR, "other error");
+	private static final Message WARNING = new Message(Message.Type.WARNING, "warning");
+
+	@Test
+	public void testStoreAndClearMessages() {
+		Section<?> root = createSection("root", null);
+		Section<?> child = createSection("child", root);
+		Section<?> leaf = createSection("leaf", child);
+		Section<?> sibling = createSection("sibling", root);
+
+		Messages.storeMessages(leaf, SubtreeMessageCountsTest.class, Arrays.asList(ERROR, WARNING));
+		assertCounts(leaf, 1, 1);
+		assertCounts(child, 1, 1);
+		assertCounts(root, 1, 1);
+		assertCounts(sibling, 0, 0);
+
+		// replaced messages are no longer counted
+		Messages.storeMessages(leaf, SubtreeMessageCountsTest.class, Arrays.asList(ERROR, OTHER_ERROR));
+		assertCounts(child, 2, 0);
+		assertCounts(root, 2, 0);
+
+		// messages of other sources and of other sections are added
+		Messages.storeMessage(leaf, String.class, WARNING);
+		Messages.storeMessage(sibling, SubtreeMessageCountsTest.class, WARNING);
+		assertCounts(child, 2, 1);
+		assertCounts(sibling, 0, 1);
+		assertCounts(root, 2, 2);
+
+		Messages.clearMessages(leaf, SubtreeMessageCountsTest.class);
+		assertCounts(leaf, 0, 1);
+		assertCounts(root, 0, 2);
+		assertFalse(Messages.hasMessagesInSubtree(root, Message.Type.ERROR));
+		assertTrue(Messages.hasMessagesInSubtree(root, Message.Type.WARNING));
+
+		// clearing a section without messages does not change the counts
+		Messages.clearMessages(child, SubtreeMessageCountsTest.class);
+		assertCounts(root, 0, 2);
+
+		Messages.clearMessages((Compiler) null, leaf);
+		Messages.clearMessages(sibling, SubtreeMessageCountsTest.class);
+		assertCounts(leaf, 0, 0);
+		assertCounts(child, 0, 0);
+		assertCounts(root, 0, 0);
+		assertFalse(Messages.hasMessagesInSubtree(root));
+	}
+
+	@Test
+	public void testCountsByCompiler() {
+		Section<?> root = createSection("root", null);
+		Section<?> leaf = createSection("leaf", root);
+		Compiler compiler = new TestCompiler();
+
+		leaf.updateMessageCounts(compiler, Message.Type.ERROR, 2);
+		Messages.storeMessage(leaf, SubtreeMessageCountsTest.class, ERROR);
+		assertEquals(2, root.getMessageCountInSubtree(compiler, Message.Type.ERROR));
+		assertEquals(1, root.getMessageCountInSubtree(null, Message.Type.ERROR));
+		assertEquals(3, root.getMessageCountInSubtree(Message.Type.ERROR));
+		assertEquals(0, root.getMessageCountInSubtree(compiler, Message.Type.WARNING));
+
+		leaf.updateMessageCounts(compiler, Message.Type.ERROR, -2);
+		assertEquals(0, root.getMessageCountInSubtree(compiler, Message.Type.ERROR));
+		assertEquals(1, root.getMessageCountInSubtree(Message.Type.ERROR));
+	}
+
+	@Test
+	public void testReusedSections() {
+		Section<?> oldRoot = createSection("root", null);
+		Section<?> reused = createSection("reused", oldRoot);
+		Section<?> leaf = createSection("leaf", reused);
+		Section<?> removed = createSection("removed", oldRoot);
+		Messages.storeMessage(leaf, SubtreeMessageCountsTest.class, ERROR);
+		Messages.storeMessage(removed, SubtreeMessageCountsTest.class, WARNING);
+		assertCounts(oldRoot, 1, 1);
+
+		// the new version of the article reuses a subtree with messages, like the incremental sectionizer does
+		Section<?> newRoot = createSection("root", null);
+		Section<?> unchanged = createSection("unchanged", newRoot);
+		reused.setParent(newRoot);
+		newRoot.addChild(reused);
+		assertCounts(newRoot, 1, 0);
+		assertCounts(reused, 1, 0);
+		assertCounts(unchanged, 0, 0);
+		assertEquals(Collections.singletonList(ERROR), new ArrayList<>(Messages.getMessagesFromSubtree(newRoot, Message.Type.ERROR)));
+		// the old version of the article still contains the reused subtree
+		assertCounts(oldRoot, 1, 1);
+
+		// setting the same parent again does not count the messages twice
+		reused.setParent(newRoot);
+		assertCounts(newRoot, 1, 0);
+
+		// reusing a subtree without messages does not change the counts
+		Section<?> withoutMessages = createSection("without messages", oldRoot);
+		withoutMessages.setParent(newRoot);
+		newRoot.addChild(withoutMessages);
+		assertCounts(newRoot, 1, 0);
+
+		// messages stored in the reused subtree afterwards are counted for the new ancestors
+		Messages.storeMessage(leaf, String.class, WARNING);
+		assertCounts(newRoot, 1, 1);
+		Messages.clearMessages((Compiler) null, leaf);
+		assertCounts(newRoot, 0, 0);
+		assertCounts(reused, 0, 0);
+		assertFalse(Messages.hasMessagesInSubtree(newRoot));
+	}
+
+	private static Section<?> createSection(String text, Section<?> parent) {
+		return Section.createSection(text, PlainText.getInstance(), parent);
+	}
+
+	private static void assertCounts(Section<?> section, int errors, int warnings) {
+		assertEquals(errors, section.getMessageCountInSubtree(Message.Type.ERROR));
+		assertEquals(warnings, section.getMessageCountInSubtree(Message.Type.WARNING));
+	}
+
+	private static class TestCompiler implements Compiler {
+
+		@Override
+		public CompilerManager getCompilerManager() {
+			return null;
+		}
+
+		@Override
+		public boolean isCompiling(Section<?> section) {
+			return false;
+		}
+
+		@Override
+		public void init(CompilerManager compilerManager) {
+		}
+
+		@Override
+		public void compile(Collection<Section<?>> added, Collection<Section<?>> removed) {
+		}
+
+		@Override
+		public void destroy() {
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.rendering;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.Test;
+
+import de.knowwe.core.user.UserContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the parallel rendering of {@link DelegateRenderer} creates the same output as the sequential rendering.
+ *
+ * @created 17.10.2026
+ */
+public class DelegateRendererTest {
+
+	@Test
+	public void testParallelEqualsSequential() {
+		List<Integer> children = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+		HttpServletRequest request = createRequest();
+
+		RenderResult sequential = new RenderResult(request);
+		children.forEach(child -> renderChild(child, sequential));
+
+		RenderResult parallel = new RenderResult(request);
+		DelegateRenderer.renderInOrder(children, child -> (child % 2 == 0) ? result -> renderChild(child, result) : null,
+				DelegateRendererTest::renderChild, 4, parallel);
+
+		assertEquals(sequential.toStringRaw(), parallel.toStringRaw());
+		assertEquals(sequential.toString(), parallel.toString());
+	}
+
+	@Test
+	public void testSaturatedPool() {
+		// more children than render threads, all of them allowed to be rendered in parallel
+		int threads = Runtime.getRuntime().availableProcessors() * 2;
+		List<Integer> children = IntStream.range(0, threads * 4).boxed().collect(Collectors.toList());
+		HttpServletRequest request = createRequest();
+
+		RenderResult sequential = new RenderResult(request);
+		children.forEach(child -> renderChild(child, sequential));
+
+		// the parallel renderings wait until the first child is rendered by the calling thread, so the pool saturates
+		CountDownLatch inlineRendering = new CountDownLatch(1);
+		Set<Thread> renderThreads = ConcurrentHashMap.newKeySet();
+		Function<Integer, Consumer<RenderResult>> parallelRendering = child -> result -> {
+			renderThreads.add(Thread.currentThread());
+			try {
+				inlineRendering.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			renderChild(child, result);
+		};
+		RenderResult parallel = new RenderResult(request);
+		DelegateRenderer.renderInOrder(children, parallelRendering, (child, result) -> {
+			renderThreads.add(Thread.currentThread());
+			inlineRendering.countDown();
+			renderChild(child, result);
+		}, children.size(), parallel);
+
+		assertEquals(sequential.toStringRaw(), parallel.toStringRaw());
+		// the children not accepted by the bounded pool are rendered by the calling thread
+		assertTrue(renderThreads.contains(Thread.currentThread()));
+		assertTrue(renderThreads.size() <= threads + 1);
+	}
+
+	@Test
+	public void testParameters() {
+		Map<String, String> parameters = new HashMap<>();
+		parameters.put("page", "Main");
+		UserContext user = createUser(parameters, createRequest());
+		Object lock = new Object();
+
+		UserContext requestUser = ParallelUserContext.forRequestThread(user, lock);
+		UserContext renderUser = ParallelUserContext.forRenderThread(user, lock);
+		renderUser.getParameters().put("mode", "parallel");
+		requestUser.getParameters().put("mode", "sequential");
+
+		assertEquals("Main", renderUser.getParameter("page"));
+		assertEquals("parallel", renderUser.getParameter("mode"));
+		assertEquals("sequential", user.getParameters().get("mode"));
+
+		renderUser.getRequest().setAttribute("attribute", "value");
+		assertEquals("value", user.getRequest().getAttribute("attribute"));
+		assertNull(requestUser.getRequest().getAttribute("other"));
+	}
+
+	private static void renderChild(Integer child, RenderResult result) {
+		if (child % 3 == 0) {
+			// simulate a query taking some time
+			try {
+				Thread.sleep(child % 7);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		result.appendHtml("<div id='child" + child + "'>");
+		result.append("Child ").append(child).append(" with <text> & [markup]");
+		result.appendHtml("</div>");
+		result.append("\n");
+	}
+
+	private static HttpServletRequest createRequest() {
+		Map<String, Object> attributes = new ConcurrentHashMap<>();
+		return (HttpServletRequest) Proxy.newProxyInstance(DelegateRendererTest.class.getClassLoader(),
+				new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getAttribute":
+							return attributes.get((String) args[0]);
+						case "setAttribute":
+							attributes.put((String) args[0], args[1]);
+							return null;
+						case "removeAttribute":
+							attributes.remove((String) args[0]);
+							return null;
+						default:
+							throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	private static UserContext createUser(Map<String, String> parameters, HttpServletRequest request) {
+		return (UserContext) Proxy.newProxyInstance(DelegateRendererTest.class.getClassLoader(),
+				new Class<?>[] { UserContext.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getParameters":
+							return parameters;
+						case "getRequest":
+							return request;
+						default:
+							throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.rendering;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import com.denkbares.utils.Log;
+
+import static de.knowwe.core.kdom.rendering.RenderResultUnmaskTest.HTML;
+import static de.knowwe.core.kdom.rendering.RenderResultUnmaskTest.MASK_KEY;
+import static de.knowwe.core.kdom.rendering.RenderResultUnmaskTest.mask;
+import static de.knowwe.core.kdom.rendering.RenderResultUnmaskTest.unmask;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the speed of the single pass unmasking of {@link RenderResult} with the previous unmasking, replacing
+ * every mask in a separate pass, for a large rendered article (about 5 MB). Like the other benchmarks, it is excluded
+ * from the default build and only runs with the profile <tt>benchmark-tests</tt>.
+ *
+ * @created 17.10.2026
+ */
+public class RenderResultUnmaskBenchmarkTest {
+
+	private static final int ROUNDS = 5;
+
+	@Test
+	public void testBenchmark() throws IOException {
+		String unmasked = createArticle(5 * 1024 * 1024);
+		String masked = mask(unmasked);
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.currentTimeMillis();
+			String multiPass = unmaskMultiPass(masked);
+			long multiPassTime = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			String singlePass = unmask(masked);
+			long singlePassTime = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			StringWriter writer = new StringWriter(masked.length());
+			RenderResult.unmask(new StringBuilder(masked), MASK_KEY, writer);
+			long writerTime = System.currentTimeMillis() - start;
+
+			assertEquals(unmasked, multiPass);
+			assertEquals(unmasked, singlePass);
+			assertEquals(unmasked, writer.toString());
+			Log.info("Unmasking round " + round + ": multi pass " + multiPassTime
+					+ "ms, single pass " + singlePassTime + "ms, single pass to writer " + writerTime + "ms");
+		}
+	}
+
+	private static String createArticle(int length) {
+		StringBuilder article = new StringBuilder(length + 1000);
+		for (int i = 0; article.length() < length; i++) {
+			article.append("<div class='section' sectionid='").append(Integer.toHexString(i * 31)).append("'>");
+			article.append("Some text of line ").append(i).append(" with a [link] and a [{Plugin param=\"value\"}]\n");
+			article.append("<span style=\"color:rgb(0, 128, 0)\">Question ").append(i).append("</span> \\\\ \n");
+			article.append("</div>\n");
+		}
+		return article.toString();
+	}
+
+	/**
+	 * The unmasking as previously done in {@link RenderResult}.
+	 */
+	private static String unmaskMultiPass(String text) {
+		for (int i = 0; i < HTML.length; i++) {
+			text = StringUtils.replace(text, "@@" + MASK_KEY + "_" + i + "@@", HTML[i]);
+		}
+		return text;
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.rendering;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the single pass unmasking of {@link RenderResult}, also when writing to a {@link java.io.Writer}.
+ *
+ * @created 17.10.2026
+ */
+public class RenderResultUnmaskTest {
+
+	static final String MASK_KEY = "k3y";
+	static final String[] HTML = new String[] {
+			"[{", "}]", "\\\\", "\"", "'", ">", "<", "[", "]" };
+
+	@Test
+	public void testUnmask() throws IOException {
+		assertUnmask("");
+		assertUnmask("no masks at all");
+		assertUnmask("<div class='a'>[{Plugin}]</div>");
+		assertUnmask("@@<a href=\"x\">@@</a>@");
+		// incomplete or foreign masks are kept
+		assertEquals("@@k3y_@@ @@k3y_9@@ @@other_1@@ @@k3y_1", unmask("@@k3y_@@ @@k3y_9@@ @@other_1@@ @@k3y_1"));
+		assertEquals("@@@k3y_x>", unmask("@@@k3y_x@@k3y_5@@"));
+		// mask indices with more than one digit or leading zeros are no masks of the current html strings
+		assertEquals("@@k3y_10@@ @@k3y_01@@ @@k3y_00@@ >", unmask("@@k3y_10@@ @@k3y_01@@ @@k3y_00@@ @@k3y_5@@"));
+		assertEquals("@@k3y_12345678901234567890@@", unmask("@@k3y_12345678901234567890@@"));
+	}
+
+	private static void assertUnmask(String unmasked) throws IOException {
+		String masked = mask(unmasked);
+		assertEquals(unmasked, unmask(masked));
+		StringWriter writer = new StringWriter();
+		RenderResult.unmask(masked, MASK_KEY, writer);
+		assertEquals(unmasked, writer.toString());
+	}
+
+	static String unmask(String masked) throws IOException {
+		StringBuilder unmasked = new StringBuilder();
+		RenderResult.unmask(masked, MASK_KEY, unmasked);
+		return unmasked.toString();
+	}
+
+	static String mask(String text) {
+		for (int i = 0; i < HTML.length; i++) {
+			text = StringUtils.replace(text, HTML[i], "@@" + MASK_KEY + "_" + i + "@@");
+		}
+		return text;
+	}
+}
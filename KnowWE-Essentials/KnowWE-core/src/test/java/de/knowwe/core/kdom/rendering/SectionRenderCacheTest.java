@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.core.kdom.rendering;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import de.knowwe.core.compile.Compiler;
+import de.knowwe.core.report.Message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the cache hits and invalidations of the {@link SectionRenderCache}.
+ *
+ * @created 17.10.2026
+ */
+public class SectionRenderCacheTest {
+
+	@Test
+	public void testCacheHit() {
+		SectionRenderCache cache = new SectionRenderCache(1000);
+		Object section = new Object();
+		cache.store("id1", section, "key", "mask1", "<b>@@mask1_text@@mask1_</b>");
+		assertEquals("<b>@@mask1_text@@mask1_</b>", cache.lookup("id1", section, "key", "mask1"));
+		// the rendering of another request uses the mask key of that request
+		assertEquals("<b>@@mask2_text@@mask2_</b>", cache.lookup("id1", section, "key", "mask2"));
+	}
+
+	@Test
+	public void testInvalidation() {
+		SectionRenderCache cache = new SectionRenderCache(1000);
+		Object section = new Object();
+		cache.store("id1", section, "key", "mask", "rendering");
+		assertNull(cache.lookup("id2", section, "key", "mask"));
+		// changed compiler build dates, messages or user context dependencies
+		assertNull(cache.lookup("id1", section, "otherKey", "mask"));
+		// the section was parsed again and got the same id
+		assertNull(cache.lookup("id1", new Object(), "key", "mask"));
+
+		cache.store("id1", section, "otherKey", "mask", "new rendering");
+		assertEquals("new rendering", cache.lookup("id1", section, "otherKey", "mask"));
+		assertNull(cache.lookup("id1", section, "key", "mask"));
+		assertEquals("new rendering".length(), cache.getCachedChars());
+
+		cache.clear();
+		assertNull(cache.lookup("id1", section, "otherKey", "mask"));
+		assertEquals(0, cache.getCachedChars());
+	}
+
+	@Test
+	public void testMessagesInKey() {
+		String noMessages = createMessageKey();
+		String error = createMessageKey(new Message(Message.Type.ERROR, "Unknown term 'a'"));
+		String otherError = createMessageKey(new Message(Message.Type.ERROR, "Unknown term 'b'"));
+		String warning = createMessageKey(new Message(Message.Type.WARNING, "Unknown term 'a'"));
+
+		assertEquals(error, createMessageKey(new Message(Message.Type.ERROR, "Unknown term 'a'")));
+		// same number of messages, but different texts or types
+		assertNotEquals(error, otherError);
+		assertNotEquals(error, warning);
+		assertNotEquals(noMessages, error);
+	}
+
+	@Test
+	public void testEviction() {
+		SectionRenderCache cache = new SectionRenderCache(10);
+		Object section1 = new Object();
+		Object section2 = new Object();
+		Object section3 = new Object();
+		cache.store("id1", section1, "key", "mask", "123456");
+		cache.store("id2", section2, "key", "mask", "1234");
+		assertEquals("123456", cache.lookup("id1", section1, "key", "mask"));
+
+		// evicts the least recently used rendering
+		cache.store("id3", section3, "key", "mask", "123");
+		assertNull(cache.lookup("id2", section2, "key", "mask"));
+		assertEquals("123456", cache.lookup("id1", section1, "key", "mask"));
+		assertEquals("123", cache.lookup("id3", section3, "key", "mask"));
+		assertTrue(cache.getCachedChars() <= 10);
+
+		// renderings larger than the cache are not cached at all
+		cache.store("id4", new Object(), "key", "mask", "12345678901");
+		assertEquals(9, cache.getCachedChars());
+	}
+
+	private static String createMessageKey(Message... messages) {
+		Map<Compiler, Collection<Message>> messagesMap = new LinkedHashMap<>();
+		for (Message message : messages) {
+			messagesMap.computeIfAbsent(null, compiler -> new ArrayList<>()).add(message);
+		}
+		StringBuilder key = new StringBuilder();
+		SectionRenderCache.appendMessages(key, Collections.unmodifiableMap(messagesMap));
+		return key.toString();
+	}
+}
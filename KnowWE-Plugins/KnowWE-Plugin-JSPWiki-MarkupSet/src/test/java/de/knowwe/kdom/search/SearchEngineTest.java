@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+package de.knowwe.kdom.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utils.TestArticleManager;
+
+import com.denkbares.plugin.test.InitPluginManager;
+import de.knowwe.core.ArticleManager;
+import de.knowwe.core.Environment;
+import de.knowwe.core.compile.Compilers;
+import de.knowwe.core.kdom.Article;
+import de.knowwe.core.kdom.Type;
+import de.knowwe.core.kdom.basicType.PlainText;
+import de.knowwe.core.kdom.parsing.Section;
+import de.knowwe.core.kdom.parsing.Sections;
+import de.knowwe.core.utils.KnowWEUtils;
+import de.knowwe.jspwiki.types.LinkType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Compares the results of the {@link SearchEngine}, using the {@link SectionTextIndex}, with a scan of the sections
+ * of all articles, as the search engine did before.
+ *
+ * @created 17.10.2026
+ */
+public class SearchEngineTest {
+
+	private static final List<String> QUERIES = Arrays.asList(
+			"Link", "link", "Link with spaces", "ink", "with sp", "d3web", "D3web", "http://d3web.de", "Wikipedia:",
+			"Text display | Link2", "[", "", "not contained");
+
+	private ArticleManager articleManager;
+
+	@Before
+	public void setUp() throws Exception {
+		InitPluginManager.init();
+		TestArticleManager.getInstance();
+		articleManager = KnowWEUtils.getArticleManager(Environment.DEFAULT_WEB);
+		createArticle("SearchLinks", "[Link]\n\n[Link with spaces]\n\n[Text display | Link2]\n");
+		createArticle("SearchExternal", "[d3web | http://d3web.de]\n\nSee [Wikipedia:D3web] for d3web.\n");
+		createArticle("SearchText", "Some text with spaces, a link and D3WEB.\n");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		TestArticleManager.clear();
+		awaitCompilation();
+	}
+
+	@Test
+	public void testExact() {
+		assertSameResults(PlainText.class, false, false);
+		assertSameResults(LinkType.class, false, false);
+		assertSameResults(LinkType.class, false, true);
+	}
+
+	@Test
+	public void testFuzzy() {
+		assertSameResults(PlainText.class, true, false);
+		assertSameResults(PlainText.class, true, true);
+		assertSameResults(LinkType.class, true, true);
+	}
+
+	@Test
+	public void testChangedArticles() throws Exception {
+		// build the index before changing the articles
+		assertSameResults(PlainText.class, true, true);
+
+		articleManager.deleteArticle("SearchExternal");
+		awaitCompilation();
+		// a rename deletes the article and creates it with the new title
+		articleManager.deleteArticle("SearchLinks");
+		createArticle("SearchLinksRenamed", "[Link]\n\n[Link with spaces]\n\n[Text display | Link2]\n");
+		createArticle("SearchText", "Some other text without the name of the project.\n");
+
+		assertSameResults(PlainText.class, true, true);
+		assertSameResults(LinkType.class, false, true);
+		for (Article article : new SearchEngine(articleManager).setOption(SearchOption.FUZZY)
+				.search("Link", PlainText.class)
+				.keySet()) {
+			assertSame(articleManager.getArticle(article.getTitle()), article);
+		}
+	}
+
+	private <T extends Type> void assertSameResults(Class<T> type, boolean fuzzy, boolean caseInsensitive) {
+		for (String query : QUERIES) {
+			SearchEngine searchEngine = new SearchEngine(articleManager);
+			if (fuzzy) searchEngine.setOption(SearchOption.FUZZY);
+			if (caseInsensitive) searchEngine.setOption(SearchOption.CASE_INSENSITIVE);
+			Set<String> expected = scan(query, type, fuzzy, caseInsensitive);
+			assertEquals("Results of query '" + query + "'", expected, toStrings(searchEngine.search(query, type)));
+		}
+		// make sure we do not compare empty results only
+		assertFalse(scan("Link", type, true, true).isEmpty());
+	}
+
+	/**
+	 * Searches the sections of all articles, like the search engine without index.
+	 */
+	private <T extends Type> Set<String> scan(String query, Class<T> type, boolean fuzzy, boolean caseInsensitive) {
+		Pattern pattern = caseInsensitive
+				? Pattern.compile(Pattern.quote(query), Pattern.CASE_INSENSITIVE)
+				: Pattern.compile(Pattern.quote(query));
+		Set<String> results = new HashSet<>();
+		for (Article article : articleManager.getArticles()) {
+			for (Section<T> section : Sections.successors(article.getRootSection(), type)) {
+				Matcher matcher = pattern.matcher(section.getText());
+				if (fuzzy) {
+					while (matcher.find()) {
+						results.add(toString(article, section, matcher.start(), matcher.end()));
+					}
+				}
+				else if (matcher.matches()) {
+					results.add(toString(article, section, matcher.start(), matcher.end()));
+				}
+			}
+		}
+		return results;
+	}
+
+	private static Set<String> toStrings(Map<Article, Collection<Result>> results) {
+		Set<String> strings = new HashSet<>();
+		for (Collection<Result> articleResults : results.values()) {
+			for (Result result : articleResults) {
+				strings.add(toString(result.getArticle(), result.getSection(), result.getStart(), result.getEnd()));
+			}
+		}
+		return strings;
+	}
+
+	private static String toString(Article article, Section<?> section, int start, int end) {
+		return article.getTitle() + "|" + section.getID() + "|" + start + "|" + end;
+	}
+
+	private static void createArticle(String title, String content) throws InterruptedException {
+		Environment.getInstance()
+				.getWikiConnector()
+				.createArticle(title, SearchEngineTest.class.getSimpleName(), content);
+		awaitCompilation();
+	}
+
+	private static void awaitCompilation() throws InterruptedException {
+		Compilers.getCompilerManager(Environment.DEFAULT_WEB).awaitTermination();
+	}
+}
@@ -38,6 +38,7 @@ import com.denkbares.strings.Strings;
 import com.denkbares.utils.Log;
 import de.knowwe.core.compile.AbstractPackageCompiler;
 import de.knowwe.core.compile.IncrementalCompiler;
+import de.knowwe.core.compile.LastModifiedCompiler;
 import de.knowwe.core.compile.ParallelScriptCompiler;
 import de.knowwe.core.compile.Priority;
 import de.knowwe.core.compile.packaging.PackageCompileType;
@@ -65,7 +66,7 @@ import static de.knowwe.core.kdom.parsing.Sections.$;
  * @created 13.12.2013
  */
 public class OntologyCompiler extends AbstractPackageCompiler
-		implements Rdf2GoCompiler, IncrementalCompiler, EventListener {
+		implements Rdf2GoCompiler, IncrementalCompiler, LastModifiedCompiler, EventListener {
 
 	static final String COMMIT_NOTIFICATION_ID = "CommitNotification";
 	private Rdf2GoCore rdf2GoCore;
@@ -265,6 +266,7 @@ public class OntologyCompiler extends AbstractPackageCompiler
 	/**
 	 * The date of the last build of this compile
 	 */
+	@Override
 	public Date getLastModified() {
 		return buildDate;
 	}
@@ -3,8 +3,7 @@ package de.knowwe.ontology.edit;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
-
-import org.apache.commons.lang3.StringUtils;
+import java.util.Map;
 
 import com.denkbares.strings.Identifier;
 import de.knowwe.core.compile.terminology.TermCompiler;
@@ -51,23 +50,26 @@ public class URITermCorrectionProvider implements CorrectionProvider {
 		}
 		Term termReference = ((Term) section.get());
 
-		Collection<Identifier> localTermMatches = terminologyManager
-				.getAllDefinedTermsOfType(termReference
-						.getTermObjectClass(compiler, Sections.cast(section, Term.class)));
-
+		Class<?> termClass = termReference.getTermObjectClass(compiler, Sections.cast(section, Term.class));
 		String originalText = originalTermIdentifier.toExternalForm();
+		Map<Identifier, Integer> similarTerms = terminologyManager.getDefinedTermsWithinDistance(
+				originalText, threshold, termClass, TerminologyManager.TermKey.externalForm);
+
 		List<Suggestion> suggestions = new LinkedList<>();
+		for (Map.Entry<Identifier, Integer> similarTerm : similarTerms.entrySet()) {
+			suggestions.add(new DefaultSuggestion(similarTerm.getKey()
+					.getLastPathElement(), similarTerm.getValue()));
+		}
+
+		// the other matches cannot be found by distance, but they are cheap to check compared to the distance
+		Collection<Identifier> localTermMatches = terminologyManager.getAllDefinedTermsOfType(termClass);
 		for (Identifier match : localTermMatches) {
-			double score = StringUtils.getLevenshteinDistance(originalText, match.toExternalForm(), threshold);
-			if (score >= 0) {
-				suggestions.add(new DefaultSuggestion(match
-						.getLastPathElement(), (int) score));
-			}/* infix test */
-			else if (match.getPathElementAt(0).equals(
+			if (similarTerms.containsKey(match)) continue;
+			/* infix test */
+			if (match.getPathElementAt(0).equals(
 					originalTermIdentifier.getPathElementAt(0))
-					&& match.getLastPathElement().matches(
-					".*" + originalTermIdentifier.getLastPathElement()
-							+ ".*")) {
+					&& match.getLastPathElement().contains(
+					originalTermIdentifier.getLastPathElement())) {
 
 				// prevent trivial infix matches
 				if (originalTermIdentifier.getLastPathElement().length() > 4) {
@@ -49,6 +49,6 @@ public class LoadTreeChildrenSparqlAction extends AbstractAction {
 		RenderResult result = new RenderResult(context);
 		SparqlResultRenderer.getInstance()
 				.getTreeChildren(Sections.cast(section, SparqlType.class), parentNodeID, context, result);
-		context.getWriter().append(result.toString());
+		result.writeTo(context.getWriter());
 	}
 }
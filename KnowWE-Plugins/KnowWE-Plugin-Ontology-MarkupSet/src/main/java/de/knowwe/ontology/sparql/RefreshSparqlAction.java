@@ -45,6 +45,6 @@ public class RefreshSparqlAction extends AbstractAction {
 		RenderResult result = new RenderResult(context);
 		SparqlResultRenderer.getInstance()
 				.renderSparqlResult(Sections.cast(section, SparqlType.class), context, result);
-		context.getWriter().append(result.toString());
+		result.writeTo(context.getWriter());
 	}
 }
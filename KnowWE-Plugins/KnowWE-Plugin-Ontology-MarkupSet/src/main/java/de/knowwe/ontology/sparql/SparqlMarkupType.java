@@ -36,6 +36,7 @@ import de.knowwe.core.compile.packaging.PackageManager;
 import de.knowwe.core.kdom.basicType.TimeStampType;
 import de.knowwe.core.kdom.parsing.Section;
 import de.knowwe.core.kdom.rendering.NothingRenderer;
+import de.knowwe.core.kdom.rendering.ParallelRenderer;
 import de.knowwe.core.report.CompilerMessage;
 import de.knowwe.core.user.UserContext;
 import de.knowwe.kdom.defaultMarkup.DefaultMarkup;
@@ -135,7 +136,7 @@ public class SparqlMarkupType extends DefaultMarkupType {
 		this.addCompileScript(new StyleCollectorScript());
 	}
 
-	private static class SparqlMarkupRenderer extends Rdf2GoCoreCheckRenderer {
+	private static class SparqlMarkupRenderer extends Rdf2GoCoreCheckRenderer implements ParallelRenderer {
 
 		@Override
 		protected String getTitleName(Section<?> section, UserContext user) {
@@ -1,5 +1,6 @@
 package de.knowwe.ontology.turtle;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -25,8 +26,8 @@ import de.knowwe.core.kdom.AbstractType;
 import de.knowwe.core.kdom.Type;
 import de.knowwe.core.kdom.parsing.Section;
 import de.knowwe.core.kdom.parsing.Sections;
+import de.knowwe.core.kdom.rendering.CacheableRenderer;
 import de.knowwe.core.kdom.rendering.RenderResult;
-import de.knowwe.core.kdom.rendering.Renderer;
 import de.knowwe.core.kdom.sectionFinder.AllTextFinderTrimmed;
 import de.knowwe.core.user.UserContext;
 import de.knowwe.kdom.renderer.StyleRenderer;
@@ -74,7 +75,12 @@ public class ShowOtherExistingValuesWildCard extends AbstractType implements Nod
 		return null;
 	}
 
-	private static class ShowExistingValuesWildCardRenderer implements Renderer {
+	/**
+	 * Queries the existing values on every rendering, so the rendering is cached until the ontology is compiled again.
+	 * The values are rendered for the compiler selected by the user, and the renderings of the term definitions contain
+	 * the tools of the user.
+	 */
+	private static class ShowExistingValuesWildCardRenderer implements CacheableRenderer {
 		private static String getLanguageTag(String literal) {
 			if (literal.length() > 3 && literal.charAt(literal.length() - 3) == '@') {
 				return literal.substring(literal.length() - 2);
@@ -94,6 +100,13 @@ public class ShowOtherExistingValuesWildCard extends AbstractType implements Nod
 			return locales;
 		}
 
+		@NotNull
+		@Override
+		public Collection<String> getUserContextDependencies(Section<?> section, UserContext user) {
+			OntologyCompiler compiler = Compilers.getCompiler(user, section, OntologyCompiler.class);
+			return Arrays.asList(user.getUserName(), compiler == null ? "" : Compilers.getCompilerName(compiler));
+		}
+
 		@Override
 		public void render(Section<?> section, UserContext user, RenderResult result) {
 			if (!(section.get() instanceof ShowOtherExistingValuesWildCard)) {
@@ -0,0 +1,432 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.jetbrains.annotations.NotNull;
+
+import de.knowwe.rdf2go.utils.Rdf2GoUtils;
+
+/**
+ * Stores the statements in a compact, dictionary encoded form. Each distinct value (IRI, literal, blank node) is stored
+ * only once and referenced by an int id. Each distinct statement is stored as four value ids (subject, predicate,
+ * object, context) in a packed int array, and each source only holds the int ids of its statements. The {@link
+ * Statement} objects are created on demand, if statements are requested from the store.
+ * <p>
+ * Values and statements that are no longer used by any source are removed from the dictionaries, their ids are reused.
+ *
+ * @created 17.10.2026
+ */
+class CompactStatementStore implements StatementStore {
+
+	private static final int NONE = -1;
+	private static final int EMPTY_SLOT = 0;
+	private static final int DELETED_SLOT = -1;
+
+	private final ValueFactory factory = Rdf2GoUtils.getValueFactory();
+
+	// dictionary of the values
+	private final Map<Value, Integer> valueIds = new HashMap<>();
+	private Value[] values = new Value[256];
+	private int[] valueReferences = new int[256];
+	private int valueCount = 0;
+	private final IntList freeValues = new IntList();
+
+	// dictionary of the statements, four value ids per statement, and the sources of each statement
+	private int[] statements = new int[4 * 256];
+	private Object[] statementSources = new Object[256];
+	private int statementCount = 0;
+	private final IntList freeStatements = new IntList();
+
+	// open addressing hash index of the statements, containing statement id + 1 for each used slot
+	private int[] index = new int[512];
+	private int usedSlots = 0;
+
+	private final Map<StatementSource, IntList> sources = new HashMap<>();
+	private int size = 0;
+
+	@Override
+	public void add(@NotNull StatementSource source, @NotNull Statement statement) {
+		int subject = internValue(statement.getSubject());
+		int predicate = internValue(statement.getPredicate());
+		int object = internValue(statement.getObject());
+		int context = statement.getContext() == null ? NONE : internValue(statement.getContext());
+		int id = findStatement(subject, predicate, object, context);
+		if (id == NONE) {
+			id = createStatement(subject, predicate, object, context);
+		}
+		if (addSource(id, source)) {
+			sources.computeIfAbsent(source, k -> new IntList()).add(id);
+			size++;
+		}
+	}
+
+	@Override
+	public boolean contains(Statement statement) {
+		return lookupStatement(statement) != NONE;
+	}
+
+	@Override
+	public boolean remove(StatementSource source, Statement statement) {
+		int id = lookupStatement(statement);
+		if (id == NONE || !removeSource(id, source)) return false;
+		IntList ids = sources.get(source);
+		ids.remove(id);
+		if (ids.isEmpty()) sources.remove(source);
+		size--;
+		if (statementSources[id] == null) releaseStatement(id);
+		return true;
+	}
+
+	@NotNull
+	@Override
+	public Collection<Statement> removeAll(StatementSource source) {
+		IntList ids = sources.remove(source);
+		if (ids == null) return Collections.emptyList();
+		List<Statement> removed = new ArrayList<>();
+		for (int i = 0; i < ids.size; i++) {
+			int id = ids.values[i];
+			removeSource(id, source);
+			size--;
+			if (statementSources[id] == null) {
+				removed.add(toStatement(id));
+				releaseStatement(id);
+			}
+		}
+		return removed;
+	}
+
+	@NotNull
+	@Override
+	public Set<Statement> getStatements(StatementSource source) {
+		IntList ids = sources.get(source);
+		if (ids == null) return Collections.emptySet();
+		Set<Statement> result = new HashSet<>(ids.size * 2);
+		addStatements(ids, result);
+		return result;
+	}
+
+	@NotNull
+	@Override
+	public Set<Statement> getStatements(Predicate<StatementSource> sourceFilter) {
+		Set<Statement> result = new HashSet<>();
+		for (Map.Entry<StatementSource, IntList> entry : sources.entrySet()) {
+			if (sourceFilter.test(entry.getKey())) {
+				addStatements(entry.getValue(), result);
+			}
+		}
+		return result;
+	}
+
+	@NotNull
+	@Override
+	public Set<Statement> getStatements() {
+		Set<Statement> result = new HashSet<>();
+		for (int id = 0; id < statementCount; id++) {
+			if (statementSources[id] != null) result.add(toStatement(id));
+		}
+		return result;
+	}
+
+	@NotNull
+	@Override
+	public Collection<StatementSource> getSources(Statement statement) {
+		int id = lookupStatement(statement);
+		if (id == NONE) return Collections.emptyList();
+		Object current = statementSources[id];
+		if (current instanceof StatementSource) return Collections.singletonList((StatementSource) current);
+		//noinspection unchecked
+		return Collections.unmodifiableList(new ArrayList<>((List<StatementSource>) current));
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		valueIds.clear();
+		values = new Value[256];
+		valueReferences = new int[256];
+		valueCount = 0;
+		freeValues.clear();
+		statements = new int[4 * 256];
+		statementSources = new Object[256];
+		statementCount = 0;
+		freeStatements.clear();
+		index = new int[512];
+		usedSlots = 0;
+		sources.clear();
+		size = 0;
+	}
+
+	private void addStatements(IntList ids, Set<Statement> result) {
+		for (int i = 0; i < ids.size; i++) {
+			result.add(toStatement(ids.values[i]));
+		}
+	}
+
+	private Statement toStatement(int id) {
+		int offset = 4 * id;
+		Resource subject = (Resource) values[statements[offset]];
+		IRI predicate = (IRI) values[statements[offset + 1]];
+		Value object = values[statements[offset + 2]];
+		int context = statements[offset + 3];
+		return context == NONE
+				? factory.createStatement(subject, predicate, object)
+				: factory.createStatement(subject, predicate, object, (Resource) values[context]);
+	}
+
+	// ---- sources of the statements ----
+
+	private boolean addSource(int id, StatementSource source) {
+		Object current = statementSources[id];
+		if (current == null) {
+			statementSources[id] = source;
+			return true;
+		}
+		if (current instanceof StatementSource) {
+			if (current.equals(source)) return false;
+			List<StatementSource> list = new ArrayList<>(2);
+			list.add((StatementSource) current);
+			list.add(source);
+			statementSources[id] = list;
+			return true;
+		}
+		//noinspection unchecked
+		List<StatementSource> list = (List<StatementSource>) current;
+		if (list.contains(source)) return false;
+		list.add(source);
+		return true;
+	}
+
+	private boolean removeSource(int id, StatementSource source) {
+		Object current = statementSources[id];
+		if (current == null || source == null) return false;
+		if (current instanceof StatementSource) {
+			if (!current.equals(source)) return false;
+			statementSources[id] = null;
+			return true;
+		}
+		//noinspection unchecked
+		List<StatementSource> list = (List<StatementSource>) current;
+		if (!list.remove(source)) return false;
+		if (list.size() == 1) statementSources[id] = list.get(0);
+		return true;
+	}
+
+	// ---- dictionary of the values ----
+
+	private int internValue(Value value) {
+		Integer id = valueIds.get(value);
+		if (id != null) return id;
+		int newId;
+		if (freeValues.isEmpty()) {
+			newId = valueCount++;
+			if (newId == values.length) {
+				values = Arrays.copyOf(values, newId * 2);
+				valueReferences = Arrays.copyOf(valueReferences, newId * 2);
+			}
+		}
+		else {
+			newId = freeValues.removeLast();
+		}
+		values[newId] = value;
+		valueReferences[newId] = 0;
+		valueIds.put(value, newId);
+		return newId;
+	}
+
+	private int lookupValue(Value value) {
+		if (value == null) return NONE;
+		Integer id = valueIds.get(value);
+		return id == null ? NONE : id;
+	}
+
+	private void releaseValue(int id) {
+		if (id == NONE) return;
+		if (--valueReferences[id] > 0) return;
+		valueIds.remove(values[id]);
+		values[id] = null;
+		freeValues.add(id);
+	}
+
+	// ---- dictionary of the statements ----
+
+	private int lookupStatement(Statement statement) {
+		int subject = lookupValue(statement.getSubject());
+		int predicate = lookupValue(statement.getPredicate());
+		int object = lookupValue(statement.getObject());
+		if (subject == NONE || predicate == NONE || object == NONE) return NONE;
+		int context = NONE;
+		if (statement.getContext() != null) {
+			context = lookupValue(statement.getContext());
+			if (context == NONE) return NONE;
+		}
+		return findStatement(subject, predicate, object, context);
+	}
+
+	private int findStatement(int subject, int predicate, int object, int context) {
+		int mask = index.length - 1;
+		for (int slot = hash(subject, predicate, object, context) & mask; ; slot = (slot + 1) & mask) {
+			int entry = index[slot];
+			if (entry == EMPTY_SLOT) return NONE;
+			if (entry != DELETED_SLOT && matches(entry - 1, subject, predicate, object, context)) return entry - 1;
+		}
+	}
+
+	private int createStatement(int subject, int predicate, int object, int context) {
+		int id;
+		if (freeStatements.isEmpty()) {
+			id = statementCount++;
+			if (id == statementSources.length) {
+				statements = Arrays.copyOf(statements, 4 * id * 2);
+				statementSources = Arrays.copyOf(statementSources, id * 2);
+			}
+		}
+		else {
+			id = freeStatements.removeLast();
+		}
+		int offset = 4 * id;
+		statements[offset] = subject;
+		statements[offset + 1] = predicate;
+		statements[offset + 2] = object;
+		statements[offset + 3] = context;
+		valueReferences[subject]++;
+		valueReferences[predicate]++;
+		valueReferences[object]++;
+		if (context != NONE) valueReferences[context]++;
+
+		if (2 * (usedSlots + 1) > index.length) rehash();
+		insertIntoIndex(id);
+		return id;
+	}
+
+	private void releaseStatement(int id) {
+		int offset = 4 * id;
+		int mask = index.length - 1;
+		int slot = hash(statements[offset], statements[offset + 1], statements[offset + 2], statements[offset + 3]) & mask;
+		while (index[slot] != id + 1) {
+			slot = (slot + 1) & mask;
+		}
+		index[slot] = DELETED_SLOT;
+		for (int i = 0; i < 4; i++) {
+			releaseValue(statements[offset + i]);
+		}
+		freeStatements.add(id);
+	}
+
+	private void insertIntoIndex(int id) {
+		int offset = 4 * id;
+		int mask = index.length - 1;
+		int slot = hash(statements[offset], statements[offset + 1], statements[offset + 2], statements[offset + 3]) & mask;
+		while (index[slot] != EMPTY_SLOT && index[slot] != DELETED_SLOT) {
+			slot = (slot + 1) & mask;
+		}
+		if (index[slot] == EMPTY_SLOT) usedSlots++;
+		index[slot] = id + 1;
+	}
+
+	private void rehash() {
+		// grow only if the index is filled with live statements, otherwise just remove the deleted slots
+		int liveStatements = statementCount - freeStatements.size;
+		int length = index.length;
+		if (4 * (liveStatements + 1) > length) length *= 2;
+		index = new int[length];
+		usedSlots = 0;
+		for (int id = 0; id < statementCount; id++) {
+			if (statementSources[id] != null) insertIntoIndex(id);
+		}
+	}
+
+	private boolean matches(int id, int subject, int predicate, int object, int context) {
+		int offset = 4 * id;
+		return statements[offset] == subject && statements[offset + 1] == predicate
+				&& statements[offset + 2] == object && statements[offset + 3] == context;
+	}
+
+	private static int hash(int subject, int predicate, int object, int context) {
+		int hash = subject;
+		hash = 31 * hash + predicate;
+		hash = 31 * hash + object;
+		hash = 31 * hash + context;
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Growable list of primitive ints.
+	 */
+	private static final class IntList {
+		private int[] values = new int[4];
+		private int size = 0;
+
+		void add(int value) {
+			if (size == values.length) values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+
+		int removeLast() {
+			return values[--size];
+		}
+
+		/**
+		 * Removes the specified value, the order of the remaining values is not preserved.
+		 */
+		void remove(int value) {
+			for (int i = 0; i < size; i++) {
+				if (values[i] == value) {
+					values[i] = values[--size];
+					return;
+				}
+			}
+		}
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		void clear() {
+			values = new int[4];
+			size = 0;
+		}
+	}
+}
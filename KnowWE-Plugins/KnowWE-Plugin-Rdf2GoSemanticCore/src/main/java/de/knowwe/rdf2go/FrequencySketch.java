@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Approximates the access frequency of keys within a recent time window, using a count-min sketch with saturating
+ * counters. All counters are halved after a certain number of accesses, so the sketch forgets old popularity (aging,
+ * as used by the TinyLFU admission policy).
+ * <p>
+ * The counters are updated without synchronization. Concurrent updates may get lost, which is acceptable, because the
+ * sketch only provides an estimation anyway.
+ *
+ * @created 17.10.2026
+ */
+final class FrequencySketch {
+
+	private static final int[] SEEDS = { 0x97cb3127, 0xb4f4b3b5, 0xcc9e2d51, 0x1b873593 };
+	private static final int MAX_COUNT = 15;
+
+	private final int[] table;
+	private final int mask;
+	private final int sampleSize;
+	private final AtomicInteger additions = new AtomicInteger();
+
+	/**
+	 * Creates a new sketch for approximately the specified number of distinct keys.
+	 *
+	 * @param expectedSize the expected number of distinct keys
+	 */
+	FrequencySketch(int expectedSize) {
+		int width = Integer.highestOneBit(Math.max(expectedSize, 64) - 1) << 1;
+		this.table = new int[width];
+		this.mask = width - 1;
+		// each access increments four counters, so halving after width accesses keeps the counters at about four on
+		// average, far below saturation
+		this.sampleSize = width;
+	}
+
+	/**
+	 * Records an access to the specified key.
+	 */
+	void increment(Object key) {
+		int hash = spread(key.hashCode());
+		boolean added = false;
+		for (int seed : SEEDS) {
+			int index = indexOf(hash, seed);
+			if (table[index] < MAX_COUNT) {
+				table[index]++;
+				added = true;
+			}
+		}
+		if (added && additions.incrementAndGet() >= sampleSize) {
+			reset();
+		}
+	}
+
+	/**
+	 * Returns the estimated number of recent accesses to the specified key.
+	 */
+	int frequency(Object key) {
+		int hash = spread(key.hashCode());
+		int frequency = MAX_COUNT;
+		for (int seed : SEEDS) {
+			frequency = Math.min(frequency, table[indexOf(hash, seed)]);
+		}
+		return frequency;
+	}
+
+	private synchronized void reset() {
+		if (additions.get() < sampleSize) return;
+		for (int i = 0; i < table.length; i++) {
+			table[i] >>>= 1;
+		}
+		additions.set(0);
+	}
+
+	private int indexOf(int hash, int seed) {
+		int index = (hash + seed) * seed;
+		index += index >>> 16;
+		return index & mask;
+	}
+
+	private static int spread(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x45d9f3b;
+		return hash ^ (hash >>> 16);
+	}
+}
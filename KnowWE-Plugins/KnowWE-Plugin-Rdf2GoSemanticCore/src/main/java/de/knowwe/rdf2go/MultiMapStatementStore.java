@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.eclipse.rdf4j.model.Statement;
+import org.jetbrains.annotations.NotNull;
+
+import com.denkbares.collections.MultiMap;
+import com.denkbares.collections.MultiMaps;
+import com.denkbares.collections.N2MMap;
+
+/**
+ * Stores the statements as {@link Statement} objects in a {@link N2MMap}, allowing fast lookup in both directions.
+ *
+ * @created 17.10.2026
+ */
+class MultiMapStatementStore implements StatementStore {
+
+	private final MultiMap<StatementSource, Statement> statements =
+			new N2MMap<>(MultiMaps.minimizedFactory(), MultiMaps.minimizedFactory());
+
+	@Override
+	public void add(@NotNull StatementSource source, @NotNull Statement statement) {
+		statements.put(source, statement);
+	}
+
+	@Override
+	public boolean contains(Statement statement) {
+		return statements.containsValue(statement);
+	}
+
+	@Override
+	public boolean remove(StatementSource source, Statement statement) {
+		return statements.remove(source, statement);
+	}
+
+	@NotNull
+	@Override
+	public Collection<Statement> removeAll(StatementSource source) {
+		List<Statement> removed = new ArrayList<>();
+		for (Statement statement : new ArrayList<>(statements.getValues(source))) {
+			statements.remove(source, statement);
+			if (!statements.containsValue(statement)) {
+				removed.add(statement);
+			}
+		}
+		return removed;
+	}
+
+	@NotNull
+	@Override
+	public Set<Statement> getStatements(StatementSource source) {
+		return statements.getValues(source);
+	}
+
+	@NotNull
+	@Override
+	public Set<Statement> getStatements(Predicate<StatementSource> sourceFilter) {
+		Set<Statement> result = new HashSet<>();
+		for (Map.Entry<StatementSource, Statement> entry : statements.entrySet()) {
+			if (sourceFilter.test(entry.getKey())) {
+				result.add(entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	@NotNull
+	@Override
+	public Set<Statement> getStatements() {
+		return statements.valueSet();
+	}
+
+	@NotNull
+	@Override
+	public Collection<StatementSource> getSources(Statement statement) {
+		return statements.getKeys(statement);
+	}
+
+	@Override
+	public int size() {
+		return statements.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return statements.isEmpty();
+	}
+
+	@Override
+	public void clear() {
+		statements.clear();
+	}
+}
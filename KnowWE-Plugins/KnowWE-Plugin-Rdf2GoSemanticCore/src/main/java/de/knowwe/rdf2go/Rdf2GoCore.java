@@ -26,11 +26,9 @@ import java.io.Writer;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -40,9 +38,9 @@ import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadFactory;
@@ -75,9 +73,6 @@ import org.eclipse.rdf4j.rio.RDFWriter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import com.denkbares.collections.MultiMap;
-import com.denkbares.collections.MultiMaps;
-import com.denkbares.collections.N2MMap;
 import com.denkbares.events.EventManager;
 import com.denkbares.semanticcore.BooleanQuery;
 import com.denkbares.semanticcore.CachedTupleQueryResult;
@@ -104,15 +99,27 @@ import de.knowwe.core.kdom.Article;
 import de.knowwe.core.kdom.Type;
 import de.knowwe.core.kdom.parsing.Section;
 import de.knowwe.core.user.UserContext;
+import de.knowwe.core.utils.VirtualThreadExecutor;
 import de.knowwe.rdf2go.sparql.utils.SparqlQuery;
 import de.knowwe.rdf2go.utils.Rdf2GoUtils;
 import de.knowwe.rdf2go.utils.SparqlType;
 
-import static java.time.temporal.ChronoUnit.MINUTES;
-
 public class Rdf2GoCore implements SPARQLEndpoint {
 
 	public static final String SEMANTICCORE_SPARQL_THREADS_COUNT = "semanticcore.sparql.threads.count";
+	/**
+	 * Memory budget of the sparql result cache of each core, in megabytes.
+	 */
+	public static final String SEMANTICCORE_SPARQL_CACHE_SIZE = "semanticcore.sparql.cache.size";
+	/**
+	 * Enables the kill switch for SPARQL queries that are not terminated by their repository after their timeout, see
+	 * {@link SparqlTimeoutScheduler}.
+	 */
+	public static final String SEMANTICCORE_SPARQL_TIMEOUT_REAPER = "semanticcore.sparql.timeout.reaper";
+	/**
+	 * Stores the statements created by the compilers dictionary encoded, see {@link CompactStatementStore}.
+	 */
+	public static final String SEMANTICCORE_COMPACT_STATEMENT_STORE = "semanticcore.statements.compact";
 	public static final String LNS_ABBREVIATION = "lns";
 
 	public static final double DEFAULT_QUERY_PRIORITY = 5d;
@@ -125,16 +132,15 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 
 	private final Object statementMutex = new Object();
 
-	private final SparqlCache sparqlCache = new SparqlCache(this);
+	private final SparqlCache sparqlCache = new SparqlCache(this, getMaxSparqlCacheSize());
 
-	private final ThreadPoolExecutor sparqlThreadPool;
+	private final ExecutorService sparqlThreadPool;
 
 	private final RepositoryConfig ruleSet;
 
 	private String lns;
 
-	private final MultiMap<StatementSource, Statement> statementCache =
-			new N2MMap<>(MultiMaps.minimizedFactory(), MultiMaps.minimizedFactory());
+	private final StatementStore statementCache = StatementStore.create();
 
 	public Rdf2GoCore(String lns, RepositoryConfig reasoning) {
 		this("Rdf2GoCore", lns, reasoning);
@@ -191,11 +197,15 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 		this.lns = lns;
 		this.ruleSet = reasoning;
 
-		sparqlThreadPool = createThreadPool(
-				getMaxSparqlThreadCount(reasoning), name + "-Sparql-Thread", true);
-
-		this.insertCache = new HashSet<>();
-		this.removeCache = new HashSet<>();
+		if (CompilerManager.isVirtualThreadMode()) {
+			// tasks are started in the order they are queued, the priority of the tasks is not considered
+			sparqlThreadPool = new VirtualThreadExecutor(name + "-Sparql-Thread",
+					Math.max(getMaxSparqlThreadCount(reasoning), 1));
+		}
+		else {
+			sparqlThreadPool = createThreadPool(
+					getMaxSparqlThreadCount(reasoning), name + "-Sparql-Thread", true);
+		}
 
 		initDefaultNamespaces();
 	}
@@ -232,6 +242,13 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 		}
 	}
 
+	private int getSparqlQueueSize() {
+		if (sparqlThreadPool instanceof VirtualThreadExecutor) {
+			return ((VirtualThreadExecutor) sparqlThreadPool).getQueueLength();
+		}
+		return ((ThreadPoolExecutor) sparqlThreadPool).getQueue().size();
+	}
+
 	private int getMaxSparqlThreadCount(RepositoryConfig reasoning) {
 		final int defaultThreadCount = Math.min(Runtime.getRuntime()
 				.availableProcessors() - 1, reasoning.getNumberOfSupportedParallelConnections());
@@ -244,6 +261,18 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 		}
 	}
 
+	private static long getMaxSparqlCacheSize() {
+		String megabytes = System.getProperty(SEMANTICCORE_SPARQL_CACHE_SIZE);
+		if (megabytes == null) return SparqlCache.DEFAULT_MAX_CACHE_SIZE;
+		try {
+			return Long.parseLong(megabytes.trim()) * 1024 * 1024;
+		}
+		catch (NumberFormatException e) {
+			Log.warning("Invalid value for " + SEMANTICCORE_SPARQL_CACHE_SIZE + ": " + megabytes);
+			return SparqlCache.DEFAULT_MAX_CACHE_SIZE;
+		}
+	}
+
 	public SparqlCache getSparqlCache() {
 		return sparqlCache;
 	}
@@ -263,8 +292,7 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 
 	private final Object nsPrefixMutex = new Object();
 
-	private Set<Statement> insertCache;
-	private Set<Statement> removeCache;
+	private StatementDelta delta = new StatementDelta();
 	private long lastModified = System.currentTimeMillis();
 
 	private SemanticCore semanticCore;
@@ -411,10 +439,10 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 	public void addStatements(StatementSource source, @NotNull Collection<Statement> statements) {
 		synchronized (this.statementMutex) {
 			for (Statement statement : statements) {
-				if (!this.statementCache.containsValue(statement)) {
-					this.insertCache.add(Objects.requireNonNull(statement));
+				if (!this.statementCache.contains(statement)) {
+					this.delta.insert(statement);
 				}
-				if (source != null) this.statementCache.put(source, statement);
+				if (source != null) this.statementCache.add(source, statement);
 			}
 		}
 	}
@@ -491,27 +519,16 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 		try {
 			synchronized (this.statementMutex) {
 
-				int removeSize = this.removeCache.size();
-				int insertSize = this.insertCache.size();
-
-				// return immediately if no changes are recorded yet
-				if (removeSize == 0 && insertSize == 0) {
-					return false;
-				}
+				StatementDelta delta = this.delta;
 
-				// Hazard Filter
-				Stopwatch stopwatch = new Stopwatch();
-				Set<Statement> removeCopy = new HashSet<>(this.removeCache);
-				this.removeCache.removeAll(this.insertCache);
-				this.insertCache.removeAll(removeCopy);
-				if (stopwatch.getTime() > 10) stopwatch.log("Hazard filtering");
-
-				// check again
-				removeSize = this.removeCache.size();
-				insertSize = this.insertCache.size();
-				if (removeSize == 0 && insertSize == 0) {
+				// return immediately if no changes are recorded yet (insertions and removals already cancel out)
+				if (delta.isEmpty()) {
 					return false;
 				}
+				Collection<Statement> removed = delta.getRemoved();
+				Collection<Statement> inserted = delta.getInserted();
+				int removeSize = removed.size();
+				int insertSize = inserted.size();
 
 				// verbose log if only a few changes are recorded
 				boolean verboseLog = (removeSize + insertSize < 50) && !Log.logger().isLoggable(Level.FINE);
@@ -521,34 +538,34 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 				try (RepositoryConnection connection = this.semanticCore.getConnection()) {
 					connection.begin();
 
-					connection.remove(this.removeCache);
-					connection.add(this.insertCache);
+					connection.remove(removed);
+					connection.add(inserted);
 
 					connection.commit();
 				}
 
 				// Fire events
-				if (!this.removeCache.isEmpty()) {
+				if (removeSize > 0) {
 					EventManager.getInstance().fireEvent(new RemoveStatementsEvent(
-							Collections.unmodifiableCollection(this.removeCache), this));
+							Collections.unmodifiableCollection(removed), this));
 					removedStatements = true;
 				}
-				if (!this.insertCache.isEmpty()) {
+				if (insertSize > 0) {
 					EventManager.getInstance().fireEvent(new InsertStatementsEvent(
-							Collections.unmodifiableCollection(this.removeCache),
-							Collections.unmodifiableCollection(this.insertCache), this));
+							Collections.unmodifiableCollection(removed),
+							Collections.unmodifiableCollection(inserted), this));
 					insertedStatements = true;
 				}
 				if (removedStatements || insertedStatements) {
-					// clear result cache if there are any changes
-					sparqlCache.clear();
+					// remove the affected results from the cache, if there are any changes
+					invalidateSparqlCache(removed, inserted);
 					EventManager.getInstance().fireEvent(new ChangedStatementsEvent(this));
 				}
 
 				// Logging
 				if (verboseLog) {
-					logStatements(this.removeCache, connectionStopwatch, "Removed statements:\n");
-					logStatements(this.insertCache, connectionStopwatch, "Inserted statements:\n");
+					logStatements(removed, connectionStopwatch, "Removed statements:\n");
+					logStatements(inserted, connectionStopwatch, "Inserted statements:\n");
 				}
 				else {
 					Log.info("Removed " + removeSize + " statements from and added "
@@ -559,9 +576,8 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 
 				Log.info("Current number of statements in " + Rdf2GoCore.class.getSimpleName() + " " + getName() + ": " + this.statementCache.size());
 
-				// Reset caches
-				this.removeCache = new HashSet<>();
-				this.insertCache = new HashSet<>();
+				// Reset delta, the collections passed to the events remain valid
+				this.delta = new StatementDelta();
 			}
 		}
 		catch (RepositoryException e) {
@@ -575,6 +591,19 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 		return removedStatements || insertedStatements;
 	}
 
+	/**
+	 * Removes the cached sparql results that may be affected by the currently recorded changes. If the repository
+	 * infers statements, any cached result may be affected, so the cache is cleared completely.
+	 */
+	private void invalidateSparqlCache(Collection<Statement> removed, Collection<Statement> inserted) {
+		if (this.ruleSet.equals(RepositoryConfigs.get(RdfConfig.class))) {
+			this.sparqlCache.invalidate(removed, inserted);
+		}
+		else {
+			this.sparqlCache.clear();
+		}
+	}
+
 	public BNode createBlankNode() {
 		return getValueFactory().createBNode();
 	}
@@ -886,7 +915,7 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 	 */
 	public Set<Statement> getStatementsFromCache(Section<?> source) {
 		synchronized (this.statementMutex) {
-			return this.statementCache.getValues(new SectionSource(source));
+			return this.statementCache.getStatements(new SectionSource(source));
 		}
 	}
 
@@ -905,13 +934,7 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 	 */
 	public Set<Statement> getStatementsFromCache(Predicate<StatementSource> sourceFilter) {
 		synchronized ((this.statementMutex)) {
-			Set<Statement> statements = new HashSet<>();
-			for (Entry<StatementSource, Statement> entry : this.statementCache.entrySet()) {
-				if (sourceFilter.test(entry.getKey())) {
-					statements.add(entry.getValue());
-				}
-			}
-			return statements;
+			return this.statementCache.getStatements(sourceFilter);
 		}
 	}
 
@@ -934,7 +957,7 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 				new SimpleNamespace("onto", "http://www.ontotext.com/"));
 	}
 
-	private void logStatements(Set<Statement> statements, Stopwatch stopwatch, String caption) {
+	private void logStatements(Collection<Statement> statements, Stopwatch stopwatch, String caption) {
 		// check if we have something to log
 		if (statements.isEmpty()) {
 			return;
@@ -964,7 +987,9 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 	public void removeAllCachedStatements() {
 		// get all statements of this wiki and remove them from the model
 		synchronized (this.statementMutex) {
-			this.removeCache.addAll(this.statementCache.valueSet());
+			for (Statement statement : this.statementCache.getStatements()) {
+				this.delta.remove(statement);
+			}
 			this.statementCache.clear();
 		}
 	}
@@ -995,8 +1020,9 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 	 */
 	public void removeStatements(StatementSource source) {
 		synchronized (this.statementMutex) {
-			Collection<Statement> statements = this.statementCache.getValues(source);
-			removeStatements(source, new ArrayList<>(statements));
+			for (Statement statement : this.statementCache.removeAll(source)) {
+				this.delta.remove(statement);
+			}
 		}
 	}
 
@@ -1004,8 +1030,8 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 		synchronized (this.statementMutex) {
 			for (Statement statement : statements) {
 				this.statementCache.remove(source, statement);
-				if (!this.statementCache.containsValue(statement)) {
-					this.removeCache.add(statement);
+				if (!this.statementCache.contains(statement)) {
+					this.delta.remove(statement);
 				}
 			}
 		}
@@ -1035,7 +1061,7 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 	 */
 	public Set<Article> getSourceArticles(Statement statement) {
 		synchronized (this.statementMutex) {
-			Collection<StatementSource> list = this.statementCache.getKeys(statement);
+			Collection<StatementSource> list = this.statementCache.getSources(statement);
 			if (list.isEmpty()) {
 				return Collections.emptySet();
 			}
@@ -1062,7 +1088,7 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 	@Deprecated
 	public Article getSourceArticle(Statement statement) {
 		synchronized (this.statementMutex) {
-			Collection<StatementSource> list = this.statementCache.getKeys(statement);
+			Collection<StatementSource> list = this.statementCache.getSources(statement);
 			if (list.isEmpty()) {
 				return null;
 			}
@@ -1244,22 +1270,20 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 		SparqlTask sparqlTask;
 		if (options.cached && query != null) {
 			// use case, if enabled, and we use a non-prepared query
-			synchronized (this.sparqlCache) {
-				sparqlTask = this.sparqlCache.get(query);
-				if (sparqlTask == null
-						|| (sparqlTask.isCancelled() && sparqlTask.getTimeOutMillis() != options.timeoutMillis)) {
-					SparqlCallable callable = newSparqlCallable(query, type, options.timeoutMillis, true, preparedAsk, preparedSelect, bindings);
-					sparqlTask = new SparqlTask(callable, options.priority);
-					this.sparqlCache.put(query, sparqlTask);
-					sparqlThreadPool.execute(sparqlTask);
-				}
+			SparqlTask[] created = new SparqlTask[1];
+			sparqlTask = this.sparqlCache.getOrCreate(query,
+					task -> !task.isCancelled() || task.getTimeOutMillis() == options.timeoutMillis,
+					() -> created[0] = new SparqlTask(newSparqlCallable(query, type, options.timeoutMillis, true,
+							preparedAsk, preparedSelect, bindings), options.priority));
+			if (sparqlTask == created[0]) {
+				sparqlThreadPool.execute(sparqlTask);
 			}
 		}
 		else {
 			// otherwise execute sparql query with no caches
 			SparqlCallable callable = newSparqlCallable(query, type, options.timeoutMillis, false, preparedAsk, preparedSelect, bindings);
 			sparqlTask = new SparqlTask(callable, options.priority);
-			final int currentQueueSize = sparqlThreadPool.getQueue().size();
+			final int currentQueueSize = getSparqlQueueSize();
 			if (currentQueueSize > 5) {
 				Log.info("Queuing new SPARQL query (" + name + "), current queue length: " + currentQueueSize);
 			}
@@ -1315,55 +1339,6 @@ public class Rdf2GoCore implements SPARQLEndpoint {
 		return new SparqlCallable(this, query, type, timeoutMillis, cached);
 	}
 
-	/**
-	 * Observes the SPARQL task end cancels/stops it, if it takes to long. We normally use the build-in sesame timeout
-	 * to terminate queries that are too slow. In some cases though, these timeouts do not work as desired (probably not
-	 * well implemented by underlying repos) so we use this kill switch to make sure the query is terminated after 150%
-	 * of the intended timeout or at most one minute later.
-	 */
-	private static class SparqlTaskReaper implements Runnable {
-
-		private final SparqlTask task;
-
-		SparqlTaskReaper(SparqlTask task) {
-			this.task = task;
-		}
-
-		@Override
-		public void run() {
-			long timeOut = (int) Math.min(this.task.getTimeOutMillis(), Integer.MAX_VALUE);
-			try {
-				long killTimeOut = Math.min((long) (timeOut * 1.5), timeOut + Duration.of(1, MINUTES).toMillis());
-				this.task.get(killTimeOut, TimeUnit.MILLISECONDS);
-			}
-			catch (TimeoutException e) {
-
-				// we cancel the task
-				this.task.cancel(true);
-
-				sleep(timeOut);
-
-				// if it has not died after the sleep, we kill it
-				// (not all repositories will react to cancel)
-				if (this.task.isAlive()) {
-					this.task.stop();
-				}
-			}
-			catch (Exception ignore) {
-				// nothing to do
-			}
-		}
-
-		private void sleep(long timeout) {
-			try {
-				Thread.sleep(Math.max(timeout, 1000));
-			}
-			catch (InterruptedException ie) {
-				Log.warning(Thread.currentThread().getName() + " was interrupted", ie);
-			}
-		}
-	}
-
 	public static class Options {
 
 		public static final Options DEFAULT = new Options();
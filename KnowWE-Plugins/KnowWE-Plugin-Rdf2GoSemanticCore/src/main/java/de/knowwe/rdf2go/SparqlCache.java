@@ -19,35 +19,128 @@
 
 package de.knowwe.rdf2go;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.denkbares.semanticcore.TupleQueryResult;
 
 /**
- * Caches the result of sparql tasks of the Rdf2GoCore.
+ * Caches the result of sparql tasks of the Rdf2GoCore. For each cached query, the IRIs the query depends on are
+ * tracked, so that a commit of the core only has to evict the queries that may be affected by the changed statements
+ * (see {@link #invalidate(Collection, Collection)}).
+ * <p>
+ * The cache is split into independently locked segments, so concurrent lookups of different queries do not block each
+ * other. The entries are weighed by the estimated number of bytes retained by their results. If the cache exceeds its
+ * memory budget, the least recently used entries are evicted, but only if the newly cached result is not accessed less
+ * frequently than the entry to be evicted (TinyLFU admission). Otherwise the new result is not kept in the cache.
  *
  * @author Volker Belli (denkbares GmbH)
  * @created 21.03.2020
  */
 public class SparqlCache {
-	private static final int DEFAULT_MAX_CACHE_SIZE = 1000000; // should be below 100 MB of cache (we count each cell)
+	static final long DEFAULT_MAX_CACHE_SIZE = 100L * 1024 * 1024; // 100 MB
+
+	private static final int SEGMENT_COUNT = 16;
+	// estimated bytes of the query string's array header, the task, the callable, and the entry objects
+	private static final long ENTRY_OVERHEAD = 256;
 
 	private final Rdf2GoCore core;
-	private int cachedSize = 0;
-	private final Map<String, SparqlTask> cache = new LinkedHashMap<>(16, 0.75f, true);
+	private final Segment[] segments = new Segment[SEGMENT_COUNT];
+	private final FrequencySketch sketch = new FrequencySketch(16 * 1024);
+	private final AtomicLong cachedSize = new AtomicLong();
+	private final AtomicInteger nextVictimSegment = new AtomicInteger();
+	private volatile long maxCacheSize;
+
+	// the read lock is hold by every modification of the entries, the write lock is used to invalidate entries
+	private final ReadWriteLock invalidationLock = new ReentrantReadWriteLock();
+
+	// dependency tracking, to only invalidate the affected queries on commit
+	private final Map<IRI, Set<String>> queriesByIRI = new ConcurrentHashMap<>();
+	private final Set<String> unrestrictedQueries = ConcurrentHashMap.newKeySet();
+
+	// statistics
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
 
 	SparqlCache(Rdf2GoCore core) {
+		this(core, DEFAULT_MAX_CACHE_SIZE);
+	}
+
+	SparqlCache(Rdf2GoCore core, long maxCacheSize) {
 		this.core = core;
+		this.maxCacheSize = maxCacheSize;
+		for (int i = 0; i < SEGMENT_COUNT; i++) {
+			this.segments[i] = new Segment();
+		}
 	}
 
 	public SparqlTask get(String query) {
-		return cache.get(query);
+		Entry entry = segmentFor(query).get(query);
+		sketch.increment(query);
+		(entry == null ? misses : hits).increment();
+		return entry == null ? null : entry.task;
+	}
+
+	/**
+	 * Returns the cached task for the specified query, if there is any and if it is accepted by the specified
+	 * predicate. Otherwise the task is created by the specified supplier and added to the cache.
+	 *
+	 * @param query    the complete query to get the task for
+	 * @param reusable decides if an already cached task can be reused
+	 * @param factory  creates a new task, if no reusable task is cached
+	 * @return the cached or newly created task
+	 */
+	@NotNull
+	SparqlTask getOrCreate(String query, Predicate<SparqlTask> reusable, Supplier<SparqlTask> factory) {
+		SparqlTask cached = get(query);
+		if (cached != null && reusable.test(cached)) return cached;
+
+		// analyze the query before locking anything
+		SparqlDependencies dependencies = SparqlDependencies.of(query);
+		Lock lock = invalidationLock.readLock();
+		lock.lock();
+		try {
+			return segmentFor(query).getOrCreate(query, reusable, factory, dependencies);
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
 	public void put(String query, SparqlTask task) {
-		SparqlTask previous = cache.put(query, task);
-		if (previous != null) {
-			this.cachedSize -= previous.getSize();
+		SparqlDependencies dependencies = SparqlDependencies.of(query);
+		Lock lock = invalidationLock.readLock();
+		lock.lock();
+		try {
+			segmentFor(query).put(new Entry(query, task, dependencies));
+		}
+		finally {
+			lock.unlock();
 		}
 	}
 
@@ -60,40 +153,327 @@ public class SparqlCache {
 	 */
 	public boolean remove(String query) {
 		String completeQuery = core.prependPrefixesToQuery(core.getNamespaces(), query);
-		synchronized (this.cache) {
-			SparqlTask removed = this.cache.remove(completeQuery);
-			if (removed != null) {
-				this.cachedSize -= removed.getSize();
-				return true;
-			}
-			return false;
+		Lock lock = invalidationLock.readLock();
+		lock.lock();
+		try {
+			return segmentFor(completeQuery).remove(completeQuery, null);
+		}
+		finally {
+			lock.unlock();
 		}
 	}
 
 	/**
 	 * Clears the whole cache.
 	 */
-	public synchronized void clear() {
-		this.cache.clear();
-		this.cachedSize = 0;
+	public void clear() {
+		Lock lock = invalidationLock.writeLock();
+		lock.lock();
+		try {
+			for (Segment segment : segments) {
+				invalidations.add(segment.clear());
+			}
+			this.queriesByIRI.clear();
+			this.unrestrictedQueries.clear();
+			this.cachedSize.set(0);
+		}
+		finally {
+			lock.unlock();
+		}
 	}
 
+	/**
+	 * Removes all cached results that may be affected by removing and inserting the specified statements. Queries
+	 * that do not use any of the IRIs of the changed statements (and do not contain unrestricted statement patterns)
+	 * remain cached.
+	 *
+	 * @param removed  the statements removed from the repository
+	 * @param inserted the statements inserted into the repository
+	 * @return the number of cached results that have been removed
+	 */
+	public int invalidate(Collection<Statement> removed, Collection<Statement> inserted) {
+		Set<IRI> changedIRIs = new HashSet<>();
+		SparqlDependencies.collectIRIs(removed, changedIRIs);
+		SparqlDependencies.collectIRIs(inserted, changedIRIs);
+
+		Lock lock = invalidationLock.writeLock();
+		lock.lock();
+		try {
+			Set<String> affected = new HashSet<>(this.unrestrictedQueries);
+			for (IRI iri : changedIRIs) {
+				Set<String> queries = this.queriesByIRI.get(iri);
+				if (queries != null) affected.addAll(queries);
+			}
+			int count = 0;
+			for (String query : affected) {
+				if (segmentFor(query).remove(query, null)) count++;
+			}
+			this.invalidations.add(count);
+			return count;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Updates the weight of the cached entry of the specified task after the task has completed and evicts entries, if
+	 * the cache is larger than its maximum size afterwards.
+	 *
+	 * @param task the completed task
+	 */
 	public void handleCacheSize(SparqlTask task) {
-		this.cachedSize += task.getSize();
-		if (this.cachedSize > DEFAULT_MAX_CACHE_SIZE) {
-			synchronized (this.cache) {
-				Iterator<Map.Entry<String, SparqlTask>> iterator = this.cache.entrySet().iterator();
-				while (iterator.hasNext() && this.cachedSize > DEFAULT_MAX_CACHE_SIZE) {
-					Map.Entry<String, SparqlTask> next = iterator.next();
-					iterator.remove();
-					try {
-						this.cachedSize -= next.getValue().getSize();
-					}
-					catch (Exception ignore) {
-						// nothing to do, cache size wasn't increase either
-					}
-				}
+		Lock lock = invalidationLock.readLock();
+		lock.lock();
+		try {
+			Entry entry = segmentFor(task.getQuery()).updateWeight(task);
+			// the task may have been invalidated while it was running, so it is no longer part of the cache
+			if (entry != null) evictIfNecessary(entry);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the maximum number of bytes the cached results should retain.
+	 */
+	public long getMaxCacheSize() {
+		return this.maxCacheSize;
+	}
+
+	/**
+	 * Sets the maximum number of bytes the cached results should retain. If the new size is below the current size,
+	 * entries will be evicted when the next result is added to the cache.
+	 *
+	 * @param maxCacheSize the memory budget of the cache in bytes
+	 */
+	public void setMaxCacheSize(long maxCacheSize) {
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	/**
+	 * Returns the estimated number of bytes retained by the cached results.
+	 */
+	public long getCacheSize() {
+		return this.cachedSize.get();
+	}
+
+	/**
+	 * Returns the number of cached results.
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the number of lookups that have found a cached (or currently calculated) result.
+	 */
+	public long getHitCount() {
+		return this.hits.sum();
+	}
+
+	/**
+	 * Returns the number of lookups that have not found a cached result.
+	 */
+	public long getMissCount() {
+		return this.misses.sum();
+	}
+
+	/**
+	 * Returns the number of cached results that have been removed (or not admitted) to keep the cache within its size
+	 * limit.
+	 */
+	public long getEvictionCount() {
+		return this.evictions.sum();
+	}
+
+	/**
+	 * Returns the number of cached results that have been removed because the underlying statements have changed.
+	 */
+	public long getInvalidationCount() {
+		return this.invalidations.sum();
+	}
+
+	private Segment segmentFor(String query) {
+		int hash = query.hashCode();
+		hash ^= hash >>> 16;
+		return segments[hash & (SEGMENT_COUNT - 1)];
+	}
+
+	private void evictIfNecessary(Entry candidate) {
+		int emptySegments = 0;
+		while (this.cachedSize.get() > this.maxCacheSize && emptySegments < SEGMENT_COUNT) {
+			Segment segment = segments[Math.floorMod(nextVictimSegment.getAndIncrement(), SEGMENT_COUNT)];
+			Entry victim = segment.eldest(candidate);
+			if (victim == null) {
+				emptySegments++;
+				continue;
+			}
+			emptySegments = 0;
+			// admission: do not replace entries that are used more frequently than the new one
+			Entry evicted = sketch.frequency(candidate.query) < sketch.frequency(victim.query) ? candidate : victim;
+			if (segmentFor(evicted.query).remove(evicted.query, evicted)) {
+				evictions.increment();
+			}
+			if (evicted == candidate) return;
+		}
+	}
+
+	private void addDependencies(Entry entry) {
+		if (entry.dependencies.isAny()) {
+			this.unrestrictedQueries.add(entry.query);
+			return;
+		}
+		for (IRI iri : entry.dependencies.getIRIs()) {
+			this.queriesByIRI.compute(iri, (key, queries) -> {
+				if (queries == null) queries = new HashSet<>();
+				queries.add(entry.query);
+				return queries;
+			});
+		}
+	}
+
+	private void removeDependencies(Entry entry) {
+		if (entry.dependencies.isAny()) {
+			this.unrestrictedQueries.remove(entry.query);
+			return;
+		}
+		for (IRI iri : entry.dependencies.getIRIs()) {
+			this.queriesByIRI.computeIfPresent(iri, (key, queries) -> {
+				queries.remove(entry.query);
+				return queries.isEmpty() ? null : queries;
+			});
+		}
+	}
+
+	/**
+	 * Estimates the number of bytes retained by the specified result of a sparql task.
+	 *
+	 * @param result the result to be weighed
+	 * @return the estimated number of bytes
+	 */
+	static long estimateSize(Object result) {
+		if (!(result instanceof TupleQueryResult)) return 16;
+		List<BindingSet> bindingSets = ((TupleQueryResult) result).getBindingSets();
+		// the list and the array of the binding sets
+		long size = 64 + 8L * bindingSets.size();
+		for (BindingSet bindingSet : bindingSets) {
+			// the binding set itself, with its arrays for names and values
+			size += 64;
+			for (Binding binding : bindingSet) {
+				// the binding object and its references, the names are shared by all binding sets
+				size += 32 + estimateSize(binding.getValue());
+			}
+		}
+		return size;
+	}
+
+	private static long estimateSize(@Nullable Value value) {
+		if (value == null) return 0;
+		// object header, string object and array header of the value's text, datatypes are usually shared constants
+		long size = 64 + value.stringValue().length();
+		if (value instanceof Literal) {
+			size += 16 + ((Literal) value).getLanguage().map(String::length).orElse(0);
+		}
+		return size;
+	}
+
+	private static long weigh(String query, long resultSize) {
+		return ENTRY_OVERHEAD + query.length() + resultSize;
+	}
+
+	private static final class Entry {
+		private final String query;
+		private final SparqlTask task;
+		private final SparqlDependencies dependencies;
+		private long weight;
+
+		private Entry(String query, SparqlTask task, SparqlDependencies dependencies) {
+			this.query = query;
+			this.task = task;
+			this.dependencies = dependencies;
+			this.weight = weigh(query, 0);
+		}
+	}
+
+	/**
+	 * Part of the cache, guarded by its own monitor. The entries are ordered by their last access.
+	 */
+	private final class Segment {
+
+		private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+		synchronized Entry get(String query) {
+			return entries.get(query);
+		}
+
+		synchronized SparqlTask getOrCreate(String query, Predicate<SparqlTask> reusable, Supplier<SparqlTask> factory, SparqlDependencies dependencies) {
+			Entry entry = entries.get(query);
+			if (entry != null && reusable.test(entry.task)) return entry.task;
+			Entry created = new Entry(query, factory.get(), dependencies);
+			put(created);
+			return created.task;
+		}
+
+		synchronized void put(Entry entry) {
+			Entry previous = entries.put(entry.query, entry);
+			if (previous != null) {
+				// same query, so the dependencies are also the same, no need to change them
+				cachedSize.addAndGet(entry.weight - previous.weight);
+			}
+			else {
+				cachedSize.addAndGet(entry.weight);
+				addDependencies(entry);
 			}
 		}
+
+		synchronized Entry updateWeight(SparqlTask task) {
+			Entry entry = entries.get(task.getQuery());
+			if (entry == null || entry.task != task) return null;
+			long weight = weigh(entry.query, task.getSize());
+			cachedSize.addAndGet(weight - entry.weight);
+			entry.weight = weight;
+			return entry;
+		}
+
+		/**
+		 * Removes the entry of the specified query. If an expected entry is specified, the entry is only removed if it
+		 * is still the cached one.
+		 */
+		synchronized boolean remove(String query, @Nullable Entry expected) {
+			Entry entry = entries.get(query);
+			if (entry == null || (expected != null && entry != expected)) return false;
+			entries.remove(query);
+			cachedSize.addAndGet(-entry.weight);
+			removeDependencies(entry);
+			return true;
+		}
+
+		/**
+		 * Returns the least recently used entry of this segment, except the specified one.
+		 */
+		synchronized Entry eldest(Entry except) {
+			Iterator<Entry> iterator = entries.values().iterator();
+			while (iterator.hasNext()) {
+				Entry entry = iterator.next();
+				if (entry != except) return entry;
+			}
+			return null;
+		}
+
+		synchronized int clear() {
+			int size = entries.size();
+			entries.clear();
+			return size;
+		}
+
+		synchronized int size() {
+			return entries.size();
+		}
 	}
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.algebra.ArbitraryLengthPath;
+import org.eclipse.rdf4j.query.algebra.Service;
+import org.eclipse.rdf4j.query.algebra.StatementPattern;
+import org.eclipse.rdf4j.query.algebra.Var;
+import org.eclipse.rdf4j.query.algebra.ZeroLengthPath;
+import org.eclipse.rdf4j.query.algebra.helpers.AbstractQueryModelVisitor;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.eclipse.rdf4j.query.parser.QueryParserUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Describes the statements a sparql query may depend on. Each statement pattern of the query has to be matched by a
+ * statement to contribute to the result, so if every pattern contains at least one constant IRI, only statements that
+ * contain one of these IRIs can change the result of the query. If any pattern has no constant IRI (e.g. <tt>?s ?p
+ * ?o</tt>, negated property paths) or the query cannot be parsed, the query depends on every statement.
+ * <p>
+ * Please note that this is only valid for repositories without reasoning, because inferred statements may be caused by
+ * statements that share no IRI with the query.
+ *
+ * @created 17.10.2026
+ */
+final class SparqlDependencies {
+
+	/**
+	 * Dependencies of queries that may be affected by every statement change.
+	 */
+	static final SparqlDependencies ANY = new SparqlDependencies(Collections.emptySet(), true);
+
+	private final Set<IRI> iris;
+	private final boolean any;
+
+	private SparqlDependencies(Set<IRI> iris, boolean any) {
+		this.iris = iris;
+		this.any = any;
+	}
+
+	/**
+	 * Returns true if changes of any statement may affect the query, regardless of the IRIs used in the statement.
+	 */
+	boolean isAny() {
+		return any;
+	}
+
+	/**
+	 * Returns the IRIs of which at least one must be contained in a changed statement to affect the query. The set is
+	 * empty if {@link #isAny()} is true.
+	 */
+	@NotNull
+	Set<IRI> getIRIs() {
+		return iris;
+	}
+
+	/**
+	 * Analyzes the specified complete query (including its prefix declarations) and returns its dependencies. The
+	 * method never fails, if the query cannot be analyzed, {@link #ANY} is returned.
+	 *
+	 * @param query the query to get the dependencies for
+	 * @return the dependencies of the query
+	 */
+	@NotNull
+	static SparqlDependencies of(@Nullable String query) {
+		if (query == null) return ANY;
+		try {
+			ParsedQuery parsedQuery = QueryParserUtil.parseQuery(QueryLanguage.SPARQL, query, null);
+			PatternVisitor visitor = new PatternVisitor();
+			parsedQuery.getTupleExpr().visit(visitor);
+			return visitor.any ? ANY : new SparqlDependencies(visitor.iris, false);
+		}
+		catch (Exception | LinkageError e) {
+			// if we cannot parse the query, we have to assume it depends on everything
+			return ANY;
+		}
+	}
+
+	/**
+	 * Collects all IRIs used as subjects, predicates or objects of the specified statements.
+	 *
+	 * @param statements the statements to collect the IRIs of
+	 * @param target     the set to add the IRIs to
+	 */
+	static void collectIRIs(Collection<Statement> statements, Set<IRI> target) {
+		for (Statement statement : statements) {
+			addIfIRI(statement.getSubject(), target);
+			addIfIRI(statement.getPredicate(), target);
+			addIfIRI(statement.getObject(), target);
+		}
+	}
+
+	private static void addIfIRI(Value value, Set<IRI> target) {
+		if (value instanceof IRI) target.add((IRI) value);
+	}
+
+	private static class PatternVisitor extends AbstractQueryModelVisitor<RuntimeException> {
+
+		private final Set<IRI> iris = new HashSet<>();
+		private boolean any = false;
+
+		@Override
+		public void meet(StatementPattern pattern) {
+			boolean constrained = false;
+			for (Var var : pattern.getVarList()) {
+				// the context var is not part of the statement, so it does not constrain the matching statements
+				if (var == pattern.getContextVar()) continue;
+				if (var != null && var.hasValue() && var.getValue() instanceof IRI) {
+					iris.add((IRI) var.getValue());
+					constrained = true;
+				}
+			}
+			if (!constrained) any = true;
+		}
+
+		@Override
+		public void meet(ArbitraryLengthPath path) {
+			// paths of length zero match every node of the repository, if not bound to a constant
+			if (path.getMinLength() == 0 && isUnbound(path.getSubjectVar()) && isUnbound(path.getObjectVar())) {
+				any = true;
+			}
+			super.meet(path);
+		}
+
+		@Override
+		public void meet(ZeroLengthPath path) {
+			if (isUnbound(path.getSubjectVar()) && isUnbound(path.getObjectVar())) {
+				any = true;
+			}
+			super.meet(path);
+		}
+
+		@Override
+		public void meet(Service service) {
+			// remote results are not affected by our statements, but we must not rely on their patterns either
+			any = true;
+		}
+
+		private static boolean isUnbound(Var var) {
+			return var == null || !var.hasValue();
+		}
+	}
+}
@@ -21,12 +21,12 @@ package de.knowwe.rdf2go;
 
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.locks.LockSupport;
 
 import org.eclipse.rdf4j.query.QueryEvaluationException;
 import org.jetbrains.annotations.NotNull;
 
-import com.denkbares.semanticcore.TupleQueryResult;
 import com.denkbares.strings.Strings;
 import com.denkbares.utils.Log;
 
@@ -39,7 +39,7 @@ class SparqlTask extends FutureTask<Object> implements Comparable<SparqlTask> {
 	private final SparqlCallable callable;
 	private final double priority;
 	private Thread thread = null;
-	private int size = 1;
+	private long size = 0;
 	private long runTime = Long.MIN_VALUE;
 
 	SparqlTask(SparqlCallable callable, double priority) {
@@ -52,15 +52,26 @@ class SparqlTask extends FutureTask<Object> implements Comparable<SparqlTask> {
 		return priority;
 	}
 
+	String getQuery() {
+		return this.callable.getQuery();
+	}
+
 	long getTimeOutMillis() {
 		return this.callable.getTimeOutMillis();
 	}
 
-	public synchronized void setSize(int size) {
+	/**
+	 * Sets the estimated number of bytes retained by the result of this task.
+	 */
+	public synchronized void setSize(long size) {
 		this.size = size;
 	}
 
-	public synchronized int getSize() {
+	/**
+	 * Returns the estimated number of bytes retained by the result of this task, or 0 if the task has not completed
+	 * yet.
+	 */
+	public synchronized long getSize() {
 		return this.size;
 	}
 
@@ -94,8 +105,14 @@ class SparqlTask extends FutureTask<Object> implements Comparable<SparqlTask> {
 
 	public synchronized void stop() {
 		if (this.thread != null) {
-			//noinspection deprecation
-			this.thread.stop();
+			try {
+				//noinspection deprecation
+				this.thread.stop();
+			}
+			catch (UnsupportedOperationException e) {
+				// virtual threads cannot be stopped, so interrupting is the best we can do
+				this.thread.interrupt();
+			}
 			LockSupport.unpark(this.thread);
 			this.thread = null;
 			ThreadLocalCleaner.cleanThreadLocals();
@@ -116,12 +133,13 @@ class SparqlTask extends FutureTask<Object> implements Comparable<SparqlTask> {
 			this.thread = Thread.currentThread();
 			this.startTime = System.currentTimeMillis();
 		}
+		SparqlTimeoutScheduler timeoutScheduler = SparqlTimeoutScheduler.getInstance();
+		ScheduledFuture<?> timeout = timeoutScheduler.schedule(this);
 		try {
-			// deactivated, since it causes severe issues with GraphDB right now
-//				sparqlReaperPool.execute(new SparqlTaskReaper(this));
 			super.run();
 		}
 		finally {
+			timeoutScheduler.finished(timeout);
 			synchronized (this) {
 				this.thread = null;
 			}
@@ -149,15 +167,12 @@ class SparqlTask extends FutureTask<Object> implements Comparable<SparqlTask> {
 		return Double.compare(this.priority, o.priority);
 	}
 
-	private int getResultSize(Object result) {
-		if (result instanceof TupleQueryResult) {
-			TupleQueryResult cacheResult = (TupleQueryResult) result;
-			try {
-				return cacheResult.getBindingNames().size() * cacheResult.getBindingSets().size();
-			}
-			catch (QueryEvaluationException ignore) {
-			}
+	private long getResultSize(Object result) {
+		try {
+			return SparqlCache.estimateSize(result);
+		}
+		catch (QueryEvaluationException ignore) {
+			return 0;
 		}
-		return 1;
 	}
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Observes running SPARQL tasks of all {@link Rdf2GoCore}s and cancels/stops them, if they take to long. We normally
+ * use the build-in sesame timeout to terminate queries that are too slow. In some cases though, these timeouts do not
+ * work as desired (probably not well implemented by underlying repos) so we use this kill switch to make sure the query
+ * is terminated after 150% of the intended timeout or at most one minute later.
+ * <p>
+ * All tasks share one scheduler thread, the timeout of a task is removed from the scheduler as soon as the task has
+ * finished. Because forcefully stopping queries has caused severe issues with GraphDB, the kill switch is only active if
+ * the system property {@link Rdf2GoCore#SEMANTICCORE_SPARQL_TIMEOUT_REAPER} is set to true.
+ *
+ * @created 17.10.2026
+ */
+public final class SparqlTimeoutScheduler {
+
+	private static final SparqlTimeoutScheduler instance = new SparqlTimeoutScheduler();
+
+	private final boolean enabled = Boolean.getBoolean(Rdf2GoCore.SEMANTICCORE_SPARQL_TIMEOUT_REAPER);
+	private final ScheduledThreadPoolExecutor executor;
+
+	private final LongAdder finished = new LongAdder();
+	private final LongAdder timedOut = new LongAdder();
+	private final LongAdder stopped = new LongAdder();
+
+	private SparqlTimeoutScheduler() {
+		this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "Sparql-Timeout-Scheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// finished tasks should not remain in the queue until their timeout would have been reached
+		this.executor.setRemoveOnCancelPolicy(true);
+	}
+
+	public static SparqlTimeoutScheduler getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Schedules the timeout of the specified task, which is just being started. The returned future must be canceled
+	 * when the task has finished. If the kill switch is not enabled, null is returned.
+	 *
+	 * @param task the task that is being started
+	 * @return the future of the scheduled timeout, or null if nothing has been scheduled
+	 */
+	@Nullable
+	ScheduledFuture<?> schedule(SparqlTask task) {
+		if (!enabled) return null;
+		long timeOut = task.getTimeOutMillis();
+		long killTimeOut = Math.min((long) (timeOut * 1.5), timeOut + Duration.ofMinutes(1).toMillis());
+		if (killTimeOut < 0) return null; // overflow, the task has (almost) no timeout
+		return executor.schedule(() -> cancel(task, timeOut), killTimeOut, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Notifies that the specified task has finished, canceling its timeout.
+	 *
+	 * @param timeout the timeout returned when the task has been scheduled, may be null
+	 */
+	void finished(@Nullable ScheduledFuture<?> timeout) {
+		if (timeout != null) timeout.cancel(false);
+		finished.increment();
+	}
+
+	private void cancel(SparqlTask task, long timeOut) {
+		if (task.isDone()) return;
+		// we cancel the task
+		task.cancel(true);
+		timedOut.increment();
+
+		// if it has not died after some time, we kill it (not all repositories will react to cancel)
+		executor.schedule(() -> {
+			if (task.isAlive()) {
+				task.stop();
+				stopped.increment();
+			}
+		}, Math.max(timeOut, 1000), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the number of tasks that have finished running, including the ones that have been timed out.
+	 */
+	public long getFinishedCount() {
+		return finished.sum();
+	}
+
+	/**
+	 * Returns the number of tasks that have been canceled because they exceeded their timeout.
+	 */
+	public long getTimedOutCount() {
+		return timedOut.sum();
+	}
+
+	/**
+	 * Returns the number of tasks that had to be stopped, because they did not react to being canceled.
+	 */
+	public long getStoppedCount() {
+		return stopped.sum();
+	}
+
+	/**
+	 * Returns the number of timeouts currently waiting in the scheduler.
+	 */
+	public int getPendingCount() {
+		return executor.getQueue().size();
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.eclipse.rdf4j.model.Statement;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Records the net changes of statements to be committed to the repository of a {@link Rdf2GoCore}. If a statement is
+ * removed that is pending to be inserted (or vice versa), both changes cancel each other out immediately, so no
+ * filtering is required on commit, and the changes can be passed to the repository as they are.
+ * <p>
+ * This class is not thread-safe, the core guards it by its statement mutex.
+ *
+ * @created 17.10.2026
+ */
+final class StatementDelta {
+
+	private final Map<Statement, Boolean> changes = new HashMap<>();
+	private int insertCount = 0;
+	private int removeCount = 0;
+
+	/**
+	 * Records that the specified statement should be inserted into the repository.
+	 */
+	void insert(Statement statement) {
+		Boolean previous = changes.putIfAbsent(Objects.requireNonNull(statement), Boolean.TRUE);
+		if (previous == null) {
+			insertCount++;
+		}
+		else if (!previous) {
+			// removed and inserted again, nothing to be done
+			changes.remove(statement);
+			removeCount--;
+		}
+	}
+
+	/**
+	 * Records that the specified statement should be removed from the repository.
+	 */
+	void remove(Statement statement) {
+		Boolean previous = changes.putIfAbsent(Objects.requireNonNull(statement), Boolean.FALSE);
+		if (previous == null) {
+			removeCount++;
+		}
+		else if (previous) {
+			// inserted and removed again, nothing to be done
+			changes.remove(statement);
+			insertCount--;
+		}
+	}
+
+	boolean isEmpty() {
+		return changes.isEmpty();
+	}
+
+	/**
+	 * Returns the statements to be inserted. The returned collection is a view of this delta.
+	 */
+	Collection<Statement> getInserted() {
+		return new ChangeView(true);
+	}
+
+	/**
+	 * Returns the statements to be removed. The returned collection is a view of this delta.
+	 */
+	Collection<Statement> getRemoved() {
+		return new ChangeView(false);
+	}
+
+	private final class ChangeView extends AbstractCollection<Statement> {
+
+		private final boolean inserted;
+
+		private ChangeView(boolean inserted) {
+			this.inserted = inserted;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			//noinspection SuspiciousMethodCalls
+			return Boolean.valueOf(inserted).equals(changes.get(o));
+		}
+
+		@Override
+		public int size() {
+			return inserted ? insertCount : removeCount;
+		}
+
+		@NotNull
+		@Override
+		public Iterator<Statement> iterator() {
+			Iterator<Map.Entry<Statement, Boolean>> entries = changes.entrySet().iterator();
+			return new Iterator<>() {
+				private Statement next = advance();
+
+				private Statement advance() {
+					while (entries.hasNext()) {
+						Map.Entry<Statement, Boolean> entry = entries.next();
+						if (entry.getValue() == inserted) return entry.getKey();
+					}
+					return null;
+				}
+
+				@Override
+				public boolean hasNext() {
+					return next != null;
+				}
+
+				@Override
+				public Statement next() {
+					if (next == null) throw new NoSuchElementException();
+					Statement current = next;
+					next = advance();
+					return current;
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.eclipse.rdf4j.model.Statement;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stores the statements of a {@link Rdf2GoCore} together with the {@link StatementSource}s that have created them. A
+ * statement may be created by multiple sources, it remains in the repository as long as it is created by at least one
+ * source. Implementations do not need to be thread-safe, the core guards the store by its statement mutex.
+ *
+ * @created 17.10.2026
+ */
+interface StatementStore {
+
+	/**
+	 * Returns a new store, by default a {@link MultiMapStatementStore}. If the system property {@link
+	 * Rdf2GoCore#SEMANTICCORE_COMPACT_STATEMENT_STORE} is set to true, a {@link CompactStatementStore} is created
+	 * instead, trading some cpu time for a much smaller memory footprint.
+	 */
+	static StatementStore create() {
+		return Boolean.getBoolean(Rdf2GoCore.SEMANTICCORE_COMPACT_STATEMENT_STORE)
+				? new CompactStatementStore()
+				: new MultiMapStatementStore();
+	}
+
+	/**
+	 * Adds the specified statement for the specified source. If the statement is already stored for this source,
+	 * nothing happens.
+	 */
+	void add(@NotNull StatementSource source, @NotNull Statement statement);
+
+	/**
+	 * Returns true if the statement is stored for any source.
+	 */
+	boolean contains(Statement statement);
+
+	/**
+	 * Removes the specified statement for the specified source.
+	 *
+	 * @return true if the statement was stored for the source
+	 */
+	boolean remove(StatementSource source, Statement statement);
+
+	/**
+	 * Removes all statements of the specified source.
+	 *
+	 * @return the removed statements that are no longer stored for any other source
+	 */
+	@NotNull
+	Collection<Statement> removeAll(StatementSource source);
+
+	/**
+	 * Returns the statements stored for the specified source.
+	 */
+	@NotNull
+	Set<Statement> getStatements(StatementSource source);
+
+	/**
+	 * Returns the statements stored for any of the sources accepted by the specified filter.
+	 */
+	@NotNull
+	Set<Statement> getStatements(Predicate<StatementSource> sourceFilter);
+
+	/**
+	 * Returns all stored statements.
+	 */
+	@NotNull
+	Set<Statement> getStatements();
+
+	/**
+	 * Returns the sources the specified statement is stored for.
+	 */
+	@NotNull
+	Collection<StatementSource> getSources(Statement statement);
+
+	/**
+	 * Returns the number of stored pairs of source and statement.
+	 */
+	int size();
+
+	boolean isEmpty();
+
+	void clear();
+}
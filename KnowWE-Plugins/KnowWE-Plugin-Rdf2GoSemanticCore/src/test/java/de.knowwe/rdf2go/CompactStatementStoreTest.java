@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the {@link CompactStatementStore} behaves the same as the {@link MultiMapStatementStore}.
+ *
+ * @created 17.10.2026
+ */
+public class CompactStatementStoreTest {
+
+	private final ValueFactory factory = SimpleValueFactory.getInstance();
+
+	@Test
+	public void sharedStatements() {
+		StatementSource first = new StatementSource() {
+		};
+		StatementSource second = new StatementSource() {
+		};
+		Statement statement = statement(1, 2, 3);
+
+		CompactStatementStore store = new CompactStatementStore();
+		store.add(first, statement);
+		store.add(first, statement);
+		store.add(second, statement);
+		assertEquals(2, store.size());
+		assertEquals(2, store.getSources(statement).size());
+
+		assertTrue(store.removeAll(first).isEmpty());
+		assertTrue(store.contains(statement));
+		assertEquals(List.of(statement), new ArrayList<>(store.removeAll(second)));
+		assertFalse(store.contains(statement));
+		assertTrue(store.isEmpty());
+	}
+
+	@Test
+	public void randomOperations() {
+		List<StatementSource> sources = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			sources.add(new StatementSource() {
+			});
+		}
+		CompactStatementStore compact = new CompactStatementStore();
+		MultiMapStatementStore reference = new MultiMapStatementStore();
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			StatementSource source = sources.get(random.nextInt(sources.size()));
+			Statement statement = statement(random.nextInt(10), random.nextInt(5), random.nextInt(20));
+			switch (random.nextInt(5)) {
+				case 0, 1, 2 -> {
+					compact.add(source, statement);
+					reference.add(source, statement);
+				}
+				case 3 -> assertEquals(reference.remove(source, statement), compact.remove(source, statement));
+				default -> assertEquals(new HashSet<>(reference.removeAll(source)), new HashSet<>(compact.removeAll(source)));
+			}
+			assertEquals(reference.contains(statement), compact.contains(statement));
+			assertEquals(reference.size(), compact.size());
+		}
+		for (StatementSource source : sources) {
+			assertEquals(reference.getStatements(source), compact.getStatements(source));
+		}
+		Set<Statement> all = reference.getStatements();
+		assertEquals(all, compact.getStatements());
+		assertEquals(all, compact.getStatements(source -> true));
+	}
+
+	private Statement statement(int subject, int predicate, int object) {
+		return factory.createStatement(
+				factory.createIRI("http://example.org/s" + subject),
+				factory.createIRI("http://example.org/p" + predicate),
+				object % 2 == 0 ? factory.createIRI("http://example.org/o" + object) : factory.createLiteral(object));
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the estimation and the aging of access frequencies by the {@link FrequencySketch}.
+ *
+ * @created 17.10.2026
+ */
+public class FrequencySketchTest {
+
+	@Test
+	public void frequency() {
+		FrequencySketch sketch = new FrequencySketch(1024);
+		assertEquals(0, sketch.frequency("query"));
+		for (int i = 0; i < 5; i++) {
+			sketch.increment("query");
+		}
+		sketch.increment("other query");
+		assertEquals(5, sketch.frequency("query"));
+		assertEquals(1, sketch.frequency("other query"));
+		assertEquals(0, sketch.frequency("unknown query"));
+
+		// the counters saturate
+		for (int i = 0; i < 100; i++) {
+			sketch.increment("query");
+		}
+		assertEquals(15, sketch.frequency("query"));
+	}
+
+	@Test
+	public void aging() {
+		FrequencySketch sketch = new FrequencySketch(64);
+		for (int i = 0; i < 15; i++) {
+			sketch.increment("popular query");
+		}
+		assertEquals(15, sketch.frequency("popular query"));
+
+		// other accesses halve all counters after a while, so a key has to be accessed again to stay popular
+		int accesses = 0;
+		while (sketch.frequency("popular query") == 15 && accesses < 10000) {
+			sketch.increment("query " + accesses++);
+		}
+		assertTrue(sketch.frequency("popular query") <= 7);
+		assertTrue(accesses < 10000);
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import org.junit.Test;
+
+import de.knowwe.rdf2go.utils.SparqlType;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the weighing, the eviction and the frequency based admission of the {@link SparqlCache}.
+ *
+ * @created 17.10.2026
+ */
+public class SparqlCacheTest {
+
+	private static final String POPULAR = "SELECT ?x WHERE { ?x <http://example.org/popular> ?y }";
+	private static final String RARE = "SELECT ?x WHERE { ?x <http://example.org/rare> ?y }";
+	private static final String OTHER = "SELECT ?x WHERE { ?x <http://example.org/other> ?y }";
+
+	// the result size of the tasks, so that only one result fits into the cache
+	private static final long RESULT_SIZE = 10000;
+	private static final long MAX_CACHE_SIZE = 15000;
+
+	@Test
+	public void weight() {
+		SparqlCache cache = new SparqlCache(null, MAX_CACHE_SIZE);
+		SparqlTask task = createTask(POPULAR);
+		cache.put(POPULAR, task);
+		long emptyWeight = cache.getCacheSize();
+		assertTrue(emptyWeight > POPULAR.length());
+
+		// the weight is updated after the task is completed
+		task.setSize(RESULT_SIZE);
+		cache.handleCacheSize(task);
+		assertEquals(emptyWeight + RESULT_SIZE, cache.getCacheSize());
+
+		cache.put(RARE, createTask(RARE));
+		assertEquals(2, cache.size());
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getCacheSize());
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() {
+		SparqlCache cache = new SparqlCache(null, MAX_CACHE_SIZE);
+		addCompleted(cache, POPULAR);
+		// both queries have not been looked up before, so the older entry is replaced
+		addCompleted(cache, RARE);
+		assertNull(cache.get(POPULAR));
+		assertNotNull(cache.get(RARE));
+		assertEquals(1, cache.getEvictionCount());
+		assertTrue(cache.getCacheSize() <= MAX_CACHE_SIZE);
+	}
+
+	@Test
+	public void admission() {
+		SparqlCache cache = new SparqlCache(null, MAX_CACHE_SIZE);
+		addCompleted(cache, POPULAR);
+		for (int i = 0; i < 3; i++) {
+			assertNotNull(cache.get(POPULAR));
+		}
+
+		// a result of a query looked up less frequently does not replace the cached result
+		assertNull(cache.get(RARE));
+		SparqlTask rare = addCompleted(cache, RARE);
+		assertNotNull(cache.get(POPULAR));
+		assertNull(cache.get(RARE));
+		assertEquals(1, cache.getEvictionCount());
+		assertTrue(cache.getCacheSize() <= MAX_CACHE_SIZE);
+		// the rejected task is not part of the cache anymore, so completing it again does not change anything
+		cache.handleCacheSize(rare);
+		assertEquals(1, cache.size());
+
+		// after being looked up more frequently than the cached query, the result of the query is admitted
+		for (int i = 0; i < 5; i++) {
+			assertNull(cache.get(OTHER));
+		}
+		addCompleted(cache, OTHER);
+		assertNotNull(cache.get(OTHER));
+		assertNull(cache.get(POPULAR));
+		assertEquals(2, cache.getEvictionCount());
+	}
+
+	@Test
+	public void increasedMaxCacheSize() {
+		SparqlCache cache = new SparqlCache(null, MAX_CACHE_SIZE);
+		cache.setMaxCacheSize(3 * MAX_CACHE_SIZE);
+		addCompleted(cache, POPULAR);
+		addCompleted(cache, RARE);
+		addCompleted(cache, OTHER);
+		assertEquals(3, cache.size());
+		assertEquals(0, cache.getEvictionCount());
+	}
+
+	private static SparqlTask addCompleted(SparqlCache cache, String query) {
+		SparqlTask task = cache.getOrCreate(query, cached -> true, () -> createTask(query));
+		task.setSize(RESULT_SIZE);
+		cache.handleCacheSize(task);
+		return task;
+	}
+
+	private static SparqlTask createTask(String query) {
+		return new SparqlTask(new SparqlCallable(null, query, SparqlType.SELECT, 1000, true), 0);
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the detection of the IRIs a sparql query depends on.
+ *
+ * @created 17.10.2026
+ */
+public class SparqlDependenciesTest {
+
+	private static final String PREFIXES = "PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#>\n"
+			+ "PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n";
+
+	@Test
+	public void restrictedPatterns() {
+		SparqlDependencies dependencies = SparqlDependencies.of(PREFIXES
+				+ "SELECT ?x ?label WHERE { ?x rdf:type ?class . OPTIONAL { ?x rdfs:label ?label } }");
+		assertFalse(dependencies.isAny());
+		assertEquals(2, dependencies.getIRIs().size());
+		assertTrue(dependencies.getIRIs().contains(RDF.TYPE));
+		assertTrue(dependencies.getIRIs().contains(RDFS.LABEL));
+	}
+
+	@Test
+	public void unrestrictedPatterns() {
+		assertTrue(SparqlDependencies.of(PREFIXES
+				+ "SELECT ?x WHERE { ?x rdf:type ?class . ?class ?p ?o }").isAny());
+		assertTrue(SparqlDependencies.of(PREFIXES
+				+ "SELECT ?x ?y WHERE { ?x rdfs:subClassOf* ?y }").isAny());
+		assertTrue(SparqlDependencies.of(PREFIXES
+				+ "SELECT ?x ?y WHERE { ?x !rdfs:label ?y }").isAny());
+	}
+
+	@Test
+	public void invalidQuery() {
+		assertTrue(SparqlDependencies.of("SELECT ?x WHERE { ?x").isAny());
+		assertTrue(SparqlDependencies.of(null).isAny());
+	}
+}
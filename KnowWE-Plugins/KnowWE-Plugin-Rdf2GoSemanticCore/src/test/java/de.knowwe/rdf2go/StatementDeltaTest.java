@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2026 denkbares GmbH, Germany
+ *
+ * This is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This software is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this software; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA, or see the FSF
+ * site: http://www.fsf.org.
+ */
+
+package de.knowwe.rdf2go;
+
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that insertions and removals of the same statements cancel each other out.
+ *
+ * @created 17.10.2026
+ */
+public class StatementDeltaTest {
+
+	private final ValueFactory factory = SimpleValueFactory.getInstance();
+	private final Statement first = factory.createStatement(factory.createIRI("http://example.org/a"), RDF.TYPE, RDFS.CLASS);
+	private final Statement second = factory.createStatement(factory.createIRI("http://example.org/b"), RDF.TYPE, RDFS.CLASS);
+
+	@Test
+	public void cancelOut() {
+		StatementDelta delta = new StatementDelta();
+		delta.insert(first);
+		delta.remove(first);
+		assertTrue(delta.isEmpty());
+
+		delta.remove(second);
+		delta.remove(second);
+		delta.insert(second);
+		assertTrue(delta.isEmpty());
+		assertEquals(0, delta.getInserted().size());
+		assertEquals(0, delta.getRemoved().size());
+	}
+
+	@Test
+	public void netChanges() {
+		StatementDelta delta = new StatementDelta();
+		delta.insert(first);
+		delta.remove(first);
+		delta.insert(first);
+		delta.remove(second);
+
+		assertEquals(1, delta.getInserted().size());
+		assertTrue(delta.getInserted().contains(first));
+		assertFalse(delta.getInserted().contains(second));
+		assertEquals(first, delta.getInserted().iterator().next());
+
+		assertEquals(1, delta.getRemoved().size());
+		assertEquals(second, delta.getRemoved().iterator().next());
+	}
+}
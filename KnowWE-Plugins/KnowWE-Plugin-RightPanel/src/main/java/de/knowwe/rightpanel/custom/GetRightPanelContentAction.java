@@ -24,7 +24,7 @@ public class GetRightPanelContentAction extends de.knowwe.core.action.AbstractAc
 		if (article != null) {
 			RenderResult renderResult = new RenderResult(context);
 			DelegateRenderer.getInstance().render(article.getRootSection(), context, renderResult);
-			context.getWriter().write(renderResult.toString());
+			renderResult.writeTo(context.getWriter());
 		} else {
 			context.getWriter().write("<a href='Edit.jsp?page=RightPanel' class='createpage'>RightPanel</a>");
 		}
@@ -26,7 +26,6 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -41,6 +40,7 @@ import de.knowwe.core.compile.AbstractPackageCompiler;
 import de.knowwe.core.compile.CompileScript;
 import de.knowwe.core.compile.CompilerManager;
 import de.knowwe.core.compile.IncrementalCompiler;
+import de.knowwe.core.compile.LastModifiedCompiler;
 import de.knowwe.core.compile.OptInIncrementalCompileScript;
 import de.knowwe.core.compile.Priority;
 import de.knowwe.core.compile.ScriptCompiler;
@@ -66,9 +66,8 @@ import static de.knowwe.core.kdom.parsing.Sections.$;
  * @author Albrecht Striffler (denkbares GmbH)
  * @created 13.11.2013
  */
-public class D3webCompiler extends AbstractPackageCompiler implements TermCompiler, IncrementalCompiler {
+public class D3webCompiler extends AbstractPackageCompiler implements TermCompiler, IncrementalCompiler, LastModifiedCompiler {
 
-	private final ThreadPoolExecutor threadPool;
 	private TerminologyManager terminologyManager;
 	private KnowledgeBase knowledgeBase;
 	private final Section<? extends PackageCompileType> compileSection;
@@ -87,7 +86,6 @@ public class D3webCompiler extends AbstractPackageCompiler implements TermCompil
 		super(packageManager, compileSection, compilingType);
 		this.compileSection = compileSection;
 		this.caseSensitive = caseSensitive;
-		this.threadPool = CompilerManager.createExecutorService();
 		this.futures = new ArrayList<>();
 	}
 
@@ -158,6 +156,7 @@ public class D3webCompiler extends AbstractPackageCompiler implements TermCompil
 	/**
 	 * The date of the last build of this compile
 	 */
+	@Override
 	public Date getLastModified() {
 		return buildDate;
 	}
@@ -322,7 +321,7 @@ public class D3webCompiler extends AbstractPackageCompiler implements TermCompil
 	 * @param script  the script to execute in parallel
 	 */
 	public void runInParallel(Section<?> section, ParallelScript script) {
-		this.futures.add(threadPool.submit(() -> {
+		this.futures.add(CompilerManager.getScriptExecutor().submit(() -> {
 			try {
 				script.run();
 			}
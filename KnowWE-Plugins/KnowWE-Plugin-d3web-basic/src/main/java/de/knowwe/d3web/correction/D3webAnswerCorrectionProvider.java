@@ -18,19 +18,14 @@
  */
 package de.knowwe.d3web.correction;
 
-import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.apache.commons.lang3.StringUtils;
-
 import com.denkbares.strings.Identifier;
 import de.d3web.we.object.AnswerReference;
 import de.d3web.we.object.QuestionReference;
 import de.knowwe.core.compile.terminology.TermCompiler;
-import de.knowwe.core.compile.terminology.TerminologyManager;
 import de.knowwe.core.correction.CorrectionProvider;
-import de.knowwe.core.correction.DefaultSuggestion;
 import de.knowwe.core.correction.Suggestion;
 import de.knowwe.core.kdom.objects.Term;
 import de.knowwe.core.kdom.parsing.Section;
@@ -54,33 +49,19 @@ public class D3webAnswerCorrectionProvider implements CorrectionProvider {
 			return null;
 		}
 
-		TerminologyManager terminologyHandler = compiler.getTerminologyManager();
 		Term termReference = (Term) section.get();
 		Section<AnswerReference> refSec = ((Section<AnswerReference>) section);
 
-		Collection<Identifier> allDefinedLocalTermsOfType = terminologyHandler.getAllDefinedTermsOfType(
-				termReference.getTermObjectClass(compiler, refSec));
-
-		String originalText = section.getText();
-		List<Suggestion> suggestions = new LinkedList<>();
-
-		for (Identifier matchedIdentifier : allDefinedLocalTermsOfType) {
-
-			AnswerReference answerReference = (AnswerReference) termReference;
-			Section<QuestionReference> questionSection = answerReference.getQuestionSection((Section<? extends AnswerReference>) section);
-			Identifier question = questionSection.get().getTermIdentifier(compiler, questionSection);
-			// Special case: AnswerReference: Also check that the defining
-			// Question matches
-			if (!(refSec.get().getTermIdentifier(compiler, refSec).startsWith(question))) {
-				continue;
-			}
-
-			double score = StringUtils.getLevenshteinDistance(originalText, matchedIdentifier.getLastPathElement(), threshold);
-			if (score >= 0) {
-				suggestions.add(new DefaultSuggestion(matchedIdentifier.getLastPathElement(), (int) score));
-			}
+		AnswerReference answerReference = (AnswerReference) termReference;
+		Section<QuestionReference> questionSection = answerReference.getQuestionSection((Section<? extends AnswerReference>) section);
+		Identifier question = questionSection.get().getTermIdentifier(compiler, questionSection);
+		// Special case: AnswerReference: Also check that the defining
+		// Question matches
+		if (!(refSec.get().getTermIdentifier(compiler, refSec).startsWith(question))) {
+			return new LinkedList<>();
 		}
 
-		return suggestions;
+		return getSimilarTermSuggestions(compiler, section.getText(),
+				termReference.getTermObjectClass(compiler, refSec), threshold);
 	}
 }
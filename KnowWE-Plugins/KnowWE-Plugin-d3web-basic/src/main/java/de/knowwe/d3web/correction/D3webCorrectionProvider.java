@@ -22,8 +22,6 @@ import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.apache.commons.lang3.StringUtils;
-
 import com.denkbares.strings.Identifier;
 import de.knowwe.core.compile.terminology.TermCompiler;
 import de.knowwe.core.compile.terminology.TerminologyManager;
@@ -72,18 +70,8 @@ public class D3webCorrectionProvider implements CorrectionProvider {
 			return suggestions;
 		}
 
-		Collection<Identifier> localTermMatches = terminologyHandler.getAllDefinedTermsOfType(
-				termReference.getTermObjectClass(compiler, Sections.cast(section, Term.class)));
-
-		String originalText = section.getText();
-
-		for (Identifier match : localTermMatches) {
-			double score = StringUtils.getLevenshteinDistance(originalText, match.getLastPathElement(), threshold);
-			if (score >= 0) {
-				suggestions.add(new DefaultSuggestion(match.getLastPathElement(), (int) score));
-			}
-		}
-
+		Class<?> termClass = termReference.getTermObjectClass(compiler, Sections.cast(section, Term.class));
+		suggestions.addAll(getSimilarTermSuggestions(compiler, section.getText(), termClass, threshold));
 		return suggestions;
 	}
 }